@@ -14,11 +14,13 @@
  */
 package org.apache.oozie.cli;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -43,8 +45,10 @@ import org.apache.commons.cli.OptionGroup;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.oozie.BuildInfo;
+import org.apache.oozie.client.BulkResult;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.JobsPage;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.OozieClientException;
 import org.apache.oozie.client.WorkflowAction;
@@ -96,6 +100,7 @@ public class OozieCLI {
 
     public static final String LEN_OPTION = "len";
     public static final String FILTER_OPTION = "filter";
+    public static final String CURSOR_OPTION = "cursor";
     public static final String JOBTYPE_OPTION = "jobtype";
     public static final String SYSTEM_MODE_OPTION = "systemmode";
     public static final String VERSION_OPTION = "version";
@@ -242,6 +247,22 @@ public class OozieCLI {
         Option filter = new Option(FILTER_OPTION, true, "user=<U>;name=<N>;group=<G>;status=<S>;...");
         Option localtime = new Option(LOCAL_TIME_OPTION, false, "use local time (default GMT)");
         Option verbose = new Option(VERBOSE_OPTION, false, "verbose mode");
+        Option cursor = new Option(CURSOR_OPTION, true,
+                "page through the jobs with the cursor printed with the previous page (no value for the first page)");
+        cursor.setOptionalArg(true);
+        Option info = new Option(INFO_OPTION, true,
+                "info of the given jobs, comma separated job IDs or '-' to read them from the standard input");
+        Option kill = new Option(KILL_OPTION, true,
+                "kill the given jobs, comma separated job IDs or '-' to read them from the standard input");
+        Option suspend = new Option(SUSPEND_OPTION, true,
+                "suspend the given jobs, comma separated job IDs or '-' to read them from the standard input");
+        Option resume = new Option(RESUME_OPTION, true,
+                "resume the given jobs, comma separated job IDs or '-' to read them from the standard input");
+        OptionGroup operations = new OptionGroup();
+        operations.addOption(info);
+        operations.addOption(kill);
+        operations.addOption(suspend);
+        operations.addOption(resume);
         start.setType(Integer.class);
         len.setType(Integer.class);
         Options jobsOptions = new Options();
@@ -253,6 +274,8 @@ public class OozieCLI {
         jobsOptions.addOption(filter);
         jobsOptions.addOption(jobtype);
         jobsOptions.addOption(verbose);
+        jobsOptions.addOption(cursor);
+        jobsOptions.addOptionGroup(operations);
         return jobsOptions;
     }
 
@@ -820,7 +843,47 @@ public class OozieCLI {
         jobtype = (jobtype != null) ? jobtype : "wf";
         int len = Integer.parseInt((s != null) ? s : "0");
         try {
-            if (jobtype.contains("wf")) {
+            if (commandLine.hasOption(INFO_OPTION)) {
+                List<String> jobIds = getJobIds(commandLine.getOptionValue(INFO_OPTION));
+                if (jobtype.contains("wf")) {
+                    List<BulkResult<WorkflowJob>> results = wc.getJobsInfo(jobIds);
+                    printJobs(getBulkJobs(results), commandLine.hasOption(LOCAL_TIME_OPTION), commandLine
+                            .hasOption(VERBOSE_OPTION));
+                    printBulkErrors(results);
+                }
+                else {
+                    List<BulkResult<CoordinatorJob>> results = wc.getCoordJobsInfo(jobIds);
+                    printCoordJobs(getBulkJobs(results), commandLine.hasOption(LOCAL_TIME_OPTION), commandLine
+                            .hasOption(VERBOSE_OPTION));
+                    printBulkErrors(results);
+                }
+            }
+            else if (commandLine.hasOption(KILL_OPTION)) {
+                printBulkErrors(wc.killJobs(getJobIds(commandLine.getOptionValue(KILL_OPTION))));
+            }
+            else if (commandLine.hasOption(SUSPEND_OPTION)) {
+                printBulkErrors(wc.suspendJobs(getJobIds(commandLine.getOptionValue(SUSPEND_OPTION))));
+            }
+            else if (commandLine.hasOption(RESUME_OPTION)) {
+                printBulkErrors(wc.resumeJobs(getJobIds(commandLine.getOptionValue(RESUME_OPTION))));
+            }
+            else if (commandLine.hasOption(CURSOR_OPTION)) {
+                String cursor = commandLine.getOptionValue(CURSOR_OPTION);
+                len = (len > 0) ? len : 100;
+                if (jobtype.contains("wf")) {
+                    JobsPage<WorkflowJob> page = wc.getJobsPage(filter, cursor, len);
+                    printJobs(page.getJobs(), commandLine.hasOption(LOCAL_TIME_OPTION), commandLine
+                            .hasOption(VERBOSE_OPTION));
+                    printNextCursor(page.getCursor());
+                }
+                else {
+                    JobsPage<CoordinatorJob> page = wc.getCoordJobsPage(filter, cursor, len, false);
+                    printCoordJobs(page.getJobs(), commandLine.hasOption(LOCAL_TIME_OPTION), commandLine
+                            .hasOption(VERBOSE_OPTION));
+                    printNextCursor(page.getCursor());
+                }
+            }
+            else if (jobtype.contains("wf")) {
                 printJobs(wc.getJobsInfo(filter, start, len), commandLine.hasOption(LOCAL_TIME_OPTION), commandLine
                         .hasOption(VERBOSE_OPTION));
             }
@@ -835,6 +898,66 @@ public class OozieCLI {
         }
     }
 
+    private void printNextCursor(String cursor) {
+        if (cursor != null) {
+            System.out.println("Next page: -" + CURSOR_OPTION + " " + cursor);
+        }
+    }
+
+    /**
+     * Return the job IDs of a comma separated list, or read from the standard input (one per line) if the list is
+     * '-'.
+     */
+    private List<String> getJobIds(String value) throws IOException {
+        List<String> jobIds = new ArrayList<String>();
+        if (value.equals("-")) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().length() > 0) {
+                    jobIds.add(line.trim());
+                }
+            }
+        }
+        else {
+            for (String jobId : value.split(",")) {
+                if (jobId.trim().length() > 0) {
+                    jobIds.add(jobId.trim());
+                }
+            }
+        }
+        return jobIds;
+    }
+
+    private <T> List<T> getBulkJobs(List<BulkResult<T>> results) {
+        List<T> jobs = new ArrayList<T>();
+        for (BulkResult<T> result : results) {
+            if (result.isSuccess()) {
+                jobs.add(result.getJob());
+            }
+        }
+        return jobs;
+    }
+
+    private void printBulkErrors(List<? extends BulkResult<?>> results) throws OozieCLIException {
+        int failed = 0;
+        for (BulkResult<?> result : results) {
+            if (!result.isSuccess()) {
+                if (failed == 0) {
+                    System.out.println("Job ID" + VERBOSE_DELIMITER + "Error Code" + VERBOSE_DELIMITER
+                            + "Error Message");
+                    System.out.println(RULER);
+                }
+                System.out.println(result.getId() + VERBOSE_DELIMITER + maskIfNull(result.getErrorCode())
+                        + VERBOSE_DELIMITER + maskIfNull(result.getErrorMessage()));
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new OozieCLIException(failed + " of " + results.size() + " jobs failed");
+        }
+    }
+
     private void printCoordJobs(List<CoordinatorJob> jobs, boolean localtime, boolean verbose) throws IOException {
         if (jobs != null && jobs.size() > 0) {
             if (verbose) {
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.client;
+
+/**
+ * The result of a bulk jobs operation for a single job.
+ */
+public class BulkResult<T> {
+    private String id;
+    private T job;
+    private String errorCode;
+    private String errorMessage;
+
+    /**
+     * Create a bulk operation result.
+     *
+     * @param id ID of the job.
+     * @param job job info, <code>null</code> if the operation does not return it or if the operation failed.
+     * @param errorCode error code if the operation failed, <code>null</code> otherwise.
+     * @param errorMessage error message if the operation failed, <code>null</code> otherwise.
+     */
+    public BulkResult(String id, T job, String errorCode, String errorMessage) {
+        this.id = id;
+        this.job = job;
+        this.errorCode = errorCode;
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Return the ID of the job.
+     *
+     * @return the ID of the job.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Return the job info.
+     *
+     * @return the job info, <code>null</code> if the operation does not return it or if the operation failed.
+     */
+    public T getJob() {
+        return job;
+    }
+
+    /**
+     * Return if the operation on the job succeeded.
+     *
+     * @return <code>true</code> if the operation on the job succeeded.
+     */
+    public boolean isSuccess() {
+        return errorCode == null;
+    }
+
+    /**
+     * Return the error code of the operation on the job.
+     *
+     * @return the error code, <code>null</code> if the operation succeeded.
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Return the error message of the operation on the job.
+     *
+     * @return the error message, <code>null</code> if the operation succeeded.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.client;
+
+import java.util.List;
+
+/**
+ * A page of a cursor based jobs listing.
+ */
+public class JobsPage<T> {
+    private List<T> jobs;
+    private String cursor;
+    private int total;
+
+    /**
+     * Create a jobs page.
+     *
+     * @param jobs jobs of the page.
+     * @param cursor cursor of the next page, <code>null</code> if this is the last page.
+     * @param total total number of jobs matching the filter, <code>-1</code> if it has not been computed.
+     */
+    public JobsPage(List<T> jobs, String cursor, int total) {
+        this.jobs = jobs;
+        this.cursor = cursor;
+        this.total = total;
+    }
+
+    /**
+     * Return the jobs of the page.
+     *
+     * @return the jobs of the page.
+     */
+    public List<T> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Return the cursor of the next page.
+     *
+     * @return the cursor of the next page, <code>null</code> if this is the last page.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Return the total number of jobs matching the filter.
+     *
+     * @return the total number of jobs matching the filter, <code>-1</code> if it has not been computed.
+     */
+    public int getTotal() {
+        return total;
+    }
+
+}
@@ -18,7 +18,9 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
@@ -119,6 +121,12 @@ public class OozieClient {
 
     public static final String USE_SYSTEM_LIBPATH = "oozie.use.system.libpath";
 
+    /**
+     * Max number of jobs sent in a single bulk jobs operation request, larger lists of jobs are sent in several
+     * requests.
+     */
+    public static final int BULK_MAX_JOBS = 500;
+
     public static enum SYSTEM_MODE {
         NORMAL, NOWEBSERVICE, SAFEMODE
     };
@@ -872,6 +880,72 @@ public class OozieClient {
         }
     }
 
+    private class JobsPageStatus extends ClientCallable<JobsPage<WorkflowJob>> {
+
+        JobsPageStatus(String filter, String cursor, int len, boolean count) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
+                    RestConstants.JOBTYPE_PARAM, "wf", RestConstants.JOBS_CURSOR_PARAM, (cursor != null) ? cursor : "",
+                    RestConstants.LEN_PARAM, Integer.toString(len), RestConstants.JOBS_COUNT_PARAM,
+                    Boolean.toString(count)));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected JobsPage<WorkflowJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = new InputStreamReader(conn.getInputStream());
+                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                JSONArray workflows = (JSONArray) json.get(JsonTags.WORKFLOWS_JOBS);
+                if (workflows == null) {
+                    workflows = new JSONArray();
+                }
+                List<WorkflowJob> jobs = JsonWorkflowJob.fromJSONArray(workflows);
+                return new JobsPage<WorkflowJob>(jobs, (String) json.get(JsonTags.WORKFLOWS_CURSOR),
+                                                 getTotal(json.get(JsonTags.WORKFLOWS_TOTAL)));
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
+    private class CoordJobsPageStatus extends ClientCallable<JobsPage<CoordinatorJob>> {
+
+        CoordJobsPageStatus(String filter, String cursor, int len, boolean count) {
+            super("GET", RestConstants.JOBS, "", prepareParams(RestConstants.JOBS_FILTER_PARAM, filter,
+                    RestConstants.JOBTYPE_PARAM, "coord", RestConstants.JOBS_CURSOR_PARAM,
+                    (cursor != null) ? cursor : "", RestConstants.LEN_PARAM, Integer.toString(len),
+                    RestConstants.JOBS_COUNT_PARAM, Boolean.toString(count)));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected JobsPage<CoordinatorJob> call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.XML_CONTENT_TYPE);
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = new InputStreamReader(conn.getInputStream());
+                JSONObject json = (JSONObject) JSONValue.parse(reader);
+                JSONArray array = (JSONArray) json.get(JsonTags.COORDINATOR_JOBS);
+                if (array == null) {
+                    array = new JSONArray();
+                }
+                List<CoordinatorJob> jobs = JsonCoordinatorJob.fromJSONArray(array);
+                return new JobsPage<CoordinatorJob>(jobs, (String) json.get(JsonTags.COORD_JOB_CURSOR),
+                                                    getTotal(json.get(JsonTags.COORD_JOB_TOTAL)));
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+    }
+
+    private static int getTotal(Object total) {
+        return (total != null) ? ((Number) total).intValue() : -1;
+    }
+
     private class CoordRerun extends ClientCallable<List<JsonCoordinatorAction>> {
 
         CoordRerun(String jobId, String rerunType, String scope, boolean refresh, boolean noCleanup) {
@@ -926,6 +1000,37 @@ public class OozieClient {
         return new JobsStatus(filter, start, len).call();
     }
 
+    /**
+     * Return a page of the workflow jobs that match the filter, most recently created jobs first.
+     * <p/>
+     * Unlike offset based listings, the cost of fetching a page does not depend on how deep the page is. The total
+     * number of matching jobs is not computed.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @return the page of workflow jobs, without node details.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<WorkflowJob> getJobsPage(String filter, String cursor, int len) throws OozieClientException {
+        return getJobsPage(filter, cursor, len, false);
+    }
+
+    /**
+     * Return a page of the workflow jobs that match the filter, most recently created jobs first.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count indicates if the total number of matching jobs should be computed.
+     * @return the page of workflow jobs, without node details.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<WorkflowJob> getJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        return new JobsPageStatus(filter, cursor, len, count).call();
+    }
+
     /**
      * Return the info of the workflow jobs that match the filter.
      * <p/>
@@ -939,6 +1044,171 @@ public class OozieClient {
         return getJobsInfo(filter, 1, 50);
     }
 
+    private class BulkJobs<T> extends ClientCallable<List<BulkResult<T>>> {
+        private List<String> jobIds;
+
+        BulkJobs(String action, List<String> jobIds) {
+            super("PUT", RestConstants.JOBS, "", prepareParams(RestConstants.ACTION_PARAM, action));
+            this.jobIds = jobIds;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected List<BulkResult<T>> call(HttpURLConnection conn) throws IOException, OozieClientException {
+            conn.setRequestProperty("content-type", RestConstants.JSON_CONTENT_TYPE);
+            Writer writer = new OutputStreamWriter(conn.getOutputStream(), "UTF-8");
+            JSONArray.writeJSONString(jobIds, writer);
+            writer.close();
+            if ((conn.getResponseCode() == HttpURLConnection.HTTP_OK)) {
+                Reader reader = new InputStreamReader(conn.getInputStream(), "UTF-8");
+                try {
+                    JSONArray array = (JSONArray) JSONValue.parse(reader);
+                    // the response is fully read so the connection can be reused by the next request
+                    while (reader.read() != -1) {
+                    }
+                    List<BulkResult<T>> results = new ArrayList<BulkResult<T>>();
+                    for (Object obj : array) {
+                        JSONObject json = (JSONObject) obj;
+                        JSONObject job = (JSONObject) json.get(JsonTags.BULK_JOB);
+                        JSONObject error = (JSONObject) json.get(JsonTags.ERROR);
+                        if (error == null) {
+                            error = new JSONObject();
+                        }
+                        results.add(new BulkResult<T>((String) json.get(JsonTags.BULK_JOB_ID),
+                                                      (job != null) ? parseJob(job) : null,
+                                                      (String) error.get(JsonTags.ERROR_CODE),
+                                                      (String) error.get(JsonTags.ERROR_MESSAGE)));
+                    }
+                    return results;
+                }
+                finally {
+                    reader.close();
+                }
+            }
+            else {
+                handleError(conn);
+            }
+            return null;
+        }
+
+        protected T parseJob(JSONObject json) {
+            return null;
+        }
+    }
+
+    private class BulkJobsInfo extends BulkJobs<WorkflowJob> {
+
+        BulkJobsInfo(List<String> jobIds) {
+            super(RestConstants.JOB_SHOW_INFO, jobIds);
+        }
+
+        @Override
+        protected WorkflowJob parseJob(JSONObject json) {
+            return new JsonWorkflowJob(json);
+        }
+    }
+
+    private class BulkCoordJobsInfo extends BulkJobs<CoordinatorJob> {
+
+        BulkCoordJobsInfo(List<String> jobIds) {
+            super(RestConstants.JOB_SHOW_INFO, jobIds);
+        }
+
+        @Override
+        protected CoordinatorJob parseJob(JSONObject json) {
+            return new JsonCoordinatorJob(json);
+        }
+    }
+
+    /**
+     * Split a list of job IDs in chunks of at most {@link #BULK_MAX_JOBS} IDs, one per bulk request.
+     */
+    private static List<List<String>> bulkChunks(List<String> jobIds) {
+        notNull(jobIds, "jobIds");
+        List<List<String>> chunks = new ArrayList<List<String>>();
+        for (int i = 0; i < jobIds.size(); i += BULK_MAX_JOBS) {
+            chunks.add(jobIds.subList(i, Math.min(i + BULK_MAX_JOBS, jobIds.size())));
+        }
+        return chunks;
+    }
+
+    private List<BulkResult<Void>> bulkAction(String action, List<String> jobIds) throws OozieClientException {
+        List<BulkResult<Void>> results = new ArrayList<BulkResult<Void>>();
+        for (List<String> chunk : bulkChunks(jobIds)) {
+            results.addAll(new BulkJobs<Void>(action, chunk).call());
+        }
+        return results;
+    }
+
+    /**
+     * Return the info of a list of workflow jobs.
+     * <p/>
+     * The info of all the jobs is retrieved with a single request for every {@link #BULK_MAX_JOBS} jobs, the requests
+     * reuse the same HTTP connection.
+     *
+     * @param jobIds IDs of the workflow jobs.
+     * @return the result for each job, in the same order as the IDs, with the workflow job info.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public List<BulkResult<WorkflowJob>> getJobsInfo(List<String> jobIds) throws OozieClientException {
+        List<BulkResult<WorkflowJob>> results = new ArrayList<BulkResult<WorkflowJob>>();
+        for (List<String> chunk : bulkChunks(jobIds)) {
+            results.addAll(new BulkJobsInfo(chunk).call());
+        }
+        return results;
+    }
+
+    /**
+     * Return the info of a list of coordinator jobs.
+     *
+     * @param jobIds IDs of the coordinator jobs.
+     * @return the result for each job, in the same order as the IDs, with the coordinator job info.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public List<BulkResult<CoordinatorJob>> getCoordJobsInfo(List<String> jobIds) throws OozieClientException {
+        List<BulkResult<CoordinatorJob>> results = new ArrayList<BulkResult<CoordinatorJob>>();
+        for (List<String> chunk : bulkChunks(jobIds)) {
+            results.addAll(new BulkCoordJobsInfo(chunk).call());
+        }
+        return results;
+    }
+
+    /**
+     * Kill a list of workflow and coordinator jobs.
+     * <p/>
+     * The failure to kill a job does not stop the remaining jobs from being killed, it is reported in the result of
+     * the job.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     * @throws OozieClientException thrown if the kill requests could not be sent.
+     */
+    public List<BulkResult<Void>> killJobs(List<String> jobIds) throws OozieClientException {
+        return bulkAction(RestConstants.JOB_ACTION_KILL, jobIds);
+    }
+
+    /**
+     * Suspend a list of workflow and coordinator jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     * @throws OozieClientException thrown if the suspend requests could not be sent.
+     */
+    public List<BulkResult<Void>> suspendJobs(List<String> jobIds) throws OozieClientException {
+        return bulkAction(RestConstants.JOB_ACTION_SUSPEND, jobIds);
+    }
+
+    /**
+     * Resume a list of workflow and coordinator jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     * @throws OozieClientException thrown if the resume requests could not be sent.
+     */
+    public List<BulkResult<Void>> resumeJobs(List<String> jobIds) throws OozieClientException {
+        return bulkAction(RestConstants.JOB_ACTION_RESUME, jobIds);
+    }
+
     /**
      * Print sla info about coordinator and workflow jobs and actions.
      *
@@ -1124,6 +1394,21 @@ public class OozieClient {
         return new CoordJobsStatus(filter, start, len).call();
     }
 
+    /**
+     * Return a page of the coordinator jobs that match the filter, most recently created jobs first.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count indicates if the total number of matching jobs should be computed.
+     * @return the page of coordinator jobs.
+     * @throws OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    public JobsPage<CoordinatorJob> getCoordJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        return new CoordJobsPageStatus(filter, cursor, len, count).call();
+    }
+
     private class GetQueueDump extends ClientCallable<List<String>> {
         GetQueueDump() {
             super("GET", RestConstants.ADMIN, RestConstants.ADMIN_QUEUE_DUMP_RESOURCE, prepareParams());
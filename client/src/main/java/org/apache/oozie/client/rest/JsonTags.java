@@ -47,6 +47,7 @@ public interface JsonTags {
     public static final String WORKFLOWS_TOTAL = "total";
     public static final String WORKFLOWS_OFFSET = "offset";
     public static final String WORKFLOWS_LEN = "len";
+    public static final String WORKFLOWS_CURSOR = "cursor";
 
     public static final String WORKFLOW_ACTION_ID = "id";
     public static final String WORKFLOW_ACTION_NAME = "name";
@@ -110,6 +111,9 @@ public interface JsonTags {
     public static final String COORDINATOR_ACTION_DATA = "data";
     public static final String COORDINATOR_JOB_DATA = "data";
 
+    public static final String BULK_JOB_ID = "id";
+    public static final String BULK_JOB = "job";
+
     public static final String ERROR = "error";
     public static final String ERROR_CODE = "code";
     public static final String ERROR_MESSAGE = "message";
@@ -132,6 +136,10 @@ public interface JsonTags {
     public static final String INSTR_TIMER_OWN_MAX_TIME = "ownMaxTime";
     public static final String INSTR_TIMER_TOTAL_MIN_TIME = "totalMinTime";
     public static final String INSTR_TIMER_TOTAL_MAX_TIME = "totalMaxTime";
+    public static final String INSTR_TIMER_TOTAL_TIME_P50 = "totalTimeP50";
+    public static final String INSTR_TIMER_TOTAL_TIME_P95 = "totalTimeP95";
+    public static final String INSTR_TIMER_TOTAL_TIME_P99 = "totalTimeP99";
+    public static final String INSTR_TIMER_TOTAL_TIME_P999 = "totalTimeP999";
 
     public static final String INSTR_VARIABLE_VALUE = "value";
 
@@ -140,5 +148,6 @@ public interface JsonTags {
     public static final Object COORD_JOB_TOTAL = "total";
     public static final Object COORD_JOB_OFFSET = "offset";
     public static final Object COORD_JOB_LEN = "len";
+    public static final Object COORD_JOB_CURSOR = "cursor";
 
 }
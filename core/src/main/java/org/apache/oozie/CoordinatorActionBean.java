@@ -50,12 +50,18 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
     @NamedQuery(name = "UPDATE_COORD_ACTION_MIN", query = "update CoordinatorActionBean w set w.actionXml = :actionXml, w.missingDependencies = :missingDependencies, w.lastModifiedTimestamp = :lastModifiedTime, w.status = :status where w.id = :id"),
 
+    @NamedQuery(name = "UPDATE_COORD_ACTION_READY_TO_SUBMITTED", query = "update CoordinatorActionBean w set w.status = 'SUBMITTED', w.lastModifiedTimestamp = :lastModifiedTime where w.id = :id AND w.status = 'READY'"),
+
     @NamedQuery(name = "DELETE_COMPLETED_COORD_ACTIONS", query = "delete from CoordinatorActionBean a where a.id = :id and (a.status = 'SUCCEEDED' OR a.status = 'FAILED' OR a.status = 'KILLED')"),
 
     @NamedQuery(name = "GET_COORD_ACTIONS", query = "select OBJECT(w) from CoordinatorActionBean w"),
 
     @NamedQuery(name = "GET_COMPLETED_ACTIONS_OLDER_THAN", query = "select OBJECT(a) from CoordinatorActionBean a where a.createdTimestamp < :createdTime and (a.status = 'SUCCEEDED' OR a.status = 'FAILED' OR a.status = 'KILLED')"),
 
+    @NamedQuery(name = "GET_COMPLETED_ACTION_IDS_OLDER_THAN", query = "select a.id from CoordinatorActionBean a where a.createdTimestamp < :createdTime and (a.status = 'SUCCEEDED' OR a.status = 'FAILED' OR a.status = 'KILLED') order by a.createdTimestamp"),
+
+    @NamedQuery(name = "GET_COMPLETED_ACTIONS_OLDEST_CREATED_TIME", query = "select MIN(a.createdTimestamp) from CoordinatorActionBean a where a.createdTimestamp < :createdTime and (a.status = 'SUCCEEDED' OR a.status = 'FAILED' OR a.status = 'KILLED')"),
+
     @NamedQuery(name = "GET_COORD_ACTION", query = "select OBJECT(a) from CoordinatorActionBean a where a.id = :id"),
 
     @NamedQuery(name = "GET_COORD_ACTION_FOR_EXTERNALID", query = "select OBJECT(a) from CoordinatorActionBean a where a.externalId = :externalId"),
@@ -64,6 +70,8 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
     @NamedQuery(name = "GET_COORD_ACTIONS_FOR_JOB_LIFO", query = "select OBJECT(a) from CoordinatorActionBean a where a.jobId = :jobId AND a.status = 'READY' order by a.nominalTimestamp desc"),
 
+    @NamedQuery(name = "GET_COORD_ACTIONS_ADMISSION_STATE", query = "select a.id, a.status, a.nominalTimestamp from CoordinatorActionBean a where a.jobId = :jobId AND (a.status = 'READY' OR a.status = 'SUBMITTED' OR a.status = 'RUNNING')"),
+
     @NamedQuery(name = "GET_COORD_RUNNING_ACTIONS_COUNT", query = "select count(a) from CoordinatorActionBean a where a.jobId = :jobId AND (a.status = 'RUNNING' OR a.status='SUBMITTED')"),
 
     @NamedQuery(name = "GET_COORD_ACTIONS_COUNT_BY_JOBID", query = "select count(a) from CoordinatorActionBean a where a.jobId = :jobId"),
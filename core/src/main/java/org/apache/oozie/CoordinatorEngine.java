@@ -42,6 +42,7 @@ import org.apache.oozie.command.coord.CoordSuspendCommand;
 import org.apache.oozie.service.DagXLogInfoService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogService;
+import org.apache.oozie.store.JobsCursor;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XLogStreamer;
@@ -338,6 +339,36 @@ public class CoordinatorEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return a page of a cursor based listing of coordinator jobs, ordered by creation time, newest first.
+     *
+     * @param filterStr job filter. Refer to the {@link org.apache.oozie.client.OozieClient} for the filter syntax.
+     * @param cursor cursor of the page, as returned with the previous page, <code>null</code> or empty for the first
+     * page.
+     * @param len number of jobs to return.
+     * @param withTotal if the total number of jobs matching the filter must be computed, totals may be cached for a
+     * short time.
+     * @return CoordinatorJobInfo
+     * @throws CoordinatorEngineException
+     */
+    public CoordinatorJobInfo getCoordJobs(String filterStr, String cursor, int len, boolean withTotal)
+            throws CoordinatorEngineException {
+        Map<String, List<String>> filter = parseFilter(filterStr);
+        JobsCursor jobsCursor;
+        try {
+            jobsCursor = JobsCursor.parse(cursor);
+        }
+        catch (IllegalArgumentException ex) {
+            throw new CoordinatorEngineException(ErrorCode.E0421, cursor);
+        }
+        try {
+            return new CoordJobsCommand(filter, jobsCursor, len, withTotal).call();
+        }
+        catch (CommandException ex) {
+            throw new CoordinatorEngineException(ex);
+        }
+    }
+
     /**
      * @param filter
      * @return Map<String, List<String>>
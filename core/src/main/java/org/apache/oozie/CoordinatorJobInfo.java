@@ -20,6 +20,7 @@ public class CoordinatorJobInfo {
     private int start;
     private int len;
     private int total;
+    private String cursor;
     private List<CoordinatorJobBean> jobs;
 
     /**
@@ -37,6 +38,19 @@ public class CoordinatorJobInfo {
         this.jobs = jobs;
     }
 
+    /**
+     * Create a coordinator info bean for a cursor based listing.
+     *
+     * @param jobs coordinator jobs being returned.
+     * @param len number of coordinator jobs.
+     * @param total total coordinator jobs, <code>-1</code> if not computed.
+     * @param cursor cursor of the next page, <code>null</code> if this is the last page.
+     */
+    public CoordinatorJobInfo(List<CoordinatorJobBean> jobs, int len, int total, String cursor) {
+        this(jobs, 0, len, total);
+        this.cursor = cursor;
+    }
+
     /**
      * Return the coordiantor jobs being returned.
      *
@@ -73,4 +87,12 @@ public class CoordinatorJobInfo {
         return total;
     }
 
+    /**
+     * Return the cursor of the next page of a cursor based listing. <p/> For pagination purposes.
+     *
+     * @return the cursor of the next page, <code>null</code> if this is the last page or not a cursor based listing.
+     */
+    public String getCursor() {
+        return cursor;
+    }
 }
@@ -41,6 +41,8 @@ import org.apache.oozie.command.wf.WorkflowActionInfoCommand;
 import org.apache.oozie.command.wf.WorkflowActionInfoXCommand;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.CallableQueueService;
+import org.apache.oozie.service.CallbackBufferService;
+import org.apache.oozie.store.JobsCursor;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
@@ -285,16 +287,31 @@ public class DagEngine extends BaseEngine {
 
     /**
      * Process an action callback.
+     * <p/>
+     * If the {@link CallbackBufferService} is available the callback is buffered, otherwise it is queued directly.
      *
      * @param actionId the action Id.
      * @param externalStatus the action external status.
      * @param actionData the action output data, <code>null</code> if none.
-     * @throws DagEngineException thrown if the callback could not be processed.
+     * @throws DagEngineException thrown if the callback could not be processed, with {@link ErrorCode#E0404} if the
+     * callback buffer is full.
      */
     public void processCallback(String actionId, String externalStatus, Properties actionData)
             throws DagEngineException {
         XLog.Info.get().clearParameter(XLogService.GROUP);
         XLog.Info.get().clearParameter(XLogService.USER);
+        CallbackBufferService callbackBuffer = Services.get().get(CallbackBufferService.class);
+        if (callbackBuffer != null) {
+            try {
+                if (!callbackBuffer.add(actionId, externalStatus, actionData)) {
+                    throw new DagEngineException(ErrorCode.E0404, actionId);
+                }
+            }
+            catch (IOException ex) {
+                throw new DagEngineException(ErrorCode.E0405, actionId, ex.getMessage(), ex);
+            }
+            return;
+        }
         Command<Void, ?> command = new CompletedActionCommand(actionId, externalStatus, actionData, HIGH_PRIORITY);
         if (!Services.get().get(CallableQueueService.class).queue(command)) {
             XLog.getLog(this.getClass()).warn(XLog.OPS, "queue is full or system is in SAFEMODE, ignoring callback");
@@ -445,6 +462,36 @@ public class DagEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return a page of a cursor based listing of jobs, ordered by creation time, newest first.
+     *
+     * @param filterStr job filter. Refer to the {@link org.apache.oozie.client.OozieClient} for the filter syntax.
+     * @param cursor cursor of the page, as returned with the previous page, <code>null</code> or empty for the first
+     * page.
+     * @param len number of jobs to return.
+     * @param withTotal if the total number of jobs matching the filter must be computed, totals may be cached for a
+     * short time.
+     * @return job info for the jobs of the page and the cursor of the next page.
+     * @throws DagEngineException thrown if the jobs info could not be obtained.
+     */
+    public WorkflowsInfo getJobs(String filterStr, String cursor, int len, boolean withTotal)
+            throws DagEngineException {
+        Map<String, List<String>> filter = parseFilter(filterStr);
+        JobsCursor jobsCursor;
+        try {
+            jobsCursor = JobsCursor.parse(cursor);
+        }
+        catch (IllegalArgumentException ex) {
+            throw new DagEngineException(ErrorCode.E0421, cursor);
+        }
+        try {
+            return new JobsCommand(filter, jobsCursor, len, withTotal).call();
+        }
+        catch (CommandException dce) {
+            throw new DagEngineException(dce);
+        }
+    }
+
     /**
      * Return the workflow Job ID for an external ID. <p/> This is reverse lookup for recovery purposes.
      *
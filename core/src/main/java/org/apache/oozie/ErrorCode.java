@@ -65,8 +65,12 @@ public enum ErrorCode {
     E0401(XLog.STD, "Missing configuration property [{0}]"),
     E0402(XLog.STD, "Invalid callback ID [{0}]"),
     E0403(XLog.STD, "Invalid callback data, {0}"),
+    E0404(XLog.OPS, "Callback buffer is full, callback for action [{0}] not accepted"),
+    E0405(XLog.OPS, "Callback for action [{0}] could not be journaled, {1}"),
 
     E0420(XLog.STD, "Invalid jobs filter [{0}], {1}"),
+    E0421(XLog.STD, "Invalid jobs cursor [{0}]"),
+    E0422(XLog.STD, "Too many jobs [{0}], the maximum is [{1}]"),
 
     E0500(XLog.OPS, "Not authorized, {0}"),
     E0501(XLog.OPS, "Could not perform authorization operation, {0}"),
@@ -14,14 +14,18 @@
  */
 package org.apache.oozie;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
+import org.apache.oozie.client.BulkResult;
+import org.apache.oozie.client.JobsPage;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.OozieClientException;
 import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.util.XConfiguration;
 
 /**
@@ -289,6 +293,29 @@ public class LocalOozieClient extends OozieClient {
         }
     }
 
+    /**
+     * Return a page of the workflow jobs that match the filter, most recently created jobs first.
+     *
+     * @param filter job filter. Refer to the {@link LocalOozieClient} for the filter syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count indicates if the total number of matching jobs should be computed.
+     * @return the page of workflow jobs, without node details.
+     * @throws org.apache.oozie.client.OozieClientException thrown if the jobs info could not be retrieved.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public JobsPage<WorkflowJob> getJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        try {
+            WorkflowsInfo info = dagEngine.getJobs(filter, cursor, len, count);
+            return new JobsPage<WorkflowJob>((List) info.getWorkflows(), info.getCursor(), info.getTotal());
+        }
+        catch (DagEngineException ex) {
+            throw new OozieClientException(ex.getErrorCode().toString(), ex);
+        }
+    }
+
     /**
      * Return the info of the workflow jobs that match the filter. <p/> It returns the first 100 jobs that match the
      * filter.
@@ -302,6 +329,81 @@ public class LocalOozieClient extends OozieClient {
         return getJobsInfo(filter, 1, 100);
     }
 
+    /**
+     * Return the info of a list of workflow jobs.
+     *
+     * @param jobIds IDs of the workflow jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<WorkflowJob>> getJobsInfo(List<String> jobIds) {
+        List<BulkResult<WorkflowJob>> results = new ArrayList<BulkResult<WorkflowJob>>();
+        for (String jobId : jobIds) {
+            try {
+                results.add(new BulkResult<WorkflowJob>(jobId, dagEngine.getJob(jobId), null, null));
+            }
+            catch (DagEngineException ex) {
+                results.add(new BulkResult<WorkflowJob>(jobId, null, ex.getErrorCode().toString(), ex.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Kill a list of workflow jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<Void>> killJobs(List<String> jobIds) {
+        return bulkAction(RestConstants.JOB_ACTION_KILL, jobIds);
+    }
+
+    /**
+     * Suspend a list of workflow jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<Void>> suspendJobs(List<String> jobIds) {
+        return bulkAction(RestConstants.JOB_ACTION_SUSPEND, jobIds);
+    }
+
+    /**
+     * Resume a list of workflow jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<Void>> resumeJobs(List<String> jobIds) {
+        return bulkAction(RestConstants.JOB_ACTION_RESUME, jobIds);
+    }
+
+    private List<BulkResult<Void>> bulkAction(String action, List<String> jobIds) {
+        List<BulkResult<Void>> results = new ArrayList<BulkResult<Void>>();
+        for (String jobId : jobIds) {
+            try {
+                if (action.equals(RestConstants.JOB_ACTION_KILL)) {
+                    dagEngine.kill(jobId);
+                }
+                else if (action.equals(RestConstants.JOB_ACTION_SUSPEND)) {
+                    dagEngine.suspend(jobId);
+                }
+                else {
+                    dagEngine.resume(jobId);
+                }
+                results.add(new BulkResult<Void>(jobId, null, null, null));
+            }
+            catch (DagEngineException ex) {
+                results.add(new BulkResult<Void>(jobId, null, ex.getErrorCode().toString(), ex.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * Return the workflow job Id for an external Id. <p/> The external Id must have provided at job creation time.
      *
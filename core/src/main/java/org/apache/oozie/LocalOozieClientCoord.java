@@ -20,12 +20,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 
+import org.apache.oozie.client.BulkResult;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.JobsPage;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.OozieClientException;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.rest.JsonCoordinatorAction;
+import org.apache.oozie.client.rest.RestConstants;
 import org.apache.oozie.util.XConfiguration;
 
 /**
@@ -414,6 +417,111 @@ public class LocalOozieClientCoord extends OozieClient {
         }
     }
 
+    /**
+     * Return a page of the coordinator jobs that match the filter, most recently created jobs first.
+     *
+     * @param filter job filter. Refer to the {@link OozieClient} for the filter
+     *        syntax.
+     * @param cursor cursor returned with the previous page, <code>null</code> for the first page.
+     * @param len number of jobs to return.
+     * @param count indicates if the total number of matching jobs should be computed.
+     * @return the page of coordinator jobs.
+     * @throws OozieClientException thrown if the jobs info could not be
+     *         retrieved.
+     */
+    @Override
+    public JobsPage<CoordinatorJob> getCoordJobsPage(String filter, String cursor, int len, boolean count)
+            throws OozieClientException {
+        try {
+            CoordinatorJobInfo info = coordEngine.getCoordJobs(filter, cursor, len, count);
+            List<CoordinatorJob> jobs = new ArrayList<CoordinatorJob>();
+            for (CoordinatorJobBean jobBean : info.getCoordJobs()) {
+                jobs.add(jobBean);
+            }
+            return new JobsPage<CoordinatorJob>(jobs, info.getCursor(), info.getTotal());
+        }
+        catch (CoordinatorEngineException ex) {
+            throw new OozieClientException(ex.getErrorCode().toString(), ex);
+        }
+    }
+
+    /**
+     * Return the info of a list of coordinator jobs.
+     *
+     * @param jobIds IDs of the coordinator jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<CoordinatorJob>> getCoordJobsInfo(List<String> jobIds) {
+        List<BulkResult<CoordinatorJob>> results = new ArrayList<BulkResult<CoordinatorJob>>();
+        for (String jobId : jobIds) {
+            try {
+                CoordinatorJob job = coordEngine.getCoordJob(jobId);
+                results.add(new BulkResult<CoordinatorJob>(jobId, job, null, null));
+            }
+            catch (BaseEngineException ex) {
+                results.add(new BulkResult<CoordinatorJob>(jobId, null, ex.getErrorCode().toString(),
+                                                           ex.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Kill a list of coordinator jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<Void>> killJobs(List<String> jobIds) {
+        return bulkAction(RestConstants.JOB_ACTION_KILL, jobIds);
+    }
+
+    /**
+     * Suspend a list of coordinator jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<Void>> suspendJobs(List<String> jobIds) {
+        return bulkAction(RestConstants.JOB_ACTION_SUSPEND, jobIds);
+    }
+
+    /**
+     * Resume a list of coordinator jobs.
+     *
+     * @param jobIds IDs of the jobs.
+     * @return the result for each job, in the same order as the IDs.
+     */
+    @Override
+    public List<BulkResult<Void>> resumeJobs(List<String> jobIds) {
+        return bulkAction(RestConstants.JOB_ACTION_RESUME, jobIds);
+    }
+
+    private List<BulkResult<Void>> bulkAction(String action, List<String> jobIds) {
+        List<BulkResult<Void>> results = new ArrayList<BulkResult<Void>>();
+        for (String jobId : jobIds) {
+            try {
+                if (action.equals(RestConstants.JOB_ACTION_KILL)) {
+                    coordEngine.kill(jobId);
+                }
+                else if (action.equals(RestConstants.JOB_ACTION_SUSPEND)) {
+                    coordEngine.suspend(jobId);
+                }
+                else {
+                    coordEngine.resume(jobId);
+                }
+                results.add(new BulkResult<Void>(jobId, null, null, null));
+            }
+            catch (CoordinatorEngineException ex) {
+                results.add(new BulkResult<Void>(jobId, null, ex.getErrorCode().toString(), ex.getMessage()));
+            }
+        }
+        return results;
+    }
+
     /**
      * Return the info of the workflow jobs that match the filter.
      * <p/>
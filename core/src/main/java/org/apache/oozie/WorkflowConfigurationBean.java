@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import org.apache.oozie.util.DateUtils;
+import org.apache.openjpa.persistence.jdbc.Index;
+
+/**
+ * Bean for the serialized job configuration of a workflow instance.
+ * <p/>
+ * A configuration belongs to one workflow job, it is deleted with the job. It also records the workflow definition the
+ * job uses, a {@link WorkflowDefinitionBean} no configuration refers to is not used by any job.
+ */
+@Entity
+@Table(name = "WF_CONFIGURATIONS")
+@NamedQueries({
+
+    @NamedQuery(name = "GET_WORKFLOW_CONFIGURATION", query = "select OBJECT(c) from WorkflowConfigurationBean c where c.id = :id")})
+public class WorkflowConfigurationBean {
+
+    @Id
+    @Column(name = "id")
+    private String id = null;
+
+    @Basic
+    @Index
+    @Column(name = "job_id")
+    private String jobId = null;
+
+    @Basic
+    @Index
+    @Column(name = "definition_id")
+    private String definitionId = null;
+
+    @Column(name = "configuration")
+    @Lob
+    private byte[] configuration = null;
+
+    @Basic
+    @Column(name = "created_time")
+    private Timestamp createdTimestamp = null;
+
+    /**
+     * Default constructor.
+     */
+    public WorkflowConfigurationBean() {
+    }
+
+    /**
+     * Create a workflow configuration bean.
+     *
+     * @param id ID of the configuration, the job ID and the hash of the serialized configuration.
+     * @param jobId ID of the workflow job.
+     * @param definitionId hash of the workflow definition used by the job.
+     * @param configuration serialized configuration.
+     */
+    public WorkflowConfigurationBean(String id, String jobId, String definitionId, byte[] configuration) {
+        this.id = id;
+        this.jobId = jobId;
+        this.definitionId = definitionId;
+        this.configuration = configuration;
+        setCreatedTime(new Date());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getDefinitionId() {
+        return definitionId;
+    }
+
+    public void setDefinitionId(String definitionId) {
+        this.definitionId = definitionId;
+    }
+
+    public byte[] getConfiguration() {
+        return configuration;
+    }
+
+    public void setConfiguration(byte[] configuration) {
+        this.configuration = configuration;
+    }
+
+    public Date getCreatedTime() {
+        return DateUtils.toDate(createdTimestamp);
+    }
+
+    public void setCreatedTime(Date createdTime) {
+        this.createdTimestamp = DateUtils.convertDateToTimestamp(createdTime);
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import org.apache.oozie.util.DateUtils;
+
+/**
+ * Bean for a serialized workflow definition shared by all the workflow instances of the same application definition.
+ * <p/>
+ * The ID of the bean is the hash of the serialized definition, the definition is stored once no matter how many
+ * workflow jobs use it. The jobs using a definition are tracked by their {@link WorkflowConfigurationBean}, the last
+ * used time is refreshed periodically while the definition is used so definitions no job uses anymore can be purged.
+ * Definitions stored by the compact format version 2 have no last used time, old jobs may refer to them without a
+ * {@link WorkflowConfigurationBean}, they are never purged.
+ */
+@Entity
+@Table(name = "WF_DEFINITIONS")
+@NamedQueries({
+
+    @NamedQuery(name = "GET_WORKFLOW_DEFINITION", query = "select OBJECT(d) from WorkflowDefinitionBean d where d.id = :id"),
+
+    @NamedQuery(name = "UPDATE_WORKFLOW_DEFINITION_LAST_USED", query = "update WorkflowDefinitionBean d set d.lastUsedTimestamp = :lastUsedTime where d.id = :id and d.lastUsedTimestamp is not null"),
+
+    @NamedQuery(name = "DELETE_UNUSED_WORKFLOW_DEFINITIONS", query = "delete from WorkflowDefinitionBean d where d.lastUsedTimestamp < :lastUsedTime and not exists (select c.id from WorkflowConfigurationBean c where c.definitionId = d.id)")})
+public class WorkflowDefinitionBean {
+
+    @Id
+    @Column(name = "id")
+    private String id = null;
+
+    @Column(name = "definition")
+    @Lob
+    private byte[] definition = null;
+
+    @Basic
+    @Column(name = "created_time")
+    private Timestamp createdTimestamp = null;
+
+    @Basic
+    @Column(name = "last_used_time")
+    private Timestamp lastUsedTimestamp = null;
+
+    /**
+     * Default constructor.
+     */
+    public WorkflowDefinitionBean() {
+    }
+
+    /**
+     * Create a workflow definition bean.
+     *
+     * @param id hash of the serialized definition.
+     * @param definition serialized definition.
+     */
+    public WorkflowDefinitionBean(String id, byte[] definition) {
+        this.id = id;
+        this.definition = definition;
+        setCreatedTime(new Date());
+        lastUsedTimestamp = createdTimestamp;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public byte[] getDefinition() {
+        return definition;
+    }
+
+    public void setDefinition(byte[] definition) {
+        this.definition = definition;
+    }
+
+    public Date getCreatedTime() {
+        return DateUtils.toDate(createdTimestamp);
+    }
+
+    public void setCreatedTime(Date createdTime) {
+        this.createdTimestamp = DateUtils.convertDateToTimestamp(createdTime);
+    }
+
+    public Date getLastUsedTime() {
+        return DateUtils.toDate(lastUsedTimestamp);
+    }
+
+    public void setLastUsedTime(Date lastUsedTime) {
+        this.lastUsedTimestamp = DateUtils.convertDateToTimestamp(lastUsedTime);
+    }
+
+}
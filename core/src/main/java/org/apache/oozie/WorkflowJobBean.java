@@ -18,7 +18,10 @@ import org.apache.oozie.workflow.WorkflowInstance;
 import org.apache.oozie.workflow.lite.LiteWorkflowInstance;
 import org.apache.oozie.client.rest.JsonWorkflowJob;
 import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.WritableUtils;
 import org.apache.hadoop.io.Writable;
 
@@ -33,6 +36,7 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Basic;
 import javax.persistence.Lob;
+import javax.persistence.Transient;
 
 import java.sql.Timestamp;
 
@@ -54,8 +58,14 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
     @NamedQuery(name = "GET_COMPLETED_WORKFLOWS_OLDER_THAN", query = "select w from WorkflowJobBean w where w.endTimestamp < :endTime"),
 
+    @NamedQuery(name = "GET_COMPLETED_WORKFLOW_IDS_OLDER_THAN", query = "select w.id from WorkflowJobBean w where w.endTimestamp < :endTime order by w.endTimestamp"),
+
+    @NamedQuery(name = "GET_COMPLETED_WORKFLOWS_OLDEST_END_TIME", query = "select MIN(w.endTimestamp) from WorkflowJobBean w where w.endTimestamp < :endTime"),
+
     @NamedQuery(name = "GET_WORKFLOW", query = "select OBJECT(w) from WorkflowJobBean w where w.id = :id"),
 
+    @NamedQuery(name = "GET_WORKFLOW_OWNER", query = "select w.user, w.group from WorkflowJobBean w where w.id = :id"),
+
     @NamedQuery(name = "GET_WORKFLOW_FOR_UPDATE", query = "select OBJECT(w) from WorkflowJobBean w where w.id = :id"),
 
     @NamedQuery(name = "GET_WORKFLOW_ID_FOR_EXTERNAL_ID", query = "select  w.id from WorkflowJobBean w where w.externalId = :externalId"),
@@ -117,6 +127,22 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
     @Lob
     private String slaXml = null;
 
+    // the workflow instance last set, it matches the wf_instance bytes while the bean is not modified
+    @Transient
+    private WorkflowInstance workflowInstance = null;
+
+    @Transient
+    private boolean reuseWorkflowInstance = false;
+
+    // the definition and the configuration the wf_instance bytes refer to that are not stored yet
+    @Transient
+    private WorkflowDefinitionBean unstoredDefinition = null;
+
+    @Transient
+    private WorkflowConfigurationBean unstoredConfiguration = null;
+
+    private static final String INSTRUMENTATION_GROUP = "workflow_instance";
+
     /**
      * Default constructor.
      */
@@ -210,10 +236,34 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
         this.slaXml = slaXml;
     }
 
+    /**
+     * Return the workflow instance of the job.
+     * <p/>
+     * Every call returns a new copy deserialized from the job, except the first call after {@link
+     * #reuseWorkflowInstance()} that returns the instance last set.
+     *
+     * @return the workflow instance of the job.
+     */
     public WorkflowInstance getWorkflowInstance() {
+        if (reuseWorkflowInstance) {
+            WorkflowInstance instance = workflowInstance;
+            workflowInstance = null;
+            reuseWorkflowInstance = false;
+            return instance;
+        }
         return get(this.wfInstance);
     }
 
+    /**
+     * Make the next {@link #getWorkflowInstance()} call return the instance last set instead of deserializing it.
+     * <p/>
+     * It must be called only when nobody holds the instance last set anymore, it is used by the
+     * {@link org.apache.oozie.service.WorkflowJobCacheService} for the beans checked in the cache.
+     */
+    public void reuseWorkflowInstance() {
+        reuseWorkflowInstance = workflowInstance != null;
+    }
+
     public byte[] getWfInstance() {
         return wfInstance;
     }
@@ -224,10 +274,53 @@ public class WorkflowJobBean extends JsonWorkflowJob implements Writable {
 
     public void setWfInstance(byte[] wfInstance) {
         this.wfInstance = wfInstance;
+        this.workflowInstance = null;
+        this.reuseWorkflowInstance = false;
     }
 
     public void setWfInstance(WorkflowInstance wfInstance) {
         this.wfInstance = WritableUtils.toByteArray((LiteWorkflowInstance) wfInstance);
+        this.workflowInstance = wfInstance;
+        this.reuseWorkflowInstance = false;
+        WorkflowDefinitionBean definition = ((LiteWorkflowInstance) wfInstance).removeUnstoredDefinition();
+        if (definition != null) {
+            unstoredDefinition = definition;
+        }
+        WorkflowConfigurationBean configuration = ((LiteWorkflowInstance) wfInstance).removeUnstoredConfiguration();
+        if (configuration != null) {
+            unstoredConfiguration = configuration;
+        }
+        InstrumentationService instrService = (Services.get() != null)
+                ? Services.get().get(InstrumentationService.class) : null;
+        if (instrService != null) {
+            Instrumentation instr = instrService.get();
+            instr.incr(INSTRUMENTATION_GROUP, "writes", 1);
+            instr.incr(INSTRUMENTATION_GROUP, "write_bytes", this.wfInstance.length);
+        }
+    }
+
+    /**
+     * Return the workflow definition the workflow instance refers to if it is not stored yet, and forget it.
+     * <p/>
+     * It is called by the commands storing the job, see {@link org.apache.oozie.command.jpa.WorkflowConfigurationStoreCommand}.
+     *
+     * @return the workflow definition to store, <code>null</code> if none.
+     */
+    public WorkflowDefinitionBean removeUnstoredDefinition() {
+        WorkflowDefinitionBean bean = unstoredDefinition;
+        unstoredDefinition = null;
+        return bean;
+    }
+
+    /**
+     * Return the job configuration the workflow instance refers to if it is not stored yet, and forget it.
+     *
+     * @return the job configuration to store, <code>null</code> if none.
+     */
+    public WorkflowConfigurationBean removeUnstoredConfiguration() {
+        WorkflowConfigurationBean bean = unstoredConfiguration;
+        unstoredConfiguration = null;
+        return bean;
     }
 
     public String getProtoActionConf() {
@@ -23,6 +23,7 @@ public class WorkflowsInfo {
     private int start;
     private int len;
     private int total;
+    private String cursor;
     private List<WorkflowJobBean> workflows;
 
     /**
@@ -40,6 +41,19 @@ public class WorkflowsInfo {
         this.workflows = workflows;
     }
 
+    /**
+     * Create a workflows info bean for a cursor based listing.
+     *
+     * @param workflows workflows being returned.
+     * @param len number of workflows.
+     * @param total total workflows, <code>-1</code> if not computed.
+     * @param cursor cursor of the next page, <code>null</code> if this is the last page.
+     */
+    public WorkflowsInfo(List<WorkflowJobBean> workflows, int len, int total, String cursor) {
+        this(workflows, 0, len, total);
+        this.cursor = cursor;
+    }
+
     /**
      * Return the workflows being returned.
      *
@@ -70,10 +84,19 @@ public class WorkflowsInfo {
     /**
      * Return the total number of workflows. <p/> For pagination purposes.
      *
-     * @return the total number of workflows.
+     * @return the total number of workflows, <code>-1</code> if not computed.
      */
     public int getTotal() {
         return total;
     }
 
+    /**
+     * Return the cursor of the next page of a cursor based listing. <p/> For pagination purposes.
+     *
+     * @return the cursor of the next page, <code>null</code> if this is the last page or not a cursor based listing.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.filecache.DistributedCache;
@@ -47,10 +48,13 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JobStatusPollerService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.servlet.CallbackServlet;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.PropertiesUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
@@ -75,6 +79,22 @@ public class JavaActionExecutor extends ActionExecutor {
     private static final String FAILED = "FAILED";
     private static final String FAILED_KILLED = "FAILED/KILLED";
     private static final String RUNNING = "RUNNING";
+
+    /**
+     * Lease time, in seconds, of the staged launcher jars used by this Oozie instance.
+     */
+    public static final String CONF_LAUNCHER_STAGING_LEASE = "oozie.action.launcher.staging.lease";
+
+    /**
+     * Time, in seconds, after which a staged launcher jar not used by any Oozie instance is deleted.
+     */
+    public static final String CONF_LAUNCHER_STAGING_RETENTION = "oozie.action.launcher.staging.retention";
+
+    private static final String INSTRUMENTATION_GROUP = "launcher_staging";
+
+    private static final Map<String, LauncherStagingArea> STAGING_AREAS =
+            new ConcurrentHashMap<String, LauncherStagingArea>();
+
     private XLog log = XLog.getLog(getClass());
 
     static {
@@ -113,7 +133,9 @@ public class JavaActionExecutor extends ActionExecutor {
         try {
             List<Class> classes = getLauncherClasses();
             Class[] launcherClasses = classes.toArray(new Class[classes.size()]);
-            IOUtils.createJar(new File(getOozieRuntimeDir()), getLauncherJarName(), launcherClasses);
+            File launcherJar = IOUtils.createJar(new File(getOozieRuntimeDir()), getLauncherJarName(),
+                                                 launcherClasses);
+            initStagingArea(launcherJar);
 
             registerError(UnknownHostException.class.getName(), ActionExecutorException.ErrorType.TRANSIENT, "JA001");
             registerError(AccessControlException.class.getName(), ActionExecutorException.ErrorType.NON_TRANSIENT,
@@ -134,6 +156,36 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    private void initStagingArea(File launcherJar) throws IOException {
+        long retention = getOozieConf().getLong(CONF_LAUNCHER_STAGING_RETENTION, 7 * 24 * 3600) * 1000;
+        long lease = getOozieConf().getLong(CONF_LAUNCHER_STAGING_LEASE, 3600) * 1000;
+        // the lease must be refreshed well before other Oozie instances may consider the jar expired
+        lease = Math.min(lease, retention / 2);
+        final LauncherStagingArea stagingArea = new LauncherStagingArea(launcherJar, lease, retention);
+        STAGING_AREAS.put(getType(), stagingArea);
+
+        InstrumentationService instrService = Services.get().get(InstrumentationService.class);
+        if (instrService != null) {
+            Instrumentation instr = instrService.get();
+            instr.addVariable(INSTRUMENTATION_GROUP, getType() + ".bytes_saved_last_hour",
+                              new Instrumentation.Variable<Long>() {
+                                  public Long getValue() {
+                                      return stagingArea.getSavedBytesLastHour();
+                                  }
+                              });
+            instr.addVariable(INSTRUMENTATION_GROUP, getType() + ".copies", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return stagingArea.getCopies();
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, getType() + ".reuses", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return stagingArea.getReuses();
+                }
+            });
+        }
+    }
+
     void checkForDisallowedProps(Configuration conf, String confName) throws ActionExecutorException {
         for (String prop : DISALLOWED_PROPERTIES) {
             if (conf.get(prop) != null) {
@@ -293,8 +345,18 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Return the path of the launcher jar of the action.
+     * <p/>
+     * It is the shared staged launcher jar, or the launcher jar in the action directory if the action type has no
+     * staging area.
+     */
     String getOozieLauncherJar(Context context) throws ActionExecutorException {
         try {
+            LauncherStagingArea stagingArea = STAGING_AREAS.get(getType());
+            if (stagingArea != null) {
+                return stagingArea.getStagedJar(getLauncherStagingDir(context)).toString();
+            }
             return new Path(context.getActionDir(), getLauncherJarName()).toString();
         }
         catch (Exception ex) {
@@ -302,8 +364,27 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Return the launcher staging directory of the action, next to the workflow job directories of the user.
+     */
+    Path getLauncherStagingDir(Context context) throws Exception {
+        return new Path(context.getActionDir().getParent().getParent(), LauncherStagingArea.STAGING_DIR);
+    }
+
+    /**
+     * Prepare the launcher jar of the action.
+     * <p/>
+     * The launcher jar is staged in the shared staging directory if not there already, the action directory is
+     * created by the launcher setup. If the action type has no staging area the launcher jar is copied to the action
+     * directory.
+     */
     void prepareActionDir(FileSystem actionFs, Context context) throws ActionExecutorException {
         try {
+            LauncherStagingArea stagingArea = STAGING_AREAS.get(getType());
+            if (stagingArea != null) {
+                stagingArea.stage(actionFs, getLauncherStagingDir(context));
+                return;
+            }
             Path actionDir = context.getActionDir();
             Path tempActionDir = new Path(actionDir.getParent(), actionDir.getName() + ".tmp");
             if (!actionFs.exists(actionDir)) {
@@ -527,6 +608,7 @@ public class JavaActionExecutor extends ActionExecutor {
             String jobTracker = launcherJobConf.get(HADOOP_JOB_TRACKER);
             String consoleUrl = runningJob.getTrackingURL();
             context.setStartData(launcherId, jobTracker, consoleUrl);
+            trackJob(context, action, launcherId, launcherJobConf);
         }
         catch (Exception ex) {
             exception = true;
@@ -565,7 +647,7 @@ public class JavaActionExecutor extends ActionExecutor {
         try {
             XLog.getLog(getClass()).debug("Starting action " + action.getId() + " getting Action File System");
             FileSystem actionFs = getActionFileSystem(context, action);
-            XLog.getLog(getClass()).debug("Preparing action Dir through copying " + context.getActionDir());
+            XLog.getLog(getClass()).debug("Preparing launcher jar for action Dir " + context.getActionDir());
             prepareActionDir(actionFs, context);
             XLog.getLog(getClass()).debug("Action Dir is ready. Submitting the action ");
             submitLauncher(context, action);
@@ -658,6 +740,7 @@ public class JavaActionExecutor extends ActionExecutor {
                                                  newId);
                 }
                 if (runningJob.isComplete()) {
+                    untrackJob(action);
                     XLog.getLog(getClass()).info(XLog.STD, "action completed, external ID [{0}]",
                                                  action.getExternalId());
                     if (runningJob.isSuccessful() && LauncherMapper.isMainSuccessful(runningJob)) {
@@ -704,12 +787,14 @@ public class JavaActionExecutor extends ActionExecutor {
                 }
                 else {
                     context.setExternalStatus(RUNNING);
+                    trackJob(context, action, runningJob.getID().toString(), conf);
                     XLog.getLog(getClass()).info(XLog.STD, "checking action, external ID [{0}] status [{1}]",
                                                  action.getExternalId(), action.getExternalStatus());
                 }
             }
             else {
                 context.setExternalStatus(RUNNING);
+                trackJob(context, action, runningJob.getID().toString(), conf);
                 XLog.getLog(getClass()).info(XLog.STD, "checking action, external ID [{0}] status [{1}]",
                                              action.getExternalId(), action.getExternalStatus());
             }
@@ -736,6 +821,35 @@ public class JavaActionExecutor extends ActionExecutor {
         }
     }
 
+    /**
+     * Track the Hadoop job of a running action with the {@link JobStatusPollerService}, if available, so the action
+     * is checked only once its job completes.
+     *
+     * @param context executor context.
+     * @param action running action.
+     * @param jobId Hadoop job ID of the action.
+     * @param conf Hadoop configuration of the action.
+     */
+    protected void trackJob(Context context, WorkflowAction action, String jobId, Configuration conf) {
+        JobStatusPollerService poller = Services.get().get(JobStatusPollerService.class);
+        if (poller != null) {
+            poller.track(action.getId(), jobId, conf, context.getWorkflow().getUser(),
+                         context.getWorkflow().getGroup());
+        }
+    }
+
+    /**
+     * Stop tracking the Hadoop job of an action with the {@link JobStatusPollerService}, if available.
+     *
+     * @param action action.
+     */
+    protected void untrackJob(WorkflowAction action) {
+        JobStatusPollerService poller = Services.get().get(JobStatusPollerService.class);
+        if (poller != null) {
+            poller.untrack(action.getId());
+        }
+    }
+
     protected boolean getCaptureOutput(WorkflowAction action) throws JDOMException {
         Element eConf = XmlUtils.parseXml(action.getConf());
         Namespace ns = eConf.getNamespace();
@@ -753,6 +867,7 @@ public class JavaActionExecutor extends ActionExecutor {
             JobConf jobConf = new JobConf();
             XConfiguration.copy(conf, jobConf);
             jobClient = createJobClient(context, jobConf);
+            untrackJob(action);
             RunningJob runningJob = jobClient.getJob(JobID.forName(action.getExternalId()));
             if (runningJob != null) {
                 runningJob.killJob();
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Shared staging area for the launcher jar of an action type.
+ * <p/>
+ * The launcher jar is staged once per filesystem user, in the {@link #STAGING_DIR} directory next to the workflow job
+ * directories, with the hash of its content in its name. Actions reference the staged jar through the distributed
+ * cache instead of copying it into their action directory.
+ * <p/>
+ * A staged jar is never modified once published: the distributed cache records its timestamp when a launcher job is
+ * submitted and fails the localization of the job if it changes. References are tracked with leases instead: the
+ * modification time of a lease marker file next to the jar, {@link #LEASE_SUFFIX}, is refreshed when an Oozie instance
+ * starts using the jar and then every lease time. A staged jar whose lease has not been refreshed for the retention
+ * time is not used by any Oozie instance anymore, it is deleted, with its marker, when the staging directory is
+ * checked. The retention time must be longer than the lifetime of the launcher jobs.
+ * <p/>
+ * The bytes saved by reusing staged jars instead of copying them are kept per minute for the last hour.
+ */
+class LauncherStagingArea {
+    static final String STAGING_DIR = "_launcher";
+
+    static final String LEASE_SUFFIX = ".lease";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static XLog log = XLog.getLog(LauncherStagingArea.class);
+
+    private final File localJar;
+    private final String prefix;
+    private final String stagedName;
+    private final long leaseTime;
+    private final long retention;
+    private final ConcurrentMap<String, Long> leases = new ConcurrentHashMap<String, Long>();
+    private final long[] savedBytes = new long[60];
+    private final long[] savedMinutes = new long[60];
+    private long copies;
+    private long reuses;
+
+    /**
+     * Create a staging area for a launcher jar.
+     *
+     * @param localJar local launcher jar.
+     * @param leaseTime lease time of the staged jars in milliseconds.
+     * @param retention retention time of the staged jars not used anymore in milliseconds.
+     * @throws IOException thrown if the launcher jar could not be read.
+     */
+    public LauncherStagingArea(File localJar, long leaseTime, long retention) throws IOException {
+        this.localJar = localJar;
+        this.leaseTime = leaseTime;
+        this.retention = retention;
+        String name = localJar.getName();
+        prefix = (name.endsWith(".jar") ? name.substring(0, name.length() - 4) : name) + "-";
+        stagedName = prefix + hash(localJar) + ".jar";
+    }
+
+    /**
+     * Return the name of the staged launcher jar.
+     *
+     * @return the name of the staged launcher jar.
+     */
+    public String getStagedName() {
+        return stagedName;
+    }
+
+    /**
+     * Return the path of the staged launcher jar.
+     *
+     * @param stagingDir staging directory.
+     * @return the path of the staged launcher jar.
+     */
+    public Path getStagedJar(Path stagingDir) {
+        return new Path(stagingDir, stagedName);
+    }
+
+    /**
+     * Stage the launcher jar in a staging directory, if not staged already.
+     * <p/>
+     * Within the lease time only the existence of the staged jar is checked. The jar is copied only if it is missing, it
+     * is never overwritten, and its lease marker is refreshed once per lease time.
+     *
+     * @param fs filesystem of the staging directory.
+     * @param stagingDir staging directory.
+     * @return the path of the staged launcher jar.
+     * @throws IOException thrown if the launcher jar could not be staged.
+     */
+    public Path stage(FileSystem fs, Path stagingDir) throws IOException {
+        Path stagedJar = getStagedJar(stagingDir);
+        String key = fs.getUri() + stagedJar.toUri().getPath();
+        long now = System.currentTimeMillis();
+        Long lease = leases.get(key);
+        if (lease != null && now - lease < leaseTime) {
+            if (fs.exists(stagedJar)) {
+                reused(now);
+                return stagedJar;
+            }
+            // deleted by someone else, e.g. a temp directory cleaner
+            log.warn("Staged launcher jar [{0}] has been deleted, staging it again", stagedJar);
+            leases.remove(key);
+        }
+        if (fs.exists(stagedJar)) {
+            reused(now);
+        }
+        else {
+            Path tempJar = new Path(stagingDir, stagedName + "." + now + TEMP_SUFFIX);
+            try {
+                fs.copyFromLocalFile(new Path(localJar.getAbsolutePath()), tempJar);
+                // not all filesystems fail the rename if the target exists
+                if (fs.exists(stagedJar) || !fs.rename(tempJar, stagedJar)) {
+                    // staged concurrently
+                    fs.delete(tempJar, false);
+                }
+            }
+            catch (IOException ex) {
+                fs.delete(tempJar, false);
+                throw ex;
+            }
+            synchronized (this) {
+                copies++;
+            }
+            log.debug("Staged launcher jar [{0}]", stagedJar);
+        }
+        renewLease(fs, new Path(stagingDir, stagedName + LEASE_SUFFIX), now);
+        collectGarbage(fs, stagingDir, now);
+        leases.put(key, now);
+        return stagedJar;
+    }
+
+    /**
+     * Refresh the modification time of a lease marker, creating the marker if missing.
+     */
+    private void renewLease(FileSystem fs, Path marker, long now) throws IOException {
+        if (fs.exists(marker)) {
+            fs.setTimes(marker, now, -1);
+        }
+        else {
+            fs.create(marker, true).close();
+        }
+    }
+
+    /**
+     * Delete the launcher jars, lease markers and temporary files of this action type whose lease expired more than the
+     * retention time ago. A jar without lease marker expires with its own modification time.
+     */
+    private void collectGarbage(FileSystem fs, Path stagingDir, long now) {
+        try {
+            FileStatus[] statuses = fs.listStatus(stagingDir);
+            if (statuses != null) {
+                Map<String, Long> renewals = new HashMap<String, Long>();
+                for (FileStatus status : statuses) {
+                    String name = status.getPath().getName();
+                    if (name.endsWith(LEASE_SUFFIX)) {
+                        renewals.put(name.substring(0, name.length() - LEASE_SUFFIX.length()),
+                                     status.getModificationTime());
+                    }
+                }
+                for (FileStatus status : statuses) {
+                    String name = status.getPath().getName();
+                    long renewed = status.getModificationTime();
+                    if (renewals.containsKey(name)) {
+                        renewed = Math.max(renewed, renewals.get(name));
+                    }
+                    if (name.startsWith(prefix) && !name.equals(stagedName)
+                            && !name.equals(stagedName + LEASE_SUFFIX) && now - renewed > retention) {
+                        if (fs.delete(status.getPath(), false)) {
+                            log.debug("Deleted expired launcher jar [{0}]", status.getPath());
+                        }
+                    }
+                }
+            }
+        }
+        catch (IOException ex) {
+            log.warn("Could not garbage collect staged launcher jars in [{0}], {1}", stagingDir, ex.getMessage(), ex);
+        }
+    }
+
+    private synchronized void reused(long now) {
+        reuses++;
+        long minute = now / 60000;
+        int index = (int) (minute % savedBytes.length);
+        if (savedMinutes[index] != minute) {
+            savedMinutes[index] = minute;
+            savedBytes[index] = 0;
+        }
+        savedBytes[index] += localJar.length();
+    }
+
+    /**
+     * Return the bytes saved by reusing staged jars during the last hour.
+     *
+     * @return the bytes saved during the last hour.
+     */
+    public synchronized long getSavedBytesLastHour() {
+        long minute = System.currentTimeMillis() / 60000;
+        long total = 0;
+        for (int i = 0; i < savedBytes.length; i++) {
+            if (minute - savedMinutes[i] < savedBytes.length) {
+                total += savedBytes[i];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Return the number of times the launcher jar has been copied to a staging directory.
+     *
+     * @return the number of copies.
+     */
+    public synchronized long getCopies() {
+        return copies;
+    }
+
+    /**
+     * Return the number of times a staged launcher jar has been reused.
+     *
+     * @return the number of reuses.
+     */
+    public synchronized long getReuses() {
+        return reuses;
+    }
+
+    /**
+     * Return the SHA-1 of the entries of a jar, names and contents, ignoring their timestamps.
+     */
+    static String hash(File jar) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+        InputStream is = new FileInputStream(jar);
+        try {
+            JarInputStream jis = new JarInputStream(is);
+            byte[] buffer = new byte[4096];
+            JarEntry entry = jis.getNextJarEntry();
+            while (entry != null) {
+                digest.update(entry.getName().getBytes("UTF-8"));
+                int read = jis.read(buffer);
+                while (read > -1) {
+                    digest.update(buffer, 0, read);
+                    read = jis.read(buffer);
+                }
+                entry = jis.getNextJarEntry();
+            }
+        }
+        finally {
+            is.close();
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+}
@@ -19,9 +19,11 @@ import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.command.jpa.JPACommand;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.service.DagXLogInfoService;
 import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.XLogService;
@@ -34,6 +36,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Base class for synchronous and asynchronous commands.
@@ -48,6 +52,8 @@ import java.util.Map;
  * <li>precondition check: verifies precondition for execution is still met</li>
  * <li>locking: obtains exclusive lock on key before executing the command</li>
  * <li>execution: command logic</li>
+ * <li>unit of work: JPA inserts and updates done by the execution are committed in a single transaction</li>
+ * <li>queuing: commands queued by the execution are queued after the unit of work is committed</li>
  * </ul>
  * <p/>
  * It has built in instrumentation and logging.
@@ -66,6 +72,7 @@ public abstract class XCommand<T> implements XCallable<T> {
     private MemoryLocks.LockToken lock;
     private boolean used;
     private Map<Long, List<XCommand<?>>> commandQueue;
+    private List<JPACommand<?>> unitOfWork;
     protected boolean dryrun = false;
     protected Instrumentation instrumentation;
 
@@ -183,6 +190,113 @@ public abstract class XCommand<T> implements XCallable<T> {
         list.add(command);
     }
 
+    /**
+     * Add a JPA command, an insert or an update, to the unit of work of the current command.
+     * <p/>
+     * All JPA commands added during the execution of the current command are executed, in order, in a single
+     * transaction after the execution completes and before the queued commands are queued.
+     * <p/>
+     * If the command execution throws an exception, no JPA command of the unit of work will be executed.
+     * <p/>
+     * JPA commands reading state must not be added to the unit of work, they must be executed right away. They do not
+     * see the changes of the JPA commands in the unit of work.
+     *
+     * @param command JPA command to add to the unit of work.
+     */
+    protected void addToUnitOfWork(JPACommand<?> command) {
+        if (unitOfWork == null) {
+            unitOfWork = new ArrayList<JPACommand<?>>();
+        }
+        unitOfWork.add(command);
+    }
+
+    /**
+     * Execute the JPA commands of the unit of work in a single transaction.
+     *
+     * @throws CommandException thrown if the unit of work could not be executed.
+     */
+    private void flushUnitOfWork() throws CommandException {
+        if (unitOfWork != null && !unitOfWork.isEmpty()) {
+            JPAService jpaService = Services.get().get(JPAService.class);
+            if (jpaService == null) {
+                throw new CommandException(ErrorCode.E0610);
+            }
+            LOG.debug("Executing unit of work of [{0}] JPA commands", unitOfWork.size());
+            jpaService.execute(unitOfWork);
+        }
+    }
+
+    /**
+     * Instrumentation counters and timers of a command, resolved once per command name so the command life-cycle does
+     * not build their names and look them up on every execution.
+     * <p/>
+     * They are created on first use, a command only shows the counters and timers it used.
+     */
+    private static class CommandInstruments {
+        private static final ConcurrentMap<String, CommandInstruments> INSTRUMENTS =
+                new ConcurrentHashMap<String, CommandInstruments>();
+
+        private final Instrumentation instrumentation;
+        private final String name;
+        private volatile Instrumentation.Counter executions;
+        private volatile Instrumentation.Counter exceptions;
+        private volatile Instrumentation.Timer acquireLock;
+        private volatile Instrumentation.Timer execute;
+        private volatile Instrumentation.Timer call;
+
+        private CommandInstruments(Instrumentation instrumentation, String name) {
+            this.instrumentation = instrumentation;
+            this.name = name;
+        }
+
+        /**
+         * Return the instruments of a command, they are discarded if the instrumentation instance changed.
+         */
+        public static CommandInstruments get(Instrumentation instrumentation, String name) {
+            CommandInstruments instruments = INSTRUMENTS.get(name);
+            if (instruments == null || instruments.instrumentation != instrumentation) {
+                instruments = new CommandInstruments(instrumentation, name);
+                INSTRUMENTS.put(name, instruments);
+            }
+            return instruments;
+        }
+
+        public Instrumentation.Counter getExecutions() {
+            if (executions == null) {
+                executions = instrumentation.getCounter(INSTRUMENTATION_GROUP, name + ".executions");
+            }
+            return executions;
+        }
+
+        public Instrumentation.Counter getExceptions() {
+            if (exceptions == null) {
+                exceptions = instrumentation.getCounter(INSTRUMENTATION_GROUP, name + ".exceptions");
+            }
+            return exceptions;
+        }
+
+        public Instrumentation.Timer getAcquireLock() {
+            if (acquireLock == null) {
+                acquireLock = instrumentation.getTimer(INSTRUMENTATION_GROUP, name + ".acquireLock");
+            }
+            return acquireLock;
+        }
+
+        public Instrumentation.Timer getExecute() {
+            if (execute == null) {
+                execute = instrumentation.getTimer(INSTRUMENTATION_GROUP, name + ".execute");
+            }
+            return execute;
+        }
+
+        public Instrumentation.Timer getCall() {
+            if (call == null) {
+                call = instrumentation.getTimer(INSTRUMENTATION_GROUP, name + ".call");
+            }
+            return call;
+        }
+    }
+
     /**
      * Obtain an exclusive lock on the {link #getEntityKey}.
      * <p/>
@@ -224,7 +338,8 @@ public abstract class XCommand<T> implements XCallable<T> {
         }
         used = true;
         Instrumentation instrumentation = Services.get().get(InstrumentationService.class).get();
-        instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".executions", 1);
+        CommandInstruments instruments = CommandInstruments.get(instrumentation, getName());
+        instruments.getExecutions().incr(1);
         Instrumentation.Cron callCron = new Instrumentation.Cron();
         try {
             callCron.start();
@@ -237,10 +352,10 @@ public abstract class XCommand<T> implements XCallable<T> {
                         acquireLockCron.start();
                         acquireLock();
                         acquireLockCron.stop();
-                        instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".acquireLock", acquireLockCron);
+                        instruments.getAcquireLock().addCron(acquireLockCron);
                     }
                     catch (Exception ex) {
-                        instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".exceptions", 1);
+                        instruments.getExceptions().incr(1);
                         throw ex;
                     }
                 }
@@ -254,11 +369,13 @@ public abstract class XCommand<T> implements XCallable<T> {
                 try {
                     executeCron.start();
                     ret = execute();
+                    flushUnitOfWork();
+                    executed();
                     executeCron.stop();
-                    instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".execute", executeCron);
+                    instruments.getExecute().addCron(executeCron);
                 }
                 catch (Exception ex) {
-                    instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".exceptions", 1);
+                    instruments.getExceptions().incr(1);
                     throw ex;
                 }
                 if (commandQueue != null) {
@@ -285,12 +402,12 @@ public abstract class XCommand<T> implements XCallable<T> {
             return null;
         }
         catch (Exception ex) {
-            instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".exceptions", 1);
+            instruments.getExceptions().incr(1);
             throw new CommandException(ErrorCode.E0607, ex);
         }
         finally {
             callCron.stop();
-            instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".call", callCron);
+            instruments.getCall().addCron(callCron);
         }
     }
 
@@ -377,6 +494,17 @@ public abstract class XCommand<T> implements XCallable<T> {
      */
     protected abstract T execute() throws CommandException;
 
+    /**
+     * Called after the command execution completes and its unit of work has been committed, before the queued
+     * commands are queued.
+     * <p/>
+     * The default implementation does nothing.
+     *
+     * @throws CommandException thrown if the post execution could not be done.
+     */
+    protected void executed() throws CommandException {
+    }
+
     /**
      * Set the log info with the context of the given coordinator bean.
      *
@@ -19,6 +19,7 @@ import java.sql.Timestamp;
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.XException;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.StoreService;
 import org.apache.oozie.store.CoordinatorStore;
@@ -56,7 +57,7 @@ public class CoordActionCheckCommand extends CoordinatorCommand<Void> {
             if (coordAction.getStatus().equals(CoordinatorAction.Status.SUCCEEDED)
                     || coordAction.getStatus().equals(CoordinatorAction.Status.FAILED)
                     || coordAction.getStatus().equals(CoordinatorAction.Status.KILLED)) {
-                // do nothing
+                unscheduleCheck();
             }
             else {
                 incrJobCounter(1);
@@ -89,6 +90,7 @@ public class CoordActionCheckCommand extends CoordinatorCommand<Void> {
 
                 log.debug("Updating Coordintaor actionId :" + coordAction.getId() + "status to =" + coordAction.getStatus());
                 cstore.updateCoordinatorAction(coordAction);
+                unscheduleCheck();
                 if (slaStatus != null) {
                     SLADbOperations.writeStausEvent(coordAction.getSlaXml(), coordAction.getId(), cstore, slaStatus,
                                                     SlaAppType.COORDINATOR_ACTION);
@@ -128,4 +130,11 @@ public class CoordActionCheckCommand extends CoordinatorCommand<Void> {
         }
         return null;
     }
+
+    private void unscheduleCheck() {
+        ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+        if (checker != null) {
+            checker.unscheduleCoordCheck(actionId);
+        }
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.XException;
 import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.db.SLADbOperations;
@@ -79,6 +80,7 @@ public class CoordActionCheckXCommand extends CoordinatorXCommand<Void> {
             log.debug("Updating Coordintaor actionId :" + coordAction.getId() + "status to =" + coordAction.getStatus());
             coordAction.setLastModifiedTime(new Date());
             jpaService.execute(new org.apache.oozie.command.jpa.CoordActionUpdateCommand(coordAction));
+            unscheduleCheck();
 
             if (slaStatus != null) {
                 SLADbOperations.writeStausEvent(coordAction.getSlaXml(), coordAction.getId(), slaStatus,
@@ -122,7 +124,15 @@ public class CoordActionCheckXCommand extends CoordinatorXCommand<Void> {
         if (coordAction.getStatus().equals(CoordinatorAction.Status.SUCCEEDED)
                 || coordAction.getStatus().equals(CoordinatorAction.Status.FAILED)
                 || coordAction.getStatus().equals(CoordinatorAction.Status.KILLED)) {
+            unscheduleCheck();
             throw new PreconditionException(ErrorCode.E1100);
         }
     }
+
+    private void unscheduleCheck() {
+        ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+        if (checker != null) {
+            checker.unscheduleCoordCheck(actionId);
+        }
+    }
 }
@@ -28,6 +28,7 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.coord.CoordELEvaluator;
 import org.apache.oozie.coord.CoordELFunctions;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.Services;
@@ -303,6 +304,15 @@ public class CoordActionInputCheckCommand extends CoordinatorCommand<Void> {
         Path path = new Path(sPath);
         String user = ParamChecker.notEmpty(actionConf.get(OozieClient.USER_NAME), OozieClient.USER_NAME);
         String group = ParamChecker.notEmpty(actionConf.get(OozieClient.GROUP_NAME), OozieClient.GROUP_NAME);
+        DatasetAvailabilityService datasets = Services.get().get(DatasetAvailabilityService.class);
+        if (datasets != null) {
+            boolean exists = datasets.isAvailable(sPath, user, group);
+            if (!exists) {
+                // check again as soon as the path is found by another action instead of waiting for the requeue
+                datasets.addWaiter(sPath, user, group, actionId, new CoordActionInputCheckCommand(actionId));
+            }
+            return exists;
+        }
         try {
             return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
                     new Configuration()).exists(path);
@@ -30,6 +30,8 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.jpa.CoordActionGetCommand;
 import org.apache.oozie.coord.CoordELEvaluator;
 import org.apache.oozie.coord.CoordELFunctions;
+import org.apache.oozie.service.CoordActionAdmissionService;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.JPAService;
@@ -83,7 +85,7 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
             coordAction.setMissingDependencies(nonExistList.toString());
             if (status == true) {
                 coordAction.setStatus(CoordinatorAction.Status.READY);
-                // pass jobID to the ReadyCommand
+                // pass jobID to the ReadyCommand, it is queued after the action status is updated
                 queue(new CoordActionReadyXCommand(coordAction.getJobId()), 100);
             }
             else {
@@ -99,6 +101,12 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
             }
             coordAction.setLastModifiedTime(new Date());
             jpaService.execute(new org.apache.oozie.command.jpa.CoordActionUpdateCommand(coordAction));
+            if (status == true) {
+                CoordActionAdmissionService admission = Services.get().get(CoordActionAdmissionService.class);
+                if (admission != null) {
+                    admission.addReady(coordAction.getJobId(), coordAction.getId(), coordAction.getNominalTime());
+                }
+            }
         }
         catch (Exception e) {
             throw new CommandException(ErrorCode.E1005, e.getMessage(), e);
@@ -284,6 +292,15 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
         Path path = new Path(sPath);
         String user = ParamChecker.notEmpty(actionConf.get(OozieClient.USER_NAME), OozieClient.USER_NAME);
         String group = ParamChecker.notEmpty(actionConf.get(OozieClient.GROUP_NAME), OozieClient.GROUP_NAME);
+        DatasetAvailabilityService datasets = Services.get().get(DatasetAvailabilityService.class);
+        if (datasets != null) {
+            boolean exists = datasets.isAvailable(sPath, user, group);
+            if (!exists) {
+                // check again as soon as the path is found by another action instead of waiting for the requeue
+                datasets.addWaiter(sPath, user, group, actionId, new CoordActionInputCheckXCommand(actionId));
+            }
+            return exists;
+        }
         try {
             return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
                     new Configuration()).exists(path);
@@ -185,15 +185,16 @@ public class CoordActionMaterializeCommand extends CoordinatorCommand<Void> {
 
             log.debug(origStart.getTime() + " Materializing action for time=" + effStart.getTime()
                     + ", lastactionnumber=" + lastActionNumber);
-            action = CoordCommandUtils.materializeOneInstance(jobId, dryrun, (Element) eJob.clone(),
-                    effStart.getTime(), lastActionNumber, conf, actionBean);
+            Element eAction = (Element) eJob.clone();
+            action = CoordCommandUtils.materializeOneInstance(jobId, dryrun, eAction, effStart.getTime(),
+                    lastActionNumber, conf, actionBean);
             if (actionBean.getNominalTimestamp().before(jobBean.getCreatedTimestamp())) {
                 actionBean.setTimeOut(Services.get().getConf().getInt(CONF_DEFAULT_TIMEOUT_CATCHUP, -1));
                 log.info("Catchup timeout is :" + actionBean.getTimeOut());
             }
 
             if (!dryrun) {
-                storeToDB(actionBean, action, store); // Storing to table
+                storeToDB(actionBean, action, eAction, store); // Storing to table
             }
             else {
                 actionStrings.append("action for new instance");
@@ -218,16 +219,17 @@ public class CoordActionMaterializeCommand extends CoordinatorCommand<Void> {
      *
      * @param actionBean
      * @param actionXml
+     * @param eAction materialized action element
      * @param store
-     * @param wantSla
      * @throws StoreException
      * @throws JDOMException
      */
-    private void storeToDB(CoordinatorActionBean actionBean, String actionXml, CoordinatorStore store) throws Exception {
+    private void storeToDB(CoordinatorActionBean actionBean, String actionXml, Element eAction,
+                           CoordinatorStore store) throws Exception {
         log.debug("In storeToDB() action Id " + actionBean.getId() + " Size of actionXml " + actionXml.length());
         actionBean.setActionXml(actionXml);
         store.insertCoordinatorAction(actionBean);
-        writeActionRegistration(actionXml, actionBean, store);
+        writeActionRegistration(eAction, actionBean, store);
 
         // TODO: time 100s should be configurable
         queueCallable(new CoordActionNotificationCommand(actionBean), 100);
@@ -235,14 +237,13 @@ public class CoordActionMaterializeCommand extends CoordinatorCommand<Void> {
     }
 
     /**
-     * @param actionXml
+     * @param eAction materialized action element, the SLA registration is taken from it
      * @param actionBean
      * @param store
      * @throws Exception
      */
-    private void writeActionRegistration(String actionXml, CoordinatorActionBean actionBean, CoordinatorStore store)
+    private void writeActionRegistration(Element eAction, CoordinatorActionBean actionBean, CoordinatorStore store)
             throws Exception {
-        Element eAction = XmlUtils.parseXml(actionXml);
         Element eSla = eAction.getChild("action", eAction.getNamespace()).getChild("info", eAction.getNamespace("sla"));
         SLADbOperations.writeSlaRegistrationEvent(eSla, store, actionBean.getId(), SlaAppType.COORDINATOR_ACTION, user,
                                                   group);
@@ -16,8 +16,10 @@ package org.apache.oozie.command.coord;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.apache.hadoop.conf.Configuration;
@@ -29,7 +31,7 @@ import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.SLAEvent.SlaAppType;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
-import org.apache.oozie.command.jpa.CoordActionInsertCommand;
+import org.apache.oozie.command.jpa.BulkInsertCommand;
 import org.apache.oozie.command.jpa.CoordJobGetCommand;
 import org.apache.oozie.command.jpa.CoordJobInsertCommand;
 import org.apache.oozie.command.jpa.CoordJobUpdateCommand;
@@ -37,12 +39,14 @@ import org.apache.oozie.coord.TimeUnit;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Service;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.XmlCacheService;
 import org.apache.oozie.store.CoordinatorStore;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
+import org.apache.oozie.util.XmlTemplate;
 import org.apache.oozie.util.XmlUtils;
 import org.apache.oozie.util.db.SLADbOperations;
 import org.jdom.Element;
@@ -58,12 +62,20 @@ public class CoordActionMaterializeXCommand extends CoordinatorXCommand<Void> {
     private String group;
     private JPAService jpaService = null;
     CoordinatorJobBean job = null;
-    
+    private List<Object> batch = new ArrayList<Object>();
+    private List<CoordinatorActionBean> batchActions = new ArrayList<CoordinatorActionBean>();
+
     /**
      * Default timeout for catchup jobs, in minutes, after which coordinator input check will timeout
      */
     public static final String CONF_DEFAULT_TIMEOUT_CATCHUP = Service.CONF_PREFIX + "coord.catchup.default.timeout";
 
+    /**
+     * Max number of actions, with their SLA registrations, inserted in a single transaction
+     */
+    public static final String CONF_MATERIALIZATION_BATCH_SIZE = Service.CONF_PREFIX
+            + "coord.materialization.batch.size";
+
     public CoordActionMaterializeXCommand(String jobId, Date startTime, Date endTime) {
         super("coord_action_mater", "coord_action_mater", 1);
         this.jobId = jobId;
@@ -123,13 +135,15 @@ public class CoordActionMaterializeXCommand extends CoordinatorXCommand<Void> {
     protected String materializeJobs(boolean dryrun, CoordinatorJobBean jobBean, Configuration conf,
                                      XLog log) throws Exception {
         String jobXml = jobBean.getJobXml();
-        Element eJob = XmlUtils.parseXml(jobXml);
+        XmlCacheService xmlCache = Services.get().get(XmlCacheService.class);
+        XmlTemplate jobTemplate = (xmlCache != null) ? xmlCache.getTemplate(jobXml)
+                : new XmlTemplate(XmlUtils.parseXml(jobXml));
         // TODO: always UTC?
         TimeZone appTz = DateUtils.getTimeZone(jobBean.getTimeZone());
         // TimeZone appTz = DateUtils.getTimeZone("UTC");
         int frequency = jobBean.getFrequency();
-        TimeUnit freqTU = TimeUnit.valueOf(eJob.getAttributeValue("freq_timeunit"));
-        TimeUnit endOfFlag = TimeUnit.valueOf(eJob.getAttributeValue("end_of_duration"));
+        TimeUnit freqTU = TimeUnit.valueOf(jobTemplate.getAttributeValue("freq_timeunit"));
+        TimeUnit endOfFlag = TimeUnit.valueOf(jobTemplate.getAttributeValue("end_of_duration"));
         Calendar start = Calendar.getInstance(appTz);
         start.setTime(startTime);
         DateUtils.moveToEnd(start, endOfFlag);
@@ -151,7 +165,9 @@ public class CoordActionMaterializeXCommand extends CoordinatorXCommand<Void> {
         effStart.add(freqTU.getCalendarUnit(), lastActionNumber * frequency);
 
         String action = null;
+        Element eAction = null;
         StringBuilder actionStrings = new StringBuilder();
+        int batchSize = Math.max(1, Services.get().getConf().getInt(CONF_MATERIALIZATION_BATCH_SIZE, 100));
         Date jobPauseTime = jobBean.getPauseTime();
         Calendar pause = null;
         if (jobPauseTime != null) {
@@ -170,15 +186,19 @@ public class CoordActionMaterializeXCommand extends CoordinatorXCommand<Void> {
 
             log.debug(origStart.getTime() + " Materializing action for time=" + effStart.getTime()
                     + ", lastactionnumber=" + lastActionNumber);
-            action = CoordCommandUtils.materializeOneInstance(jobId, dryrun, (Element) eJob.clone(),
-                    effStart.getTime(), lastActionNumber, conf, actionBean);
+            eAction = CoordCommandUtils.nextActionElement(jobTemplate, eAction);
+            action = CoordCommandUtils.materializeOneInstance(jobId, dryrun, eAction, effStart.getTime(),
+                    lastActionNumber, conf, actionBean);
             if (actionBean.getNominalTimestamp().before(jobBean.getCreatedTimestamp())) {
                 actionBean.setTimeOut(Services.get().getConf().getInt(CONF_DEFAULT_TIMEOUT_CATCHUP, -1));
                 log.info("Catchup timeout is :" + actionBean.getTimeOut());
             }
 
             if (!dryrun) {
-                storeToDB(actionBean, action); // Storing to table
+                addToBatch(actionBean, action, eAction);
+                if (batchActions.size() >= batchSize) {
+                    storeToDB(); // Storing to table
+                }
             }
             else {
                 actionStrings.append("action for new instance");
@@ -191,6 +211,7 @@ public class CoordActionMaterializeXCommand extends CoordinatorXCommand<Void> {
 
         endTime = new Date(effStart.getTimeInMillis());
         if (!dryrun) {
+            storeToDB();
             return action;
         }
         else {
@@ -199,38 +220,46 @@ public class CoordActionMaterializeXCommand extends CoordinatorXCommand<Void> {
     }
 
     /**
-     * Store an Action into database table.
+     * Add an action and its SLA registration to the batch of beans to store.
+     * <p/>
+     * The SLA registration is taken from the materialized action element, the action XML is not parsed again.
      *
      * @param actionBean
      * @param actionXml
-     * @param store
-     * @param wantSla
-     * @throws StoreException
-     * @throws JDOMException
+     * @param eAction materialized action element
+     * @throws Exception
      */
-    private void storeToDB(CoordinatorActionBean actionBean, String actionXml) throws Exception {
-        log.debug("In storeToDB() action Id " + actionBean.getId() + " Size of actionXml " + actionXml.length());
+    private void addToBatch(CoordinatorActionBean actionBean, String actionXml, Element eAction) throws Exception {
+        log.debug("In addToBatch() action Id " + actionBean.getId() + " Size of actionXml " + actionXml.length());
         actionBean.setActionXml(actionXml);
-        //store.insertCoordinatorAction(actionBean);
-        jpaService.execute(new CoordActionInsertCommand(actionBean));
-        writeActionRegistration(actionXml, actionBean);
-
-        // TODO: time 100s should be configurable
-        queue(new CoordActionNotificationXCommand(actionBean), 100);
-        queue(new CoordActionInputCheckXCommand(actionBean.getId()), 100);
+        batch.add(actionBean);
+        batchActions.add(actionBean);
+        Element eSla = eAction.getChild("action", eAction.getNamespace()).getChild("info", eAction.getNamespace("sla"));
+        if (eSla != null) {
+            batch.add(SLADbOperations.createSlaRegistrationEvent(eSla, actionBean.getId(),
+                    SlaAppType.COORDINATOR_ACTION, user, group));
+        }
     }
 
     /**
-     * @param actionXml
-     * @param actionBean
-     * @param store
-     * @throws Exception
+     * Store the batch of actions and SLA registrations into database tables in a single transaction.
+     *
+     * @throws CommandException
      */
-    private void writeActionRegistration(String actionXml, CoordinatorActionBean actionBean)
-            throws Exception {
-        Element eAction = XmlUtils.parseXml(actionXml);
-        Element eSla = eAction.getChild("action", eAction.getNamespace()).getChild("info", eAction.getNamespace("sla"));
-        SLADbOperations.writeSlaRegistrationEvent(eSla, actionBean.getId(), SlaAppType.COORDINATOR_ACTION, user, group, log);
+    private void storeToDB() throws CommandException {
+        if (batchActions.isEmpty()) {
+            return;
+        }
+        log.debug("In storeToDB() storing [" + batchActions.size() + "] actions");
+        jpaService.execute(new BulkInsertCommand(batch));
+
+        for (CoordinatorActionBean actionBean : batchActions) {
+            // TODO: time 100s should be configurable
+            queue(new CoordActionNotificationXCommand(actionBean), 100);
+            queue(new CoordActionInputCheckXCommand(actionBean.getId()), 100);
+        }
+        batch.clear();
+        batchActions.clear();
     }
 
     /**
@@ -26,6 +26,8 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.store.CoordinatorStore;
 import org.apache.oozie.store.StoreException;
+import org.apache.oozie.service.NotificationService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
 
@@ -65,17 +67,23 @@ public class CoordActionNotificationCommand extends CoordinatorCommand<Void> {
             url = url.replaceAll(STATUS_PATTERN, actionBean.getStatus()
                     .toString());
             log.debug("Notification URL :" + url);
-            try {
-                URL urlObj = new URL(url);
-                HttpURLConnection urlConn = (HttpURLConnection) urlObj
-                        .openConnection();
-                if (urlConn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            NotificationService notifications = Services.get().get(NotificationService.class);
+            if (notifications != null) {
+                notifications.send(url);
+            }
+            else {
+                try {
+                    URL urlObj = new URL(url);
+                    HttpURLConnection urlConn = (HttpURLConnection) urlObj
+                            .openConnection();
+                    if (urlConn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                        handleRetry(url);
+                    }
+                }
+                catch (IOException ex) {
                     handleRetry(url);
                 }
             }
-            catch (IOException ex) {
-                handleRetry(url);
-            }
         }
         else {
             log
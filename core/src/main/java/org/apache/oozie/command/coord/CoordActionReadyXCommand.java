@@ -14,15 +14,19 @@
  */
 package org.apache.oozie.command.coord;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.CoordinatorAction;
 import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.CoordActionsSubmitCommand;
 import org.apache.oozie.command.jpa.CoordJobGetReadyActionsCommand;
 import org.apache.oozie.command.jpa.CoordJobGetRunningActionsCountCommand;
+import org.apache.oozie.service.CoordActionAdmissionService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XLog;
@@ -43,9 +47,17 @@ public class CoordActionReadyXCommand extends CoordinatorXCommand<Void> {
      * Check for READY actions and change state to SUBMITTED by a command to submit the job to WF engine.
      * This method checks all the actions associated with a jobId to figure out which actions
      * to start (based on concurrency and execution order [FIFO, LIFO, LAST_ONLY])
-     *
+     * <p/>
+     * If the {@link CoordActionAdmissionService} is available the actions to start are decided in memory by it,
+     * otherwise they are queried from the database.
      */
     protected Void execute() throws CommandException {
+        CoordActionAdmissionService admission = Services.get().get(CoordActionAdmissionService.class);
+        if (admission != null) {
+            startAdmittedActions(admission);
+            return null;
+        }
+
         // number of actions to start (-1 means start ALL)
         int numActionsToStart = -1;
 
@@ -105,6 +117,38 @@ public class CoordActionReadyXCommand extends CoordinatorXCommand<Void> {
         return null;
     }
 
+    /**
+     * Change the actions admitted by the admission service to SUBMITTED, in a single transaction, and queue their
+     * start. Admitted actions that are not READY anymore are released.
+     */
+    private void startAdmittedActions(CoordActionAdmissionService admission) throws CommandException {
+        List<String> actionIds = admission.admit(coordJob);
+        log.debug("Number of READY actions admitted = " + actionIds.size());
+        if (actionIds.isEmpty()) {
+            return;
+        }
+        Set<String> submitted;
+        try {
+            submitted = new HashSet<String>(jpaService.execute(new CoordActionsSubmitCommand(actionIds)));
+        }
+        catch (CommandException ex) {
+            for (String actionId : actionIds) {
+                admission.release(jobId, actionId);
+            }
+            throw ex;
+        }
+        for (String actionId : actionIds) {
+            if (submitted.contains(actionId)) {
+                log.debug("Set status to SUBMITTED for id: " + actionId);
+                queue(new CoordActionStartXCommand(actionId, coordJob.getUser(), coordJob.getAuthToken()), 100);
+            }
+            else {
+                log.debug("Action id: " + actionId + " is not READY anymore");
+                admission.release(jobId, actionId);
+            }
+        }
+    }
+
     @Override
     protected String getEntityKey() {
         return jobId;
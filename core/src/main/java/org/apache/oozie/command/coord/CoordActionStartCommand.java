@@ -23,6 +23,7 @@ import org.apache.oozie.DagEngine;
 import org.apache.oozie.DagEngineException;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.command.CommandException;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.store.CoordinatorStore;
@@ -158,6 +159,10 @@ public class CoordActionStartCommand extends CoordinatorCommand<Void> {
                 coordAction.setStatus(CoordinatorAction.Status.RUNNING);
                 coordAction.setExternalId(wfId);
                 store.updateCoordinatorAction(coordAction);
+                ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+                if (checker != null) {
+                    checker.scheduleCoordCheck(coordAction.getId());
+                }
                 makeFail = false;
             }
             catch (StoreException se) {
@@ -24,6 +24,8 @@ import org.apache.oozie.DagEngineException;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.service.CoordActionAdmissionService;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
@@ -163,11 +165,15 @@ public class CoordActionStartXCommand extends CoordinatorXCommand<Void> {
                 JPAService jpaService = Services.get().get(JPAService.class);
                 if (jpaService != null) {
                     jpaService.execute(new org.apache.oozie.command.jpa.CoordActionUpdateCommand(coordAction));
+                    // only a running action stored as such is checked
+                    ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+                    if (checker != null) {
+                        checker.scheduleCoordCheck(coordAction.getId());
+                    }
                 }
                 else {
                     log.error(ErrorCode.E0610);
                 }
-                
                 makeFail = false;
             }
             catch (DagEngineException dee) {
@@ -207,6 +213,10 @@ public class CoordActionStartXCommand extends CoordinatorXCommand<Void> {
                     else {
                         log.error(ErrorCode.E0610);
                     }
+                    CoordActionAdmissionService admission = Services.get().get(CoordActionAdmissionService.class);
+                    if (admission != null) {
+                        admission.release(coordAction.getJobId(), coordAction.getId());
+                    }
                     queue(new CoordActionReadyXCommand(coordAction.getJobId()));
                 }
             }
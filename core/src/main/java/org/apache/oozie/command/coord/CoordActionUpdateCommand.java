@@ -17,6 +17,9 @@ package org.apache.oozie.command.coord;
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.XException;
+import org.apache.oozie.service.ActionCheckerService;
+import org.apache.oozie.service.CoordActionAdmissionService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.store.CoordinatorStore;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.util.XLog;
@@ -77,6 +80,14 @@ public class CoordActionUpdateCommand extends CoordinatorCommand<Void> {
                 log.info(
                         "Updating Coordintaor id :" + caction.getId() + "status to =" + caction.getStatus());
                 cstore.updateCoordinatorAction(caction);
+                ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+                if (checker != null) {
+                    checker.unscheduleCoordCheck(caction.getId());
+                }
+                CoordActionAdmissionService admission = Services.get().get(CoordActionAdmissionService.class);
+                if (admission != null) {
+                    admission.release(caction.getJobId(), caction.getId());
+                }
                 if (slaStatus != null) {
                     SLADbOperations.writeStausEvent(caction.getSlaXml(), caction.getId(), cstore, slaStatus,
                                                     SlaAppType.COORDINATOR_ACTION);
@@ -20,6 +20,8 @@ import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.XException;
+import org.apache.oozie.service.ActionCheckerService;
+import org.apache.oozie.service.CoordActionAdmissionService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XLog;
@@ -78,6 +80,14 @@ public class CoordActionUpdateXCommand extends CoordinatorXCommand<Void> {
             log.info("Updating Coordintaor id :" + coordAction.getId() + "status to =" + coordAction.getStatus());
             coordAction.setLastModifiedTime(new Date());
             jpaService.execute(new org.apache.oozie.command.jpa.CoordActionUpdateCommand(coordAction));
+            ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+            if (checker != null) {
+                checker.unscheduleCoordCheck(coordAction.getId());
+            }
+            CoordActionAdmissionService admission = Services.get().get(CoordActionAdmissionService.class);
+            if (admission != null) {
+                admission.release(coordAction.getJobId(), coordAction.getId());
+            }
             if (slaStatus != null) {
                 SLADbOperations.writeStausEvent(coordAction.getSlaXml(), coordAction.getId(), slaStatus,
                                                 SlaAppType.COORDINATOR_ACTION, log);
@@ -34,8 +34,10 @@ import org.apache.oozie.service.UUIDService;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.ELEvaluator;
 import org.apache.oozie.util.XConfiguration;
+import org.apache.oozie.util.XmlTemplate;
 import org.apache.oozie.util.XmlUtils;
 import org.jdom.Element;
+import org.jdom.Namespace;
 
 public class CoordCommandUtils {
     public static int CURRENT = 0;
@@ -348,6 +350,43 @@ public class CoordCommandUtils {
         return true;
     }
 
+    /**
+     * Return the element to materialize the next action of a coordinator job.
+     * <p/>
+     * {@link #materializeOneInstance} only rewrites the data events, the SLA information and the attributes of the
+     * action element, everything else (i.e. the workflow configuration) is left untouched. The first action gets a
+     * copy of the job template, the following actions reuse the element of the previous action with the rewritten
+     * parts restored from the template, instead of copying the whole job for every action.
+     * <p/>
+     * The element of the previous action must not be used anymore once this method is called.
+     *
+     * @param jobTemplate template of the coordinator job XML.
+     * @param eAction element of the previous action, <code>null</code> for the first action.
+     * @return the element to materialize the next action.
+     */
+    public static Element nextActionElement(XmlTemplate jobTemplate, Element eAction) {
+        if (eAction == null) {
+            return jobTemplate.copy();
+        }
+        Namespace ns = jobTemplate.getNamespace();
+        eAction.setAttributes(jobTemplate.copyAttributes());
+        restoreChild(eAction, jobTemplate.copyChild("input-events", ns));
+        restoreChild(eAction, jobTemplate.copyChild("output-events", ns));
+        restoreChild(eAction.getChild("action", eAction.getNamespace()),
+                     jobTemplate.copyChild("action", "info", jobTemplate.getNamespace("sla")));
+        return eAction;
+    }
+
+    /**
+     * Replace a child of an element with a copy of the same child from the template.
+     */
+    private static void restoreChild(Element element, Element original) {
+        if (original != null) {
+            Element child = element.getChild(original.getName(), original.getNamespace());
+            element.setContent(element.indexOf(child), original);
+        }
+    }
+
     /**
      * Materialize one instance for specific nominal time. It includes: 1.
      * Materialize data events (i.e. <data-in> and <data-out>) 2. Materialize
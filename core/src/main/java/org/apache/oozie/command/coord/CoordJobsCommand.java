@@ -23,6 +23,7 @@ import org.apache.oozie.DagEngineException;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.wf.JobCommand;
 import org.apache.oozie.store.CoordinatorStore;
+import org.apache.oozie.store.JobsCursor;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
@@ -31,6 +32,9 @@ public class CoordJobsCommand extends CoordinatorCommand<CoordinatorJobInfo> {
     private Map<String, List<String>> filter;
     private int start;
     private int len;
+    private boolean keyset;
+    private JobsCursor cursor;
+    private boolean withTotal;
 
     public CoordJobsCommand(Map<String, List<String>> filter, int start, int length) {
         super("job.info", "job.info", 1, XLog.OPS);
@@ -39,9 +43,25 @@ public class CoordJobsCommand extends CoordinatorCommand<CoordinatorJobInfo> {
         this.len = length;
     }
 
+    /**
+     * Constructor for a cursor based listing, see {@link JobsCursor}.
+     *
+     * @param filter Can be name, status, user, group and combination of these
+     * @param cursor cursor of the page, <code>null</code> for the first page.
+     * @param length number of coordinator jobs to be returned.
+     * @param withTotal if the total number of coordinator jobs matching the filter must be computed.
+     */
+    public CoordJobsCommand(Map<String, List<String>> filter, JobsCursor cursor, int length, boolean withTotal) {
+        this(filter, 1, length);
+        this.keyset = true;
+        this.cursor = cursor;
+        this.withTotal = withTotal;
+    }
+
     @Override
     protected CoordinatorJobInfo call(CoordinatorStore store) throws StoreException, CommandException {
-        CoordinatorJobInfo coord = store.getCoordinatorInfo(filter, start, len);
+        CoordinatorJobInfo coord = (keyset) ? store.getCoordinatorInfo(filter, cursor, len, withTotal)
+                                            : store.getCoordinatorInfo(filter, start, len);
         // workflow.setConsoleUrl(getJobConsoleUrl(id));
         // workflow.setActions((List) store.getActionsForWorkflow(id,
         // false));
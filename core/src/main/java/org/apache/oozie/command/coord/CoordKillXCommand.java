@@ -26,6 +26,7 @@ import org.apache.oozie.command.jpa.CoordActionUpdateCommand;
 import org.apache.oozie.command.wf.WorkflowKillXCommand;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.service.CoordActionAdmissionService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
@@ -100,6 +101,10 @@ public class CoordKillXCommand extends CoordinatorXCommand<Void> {
             }
         }
         jpaService.execute(new CoordJobUpdateCommand(coordJob));
+        CoordActionAdmissionService admission = Services.get().get(CoordActionAdmissionService.class);
+        if (admission != null) {
+            admission.reset(jobId);
+        }
         LOG.info("ENDED CoordKillXCommand for jobId=" + jobId);
         return null;
     }
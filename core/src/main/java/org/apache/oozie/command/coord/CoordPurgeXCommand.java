@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.coord;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.command.jpa.BulkDeleteCommand;
+import org.apache.oozie.command.jpa.PurgeIdsGetCommand;
+import org.apache.oozie.command.jpa.PurgeOldestGetCommand;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.PurgeService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Purge completed coordinator actions older than a given number of days, and the completed coordinator jobs older
+ * than a given number of days without actions left.
+ * <p/>
+ * Only the IDs of the actions and jobs are loaded, they are deleted in batches, each batch with a single delete
+ * statement in its own transaction.
+ */
+public class CoordPurgeXCommand extends CoordinatorXCommand<Void> {
+    public static final String PURGE_TYPE = "coord";
+
+    private static final long DAY_IN_MS = 24 * 60 * 60 * 1000;
+
+    private final XLog log = XLog.getLog(getClass());
+    private int olderThan;
+    private int batchSize;
+    private int maxRowsPerSec;
+    private int maxRunTime;
+    private JPAService jpaService;
+
+    /**
+     * Create a coordinator purge command.
+     *
+     * @param olderThan age, in days, of the completed coordinator actions and jobs to purge.
+     * @param batchSize number of records deleted per transaction.
+     * @param maxRowsPerSec max number of records deleted per second, <code>0</code> for no limit.
+     * @param maxRunTime max duration of the purge, in seconds, <code>0</code> for no limit.
+     */
+    public CoordPurgeXCommand(int olderThan, int batchSize, int maxRowsPerSec, int maxRunTime) {
+        super("coord_purge", "coord_purge", 0);
+        this.olderThan = olderThan;
+        this.batchSize = batchSize;
+        this.maxRowsPerSec = maxRowsPerSec;
+        this.maxRunTime = maxRunTime;
+    }
+
+    @Override
+    protected Void execute() throws CommandException {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - olderThan * DAY_IN_MS);
+        log.debug("STARTED Coord Purge of actions and jobs older than [{0}] days", olderThan);
+        PurgeService.PurgeRun run = new PurgeService.PurgeRun(PURGE_TYPE, batchSize, maxRowsPerSec, maxRunTime);
+        try {
+            List<String> ids;
+            do {
+                ids = jpaService.execute(new PurgeIdsGetCommand("GET_COMPLETED_ACTION_IDS_OLDER_THAN", "createdTime",
+                                                                cutoff, run.getBatchSize()));
+                run.deleted("coord_actions",
+                            jpaService.execute(new BulkDeleteCommand("CoordinatorActionBean", "id", ids)));
+            } while (ids.size() == run.getBatchSize() && run.hasTime());
+
+            while (run.hasTime()) {
+                ids = jpaService.execute(new PurgeIdsGetCommand("GET_COMPLETED_COORD_JOB_IDS_OLDER_THAN",
+                                                                "lastModTime", cutoff, run.getBatchSize()));
+                run.deleted("coord_jobs", jpaService.execute(new BulkDeleteCommand("CoordinatorJobBean", "id", ids)));
+                if (ids.size() < run.getBatchSize()) {
+                    break;
+                }
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        run.end(cutoff, jpaService.execute(new PurgeOldestGetCommand("GET_COMPLETED_ACTIONS_OLDEST_CREATED_TIME",
+                                                                     "createdTime", cutoff)));
+        log.debug("ENDED Coord Purge deleted [{0}] records", run.getRows());
+        return null;
+    }
+
+    @Override
+    protected String getEntityKey() {
+        return "coord_purge";
+    }
+
+    @Override
+    protected boolean isLockRequired() {
+        return true;
+    }
+
+    /**
+     * A purge still running makes this purge to fail right away.
+     *
+     * @return <code>0</code>.
+     */
+    @Override
+    protected long getLockTimeOut() {
+        return 0;
+    }
+
+    @Override
+    protected void loadState() throws CommandException {
+        jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            throw new CommandException(ErrorCode.E0610);
+        }
+    }
+
+    @Override
+    protected void verifyPrecondition() throws CommandException, PreconditionException {
+    }
+}
@@ -56,6 +56,7 @@ import org.apache.oozie.service.Services;
 import org.apache.oozie.service.UUIDService;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.WorkflowAppService;
+import org.apache.oozie.service.XmlCacheService;
 import org.apache.oozie.service.SchemaService.SchemaName;
 import org.apache.oozie.service.UUIDService.ApplicationType;
 import org.apache.oozie.store.StoreException;
@@ -150,11 +151,15 @@ public class CoordSubmitXCommand extends CoordinatorXCommand<String> {
 
             String appXml = readAndValidateXml();
             coordJob.setOrigJobXml(appXml);
-            log.debug("jobXml after initial validation " + XmlUtils.prettyPrint(appXml).toString());
+            if (log.isDebugEnabled()) {
+                log.debug("jobXml after initial validation " + XmlUtils.prettyPrint(appXml).toString());
+            }
             appXml = XmlUtils.removeComments(appXml);
             initEvaluators();
             Element eJob = basicResolveAndIncludeDS(appXml, conf, coordJob);
-            log.debug("jobXml after all validation " + XmlUtils.prettyPrint(eJob).toString());
+            if (log.isDebugEnabled()) {
+                log.debug("jobXml after all validation " + XmlUtils.prettyPrint(eJob).toString());
+            }
 
             jobId = storeToDB(eJob, coordJob);
             // log JOB info for coordinator jobs
@@ -224,16 +229,23 @@ public class CoordSubmitXCommand extends CoordinatorXCommand<String> {
 
     /**
      * Validate against Coordinator XSD file
+     * <p/>
+     * Coordinator XMLs already validated are not validated again (see {@link XmlCacheService}).
      *
      * @param xmlContent : Input coordinator xml
      * @throws CoordinatorJobException
      */
     private void validateXml(String xmlContent) throws CoordinatorJobException {
-        javax.xml.validation.Schema schema = Services.get().get(SchemaService.class).getSchema(SchemaName.COORDINATOR);
-        Validator validator = schema.newValidator();
         // log.warn("XML " + xmlContent);
         try {
-            validator.validate(new StreamSource(new StringReader(xmlContent)));
+            XmlCacheService xmlCache = Services.get().get(XmlCacheService.class);
+            if (xmlCache != null) {
+                xmlCache.validate(xmlContent, SchemaName.COORDINATOR);
+            }
+            else {
+                Validator validator = Services.get().get(SchemaService.class).getValidator(SchemaName.COORDINATOR);
+                validator.validate(new StreamSource(new StringReader(xmlContent)));
+            }
         }
         catch (SAXException ex) {
             log.warn("SAXException :", ex);
@@ -353,6 +365,18 @@ public class CoordSubmitXCommand extends CoordinatorXCommand<String> {
         evalSla = CoordELEvaluator.createELEvaluatorForGroup(conf, "coord-sla-submit");
     }
 
+    /**
+     * Parse an XML, the parsed document is taken from the {@link XmlCacheService} if available.
+     *
+     * @param xml XML to parse.
+     * @return a root element that can be modified.
+     * @throws JDOMException thrown if the XML could not be parsed.
+     */
+    private Element parseXml(String xml) throws JDOMException {
+        XmlCacheService xmlCache = Services.get().get(XmlCacheService.class);
+        return (xmlCache != null) ? xmlCache.getTemplate(xml).copy() : XmlUtils.parseXml(xml);
+    }
+
     /**
      * Resolve basic entities using job Configuration.
      *
@@ -364,7 +388,7 @@ public class CoordSubmitXCommand extends CoordinatorXCommand<String> {
      */
     protected Element resolveInitial(Configuration conf, String appXml, CoordinatorJobBean coordJob)
             throws CoordinatorJobException, Exception {
-        Element eAppXml = XmlUtils.parseXml(appXml);
+        Element eAppXml = parseXml(appXml);
         // job's main attributes
         // frequency
         String val = resolveAttribute("frequency", eAppXml, evalFreq);
@@ -691,7 +715,7 @@ public class CoordSubmitXCommand extends CoordinatorXCommand<String> {
         try {
             String dsXml = readDefinition(incDSFile);
             log.debug("DSFILE :" + incDSFile + "\n" + dsXml);
-            tmpDataSets = XmlUtils.parseXml(dsXml);
+            tmpDataSets = parseXml(dsXml);
         }
         /*
          * catch (IOException iex) {XLog.getLog(getClass()).warn(
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Delete the records of an entity whose key field is in a list of values, with a single delete statement.
+ */
+public class BulkDeleteCommand implements JPACommand<Integer> {
+
+    private String entity = null;
+    private String field = null;
+    private List<String> values = null;
+
+    /**
+     * Create a bulk delete command.
+     *
+     * @param entity entity name.
+     * @param field field of the entity to match.
+     * @param values values of the field of the records to delete.
+     */
+    public BulkDeleteCommand(String entity, String field, List<String> values) {
+        this.entity = ParamChecker.notEmpty(entity, "entity");
+        this.field = ParamChecker.notEmpty(field, "field");
+        this.values = ParamChecker.notNull(values, "values");
+    }
+
+    @Override
+    public String getName() {
+        return "BulkDeleteCommand";
+    }
+
+    @Override
+    public Integer execute(EntityManager em) throws CommandException {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("delete from ").append(entity).append(" e where e.").append(field).append(" IN (");
+        for (int i = 0; i < values.size(); i++) {
+            sb.append((i > 0) ? ", " : "").append(":p").append(i);
+        }
+        sb.append(")");
+        try {
+            Query q = em.createQuery(sb.toString());
+            for (int i = 0; i < values.size(); i++) {
+                q.setParameter("p" + i, values.get(i));
+            }
+            return q.executeUpdate();
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+    }
+}
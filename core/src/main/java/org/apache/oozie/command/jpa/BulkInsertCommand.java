@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Persist a list of beans in a single transaction.
+ * <p/>
+ * The inserts are flushed together at commit time, allowing the JDBC driver to batch them (see {@link
+ * org.apache.oozie.service.JPAService#CONF_BATCH_LIMIT}).
+ */
+public class BulkInsertCommand implements JPACommand<Void> {
+
+    private List<?> beans = null;
+
+    public BulkInsertCommand(List<?> beans) {
+        ParamChecker.notNull(beans, "beans");
+        this.beans = beans;
+    }
+
+    @Override
+    public String getName() {
+        return "BulkInsertCommand";
+    }
+
+    @Override
+    public Void execute(EntityManager em) throws CommandException {
+        for (Object bean : beans) {
+            em.persist(bean);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Change the status of a list of coordinator actions from READY to SUBMITTED in a single transaction.
+ * <p/>
+ * Actions that are not READY anymore are not changed, the IDs of the actions changed are returned.
+ */
+public class CoordActionsSubmitCommand implements JPACommand<List<String>> {
+
+    private List<String> actionIds = null;
+
+    public CoordActionsSubmitCommand(List<String> actionIds) {
+        this.actionIds = ParamChecker.notNull(actionIds, "actionIds");
+    }
+
+    @Override
+    public String getName() {
+        return "CoordActionsSubmitCommand";
+    }
+
+    @Override
+    public List<String> execute(EntityManager em) throws CommandException {
+        try {
+            List<String> submitted = new ArrayList<String>();
+            Query q = em.createNamedQuery("UPDATE_COORD_ACTION_READY_TO_SUBMITTED");
+            q.setParameter("lastModifiedTime", new Timestamp(System.currentTimeMillis()));
+            for (String actionId : actionIds) {
+                q.setParameter("id", actionId);
+                if (q.executeUpdate() > 0) {
+                    submitted.add(actionId);
+                }
+            }
+            return submitted;
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the READY, SUBMITTED and RUNNING actions of a coordinator job.
+ * <p/>
+ * Each row has the action ID, the action status and the action nominal timestamp.
+ */
+public class CoordJobGetAdmissionStateCommand implements JPACommand<List<Object[]>> {
+
+    private String coordJobId = null;
+
+    public CoordJobGetAdmissionStateCommand(String coordJobId) {
+        this.coordJobId = ParamChecker.notEmpty(coordJobId, "coordJobId");
+    }
+
+    @Override
+    public String getName() {
+        return "CoordJobGetAdmissionStateCommand";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> execute(EntityManager em) throws CommandException {
+        try {
+            Query q = em.createNamedQuery("GET_COORD_ACTIONS_ADMISSION_STATE");
+            q.setParameter("jobId", coordJobId);
+            return q.getResultList();
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the user and group of a workflow or coordinator job.
+ * <p/>
+ * Only the owner columns are read, the job bean (and its LOB columns) is not loaded. Workflow job IDs end with
+ * <code>-W</code>, any other ID is looked up as a coordinator job.
+ * <p/>
+ * Returns a 2 elements array with the user and the group of the job.
+ */
+public class JobOwnerGetCommand implements JPACommand<String[]> {
+
+    private String jobId = null;
+
+    public JobOwnerGetCommand(String jobId) {
+        ParamChecker.notEmpty(jobId, "jobId");
+        this.jobId = jobId;
+    }
+
+    @Override
+    public String getName() {
+        return "JobOwnerGetCommand";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String[] execute(EntityManager em) throws CommandException {
+        List<Object[]> owners;
+        try {
+            Query q = em.createNamedQuery(jobId.endsWith("-W") ? "GET_WORKFLOW_OWNER" : "GET_COORD_JOB_OWNER");
+            q.setParameter("id", jobId);
+            owners = q.getResultList();
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+        if (owners != null && owners.size() > 0) {
+            Object[] owner = owners.get(0);
+            return new String[]{(String) owner[0], (String) owner[1]};
+        }
+        else {
+            throw new CommandException(ErrorCode.E0604, jobId);
+        }
+    }
+}
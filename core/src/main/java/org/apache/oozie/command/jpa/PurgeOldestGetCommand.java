@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the time of the oldest purgeable record, <code>null</code> if there are no purgeable records.
+ * <p/>
+ * The named query must select the minimum time and take the purge cutoff time as its single parameter.
+ */
+public class PurgeOldestGetCommand implements JPACommand<Date> {
+
+    private String queryName = null;
+    private String paramName = null;
+    private Timestamp cutoff = null;
+
+    public PurgeOldestGetCommand(String queryName, String paramName, Timestamp cutoff) {
+        this.queryName = ParamChecker.notEmpty(queryName, "queryName");
+        this.paramName = ParamChecker.notEmpty(paramName, "paramName");
+        this.cutoff = ParamChecker.notNull(cutoff, "cutoff");
+    }
+
+    @Override
+    public String getName() {
+        return "PurgeOldestGetCommand";
+    }
+
+    @Override
+    public Date execute(EntityManager em) throws CommandException {
+        try {
+            Query q = em.createNamedQuery(queryName);
+            q.setParameter(paramName, cutoff);
+            return DateUtils.toDate((Timestamp) q.getSingleResult());
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowConfigurationBean;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load a workflow job configuration by its ID, return <code>null</code> if the configuration is not stored.
+ */
+public class WorkflowConfigurationGetCommand implements JPACommand<WorkflowConfigurationBean> {
+
+    private String id = null;
+
+    public WorkflowConfigurationGetCommand(String id) {
+        ParamChecker.notEmpty(id, "id");
+        this.id = id;
+    }
+
+    @Override
+    public String getName() {
+        return "WorkflowConfigurationGetCommand";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public WorkflowConfigurationBean execute(EntityManager em) throws CommandException {
+        List<WorkflowConfigurationBean> beans;
+        try {
+            Query q = em.createNamedQuery("GET_WORKFLOW_CONFIGURATION");
+            q.setParameter("id", id);
+            beans = q.getResultList();
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+        return (beans != null && beans.size() > 0) ? beans.get(0) : null;
+    }
+}
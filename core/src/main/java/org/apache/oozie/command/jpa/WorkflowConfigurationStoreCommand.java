@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowConfigurationBean;
+import org.apache.oozie.WorkflowDefinitionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowDefinitionService;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Store the workflow definition and the job configuration the workflow instance of a job refers to, if the instance
+ * has been serialized with references to them not stored yet.
+ * <p/>
+ * It must be executed in the unit of work writing the workflow job: the job configuration belongs to the job, it is
+ * persisted in the same transaction. The workflow definition is shared with the other jobs of the same application,
+ * a job transaction would fail if another job stored the same definition concurrently, it is stored by the {@link
+ * WorkflowDefinitionService} in its own transaction. A definition left unused by a rolled back job transaction is
+ * deleted by the purge.
+ */
+public class WorkflowConfigurationStoreCommand implements JPACommand<Void> {
+
+    private WorkflowJobBean wfJob = null;
+
+    public WorkflowConfigurationStoreCommand(WorkflowJobBean wfJob) {
+        ParamChecker.notNull(wfJob, "wfJob");
+        this.wfJob = wfJob;
+    }
+
+    @Override
+    public String getName() {
+        return "WorkflowConfigurationStoreCommand";
+    }
+
+    @Override
+    public Void execute(EntityManager em) throws CommandException {
+        WorkflowDefinitionBean definition = wfJob.removeUnstoredDefinition();
+        if (definition != null) {
+            WorkflowDefinitionService defService = Services.get().get(WorkflowDefinitionService.class);
+            if (defService == null) {
+                throw new CommandException(ErrorCode.E0610);
+            }
+            defService.store(definition);
+        }
+        WorkflowConfigurationBean configuration = wfJob.removeUnstoredConfiguration();
+        if (configuration != null) {
+            // a rerun with the same configuration refers to the stored one
+            if (new WorkflowConfigurationGetCommand(configuration.getId()).execute(em) == null) {
+                try {
+                    em.persist(configuration);
+                }
+                catch (Exception e) {
+                    throw new CommandException(ErrorCode.E0603, e);
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.jpa;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Delete the workflow definitions no workflow job configuration refers to and not used since a given time, return the
+ * number of deleted definitions.
+ */
+public class WorkflowDefinitionPurgeCommand implements JPACommand<Integer> {
+
+    private Date lastUsedTime = null;
+
+    /**
+     * Create a workflow definition purge command.
+     *
+     * @param lastUsedTime definitions last used before this time are deleted if not used by any job.
+     */
+    public WorkflowDefinitionPurgeCommand(Date lastUsedTime) {
+        this.lastUsedTime = ParamChecker.notNull(lastUsedTime, "lastUsedTime");
+    }
+
+    @Override
+    public String getName() {
+        return "WorkflowDefinitionPurgeCommand";
+    }
+
+    @Override
+    public Integer execute(EntityManager em) throws CommandException {
+        try {
+            Query q = em.createNamedQuery("DELETE_UNUSED_WORKFLOW_DEFINITIONS");
+            q.setParameter("lastUsedTime", new Timestamp(lastUsedTime.getTime()));
+            return q.executeUpdate();
+        }
+        catch (Exception e) {
+            throw new CommandException(ErrorCode.E0603, e);
+        }
+    }
+}
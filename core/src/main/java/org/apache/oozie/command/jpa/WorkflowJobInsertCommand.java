@@ -21,7 +21,7 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.util.ParamChecker;
 
 /**
- * Persist the WorkflowJob bean.
+ * Persist the WorkflowJob bean, with the job configuration its workflow instance refers to.
  */
 public class WorkflowJobInsertCommand implements JPACommand<String> {
 
@@ -40,6 +40,7 @@ public class WorkflowJobInsertCommand implements JPACommand<String> {
     @Override
     public String execute(EntityManager em) throws CommandException {
         em.persist(wfJob);
+        new WorkflowConfigurationStoreCommand(wfJob).execute(em);
         return null;
     }
 }
\ No newline at end of file
@@ -18,11 +18,15 @@ import javax.persistence.EntityManager;
 
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.command.CommandException;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowJobCacheService;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.ErrorCode;
 
 /**
 * Persist the WorkflowJob bean.
+* <p/>
+* The cached bean of the job, if any, is invalidated (see {@link WorkflowJobCacheService}).
 */
 public class WorkflowJobUpdateCommand implements JPACommand<String> {
 
@@ -43,6 +47,12 @@ public class WorkflowJobUpdateCommand implements JPACommand<String> {
 
         try {
             em.merge(wfJob);
+            new WorkflowConfigurationStoreCommand(wfJob).execute(em);
+            WorkflowJobCacheService cache = (Services.get() != null)
+                    ? Services.get().get(WorkflowJobCacheService.class) : null;
+            if (cache != null) {
+                cache.invalidate(wfJob.getId());
+            }
             return null;
         }
         catch (Exception e) {
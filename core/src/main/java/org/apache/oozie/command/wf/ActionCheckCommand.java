@@ -24,7 +24,9 @@ import org.apache.oozie.action.ActionExecutorException;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.WorkflowAction.Status;
 import org.apache.oozie.command.CommandException;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.ActionService;
+import org.apache.oozie.service.CallbackBufferService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.UUIDService;
 import org.apache.oozie.store.StoreException;
@@ -41,15 +43,31 @@ public class ActionCheckCommand extends ActionCommand<Void> {
     private String id;
     private String jobId;
     private int actionCheckDelay;
+    private Instrumentation.Cron callbackCron;
 
     public ActionCheckCommand(String id) {
         this(id, -1);
     }
 
     public ActionCheckCommand(String id, int priority, int checkDelay) {
+        this(id, priority, checkDelay, null);
+    }
+
+    /**
+     * Create an action check triggered by a callback.
+     *
+     * @param id action ID.
+     * @param priority command priority.
+     * @param checkDelay delay, in seconds, since the last check of the action to skip this check.
+     * @param callbackCron cron started when the callback was received, it is stopped and added to the callback
+     * latency timer if the check completes the action. The callback it identifies is reported processed to the {@link
+     * CallbackBufferService} when the check ends. It may be <code>null</code>.
+     */
+    public ActionCheckCommand(String id, int priority, int checkDelay, Instrumentation.Cron callbackCron) {
         super("action.check", "action.check", priority);
         this.id = id;
         this.actionCheckDelay = checkDelay;
+        this.callbackCron = callbackCron;
     }
 
     public ActionCheckCommand(String id, int checkDelay) {
@@ -106,6 +124,11 @@ public class ActionCheckCommand extends ActionCommand<Void> {
                             }
                             action.setPending();
                             queueCallable(new ActionEndCommand(action.getId(), action.getType()));
+                            if (callbackCron != null && getInstrumentation() != null) {
+                                callbackCron.stop();
+                                getInstrumentation().addCron(CallbackBufferService.INSTRUMENTATION_GROUP,
+                                                             CallbackBufferService.INSTR_LATENCY_TIMER, callbackCron);
+                            }
                         }
                         action.setLastCheckTime(new Date());
                         store.updateAction(action);
@@ -136,6 +159,12 @@ public class ActionCheckCommand extends ActionCommand<Void> {
                         action.getId(), workflow.getId(), workflow.getStatus());
             }
         }
+        else {
+            ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+            if (checker != null) {
+                checker.unscheduleCheck(id);
+            }
+        }
         return null;
     }
 
@@ -170,14 +199,20 @@ public class ActionCheckCommand extends ActionCommand<Void> {
             jobId = Services.get().get(UUIDService.class).getId(id);
             if (lock(jobId)) {
                 call(store);
+                CallbackBufferService callbackBuffer = Services.get().get(CallbackBufferService.class);
+                if (callbackCron != null && callbackBuffer != null) {
+                    callbackBuffer.processed(id, callbackCron);
+                }
             }
             else {
-                queueCallable(new ActionCheckCommand(id, actionCheckDelay), LOCK_FAILURE_REQUEUE_INTERVAL);
+                queueCallable(new ActionCheckCommand(id, 0, actionCheckDelay, callbackCron),
+                              LOCK_FAILURE_REQUEUE_INTERVAL);
                 XLog.getLog(getClass()).warn("ActionCheckCommand lock was not acquired - failed {0}", id);
             }
         }
         catch (InterruptedException e) {
-            queueCallable(new ActionCheckCommand(id, actionCheckDelay), LOCK_FAILURE_REQUEUE_INTERVAL);
+            queueCallable(new ActionCheckCommand(id, 0, actionCheckDelay, callbackCron),
+                          LOCK_FAILURE_REQUEUE_INTERVAL);
             XLog.getLog(getClass()).warn("ActionCheckCommand lock was not acquired - interrupted exception failed {0}",
                                          id);
         }
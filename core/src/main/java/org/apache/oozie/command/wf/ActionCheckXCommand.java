@@ -29,8 +29,8 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.jpa.WorkflowActionGetCommand;
 import org.apache.oozie.command.jpa.WorkflowActionUpdateCommand;
-import org.apache.oozie.command.jpa.WorkflowJobGetCommand;
 import org.apache.oozie.command.jpa.WorkflowJobUpdateCommand;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
@@ -74,9 +74,7 @@ public class ActionCheckXCommand extends WorkflowActionXCommand<Void> {
         try {
             jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.wfJob = jpaService.execute(new WorkflowJobGetCommand(jobId));
                 this.wfAction = jpaService.execute(new WorkflowActionGetCommand(actionId));
-                setLogInfo(wfJob);
                 setLogInfo(wfAction);
             }
             else {
@@ -90,9 +88,6 @@ public class ActionCheckXCommand extends WorkflowActionXCommand<Void> {
 
     @Override
     protected void eagerVerifyPrecondition() throws CommandException, PreconditionException {
-        if (wfJob == null) {
-            throw new PreconditionException(ErrorCode.E0604, jobId);
-        }
         if (wfAction == null) {
             throw new PreconditionException(ErrorCode.E0605, actionId);
         }
@@ -123,11 +118,21 @@ public class ActionCheckXCommand extends WorkflowActionXCommand<Void> {
 
     @Override
     protected void loadState() throws CommandException {
+        // the job is loaded once the lock is obtained as it may come from the workflow job cache
+        this.wfJob = loadWorkflowJob(jobId);
+        setLogInfo(wfJob);
     }
 
     @Override
     protected void verifyPrecondition() throws CommandException, PreconditionException {
+        if (wfJob == null) {
+            throw new PreconditionException(ErrorCode.E0604, jobId);
+        }
         if (!wfAction.isPending() || wfAction.getStatus() != WorkflowActionBean.Status.RUNNING) {
+            ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+            if (checker != null) {
+                checker.unscheduleCheck(actionId);
+            }
             throw new PreconditionException(ErrorCode.E0815, wfAction.getPending(), wfAction.getStatusStr());
         }
         if (wfJob.getStatus() != WorkflowJob.Status.RUNNING) {
@@ -171,6 +176,7 @@ public class ActionCheckXCommand extends WorkflowActionXCommand<Void> {
             wfAction.setLastCheckTime(new Date());
             jpaService.execute(new WorkflowActionUpdateCommand(wfAction));
             jpaService.execute(new WorkflowJobUpdateCommand(wfJob));
+            cacheWorkflowJob(wfJob);
         }
         catch (ActionExecutorException ex) {
             LOG.warn("Exception while executing check(). Error Code [{0}], Message[{1}]", ex.getErrorCode(), ex
@@ -33,7 +33,6 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.jpa.WorkflowActionGetCommand;
 import org.apache.oozie.command.jpa.WorkflowActionUpdateCommand;
-import org.apache.oozie.command.jpa.WorkflowJobGetCommand;
 import org.apache.oozie.command.jpa.WorkflowJobUpdateCommand;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.service.JPAService;
@@ -77,7 +76,7 @@ public class ActionEndXCommand extends WorkflowActionXCommand<Void> {
         try {
             jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.wfJob = jpaService.execute(new WorkflowJobGetCommand(jobId));
+                this.wfJob = loadWorkflowJob(jobId);
                 this.wfAction = jpaService.execute(new WorkflowActionGetCommand(actionId));
                 setLogInfo(wfJob);
                 setLogInfo(wfAction);
@@ -163,6 +162,7 @@ public class ActionEndXCommand extends WorkflowActionXCommand<Void> {
             wfAction.setEndTime(new Date());
             jpaService.execute(new WorkflowActionUpdateCommand(wfAction));
             jpaService.execute(new WorkflowJobUpdateCommand(wfJob));
+            cacheWorkflowJob(wfJob);
 
             Status slaStatus = null;
             switch (wfAction.getStatus()) {
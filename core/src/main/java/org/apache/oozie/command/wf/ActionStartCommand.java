@@ -33,6 +33,7 @@ import org.apache.oozie.client.SLAEvent.SlaAppType;
 import org.apache.oozie.client.SLAEvent.Status;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.coord.CoordActionUpdateCommand;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.UUIDService;
@@ -158,6 +159,10 @@ public class ActionStartCommand extends ActionCommand<Void> {
                                 store.updateWorkflow(workflow);
                                 return null;
                             }
+                            ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+                            if (checker != null) {
+                                checker.scheduleCheck(action.getId());
+                            }
                             queueCallable(new NotificationCommand(workflow, action));
                         }
 
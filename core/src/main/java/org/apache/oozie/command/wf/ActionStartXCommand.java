@@ -35,8 +35,8 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.jpa.WorkflowActionGetCommand;
 import org.apache.oozie.command.jpa.WorkflowActionUpdateCommand;
-import org.apache.oozie.command.jpa.WorkflowJobGetCommand;
 import org.apache.oozie.command.jpa.WorkflowJobUpdateCommand;
+import org.apache.oozie.service.ActionCheckerService;
 import org.apache.oozie.service.ActionService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
@@ -83,7 +83,7 @@ public class ActionStartXCommand extends WorkflowActionXCommand<Void> {
         try {
             jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.wfJob = jpaService.execute(new WorkflowJobGetCommand(jobId));
+                this.wfJob = loadWorkflowJob(jobId);
                 this.wfAction = jpaService.execute(new WorkflowActionGetCommand(actionId));
                 setLogInfo(wfJob);
                 setLogInfo(wfAction);
@@ -207,6 +207,10 @@ public class ActionStartXCommand extends WorkflowActionXCommand<Void> {
                     jpaService.execute(new WorkflowJobUpdateCommand(wfJob));
                     return null;
                 }
+                ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+                if (checker != null) {
+                    checker.scheduleCheck(wfAction.getId());
+                }
                 queue(new NotificationXCommand(wfJob, wfAction));
             }
 
@@ -214,6 +218,7 @@ public class ActionStartXCommand extends WorkflowActionXCommand<Void> {
 
             jpaService.execute(new WorkflowActionUpdateCommand(wfAction));
             jpaService.execute(new WorkflowJobUpdateCommand(wfJob));
+            cacheWorkflowJob(wfJob);
             // Add SLA status event (STARTED) for WF_ACTION
             SLADbXOperations.writeStausEvent(wfAction.getSlaXml(), wfAction.getId(), Status.STARTED,
                     SlaAppType.WORKFLOW_ACTION);
@@ -19,10 +19,12 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.command.Command;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.service.ActionService;
+import org.apache.oozie.service.CallbackBufferService;
 import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.store.WorkflowStore;
 import org.apache.oozie.store.Store;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.service.Services;
@@ -33,12 +35,30 @@ public class CompletedActionCommand extends WorkflowCommand<Void> {
     private String actionId;
     private String externalStatus;
     private Properties actionData;
+    private Instrumentation.Cron callbackCron;
 
     public CompletedActionCommand(String actionId, String externalStatus, Properties actionData, int priority) {
+        this(actionId, externalStatus, actionData, priority, null);
+    }
+
+    /**
+     * Create a command for a callback.
+     *
+     * @param actionId action ID of the callback.
+     * @param externalStatus external status of the action.
+     * @param actionData action data of the callback.
+     * @param priority command priority.
+     * @param callbackCron cron started when the callback was received, it is stopped when the action check it
+     * triggers completes the action. It identifies the callback reported processed to the {@link
+     * CallbackBufferService}. It may be <code>null</code>.
+     */
+    public CompletedActionCommand(String actionId, String externalStatus, Properties actionData, int priority,
+                                  Instrumentation.Cron callbackCron) {
         super("callback", "callback", priority, XLog.STD);
         this.actionId = ParamChecker.notEmpty(actionId, "actionId");
         this.externalStatus = ParamChecker.notEmpty(externalStatus, "externalStatus");
         this.actionData = actionData;
+        this.callbackCron = callbackCron;
     }
 
     public CompletedActionCommand(String actionId, String externalStatus, Properties actionData) {
@@ -47,20 +67,41 @@ public class CompletedActionCommand extends WorkflowCommand<Void> {
 
     @Override
     protected Void call(WorkflowStore store) throws StoreException, CommandException {
-        WorkflowActionBean action = store.getAction(actionId, false);
+        WorkflowActionBean action;
+        try {
+            action = store.getAction(actionId, false);
+        }
+        catch (StoreException ex) {
+            if (ex.getErrorCode() == ErrorCode.E0605) {
+                callbackProcessed();
+            }
+            throw ex;
+        }
         setLogInfo(action);
         if (action.getStatus() == WorkflowActionBean.Status.RUNNING) {
             ActionExecutor executor = Services.get().get(ActionService.class).getExecutor(action.getType());
             // this is done because oozie notifications (of sub-wfs) is send
             // every status change, not only on completion.
             if (executor.isCompleted(externalStatus)) {
-                queueCallable(new ActionCheckCommand(action.getId(), getPriority(), -1));
+                // the action check reports the callback processed
+                queueCallable(new ActionCheckCommand(action.getId(), getPriority(), -1, callbackCron));
+            }
+            else {
+                callbackProcessed();
             }
         }
         else {
+            callbackProcessed();
             throw new CommandException(ErrorCode.E0800, actionId, action.getStatus());
         }
         return null;
     }
 
+    private void callbackProcessed() {
+        CallbackBufferService callbackBuffer = Services.get().get(CallbackBufferService.class);
+        if (callbackCron != null && callbackBuffer != null) {
+            callbackBuffer.processed(actionId, callbackCron);
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ import java.util.Map;
 
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
+import org.apache.oozie.store.JobsCursor;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.store.WorkflowStore;
 import org.apache.oozie.util.XLog;
@@ -30,6 +31,9 @@ public class JobsCommand extends WorkflowCommand<WorkflowsInfo> {
     private Map<String, List<String>> filter;
     private int start;
     private int len;
+    private boolean keyset;
+    private JobsCursor cursor;
+    private boolean withTotal;
 
     /**
      * Constructor taking the filter information
@@ -46,9 +50,25 @@ public class JobsCommand extends WorkflowCommand<WorkflowsInfo> {
         this.len = length;
     }
 
+    /**
+     * Constructor for a cursor based listing, see {@link JobsCursor}.
+     *
+     * @param filter Can be name, status, user, group and combination of these
+     * @param cursor cursor of the page, <code>null</code> for the first page.
+     * @param length number of workflows to be returned.
+     * @param withTotal if the total number of workflows matching the filter must be computed.
+     */
+    public JobsCommand(Map<String, List<String>> filter, JobsCursor cursor, int length, boolean withTotal) {
+        this(filter, 1, length);
+        this.keyset = true;
+        this.cursor = cursor;
+        this.withTotal = withTotal;
+    }
+
     @Override
     protected WorkflowsInfo call(WorkflowStore store) throws StoreException {
-        WorkflowsInfo workflowsInfo = store.getWorkflowsInfo(filter, start, len);
+        WorkflowsInfo workflowsInfo = (keyset) ? store.getWorkflowsInfo(filter, cursor, len, withTotal)
+                                               : store.getWorkflowsInfo(filter, start, len);
         for (WorkflowJobBean workflow : workflowsInfo.getWorkflows()) {
             workflow.setConsoleUrl(JobCommand.getJobConsoleUrl(workflow.getId()));
         }
@@ -20,6 +20,8 @@ import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.command.Command;
 import org.apache.oozie.store.WorkflowStore;
 import org.apache.oozie.store.Store;
+import org.apache.oozie.service.NotificationService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XLog;
 
 import java.io.IOException;
@@ -61,6 +63,11 @@ public class NotificationCommand extends WorkflowCommand<Void> {
 
     public Void call(WorkflowStore store) {
         if (url != null) {
+            NotificationService notifications = Services.get().get(NotificationService.class);
+            if (notifications != null) {
+                notifications.send(url);
+                return null;
+            }
             try {
                 URL url = new URL(this.url);
                 HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
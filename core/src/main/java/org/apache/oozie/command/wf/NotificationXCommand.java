@@ -19,6 +19,8 @@ import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.service.NotificationService;
+import org.apache.oozie.service.Services;
 import org.apache.oozie.util.XLog;
 
 import java.io.IOException;
@@ -79,6 +81,11 @@ public class NotificationXCommand extends WorkflowXCommand<Void> {
     @Override
     protected Void execute() throws CommandException {
         if (url != null) {
+            NotificationService notifications = Services.get().get(NotificationService.class);
+            if (notifications != null) {
+                notifications.send(url);
+                return null;
+            }
             try {
                 URL url = new URL(this.url);
                 HttpURLConnection urlConn = (HttpURLConnection) url.openConnection();
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.wf;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.command.jpa.BulkDeleteCommand;
+import org.apache.oozie.command.jpa.PurgeIdsGetCommand;
+import org.apache.oozie.command.jpa.PurgeOldestGetCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionPurgeCommand;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.PurgeService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Purge completed workflow jobs, and their actions and configurations, older than a given number of days, then the
+ * workflow definitions no job uses anymore.
+ * <p/>
+ * Only the IDs of the workflow jobs are loaded, the actions, the configurations and the jobs are deleted in batches,
+ * each batch with a single delete statement per table in its own transaction. The actions and the configurations are
+ * deleted before their jobs, if the purge is interrupted the next purge completes the deletion.
+ * <p/>
+ * A workflow definition is deleted when no job configuration refers to it and it has not been used for at least a day,
+ * a definition stored by a job transaction still running or rolled back is kept until then.
+ */
+public class PurgeXCommand extends WorkflowXCommand<Void> {
+    public static final String PURGE_TYPE = "wf";
+
+    private static final long DAY_IN_MS = 24 * 60 * 60 * 1000;
+
+    private final XLog log = XLog.getLog(getClass());
+    private int olderThan;
+    private int batchSize;
+    private int maxRowsPerSec;
+    private int maxRunTime;
+    private JPAService jpaService;
+
+    /**
+     * Create a workflow purge command.
+     *
+     * @param olderThan age, in days, of the completed workflow jobs to purge.
+     * @param batchSize number of workflow jobs deleted per transaction.
+     * @param maxRowsPerSec max number of records deleted per second, <code>0</code> for no limit.
+     * @param maxRunTime max duration of the purge, in seconds, <code>0</code> for no limit.
+     */
+    public PurgeXCommand(int olderThan, int batchSize, int maxRowsPerSec, int maxRunTime) {
+        super("purge", "purge", 0);
+        this.olderThan = olderThan;
+        this.batchSize = batchSize;
+        this.maxRowsPerSec = maxRowsPerSec;
+        this.maxRunTime = maxRunTime;
+    }
+
+    @Override
+    protected Void execute() throws CommandException {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - olderThan * DAY_IN_MS);
+        log.debug("STARTED Workflow Purge of jobs older than [{0}] days", olderThan);
+        PurgeService.PurgeRun run = new PurgeService.PurgeRun(PURGE_TYPE, batchSize, maxRowsPerSec, maxRunTime);
+        try {
+            List<String> ids;
+            do {
+                ids = jpaService.execute(new PurgeIdsGetCommand("GET_COMPLETED_WORKFLOW_IDS_OLDER_THAN", "endTime",
+                                                                cutoff, run.getBatchSize()));
+                if (!ids.isEmpty()) {
+                    run.deleted("workflow_actions",
+                                jpaService.execute(new BulkDeleteCommand("WorkflowActionBean", "wfId", ids)));
+                    run.deleted("workflow_configurations",
+                                jpaService.execute(new BulkDeleteCommand("WorkflowConfigurationBean", "jobId", ids)));
+                    run.deleted("workflows", jpaService.execute(new BulkDeleteCommand("WorkflowJobBean", "id", ids)));
+                }
+            } while (ids.size() == run.getBatchSize() && run.hasTime());
+            if (run.hasTime()) {
+                Date lastUsed = new Date(Math.min(cutoff.getTime(), System.currentTimeMillis() - DAY_IN_MS));
+                run.deleted("workflow_definitions", jpaService.execute(new WorkflowDefinitionPurgeCommand(lastUsed)));
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        run.end(cutoff, jpaService.execute(new PurgeOldestGetCommand("GET_COMPLETED_WORKFLOWS_OLDEST_END_TIME",
+                                                                     "endTime", cutoff)));
+        log.debug("ENDED Workflow Purge deleted [{0}] records", run.getRows());
+        return null;
+    }
+
+    @Override
+    protected String getEntityKey() {
+        return "purge";
+    }
+
+    @Override
+    protected boolean isLockRequired() {
+        return true;
+    }
+
+    /**
+     * A purge still running makes this purge to fail right away.
+     *
+     * @return <code>0</code>.
+     */
+    @Override
+    protected long getLockTimeOut() {
+        return 0;
+    }
+
+    @Override
+    protected void loadState() throws CommandException {
+        jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            throw new CommandException(ErrorCode.E0610);
+        }
+    }
+
+    @Override
+    protected void verifyPrecondition() throws CommandException, PreconditionException {
+    }
+}
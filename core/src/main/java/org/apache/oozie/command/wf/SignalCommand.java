@@ -54,7 +54,6 @@ import org.jdom.Namespace;
 import java.io.StringReader;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 
 public class SignalCommand extends WorkflowCommand<Void> {
 
@@ -223,9 +222,7 @@ public class SignalCommand extends WorkflowCommand<Void> {
 
     public static ELEvaluator createELEvaluatorForGroup(Configuration conf, String group) {
         ELEvaluator eval = Services.get().get(ELService.class).createEvaluator(group);
-        for (Map.Entry<String, String> entry : conf) {
-            eval.setVariable(entry.getKey(), entry.getValue());
-        }
+        eval.setConfiguration(conf);
         return eval;
     }
 
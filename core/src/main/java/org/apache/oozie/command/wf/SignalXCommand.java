@@ -24,10 +24,10 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.XException;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
+import org.apache.oozie.command.jpa.SLAEventInsertCommand;
 import org.apache.oozie.command.jpa.WorkflowActionGetCommand;
 import org.apache.oozie.command.jpa.WorkflowActionInsertCommand;
 import org.apache.oozie.command.jpa.WorkflowActionUpdateCommand;
-import org.apache.oozie.command.jpa.WorkflowJobGetCommand;
 import org.apache.oozie.command.jpa.WorkflowJobUpdateCommand;
 import org.apache.oozie.service.ELService;
 import org.apache.oozie.service.JPAService;
@@ -49,7 +49,6 @@ import org.jdom.Namespace;
 import java.io.StringReader;
 import java.util.Date;
 import java.util.List;
-import java.util.Map;
 
 public class SignalXCommand extends WorkflowXCommand<Void> {
 
@@ -88,7 +87,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
         try {
             jpaService = Services.get().get(JPAService.class);
             if (jpaService != null) {
-                this.wfJob = jpaService.execute(new WorkflowJobGetCommand(jobId));
+                this.wfJob = loadWorkflowJob(jobId);
                 setLogInfo(wfJob);
                 if (actionId != null) {
                     this.wfAction = jpaService.execute(new WorkflowActionGetCommand(actionId));
@@ -136,7 +135,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                 wfJob.setWorkflowInstance(workflowInstance);
                 // 1. Add SLA status event for WF-JOB with status STARTED
                 // 2. Add SLA registration events for all WF_ACTIONS
-                SLADbXOperations.writeStausEvent(wfJob.getSlaXml(), jobId, Status.STARTED, SlaAppType.WORKFLOW_JOB);
+                addSlaStatusEvent(wfJob.getSlaXml(), jobId, Status.STARTED, SlaAppType.WORKFLOW_JOB);
                 writeSLARegistrationForAllActions(workflowInstance.getApp().getDefinition(), wfJob
                         .getUser(), wfJob.getGroup(), wfJob.getConf());
                 queue(new NotificationXCommand(wfJob));
@@ -162,7 +161,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
             if (!skipAction) {
                 wfAction.setTransition(workflowInstance.getTransition(wfAction.getName()));
             }
-            jpaService.execute(new WorkflowActionUpdateCommand(wfAction));
+            addToUnitOfWork(new WorkflowActionUpdateCommand(wfAction));
         }
 
         if (completed) {
@@ -170,7 +169,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                 WorkflowActionBean actionToKill = jpaService.execute(new WorkflowActionGetCommand(actionToKillId));
                 actionToKill.setPending();
                 actionToKill.setStatus(WorkflowActionBean.Status.KILLED);
-                jpaService.execute(new WorkflowActionUpdateCommand(actionToKill));
+                addToUnitOfWork(new WorkflowActionUpdateCommand(actionToKill));
                 queue(new WorkflowActionKillXCommand(actionToKill.getId(), actionToKill.getType()));
             }
 
@@ -178,8 +177,8 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                 WorkflowActionBean actionToFail = jpaService.execute(new WorkflowActionGetCommand(actionToFailId));
                 actionToFail.resetPending();
                 actionToFail.setStatus(WorkflowActionBean.Status.FAILED);
-                SLADbXOperations.writeStausEvent(wfAction.getSlaXml(), wfAction.getId(), Status.FAILED, SlaAppType.WORKFLOW_ACTION);
-                jpaService.execute(new WorkflowActionUpdateCommand(actionToFail));
+                addSlaStatusEvent(wfAction.getSlaXml(), wfAction.getId(), Status.FAILED, SlaAppType.WORKFLOW_ACTION);
+                addToUnitOfWork(new WorkflowActionUpdateCommand(actionToFail));
             }
 
             wfJob.setStatus(WorkflowJob.Status.valueOf(workflowInstance.getStatus().toString()));
@@ -199,7 +198,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                 default: // TODO SUSPENDED
                     break;
             }
-            SLADbXOperations.writeStausEvent(wfJob.getSlaXml(), jobId, slaStatus, SlaAppType.WORKFLOW_JOB);
+            addSlaStatusEvent(wfJob.getSlaXml(), jobId, slaStatus, SlaAppType.WORKFLOW_JOB);
             queue(new NotificationXCommand(wfJob));
             if (wfJob.getStatus() == WorkflowJob.Status.SUCCEEDED) {
                 incrJobCounter(INSTR_SUCCEEDED_JOBS_COUNTER_NAME, 1);
@@ -216,7 +215,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                 if (skipNewAction) {
                     WorkflowActionBean oldAction = jpaService.execute(new WorkflowActionGetCommand(newAction.getId()));
                     oldAction.setPending();
-                    jpaService.execute(new WorkflowActionUpdateCommand(oldAction));
+                    addToUnitOfWork(new WorkflowActionUpdateCommand(oldAction));
 
                     queue(new SignalXCommand(jobId, oldAction.getId()));
                 }
@@ -225,13 +224,16 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                     String actionSlaXml = getActionSLAXml(newAction.getName(), workflowInstance.getApp()
                             .getDefinition(), wfJob.getConf());
                     newAction.setSlaXml(actionSlaXml);
-                    jpaService.execute(new WorkflowActionInsertCommand(newAction));
+                    addToUnitOfWork(new WorkflowActionInsertCommand(newAction));
                     queue(new ActionStartXCommand(newAction.getId(), newAction.getType()));
                 }
             }
         }
 
-        jpaService.execute(new WorkflowJobUpdateCommand(wfJob));
+        // all the inserts and updates are committed in a single transaction after execute() completes, the reads
+        // above are done right away and do not see them
+        addToUnitOfWork(new WorkflowJobUpdateCommand(wfJob));
+        cacheWorkflowJob(wfJob);
         XLog.getLog(getClass()).debug("Updated the workflow status to " + wfJob.getId() + "  status ="+ wfJob.getStatusStr());
         if (wfJob.getStatus() != WorkflowJob.Status.RUNNING
                 && wfJob.getStatus() != WorkflowJob.Status.SUSPENDED) {
@@ -241,11 +243,15 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
         return null;
     }
 
+    private void addSlaStatusEvent(String slaXml, String id, Status status, SlaAppType appType) {
+        if (slaXml != null && slaXml.length() > 0) {
+            addToUnitOfWork(new SLAEventInsertCommand(SLADbXOperations.createSlaStatusEvent(id, status, appType)));
+        }
+    }
+
     public static ELEvaluator createELEvaluatorForGroup(Configuration conf, String group) {
         ELEvaluator eval = Services.get().get(ELService.class).createEvaluator(group);
-        for (Map.Entry<String, String> entry : conf) {
-            eval.setVariable(entry.getKey(), entry.getValue());
-        }
+        eval.setConfiguration(conf);
         return eval;
     }
 
@@ -295,7 +301,8 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                     eSla = XmlUtils.parseXml(slaXml);
                     String actionId = Services.get().get(UUIDService.class).generateChildId(jobId,
                                                                                             action.getAttributeValue("name") + "");
-                    SLADbXOperations.writeSlaRegistrationEvent(eSla, actionId, SlaAppType.WORKFLOW_ACTION, user, group);
+                    addToUnitOfWork(new SLAEventInsertCommand(SLADbXOperations.createSlaRegistrationEvent(
+                            eSla, actionId, SlaAppType.WORKFLOW_ACTION, user, group)));
                 }
             }
         }
@@ -243,9 +243,7 @@ public class SubmitCommand extends WorkflowCommand<String> {
 
     public static ELEvaluator createELEvaluatorForGroup(Configuration conf, String group) {
         ELEvaluator eval = Services.get().get(ELService.class).createEvaluator(group);
-        for (Map.Entry<String, String> entry : conf) {
-            eval.setVariable(entry.getKey(), entry.getValue());
-        }
+        eval.setConfiguration(conf);
         return eval;
     }
 
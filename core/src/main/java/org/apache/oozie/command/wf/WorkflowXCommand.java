@@ -1,6 +1,13 @@
 package org.apache.oozie.command.wf;
 
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.XCommand;
+import org.apache.oozie.command.jpa.WorkflowJobGetCommand;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowJobCacheService;
 
 /**
  * Abstract coordinator command class derived from XCommand
@@ -8,6 +15,8 @@ import org.apache.oozie.command.XCommand;
  * @param <T>
  */
 public abstract class WorkflowXCommand<T> extends XCommand<T> {
+    private WorkflowJobBean cachedWorkflowJob;
+
     /**
      * @param name
      * @param type
@@ -27,4 +36,50 @@ public abstract class WorkflowXCommand<T> extends XCommand<T> {
         super(name, type, priority, dryrun);
     }
 
-}
\ No newline at end of file
+    /**
+     * Load a workflow job from the {@link WorkflowJobCacheService}, or from the database if it is not cached.
+     * <p/>
+     * The command must hold the write lock of the job.
+     *
+     * @param jobId workflow job ID.
+     * @return the workflow job bean.
+     * @throws CommandException thrown if the workflow job could not be loaded.
+     */
+    protected WorkflowJobBean loadWorkflowJob(String jobId) throws CommandException {
+        WorkflowJobCacheService cache = Services.get().get(WorkflowJobCacheService.class);
+        WorkflowJobBean wfJob = (cache != null) ? cache.take(jobId) : null;
+        if (wfJob == null) {
+            JPAService jpaService = Services.get().get(JPAService.class);
+            if (jpaService == null) {
+                throw new CommandException(ErrorCode.E0610);
+            }
+            wfJob = jpaService.execute(new WorkflowJobGetCommand(jobId));
+        }
+        return wfJob;
+    }
+
+    /**
+     * Check in a workflow job in the {@link WorkflowJobCacheService} once the command execution completes and its
+     * unit of work has been committed.
+     * <p/>
+     * It must be called after the last update of the job and the bean must not be modified afterwards. If the
+     * command execution fails the job is not cached.
+     *
+     * @param wfJob workflow job bean.
+     */
+    protected void cacheWorkflowJob(WorkflowJobBean wfJob) {
+        cachedWorkflowJob = wfJob;
+    }
+
+    @Override
+    protected void executed() throws CommandException {
+        if (cachedWorkflowJob != null) {
+            WorkflowJobCacheService cache = Services.get().get(WorkflowJobCacheService.class);
+            if (cache != null) {
+                cache.put(cachedWorkflowJob);
+            }
+            cachedWorkflowJob = null;
+        }
+    }
+
+}
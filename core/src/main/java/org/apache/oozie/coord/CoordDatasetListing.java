@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Checks the existence of dataset instance paths using directory listings.
+ * <p/>
+ * The existence of a path is answered from the listing of its parent directory, each directory is listed once and
+ * the listing is reused for all the instances under it. The parent directories are checked the same way, so instances
+ * under a missing directory are resolved without any filesystem call.
+ * <p/>
+ * Only the directories under the static prefix of the URI template are listed, the paths above it are checked with
+ * {@link FileSystem#exists}. If a directory cannot be listed (i.e. no read permission) the paths under it are checked
+ * with {@link FileSystem#exists} too.
+ * <p/>
+ * The listings are not refreshed, an instance of this class must be used for a single resolution only.
+ * <p/>
+ * This class is not thread safe.
+ */
+public class CoordDatasetListing {
+    private static final Set<String> UNLISTABLE = new HashSet<String>();
+
+    private final FileSystem fs;
+    private final int baseDepth;
+    private final Map<String, Set<String>> listings = new HashMap<String, Set<String>>();
+    private final Map<String, Boolean> paths = new HashMap<String, Boolean>();
+    private int calls;
+
+    /**
+     * Create a dataset listing.
+     *
+     * @param fs filesystem of the dataset.
+     * @param uriTemplate URI template of the dataset.
+     */
+    public CoordDatasetListing(FileSystem fs, String uriTemplate) {
+        this.fs = ParamChecker.notNull(fs, "fs");
+        ParamChecker.notEmpty(uriTemplate, "uriTemplate");
+        int index = uriTemplate.indexOf("${");
+        String prefix = (index > -1) ? uriTemplate.substring(0, index) : uriTemplate;
+        index = prefix.lastIndexOf("/");
+        baseDepth = (index > -1) ? new Path(prefix.substring(0, index + 1)).depth() : 0;
+    }
+
+    /**
+     * Check if a dataset path exists.
+     *
+     * @param path dataset path.
+     * @return <code>true</code> if the path exists.
+     * @throws IOException thrown if the path could not be checked.
+     */
+    public boolean exists(String path) throws IOException {
+        return exists(new Path(path));
+    }
+
+    /**
+     * Return the number of filesystem calls done.
+     *
+     * @return the number of filesystem calls done.
+     */
+    public int getCalls() {
+        return calls;
+    }
+
+    private boolean exists(Path path) throws IOException {
+        String key = path.toString();
+        Boolean exists = paths.get(key);
+        if (exists == null) {
+            Path parent = path.getParent();
+            Set<String> children = (parent != null && parent.depth() >= baseDepth) ? list(parent) : UNLISTABLE;
+            if (children == UNLISTABLE) {
+                calls++;
+                exists = fs.exists(path);
+            }
+            else {
+                exists = children != null && children.contains(path.getName());
+            }
+            paths.put(key, exists);
+        }
+        return exists;
+    }
+
+    /**
+     * Return the names of the children of a directory, <code>null</code> if the directory does not exist or {@link
+     * #UNLISTABLE} if the directory cannot be listed.
+     */
+    private Set<String> list(Path dir) throws IOException {
+        String key = dir.toString();
+        if (listings.containsKey(key)) {
+            return listings.get(key);
+        }
+        Set<String> children = null;
+        if (exists(dir)) {
+            calls++;
+            try {
+                FileStatus[] statuses = fs.listStatus(dir);
+                if (statuses != null) {
+                    children = new HashSet<String>();
+                    for (FileStatus status : statuses) {
+                        children.add(status.getPath().getName());
+                    }
+                }
+            }
+            catch (FileNotFoundException ex) {
+                // the directory has been deleted after checking it
+            }
+            catch (IOException ex) {
+                children = UNLISTABLE;
+            }
+        }
+        listings.put(key, children);
+        return children;
+    }
+
+}
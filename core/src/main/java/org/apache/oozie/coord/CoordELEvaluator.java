@@ -19,7 +19,6 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.TimeZone;
 
 import org.apache.hadoop.conf.Configuration;
@@ -262,9 +261,7 @@ public class CoordELEvaluator {
      * @param conf : configurations to set Evaluator
      */
     private static void setConfigToEval(ELEvaluator eval, Configuration conf) {
-        for (Map.Entry<String, String> entry : conf) {
-            eval.setVariable(entry.getKey(), entry.getValue());
-        }
+        eval.setConfiguration(conf);
     }
 
     /**
@@ -45,6 +45,12 @@ public class CoordELFunctions {
     // TODO: in next release, support flexibility
     private static String END_OF_OPERATION_INDICATOR_FILE = "_SUCCESS";
 
+    /**
+     * If true, coord:latest() and coord:future() resolve the dataset instances using directory listings (see {@link
+     * CoordDatasetListing}) instead of checking each instance path.
+     */
+    public static final String CONF_DATASET_LISTING = "oozie.coord.el.dataset.listing";
+
     /**
      * Used in defining the frequency in 'day' unit. <p/> domain: <code> val &gt; 0</code> and should be integer.
      *
@@ -244,6 +250,8 @@ public class CoordELFunctions {
             String group = ParamChecker.notEmpty((String) eval.getVariable(OozieClient.GROUP_NAME),
                     OozieClient.GROUP_NAME);
             String doneFlag = ds.getDoneFlag();
+            boolean useListing = isDatasetListingEnabled();
+            CoordDatasetListing listing = null;
             while (instance >= checkedInstance) {
                 ELEvaluator uriEval = getUriEvaluator(nominalInstanceCal);
                 String uriPath = uriEval.evaluate(uriTemplate, String.class);
@@ -251,7 +259,10 @@ public class CoordELFunctions {
                 if (doneFlag.length() > 0) {
                     pathWithDoneFlag += "/" + doneFlag;
                 }
-                if (isPathAvailable(pathWithDoneFlag, user, group, conf)) {
+                if (useListing && listing == null) {
+                    listing = createDatasetListing(uriTemplate, uriPath, user, group);
+                }
+                if (isPathAvailable(pathWithDoneFlag, user, group, conf, listing)) {
                     XLog.getLog(CoordELFunctions.class).debug("Found future(" + available + "): " + pathWithDoneFlag);
                     if (available == n) {
                         XLog.getLog(CoordELFunctions.class).debug("Found future File: " + pathWithDoneFlag);
@@ -725,6 +736,8 @@ public class CoordELFunctions {
             String group = ParamChecker.notEmpty((String) eval.getVariable(OozieClient.GROUP_NAME),
                                                  OozieClient.GROUP_NAME);
             String doneFlag = ds.getDoneFlag();
+            boolean useListing = isDatasetListingEnabled();
+            CoordDatasetListing listing = null;
             while (nominalInstanceCal.compareTo(initInstance) >= 0) {
                 ELEvaluator uriEval = getUriEvaluator(nominalInstanceCal);
                 String uriPath = uriEval.evaluate(uriTemplate, String.class);
@@ -732,7 +745,10 @@ public class CoordELFunctions {
                 if (doneFlag.length() > 0) {
                     pathWithDoneFlag += "/" + doneFlag;
                 }
-                if (isPathAvailable(pathWithDoneFlag, user, group, conf)) {
+                if (useListing && listing == null) {
+                    listing = createDatasetListing(uriTemplate, uriPath, user, group);
+                }
+                if (isPathAvailable(pathWithDoneFlag, user, group, conf, listing)) {
                     XLog.getLog(CoordELFunctions.class).debug("Found latest(" + available + "): " + pathWithDoneFlag);
                     if (available == offset) {
                         XLog.getLog(CoordELFunctions.class).debug("Found Latest File: " + pathWithDoneFlag);
@@ -774,18 +790,47 @@ public class CoordELFunctions {
      *
      * @param sPath
      * @param conf
+     * @param listing dataset listing to check the path with, if <code>null</code> the path is checked directly.
      * @return
      * @throws IOException
      */
 
-    private static boolean isPathAvailable(String sPath, String user, String group, Configuration conf)
-            throws IOException, HadoopAccessorException {
+    private static boolean isPathAvailable(String sPath, String user, String group, Configuration conf,
+                                           CoordDatasetListing listing) throws IOException, HadoopAccessorException {
+        if (listing != null) {
+            return listing.exists(sPath);
+        }
         // sPath += "/" + END_OF_OPERATION_INDICATOR_FILE;
         Path path = new Path(sPath);
         return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
                     new Configuration()).exists(path);
     }
 
+    /**
+     * @return whether coord:latest() and coord:future() resolve the dataset instances using directory listings
+     */
+    private static boolean isDatasetListingEnabled() {
+        Services services = Services.get();
+        return services != null && services.getConf().getBoolean(CONF_DATASET_LISTING, false);
+    }
+
+    /**
+     * Create a dataset listing for a single coord:latest() or coord:future() resolution.
+     *
+     * @param uriTemplate dataset URI template.
+     * @param uriPath any instance URI of the dataset, used to obtain the filesystem.
+     * @param user user to access the filesystem as.
+     * @param group group to access the filesystem as.
+     * @return the dataset listing.
+     * @throws HadoopAccessorException thrown if the filesystem could not be obtained.
+     */
+    private static CoordDatasetListing createDatasetListing(String uriTemplate, String uriPath, String user,
+                                                            String group) throws HadoopAccessorException {
+        Path path = new Path(uriPath);
+        return new CoordDatasetListing(Services.get().get(HadoopAccessorService.class).createFileSystem(user, group,
+                path.toUri(), new Configuration()), uriTemplate);
+    }
+
     /**
      * @param tm
      * @return a new Evaluator to be used for URI-template evaluation
@@ -15,7 +15,12 @@
 package org.apache.oozie.service;
 
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.CoordinatorActionBean;
@@ -26,6 +31,9 @@ import org.apache.oozie.store.CoordinatorStore;
 import org.apache.oozie.store.Store;
 import org.apache.oozie.store.StoreException;
 import org.apache.oozie.store.WorkflowStore;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.TimingWheel;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 
@@ -33,8 +41,19 @@ import org.apache.oozie.util.XLog;
  * The Action Checker Service queue ActionCheckCommands to check the status of running actions and
  * CoordActionCheckCommands to check the status of coordinator actions. The delay between checks on the same action can
  * be configured.
+ * <p/>
+ * By default, on every run the service queries the database for all the running actions not checked within the check
+ * delay. If {@link #CONF_SCHEDULE_ENABLED} is <code>true</code>, the running actions are kept in an in-memory check
+ * schedule instead. The schedule is loaded from the database at startup and every {@link
+ * #CONF_SCHEDULE_RESYNC_INTERVAL} seconds, and it is kept current by the action start, check and update commands. A
+ * reload only changes the schedule once the running actions have been loaded, if loading them fails the schedule is
+ * kept as it is and the reload is retried on the next run. On every run
+ * at most {@link #CONF_SCHEDULE_MAX_CHECKS} due checks are queued, the rest remain due for the following runs.
+ * <p/>
+ * Workflow actions whose Hadoop job is tracked by the {@link JobStatusPollerService} are not checked, the poller
+ * queues their check once their job completes.
  */
-public class ActionCheckerService implements Service {
+public class ActionCheckerService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "ActionCheckerService.";
     /**
@@ -51,9 +70,32 @@ public class ActionCheckerService implements Service {
      */
     public static final String CONF_CALLABLE_BATCH_SIZE = CONF_PREFIX + "callable.batch.size";
 
+    /**
+     * Enables the in-memory check schedule.
+     */
+    public static final String CONF_SCHEDULE_ENABLED = CONF_PREFIX + "schedule.enabled";
+
+    /**
+     * The maximum number of checks queued on each run when using the check schedule.
+     */
+    public static final String CONF_SCHEDULE_MAX_CHECKS = CONF_PREFIX + "schedule.max.checks";
+
+    /**
+     * The time, in seconds, between reloads of the check schedule from the database.
+     */
+    public static final String CONF_SCHEDULE_RESYNC_INTERVAL = CONF_PREFIX + "schedule.resync.interval";
+
     protected static final String INSTRUMENTATION_GROUP = "actionchecker";
     protected static final String INSTR_CHECK_ACTIONS_COUNTER = "checks_wf_actions";
     protected static final String INSTR_CHECK_COORD_ACTIONS_COUNTER = "checks_coord_actions";
+    protected static final String INSTR_SCHEDULED_ACTIONS_VARIABLE = "scheduled_wf_actions";
+    protected static final String INSTR_SCHEDULED_COORD_ACTIONS_VARIABLE = "scheduled_coord_actions";
+
+    private static final int SCHEDULE_SLOTS = 3600;
+
+    private TimingWheel<String> wfSchedule;
+    private TimingWheel<String> coordSchedule;
+    private int actionCheckDelay;
 
     /**
      * {@link ActionCheckRunnable} is the runnable which is scheduled to run and queue Action checks.
@@ -62,17 +104,62 @@ public class ActionCheckerService implements Service {
         private int actionCheckDelay;
         private List<XCallable<Void>> callables;
         private StringBuilder msg = null;
+        private TimingWheel<String> wfSchedule;
+        private TimingWheel<String> coordSchedule;
+        private int maxChecks;
+        private long resyncInterval;
+        private long lastResync;
 
         public ActionCheckRunnable(int actionCheckDelay) {
             this.actionCheckDelay = actionCheckDelay;
         }
 
+        /**
+         * Create a runnable that queues the due checks from a check schedule.
+         *
+         * @param actionCheckDelay time, in seconds, between checks for the same action.
+         * @param wfSchedule check schedule of workflow actions.
+         * @param coordSchedule check schedule of coordinator actions.
+         * @param maxChecks maximum number of checks queued on each run.
+         * @param resyncInterval time, in seconds, between reloads of the schedules from the database.
+         */
+        public ActionCheckRunnable(int actionCheckDelay, TimingWheel<String> wfSchedule,
+                                   TimingWheel<String> coordSchedule, int maxChecks, int resyncInterval) {
+            this(actionCheckDelay);
+            this.wfSchedule = wfSchedule;
+            this.coordSchedule = coordSchedule;
+            this.maxChecks = maxChecks;
+            this.resyncInterval = resyncInterval * 1000L;
+            this.lastResync = -1;
+        }
+
         public void run() {
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
             msg = new StringBuilder();
-            runWFActionCheck();
-            runCoordActionCheck();
+            if (wfSchedule != null) {
+                long now = System.currentTimeMillis();
+                if (lastResync == -1 || now - lastResync >= resyncInterval) {
+                    // the actions scheduled by the commands while loading are not in the snapshots, they are kept
+                    Set<String> wfScheduled = wfSchedule.keys();
+                    Set<String> coordScheduled = coordSchedule.keys();
+                    Map<String, Long> wfRunning = new LinkedHashMap<String, Long>();
+                    Map<String, Long> coordRunning = new LinkedHashMap<String, Long>();
+                    if (runWFActionCheck(wfRunning) && runCoordActionCheck(coordRunning)) {
+                        resync(wfSchedule, wfScheduled, wfRunning);
+                        resync(coordSchedule, coordScheduled, coordRunning);
+                        lastResync = now;
+                    }
+                    else {
+                        log.warn("Could not load the running actions, keeping the check schedule");
+                    }
+                }
+                runScheduledCheck(now);
+            }
+            else {
+                runWFActionCheck(null);
+                runCoordActionCheck(null);
+            }
             log.debug("QUEUING [{0}] for potential checking", msg.toString());
             if (null != callables) {
                 boolean ret = Services.get().get(CallableQueueService.class).queueSerial(callables);
@@ -86,9 +173,72 @@ public class ActionCheckerService implements Service {
         }
 
         /**
-         * check workflow actions
+         * Queue the due checks from the schedules, up to the max number of checks per run. Coordinator actions can
+         * take up to half of the checks, the checked actions are scheduled again after the check delay.
+         *
+         * @param now current time.
+         */
+        private void runScheduledCheck(long now) {
+            long nextCheck = now + actionCheckDelay * 1000L;
+            List<String> coordActionIds = coordSchedule.expire(now, maxChecks / 2);
+            List<String> actionIds = wfSchedule.expire(now, maxChecks - coordActionIds.size());
+            msg.append(" SCHEDULED WF_ACTIONS : " + actionIds.size());
+            msg.append(" SCHEDULED COORD_ACTIONS : " + coordActionIds.size());
+            JobStatusPollerService poller = Services.get().get(JobStatusPollerService.class);
+            for (String actionId : actionIds) {
+                if (poller == null || !poller.isTracked(actionId)) {
+                    Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
+                                                                                INSTR_CHECK_ACTIONS_COUNTER, 1);
+                    queueCallable(new ActionCheckCommand(actionId));
+                }
+                wfSchedule.schedule(actionId, nextCheck);
+            }
+            for (String coordActionId : coordActionIds) {
+                Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
+                                                                            INSTR_CHECK_COORD_ACTIONS_COUNTER, 1);
+                queueCallable(new CoordActionCheckCommand(coordActionId, actionCheckDelay));
+                coordSchedule.schedule(coordActionId, nextCheck);
+            }
+        }
+
+        /**
+         * Bring a schedule in line with the running actions loaded from the database. The actions scheduled before the
+         * load and not running anymore are removed, the running actions not scheduled are added.
+         *
+         * @param schedule check schedule.
+         * @param scheduled actions in the schedule before the load.
+         * @param running running actions and the time they are due for a check.
+         */
+        private void resync(TimingWheel<String> schedule, Set<String> scheduled, Map<String, Long> running) {
+            for (String actionId : scheduled) {
+                if (!running.containsKey(actionId)) {
+                    schedule.remove(actionId);
+                }
+            }
+            for (Map.Entry<String, Long> entry : running.entrySet()) {
+                if (!schedule.contains(entry.getKey())) {
+                    schedule.schedule(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        /**
+         * Return the time an action is due for a check when loading the schedule.
+         *
+         * @param lastCheck last time the action was checked or modified, it may be <code>null</code>.
+         * @return the time the action is due for a check.
+         */
+        private long getNextCheck(Date lastCheck) {
+            return ((lastCheck != null) ? lastCheck.getTime() : System.currentTimeMillis()) + actionCheckDelay * 1000L;
+        }
+
+        /**
+         * check workflow actions, or load the running ones if a map is given.
+         *
+         * @param running map to load the running actions into, and the time they are due for a check.
+         * @return <code>true</code> if the actions were read from the database.
          */
-        private void runWFActionCheck() {
+        private boolean runWFActionCheck(Map<String, Long> running) {
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
 
@@ -96,14 +246,23 @@ public class ActionCheckerService implements Service {
             try {
                 store = (WorkflowStore) Services.get().get(StoreService.class).getStore(WorkflowStore.class);
                 store.beginTrx();
-                List<WorkflowActionBean> actions = store.getRunningActions(actionCheckDelay);
+                List<WorkflowActionBean> actions = store.getRunningActions((running != null) ? 0 : actionCheckDelay);
                 msg.append(" WF_ACTIONS : " + actions.size());
+                JobStatusPollerService poller = Services.get().get(JobStatusPollerService.class);
                 for (WorkflowActionBean action : actions) {
+                    if (running != null) {
+                        running.put(action.getId(), getNextCheck(action.getLastCheckTime()));
+                        continue;
+                    }
+                    if (poller != null && poller.isTracked(action.getId())) {
+                        continue;
+                    }
                     Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
                                                                                 INSTR_CHECK_ACTIONS_COUNTER, 1);
                     queueCallable(new ActionCheckCommand(action.getId()));
                 }
                 store.commitTrx();
+                return true;
             }
             catch (StoreException ex) {
                 if (store != null) {
@@ -137,12 +296,16 @@ public class ActionCheckerService implements Service {
                     }
                 }
             }
+            return false;
         }
 
         /**
-         * check coordinator actions
+         * check coordinator actions, or load the running ones if a map is given.
+         *
+         * @param running map to load the running actions into, and the time they are due for a check.
+         * @return <code>true</code> if the actions were read from the database.
          */
-        private void runCoordActionCheck() {
+        private boolean runCoordActionCheck(Map<String, Long> running) {
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
 
@@ -150,14 +313,20 @@ public class ActionCheckerService implements Service {
             try {
                 store = Services.get().get(StoreService.class).getStore(CoordinatorStore.class);
                 store.beginTrx();
-                List<CoordinatorActionBean> cactions = store.getRunningActionsOlderThan(actionCheckDelay, false);
+                List<CoordinatorActionBean> cactions = store.getRunningActionsOlderThan(
+                        (running != null) ? 0 : actionCheckDelay, false);
                 msg.append(" COORD_ACTIONS : " + cactions.size());
                 for (CoordinatorActionBean caction : cactions) {
+                    if (running != null) {
+                        running.put(caction.getId(), getNextCheck(caction.getLastModifiedTime()));
+                        continue;
+                    }
                     Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
                                                                                 INSTR_CHECK_COORD_ACTIONS_COUNTER, 1);
                     queueCallable(new CoordActionCheckCommand(caction.getId(), actionCheckDelay));
                 }
                 store.commitTrx();
+                return true;
             }
             catch (StoreException ex) {
                 if (store != null) {
@@ -191,6 +360,7 @@ public class ActionCheckerService implements Service {
                     }
                 }
             }
+            return false;
         }
 
         /**
@@ -225,11 +395,100 @@ public class ActionCheckerService implements Service {
     @Override
     public void init(Services services) {
         Configuration conf = services.getConf();
-        Runnable actionCheckRunnable = new ActionCheckRunnable(conf.getInt(CONF_ACTION_CHECK_DELAY, 600));
+        actionCheckDelay = conf.getInt(CONF_ACTION_CHECK_DELAY, 600);
+        Runnable actionCheckRunnable;
+        if (conf.getBoolean(CONF_SCHEDULE_ENABLED, false)) {
+            long now = System.currentTimeMillis();
+            wfSchedule = new TimingWheel<String>(SCHEDULE_SLOTS, 1, TimeUnit.SECONDS, now);
+            coordSchedule = new TimingWheel<String>(SCHEDULE_SLOTS, 1, TimeUnit.SECONDS, now);
+            actionCheckRunnable = new ActionCheckRunnable(actionCheckDelay, wfSchedule, coordSchedule,
+                                                          conf.getInt(CONF_SCHEDULE_MAX_CHECKS, 1000),
+                                                          conf.getInt(CONF_SCHEDULE_RESYNC_INTERVAL, 3600));
+        }
+        else {
+            actionCheckRunnable = new ActionCheckRunnable(actionCheckDelay);
+        }
         services.get(SchedulerService.class).schedule(actionCheckRunnable, 10,
                                                       conf.getInt(CONF_ACTION_CHECK_INTERVAL, 60), SchedulerService.Unit.SEC);
     }
 
+    /**
+     * Instruments the action checker service, exposing the size of the check schedules if enabled.
+     *
+     * @param instr instance to instrument the action checker service to.
+     */
+    public void instrument(Instrumentation instr) {
+        if (wfSchedule != null) {
+            instr.addVariable(INSTRUMENTATION_GROUP, INSTR_SCHEDULED_ACTIONS_VARIABLE,
+                              new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return (long) wfSchedule.size();
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, INSTR_SCHEDULED_COORD_ACTIONS_VARIABLE,
+                              new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return (long) coordSchedule.size();
+                }
+            });
+        }
+    }
+
+    /**
+     * Schedule the next check of a running workflow action, one check delay from now.
+     * <p/>
+     * It is a no-op if the check schedule is not enabled.
+     *
+     * @param actionId workflow action id.
+     */
+    public void scheduleCheck(String actionId) {
+        if (wfSchedule != null) {
+            wfSchedule.schedule(actionId, System.currentTimeMillis() + actionCheckDelay * 1000L);
+        }
+    }
+
+    /**
+     * Schedule the next check of a running coordinator action, one check delay from now.
+     * <p/>
+     * It is a no-op if the check schedule is not enabled.
+     *
+     * @param actionId coordinator action id.
+     */
+    public void scheduleCoordCheck(String actionId) {
+        if (coordSchedule != null) {
+            coordSchedule.schedule(actionId, System.currentTimeMillis() + actionCheckDelay * 1000L);
+        }
+    }
+
+    /**
+     * Remove a coordinator action that is not running anymore from the check schedule.
+     * <p/>
+     * It is a no-op if the check schedule is not enabled.
+     *
+     * @param actionId coordinator action id.
+     */
+    public void unscheduleCoordCheck(String actionId) {
+        if (coordSchedule != null) {
+            coordSchedule.remove(actionId);
+        }
+    }
+
+    /**
+     * Remove a workflow action that is not running anymore from the check schedule, and stop tracking its Hadoop job
+     * with the {@link JobStatusPollerService} if available.
+     *
+     * @param actionId workflow action id.
+     */
+    public void unscheduleCheck(String actionId) {
+        if (wfSchedule != null) {
+            wfSchedule.remove(actionId);
+        }
+        JobStatusPollerService poller = Services.get().get(JobStatusPollerService.class);
+        if (poller != null) {
+            poller.untrack(actionId);
+        }
+    }
+
     /**
      * Destroy the Action Checker Services.
      */
@@ -21,19 +21,18 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
-import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.XOozieClient;
-import org.apache.oozie.store.CoordinatorStore;
-import org.apache.oozie.store.StoreException;
-import org.apache.oozie.store.WorkflowStore;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.JobOwnerGetCommand;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XLog;
 
@@ -54,6 +53,16 @@ public class AuthorizationService implements Service {
      */
     public static final String ADMIN_USERS_FILE = "adminusers.txt";
 
+    /**
+     * Max number of job owners cached, <code>0</code> disables the cache.
+     */
+    public static final String CONF_OWNER_CACHE_SIZE = CONF_PREFIX + "owner.cache.size";
+
+    /**
+     * Time in seconds job owners are cached.
+     */
+    public static final String CONF_OWNER_CACHE_TTL = CONF_PREFIX + "owner.cache.ttl";
+
     /**
      * Default group returned by getDefaultGroup().
      */
@@ -61,9 +70,23 @@ public class AuthorizationService implements Service {
 
     protected static final String INSTRUMENTATION_GROUP = "authorization";
     protected static final String INSTR_FAILED_AUTH_COUNTER = "authorization.failed";
+    protected static final String INSTR_OWNER_CACHE_HITS_COUNTER = "owner.cache.hits";
+    protected static final String INSTR_OWNER_CACHE_MISSES_COUNTER = "owner.cache.misses";
+
+    private static class JobOwner {
+        private final String[] owner;
+        private final long expiration;
+
+        private JobOwner(String[] owner, long expiration) {
+            this.owner = owner;
+            this.expiration = expiration;
+        }
+    }
 
     private Set<String> adminUsers;
     private boolean securityEnabled;
+    private Map<String, JobOwner> ownerCache;
+    private long ownerCacheTtl;
 
     private final XLog log = XLog.getLog(getClass());
     private Instrumentation instrumentation;
@@ -79,6 +102,17 @@ public class AuthorizationService implements Service {
         adminUsers = new HashSet<String>();
         securityEnabled = services.getConf().getBoolean(CONF_SECURITY_ENABLED, false);
         instrumentation = Services.get().get(InstrumentationService.class).get();
+        final int ownerCacheSize = services.getConf().getInt(CONF_OWNER_CACHE_SIZE, 10000);
+        ownerCacheTtl = services.getConf().getInt(CONF_OWNER_CACHE_TTL, 300) * 1000L;
+        ownerCache = null;
+        if (ownerCacheSize > 0 && ownerCacheTtl > 0) {
+            ownerCache = new LinkedHashMap<String, JobOwner>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JobOwner> eldest) {
+                    return size() > ownerCacheSize;
+                }
+            };
+        }
         if (securityEnabled) {
             log.info("Oozie running with security enabled");
             loadAdminUsers();
@@ -137,9 +171,10 @@ public class AuthorizationService implements Service {
     }
 
     /**
-     * Destroy the service. <p/> This implementation does a NOP.
+     * Destroy the service. <p/> This implementation discards the job owner cache.
      */
     public void destroy() {
+        ownerCache = null;
     }
 
     /**
@@ -331,111 +366,76 @@ public class AuthorizationService implements Service {
      */
     public void authorizeForJob(String user, String jobId, boolean write) throws AuthorizationException {
         if (securityEnabled && write && !isAdmin(user)) {
-            // handle workflow jobs
-            if (jobId.endsWith("-W")) {
-                WorkflowJobBean jobBean = null;
-                WorkflowStore store = null;
-                try {
-                    store = Services.get().get(WorkflowStoreService.class).create();
-                    store.beginTrx();
-                    jobBean = store.getWorkflow(jobId, false);
-                    store.commitTrx();
-                }
-                catch (StoreException ex) {
+            String[] owner = getJobOwner(jobId);
+            if (!owner[0].equals(user)) {
+                if (!isUserInGroup(user, owner[1])) {
                     incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
-                    if (store != null) {
-                        store.rollbackTrx();
-                    }
-                    throw new AuthorizationException(ex);
-                }
-                catch (Exception ex) {
-                    incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
-                    log.error("Exception, {0}", ex.getMessage(), ex);
-                    if (store != null && store.isActive()) {
-                        try {
-                            store.rollbackTrx();
-                        }
-                        catch (RuntimeException rex) {
-                            log.warn("openjpa error, {0}", rex.getMessage(), rex);
-                        }
-                    }
-                    throw new AuthorizationException(ErrorCode.E0501, ex);
-                }
-                finally {
-                    if (store != null) {
-                        if (!store.isActive()) {
-                            try {
-                                store.closeTrx();
-                            }
-                            catch (RuntimeException rex) {
-                                log.warn("Exception while attempting to close store", rex);
-                            }
-                        }
-                        else {
-                            log.warn("transaction is not committed or rolled back before closing entitymanager.");
-                        }
-                    }
-                }
-                if (jobBean != null && !jobBean.getUser().equals(user)) {
-                    if (!isUserInGroup(user, jobBean.getGroup())) {
-                        incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
-                        throw new AuthorizationException(ErrorCode.E0508, user, jobId);
-                    }
+                    throw new AuthorizationException((jobId.endsWith("-W")) ? ErrorCode.E0508 : ErrorCode.E0509,
+                                                     user, jobId);
                 }
             }
-            // handle coordinator jobs
-            else {
-                CoordinatorJobBean jobBean = null;
-                CoordinatorStore store = null;
-                try {
-                    store = Services.get().get(CoordinatorStoreService.class).create();
-                    store.beginTrx();
-                    jobBean = store.getCoordinatorJob(jobId, false);
-                    store.commitTrx();
-                }
-                catch (StoreException ex) {
-                    incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
-                    if (store != null) {
-                        store.rollbackTrx();
-                    }
-                    throw new AuthorizationException(ex);
-                }
-                catch (Exception ex) {
-                    incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
-                    log.error("Exception, {0}", ex.getMessage(), ex);
-                    if (store != null && store.isActive()) {
-                        try {
-                            store.rollbackTrx();
-                        }
-                        catch (RuntimeException rex) {
-                            log.warn("openjpa error, {0}", rex.getMessage(), rex);
-                        }
-                    }
-                    throw new AuthorizationException(ErrorCode.E0501, ex);
-                }
-                finally {
-                    if (store != null) {
-                        if (!store.isActive()) {
-                            try {
-                                store.closeTrx();
-                            }
-                            catch (RuntimeException rex) {
-                                log.warn("Exception while attempting to close store", rex);
-                            }
-                        }
-                        else {
-                            log.warn("transaction is not committed or rolled back before closing entitymanager.");
-                        }
-                    }
-                }
-                if (jobBean != null && !jobBean.getUser().equals(user)) {
-                    if (!isUserInGroup(user, jobBean.getGroup())) {
-                        incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
-                        throw new AuthorizationException(ErrorCode.E0509, user, jobId);
-                    }
-                }
+        }
+    }
+
+    /**
+     * Return the user and group of a job. <p/> The owners of jobs are cached for {@link #CONF_OWNER_CACHE_TTL}
+     * seconds, on a cache miss only the user and group columns of the job are read from the database.
+     *
+     * @param jobId workflow or coordinator job ID.
+     * @return a 2 elements array with the user and the group of the job.
+     * @throws AuthorizationException thrown if the job does not exist or its owner could not be read.
+     */
+    protected String[] getJobOwner(String jobId) throws AuthorizationException {
+        Map<String, JobOwner> cache = ownerCache;
+        if (cache != null) {
+            JobOwner owner;
+            synchronized (cache) {
+                owner = cache.get(jobId);
+            }
+            if (owner != null && owner.expiration > getCurrentTime()) {
+                incrCounter(INSTR_OWNER_CACHE_HITS_COUNTER, 1);
+                return owner.owner;
             }
         }
+        incrCounter(INSTR_OWNER_CACHE_MISSES_COUNTER, 1);
+        String[] owner = loadJobOwner(jobId);
+        if (cache != null) {
+            synchronized (cache) {
+                cache.put(jobId, new JobOwner(owner, getCurrentTime() + ownerCacheTtl));
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Return the current time used to expire the cached job owners.
+     *
+     * @return the current time in milliseconds.
+     */
+    protected long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Read the user and group of a job from the database.
+     *
+     * @param jobId workflow or coordinator job ID.
+     * @return a 2 elements array with the user and the group of the job.
+     * @throws AuthorizationException thrown if the job does not exist or its owner could not be read.
+     */
+    protected String[] loadJobOwner(String jobId) throws AuthorizationException {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
+            throw new AuthorizationException(ErrorCode.E0610);
+        }
+        try {
+            return jpaService.execute(new JobOwnerGetCommand(jobId));
+        }
+        catch (CommandException ex) {
+            incrCounter(INSTR_FAILED_AUTH_COUNTER, 1);
+            throw new AuthorizationException(ex);
+        }
     }
 
     /**
@@ -16,9 +16,11 @@ package org.apache.oozie.service;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -29,6 +31,7 @@ import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.util.Instrumentable;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.PriorityDelayQueue;
+import org.apache.oozie.util.ShardedPriorityDelayQueue;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
@@ -53,6 +56,16 @@ import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
  * of threads is reached, commands remain the queue until threads become available. Sets up a priority queue for the
  * execution of Commands via a ThreadPool. Sets up a Delayed Queue to handle actions which will be ready for execution
  * sometime in the future.
+ * <p/>
+ * {@link #CONF_QUEUE_SHARDS} number of sub-queues per priority. With 1 (default) a {@link PriorityDelayQueue} is used,
+ * with more than 1 a {@link ShardedPriorityDelayQueue} is used to reduce lock contention on the queue.
+ * <p/>
+ * {@link #CONF_CALLABLE_CONCURRENCY} maximum concurrency for a given callable type. Callables exceeding it are
+ * requeued with a {@link #CONCURRENCY_DELAY} delay. If {@link #CONF_CALLABLE_CONCURRENCY_LANES} is <code>true</code>
+ * they wait, in FIFO order, in a per type lane instead and they are queued again, with the concurrency slot already
+ * assigned, when a callable of the same type finishes. Every {@link #CONCURRENCY_DELAY} the lanes of the types below
+ * max concurrency are drained as well, resuming the callables that could not be queued again when a callable
+ * finished.
  */
 public class CallableQueueService implements Service, Instrumentable {
     private static final String INSTRUMENTATION_GROUP = "callablequeue";
@@ -66,15 +79,20 @@ public class CallableQueueService implements Service, Instrumentable {
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "CallableQueueService.";
 
     public static final String CONF_QUEUE_SIZE = CONF_PREFIX + "queue.size";
+    public static final String CONF_QUEUE_SHARDS = CONF_PREFIX + "queue.shards";
     public static final String CONF_THREADS = CONF_PREFIX + "threads";
     public static final String CONF_CALLABLE_CONCURRENCY = CONF_PREFIX + "callable.concurrency";
+    public static final String CONF_CALLABLE_CONCURRENCY_LANES = CONF_PREFIX + "callable.concurrency.lanes";
 
     public static final int CONCURRENCY_DELAY = 500;
 
     public static final int SAFE_MODE_DELAY = 60000;
 
     final private Map<String, AtomicInteger> activeCallables = new HashMap<String, AtomicInteger>();
+    final private Map<String, LinkedList<CallableWrapper>> waitingCallables =
+        new HashMap<String, LinkedList<CallableWrapper>>();
     private int maxCallableConcurrency;
+    private boolean concurrencyLanes;
 
     private boolean callableBegin(XCallable callable) {
         synchronized (activeCallables) {
@@ -103,12 +121,123 @@ public class CallableQueueService implements Service, Instrumentable {
         }
     }
 
+    /**
+     * Begin the execution of a callable or, if its type is at max concurrency, park it in the waiting lane of its
+     * type.
+     *
+     * @param wrapper wrapper of the callable.
+     * @return <code>true</code> if the callable can run, <code>false</code> if it has been parked.
+     */
+    private boolean callableBeginOrWait(CallableWrapper wrapper) {
+        XCallable<?> callable = wrapper.getElement();
+        boolean newLane = false;
+        synchronized (activeCallables) {
+            if (callableBegin(callable)) {
+                return true;
+            }
+            callableEnd(callable);
+            LinkedList<CallableWrapper> lane = waitingCallables.get(callable.getType());
+            if (lane == null) {
+                lane = new LinkedList<CallableWrapper>();
+                waitingCallables.put(callable.getType(), lane);
+                newLane = true;
+            }
+            lane.add(wrapper);
+        }
+        if (newLane) {
+            addWaitingSampler(callable.getType());
+        }
+        return false;
+    }
+
+    /**
+     * End the execution of a callable. If a callable of the same type is waiting in its lane, the concurrency slot is
+     * handed over to it and it is queued for immediate execution. If it cannot be queued, it is put back at the head of
+     * its lane and the slot is released, the lane is drained by {@link #drainLanes()}.
+     *
+     * @param callable callable that finished.
+     */
+    private void callableEndAndRelease(XCallable callable) {
+        CallableWrapper next = null;
+        synchronized (activeCallables) {
+            LinkedList<CallableWrapper> lane = waitingCallables.get(callable.getType());
+            if (lane != null) {
+                next = lane.poll();
+            }
+            if (next == null) {
+                callableEnd(callable);
+            }
+        }
+        if (next != null) {
+            next.slotReserved = true;
+            next.setDelay(0, TimeUnit.MILLISECONDS);
+            if (!queue(next, true)) {
+                next.slotReserved = false;
+                synchronized (activeCallables) {
+                    waitingCallables.get(callable.getType()).addFirst(next);
+                    callableEnd(callable);
+                }
+                log.warn(XLog.OPS, "could not queue waiting callable [{0}] of type [{1}], kept at the head of its lane",
+                         next.getElement(), callable.getType());
+            }
+        }
+    }
+
+    /**
+     * Queue the callables waiting in the lanes of the types below max concurrency, in FIFO order, each one with a
+     * concurrency slot assigned.
+     * <p/>
+     * A lane with no callable of its type running is only left non-empty when a callable could not be queued as the
+     * last running one finished, the lanes are drained periodically so those callables are not stranded.
+     */
+    void drainLanes() {
+        List<CallableWrapper> ready = new ArrayList<CallableWrapper>();
+        synchronized (activeCallables) {
+            for (LinkedList<CallableWrapper> lane : waitingCallables.values()) {
+                while (!lane.isEmpty()) {
+                    XCallable<?> callable = lane.peek().getElement();
+                    if (!callableBegin(callable)) {
+                        callableEnd(callable);
+                        break;
+                    }
+                    ready.add(lane.poll());
+                }
+            }
+        }
+        for (int i = 0; i < ready.size(); i++) {
+            CallableWrapper next = ready.get(i);
+            next.slotReserved = true;
+            next.setDelay(0, TimeUnit.MILLISECONDS);
+            if (!queue(next, true)) {
+                // put back the callables not queued, in reverse order to keep the FIFO order of the lanes
+                synchronized (activeCallables) {
+                    for (int j = ready.size() - 1; j >= i; j--) {
+                        CallableWrapper wrapper = ready.get(j);
+                        wrapper.slotReserved = false;
+                        waitingCallables.get(wrapper.getElement().getType()).addFirst(wrapper);
+                        callableEnd(wrapper.getElement());
+                    }
+                }
+                log.warn(XLog.OPS, "could not queue [{0}] waiting callables, kept in their lanes", ready.size() - i);
+                break;
+            }
+        }
+    }
+
+    private int getWaitingCount(String type) {
+        synchronized (activeCallables) {
+            LinkedList<CallableWrapper> lane = waitingCallables.get(type);
+            return (lane != null) ? lane.size() : 0;
+        }
+    }
+
     // Callables are wrapped with the this wrapper for execution, for logging
     // and instrumentation.
     // The wrapper implements Runnable and Comparable to be able to work with an
     // executor and a priority queue.
     class CallableWrapper extends PriorityDelayQueue.QueueElement<XCallable<?>> implements Runnable {
         private Instrumentation.Cron cron;
+        private volatile boolean slotReserved;
 
         public CallableWrapper(XCallable<?> callable, long delay) {
             super(callable, callable.getPriority(), delay, TimeUnit.MILLISECONDS);
@@ -125,26 +254,27 @@ public class CallableQueueService implements Service, Instrumentable {
                 return;
             }
             XCallable<?> callable = getElement();
-            try {
-                if (callableBegin(callable)) {
-                    cron.stop();
-                    addInQueueCron(cron);
-                    XLog.Info.get().clear();
-                    XLog log = XLog.getLog(getClass());
-                    log.trace("executing callable [{0}]", callable.getName());
+            if (concurrencyLanes) {
+                if (slotReserved || callableBeginOrWait(this)) {
+                    slotReserved = false;
                     try {
-                        callable.call();
-                        incrCounter(INSTR_EXECUTED_COUNTER, 1);
-                        log.trace("executed callable [{0}]", callable.getName());
-                    }
-                    catch (Exception ex) {
-                        incrCounter(INSTR_FAILED_COUNTER, 1);
-                        log.warn("exception callable [{0}], {1}", callable.getName(), ex.getMessage(), ex);
+                        execute(callable);
                     }
                     finally {
-                        XLog.Info.get().clear();
+                        callableEndAndRelease(callable);
                     }
                 }
+                else {
+                    log.debug("max concurrency for callable [{0}] exceeded, waiting for a running one to finish",
+                              callable.getType());
+                    incrCounter(callable.getType() + "#exceeded.concurrency", 1);
+                }
+                return;
+            }
+            try {
+                if (callableBegin(callable)) {
+                    execute(callable);
+                }
                 else {
                     log.warn("max concurrency for callable [{0}] exceeded, requeueing with [{1}]ms delay", callable
                             .getType(), CONCURRENCY_DELAY);
@@ -158,6 +288,26 @@ public class CallableQueueService implements Service, Instrumentable {
             }
         }
 
+        private void execute(XCallable<?> callable) {
+            cron.stop();
+            addInQueueCron(cron);
+            XLog.Info.get().clear();
+            XLog log = XLog.getLog(getClass());
+            log.trace("executing callable [{0}]", callable.getName());
+            try {
+                callable.call();
+                incrCounter(INSTR_EXECUTED_COUNTER, 1);
+                log.trace("executed callable [{0}]", callable.getName());
+            }
+            catch (Exception ex) {
+                incrCounter(INSTR_FAILED_COUNTER, 1);
+                log.warn("exception callable [{0}], {1}", callable.getName(), ex.getMessage(), ex);
+            }
+            finally {
+                XLog.Info.get().clear();
+            }
+        }
+
         /**
          * @return String the queue dump
          */
@@ -262,7 +412,7 @@ public class CallableQueueService implements Service, Instrumentable {
     private XLog log = XLog.getLog(getClass());
 
     private int queueSize;
-    private PriorityDelayQueue<CallableWrapper> queue;
+    private BlockingQueue<QueueElement<CallableWrapper>> queue;
     private AtomicLong delayQueueExecCounter = new AtomicLong(0);
     private ThreadPoolExecutor executor;
     private Instrumentation instrumentation;
@@ -285,6 +435,22 @@ public class CallableQueueService implements Service, Instrumentable {
         }
     }
 
+    /**
+     * Add a sampler for the number of callables of a type waiting in its concurrency lane.
+     *
+     * @param type callable type.
+     */
+    private void addWaitingSampler(final String type) {
+        if (instrumentation != null) {
+            instrumentation.addSampler(INSTRUMENTATION_GROUP, type + "#waiting", 60, 1,
+                                       new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return (long) getWaitingCount(type);
+                }
+            });
+        }
+    }
+
     /**
      * Initialize the command queue service.
      * 
@@ -297,13 +463,26 @@ public class CallableQueueService implements Service, Instrumentable {
 
         queueSize = conf.getInt(CONF_QUEUE_SIZE, 10000);
         int threads = conf.getInt(CONF_THREADS, 10);
-
-        queue = new PriorityDelayQueue<CallableWrapper>(3, 1000 * 30, TimeUnit.MILLISECONDS, queueSize) {
-            @Override
-            protected void debug(String msgTemplate, Object... msgArgs) {
-                log.trace(msgTemplate, msgArgs);
-            }
-        };
+        int shards = conf.getInt(CONF_QUEUE_SHARDS, 1);
+
+        if (shards > 1) {
+            queue = new ShardedPriorityDelayQueue<CallableWrapper>(3, shards, 1000 * 30, TimeUnit.MILLISECONDS,
+                                                                   queueSize) {
+                @Override
+                protected void debug(String msgTemplate, Object... msgArgs) {
+                    log.trace(msgTemplate, msgArgs);
+                }
+            };
+        }
+        else {
+            queue = new PriorityDelayQueue<CallableWrapper>(3, 1000 * 30, TimeUnit.MILLISECONDS, queueSize) {
+                @Override
+                protected void debug(String msgTemplate, Object... msgArgs) {
+                    log.trace(msgTemplate, msgArgs);
+                }
+            };
+        }
+        log.info("Callable queue size [{0}], sub-queues per priority [{1}]", queueSize, Math.max(shards, 1));
 
         // IMPORTANT: The ThreadPoolExecutor does not always the execute
         // commands out of the queue, there are
@@ -332,6 +511,15 @@ public class CallableQueueService implements Service, Instrumentable {
         }
 
         maxCallableConcurrency = conf.getInt(CONF_CALLABLE_CONCURRENCY, 3);
+        concurrencyLanes = conf.getBoolean(CONF_CALLABLE_CONCURRENCY_LANES, false);
+        SchedulerService scheduler = services.get(SchedulerService.class);
+        if (concurrencyLanes && scheduler != null) {
+            scheduler.schedule(new Runnable() {
+                public void run() {
+                    drainLanes();
+                }
+            }, CONCURRENCY_DELAY, CONCURRENCY_DELAY, SchedulerService.Unit.MILLISEC);
+        }
     }
 
     /**
@@ -369,7 +557,7 @@ public class CallableQueueService implements Service, Instrumentable {
     /**
      * @return int size of queue
      */
-    public synchronized int queueSize() {
+    public int queueSize() {
         return queue.size();
     }
 
@@ -379,7 +567,13 @@ public class CallableQueueService implements Service, Instrumentable {
             return false;
         }
         if (!executor.isShutdown()) {
-            executor.execute(wrapper);
+            try {
+                executor.execute(wrapper);
+            }
+            catch (RejectedExecutionException ex) {
+                log.warn("queue is full, ignoring queuing for [{0}]", wrapper.getElement());
+                return false;
+            }
         }
         else {
             log.warn("Executor shutting down, ignoring queueing of [{0}]", wrapper.getElement());
@@ -422,7 +616,7 @@ public class CallableQueueService implements Service, Instrumentable {
      * @return <code>true</code> if the callable was queued, <code>false</code> if the queue is full and the callable
      *         was not queued.
      */
-    public synchronized boolean queue(XCallable<?> callable, long delay) {
+    public boolean queue(XCallable<?> callable, long delay) {
         if (callable == null) {
             return true;
         }
@@ -455,7 +649,7 @@ public class CallableQueueService implements Service, Instrumentable {
      *         were not queued.
      */
     @SuppressWarnings("unchecked")
-    public synchronized boolean queueSerial(List<? extends XCallable<?>> callables, long delay) {
+    public boolean queueSerial(List<? extends XCallable<?>> callables, long delay) {
         boolean queued;
         if (callables == null || callables.size() == 0) {
             queued = true;
@@ -494,9 +688,9 @@ public class CallableQueueService implements Service, Instrumentable {
     }
 
     /**
-     * Get the list of strings of queue dump
+     * Get the list of strings of queue dump, followed by the number of callables waiting in each concurrency lane.
      *
-     * @return the list of string that representing each CallableWrapper
+     * @return the list of string that representing each CallableWrapper and each lane
      */
     public List<String> getQueueDump() {
         List<String> list = new ArrayList<String>();
@@ -506,6 +700,11 @@ public class CallableQueueService implements Service, Instrumentable {
             }
             list.add(qe.toString());
         }
+        synchronized (activeCallables) {
+            for (Map.Entry<String, LinkedList<CallableWrapper>> entry : waitingCallables.entrySet()) {
+                list.add("lane [" + entry.getKey() + "] waiting=" + entry.getValue().size());
+            }
+        }
         return list;
     }
 
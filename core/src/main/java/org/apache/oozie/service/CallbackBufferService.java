@@ -0,0 +1,634 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.command.wf.CompletedActionCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.PropertiesUtils;
+import org.apache.oozie.util.XCallable;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The callback buffer service decouples the reception of action callbacks from their processing.
+ * <p/>
+ * Accepted callbacks are appended to a local journal and kept in a bounded ring until they are drained, in batches,
+ * into the {@link CallableQueueService} as {@link CompletedActionCommand}s. Repeated callbacks for an action that has
+ * not been drained yet are coalesced, the last external status and data win.
+ * <p/>
+ * If the command queue is full or the system is in SAFEMODE the callbacks stay in the buffer and are drained later.
+ * When the buffer is full callbacks are not accepted, the caller must retry them (Hadoop retries job-end
+ * notifications).
+ * <p/>
+ * A drained callback stays in the journal, in flight, until the command processing it reports it {@link
+ * #processed}: the {@link CompletedActionCommand} if the callback does not trigger an action check, the
+ * {@link org.apache.oozie.command.wf.ActionCheckCommand} otherwise. A callback not processed within {@link
+ * #CONF_REDELIVERY_TIMEOUT}, because a command failed or could not be requeued, is buffered again. After a restart
+ * the buffered and in flight callbacks in the journal are buffered again. A callback may be processed twice but it
+ * is not lost.
+ * <p/>
+ * The latency between the first callback of an action and the completion of the action check it triggers is
+ * recorded in the <code>callback_buffer.latency</code> timer.
+ */
+public class CallbackBufferService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "CallbackBufferService.";
+
+    /**
+     * Maximum number of actions with buffered callbacks.
+     */
+    public static final String CONF_CAPACITY = CONF_PREFIX + "capacity";
+
+    /**
+     * Maximum number of callbacks queued in a single command queue element.
+     */
+    public static final String CONF_BATCH_SIZE = CONF_PREFIX + "batch.size";
+
+    /**
+     * Time, in milliseconds, between drains of the buffer.
+     */
+    public static final String CONF_DRAIN_INTERVAL = CONF_PREFIX + "drain.interval";
+
+    /**
+     * Time, in milliseconds, after which a drained callback not processed yet is buffered again.
+     */
+    public static final String CONF_REDELIVERY_TIMEOUT = CONF_PREFIX + "redelivery.timeout";
+
+    /**
+     * Journal file, if not set <code>${OOZIE_HOME}/data/callbacks.journal</code> is used.
+     */
+    public static final String CONF_JOURNAL_FILE = CONF_PREFIX + "journal.file";
+
+    /**
+     * Size, in bytes, above which the journal is compacted.
+     */
+    public static final String CONF_JOURNAL_MAX_SIZE = CONF_PREFIX + "journal.max.size";
+
+    /**
+     * If the journal must be synced to disk on every callback.
+     */
+    public static final String CONF_JOURNAL_SYNC = CONF_PREFIX + "journal.sync";
+
+    public static final String INSTRUMENTATION_GROUP = "callback_buffer";
+
+    public static final String INSTR_LATENCY_TIMER = "latency";
+
+    // same priority used by DagEngine for callbacks
+    private static final int CALLBACK_PRIORITY = 2;
+
+    private static final XLog log = XLog.getLog(CallbackBufferService.class);
+
+    /**
+     * Buffered callback of an action. Instances are immutable, coalescing replaces them.
+     */
+    static class Callback {
+        private final String actionId;
+        private final String externalStatus;
+        private final Properties actionData;
+        private final Instrumentation.Cron cron;
+
+        private Callback(String actionId, String externalStatus, Properties actionData, Instrumentation.Cron cron) {
+            this.actionId = actionId;
+            this.externalStatus = externalStatus;
+            this.actionData = actionData;
+            this.cron = cron;
+        }
+
+        private Callback coalesce(Callback callback) {
+            return new Callback(actionId, callback.externalStatus, callback.actionData, cron);
+        }
+    }
+
+    /**
+     * Drained callback waiting to be processed.
+     */
+    private static class InFlight {
+        private final Callback callback;
+        private final long drainTime;
+
+        private InFlight(Callback callback, long drainTime) {
+            this.callback = callback;
+            this.drainTime = drainTime;
+        }
+    }
+
+    /**
+     * Bounded ring of action IDs, multiple producers and a single consumer (the drain).
+     * <p/>
+     * Producers must {@link #reserve} a slot before offering an ID, the reservation is released by the consumer after
+     * polling the ID. As the number of IDs in the ring never exceeds the capacity, offering never blocks nor fails.
+     */
+    static class Ring {
+        private final int capacity;
+        private final AtomicReferenceArray<String> slots;
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicInteger reserved = new AtomicInteger();
+        private long head;
+
+        Ring(int capacity) {
+            this.capacity = capacity;
+            slots = new AtomicReferenceArray<String>(capacity);
+        }
+
+        boolean reserve() {
+            int current = reserved.get();
+            while (current < capacity) {
+                if (reserved.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                current = reserved.get();
+            }
+            return false;
+        }
+
+        void release() {
+            reserved.decrementAndGet();
+        }
+
+        int size() {
+            return reserved.get();
+        }
+
+        void offer(String id) {
+            slots.set((int) (tail.getAndIncrement() % capacity), id);
+        }
+
+        /**
+         * Return the ID at the given offset from the head, <code>null</code> if there is none or it has not been
+         * published yet. Consumer only.
+         */
+        String peek(int offset) {
+            return slots.get((int) ((head + offset) % capacity));
+        }
+
+        /**
+         * Remove the ID at the head. Consumer only, the head must have been peeked.
+         */
+        String poll() {
+            int index = (int) (head % capacity);
+            String id = slots.get(index);
+            slots.set(index, null);
+            head++;
+            return id;
+        }
+    }
+
+    private Ring ring;
+    private final ConcurrentHashMap<String, Callback> pending = new ConcurrentHashMap<String, Callback>();
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<String, InFlight>();
+    private int batchSize;
+    private long redeliveryTimeout;
+    private File journalFile;
+    private long journalMaxSize;
+    private boolean journalSync;
+    private final Object journalLock = new Object();
+    private FileOutputStream journalStream;
+    private DataOutputStream journal;
+    private volatile long journalSize;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong queueFull = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+
+    /**
+     * {@link DrainRunnable} queues the buffered callbacks into the command queue.
+     */
+    class DrainRunnable implements Runnable {
+        public void run() {
+            drain();
+            try {
+                compactJournal(false);
+            }
+            catch (IOException ex) {
+                log.warn(XLog.OPS, "Could not compact callback journal [{0}], {1}", journalFile, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Initialize the callback buffer service.
+     * <p/>
+     * The buffered and in flight callbacks in the journal are buffered again and the drain is scheduled.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if the journal could not be read or opened.
+     */
+    @Override
+    public void init(Services services) throws ServiceException {
+        Configuration conf = services.getConf();
+        int capacity = conf.getInt(CONF_CAPACITY, 10000);
+        redeliveryTimeout = conf.getLong(CONF_REDELIVERY_TIMEOUT, 10 * 60 * 1000);
+        journalMaxSize = conf.getLong(CONF_JOURNAL_MAX_SIZE, 16 * 1024 * 1024);
+        journalSync = conf.getBoolean(CONF_JOURNAL_SYNC, false);
+        String file = conf.get(CONF_JOURNAL_FILE, "").trim();
+        journalFile = new File((file.length() > 0) ? file : Services.getOozieHome() + "/data/callbacks.journal");
+        if (!journalFile.getParentFile().exists() && !journalFile.getParentFile().mkdirs()) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(),
+                                       "could not create directory " + journalFile.getParent());
+        }
+
+        try {
+            Map<String, Callback> journaled = readJournal();
+            ring = new Ring(Math.max(Math.max(capacity, 1), journaled.size()));
+            // a batch never peeks beyond the ring
+            batchSize = Math.min(Math.max(conf.getInt(CONF_BATCH_SIZE, 10), 1), ring.capacity);
+            for (Callback callback : journaled.values()) {
+                ring.reserve();
+                pending.put(callback.actionId, callback);
+                ring.offer(callback.actionId);
+            }
+            replayed.set(journaled.size());
+            if (journaled.size() > 0) {
+                log.info(XLog.OPS, "Buffered [{0}] callbacks from journal [{1}]", journaled.size(), journalFile);
+            }
+            compactJournal(true);
+        }
+        catch (IOException ex) {
+            throw new ServiceException(ErrorCode.E0100, getClass().getName(), ex.getMessage(), ex);
+        }
+
+        int interval = conf.getInt(CONF_DRAIN_INTERVAL, 500);
+        services.get(SchedulerService.class).schedule(new DrainRunnable(), interval, interval,
+                                                      SchedulerService.Unit.MILLISEC);
+    }
+
+    /**
+     * Destroy the callback buffer service.
+     * <p/>
+     * Buffered callbacks remain in the journal.
+     */
+    @Override
+    public void destroy() {
+        synchronized (journalLock) {
+            try {
+                if (journal != null) {
+                    journal.close();
+                }
+            }
+            catch (IOException ex) {
+                log.warn("Could not close callback journal [{0}], {1}", journalFile, ex.getMessage(), ex);
+            }
+            journal = null;
+        }
+        pending.clear();
+        inFlight.clear();
+    }
+
+    /**
+     * Return the public interface for callback buffer service.
+     *
+     * @return {@link CallbackBufferService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return CallbackBufferService.class;
+    }
+
+    /**
+     * Instrument the callback buffer service.
+     *
+     * @param instr instrumentation to use.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "pending", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) ring.size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "in_flight", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) inFlight.size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "journal_size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return journalSize;
+            }
+        });
+        addVariable(instr, "accepted", accepted);
+        addVariable(instr, "coalesced", coalesced);
+        addVariable(instr, "rejected", rejected);
+        addVariable(instr, "drained", drained);
+        addVariable(instr, "queue_full", queueFull);
+        addVariable(instr, "replayed", replayed);
+        addVariable(instr, "redelivered", redelivered);
+    }
+
+    private void addVariable(Instrumentation instr, String name, final AtomicLong value) {
+        instr.addVariable(INSTRUMENTATION_GROUP, name, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return value.get();
+            }
+        });
+    }
+
+    /**
+     * Buffer a callback.
+     * <p/>
+     * The callback is journaled before returning.
+     *
+     * @param actionId action ID of the callback.
+     * @param externalStatus external status of the action.
+     * @param actionData action data of the callback, it may be <code>null</code>.
+     * @return <code>true</code> if the callback was buffered, <code>false</code> if the buffer is full.
+     * @throws IOException thrown if the callback could not be journaled, the callback may still be processed.
+     */
+    public boolean add(String actionId, String externalStatus, Properties actionData) throws IOException {
+        ParamChecker.notEmpty(actionId, "actionId");
+        ParamChecker.notEmpty(externalStatus, "externalStatus");
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        Callback callback = new Callback(actionId, externalStatus, actionData, cron);
+        while (true) {
+            Callback current = pending.get(actionId);
+            if (current != null) {
+                if (pending.replace(actionId, current, current.coalesce(callback))) {
+                    coalesced.incrementAndGet();
+                    break;
+                }
+            }
+            else {
+                if (!ring.reserve()) {
+                    rejected.incrementAndGet();
+                    log.warn(XLog.OPS, "Callback buffer is full, not accepting callback for action [{0}]", actionId);
+                    return false;
+                }
+                if (pending.putIfAbsent(actionId, callback) == null) {
+                    ring.offer(actionId);
+                    break;
+                }
+                ring.release();
+            }
+        }
+        accepted.incrementAndGet();
+        appendJournal(callback);
+        return true;
+    }
+
+    /**
+     * Report a drained callback processed, it is removed from the journal on the next compaction.
+     * <p/>
+     * A callback buffered again or drained again in the meantime is not affected.
+     *
+     * @param actionId action ID of the callback.
+     * @param callbackCron cron of the callback given to the {@link CompletedActionCommand}, it identifies the callback.
+     */
+    public void processed(String actionId, Instrumentation.Cron callbackCron) {
+        InFlight drained = inFlight.get(actionId);
+        if (drained != null && drained.callback.cron == callbackCron) {
+            inFlight.remove(actionId, drained);
+        }
+    }
+
+    /**
+     * Return the cron of the in flight callback of an action, for testing.
+     *
+     * @param actionId action ID.
+     * @return the cron of the in flight callback, <code>null</code> if none.
+     */
+    Instrumentation.Cron getInFlight(String actionId) {
+        InFlight drained = inFlight.get(actionId);
+        return (drained != null) ? drained.callback.cron : null;
+    }
+
+    /**
+     * Return the number of actions with buffered callbacks.
+     *
+     * @return the number of actions with buffered callbacks.
+     */
+    public int size() {
+        return ring.size();
+    }
+
+    /**
+     * Queue the buffered callbacks into the command queue, in batches of {@link #CONF_BATCH_SIZE} callbacks.
+     * <p/>
+     * It stops at the first batch the command queue does not accept. The in flight callbacks not processed within
+     * {@link #CONF_REDELIVERY_TIMEOUT} are buffered again first, unless a newer callback of the same action is
+     * buffered.
+     */
+    void drain() {
+        CallableQueueService callableQueue = Services.get().get(CallableQueueService.class);
+        redeliver();
+        boolean more = true;
+        while (more) {
+            List<Callback> batch = new ArrayList<Callback>(batchSize);
+            String actionId;
+            while (batch.size() < batchSize && (actionId = ring.peek(batch.size())) != null) {
+                batch.add(pending.get(actionId));
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<XCallable<Void>> commands = new ArrayList<XCallable<Void>>(batch.size());
+            List<InFlight> drainedBatch = new ArrayList<InFlight>(batch.size());
+            long now = System.currentTimeMillis();
+            for (Callback callback : batch) {
+                commands.add(new CompletedActionCommand(callback.actionId, callback.externalStatus,
+                                                        callback.actionData, CALLBACK_PRIORITY, callback.cron));
+                // in flight before queueing, the command may report it processed right away
+                InFlight drained = new InFlight(callback, now);
+                inFlight.put(callback.actionId, drained);
+                drainedBatch.add(drained);
+            }
+            if (!callableQueue.queueSerial(commands)) {
+                for (InFlight drained : drainedBatch) {
+                    inFlight.remove(drained.callback.actionId, drained);
+                }
+                queueFull.incrementAndGet();
+                log.debug("Command queue is full, [{0}] callbacks remain buffered", ring.size());
+                break;
+            }
+            for (Callback callback : batch) {
+                ring.poll();
+                if (pending.remove(callback.actionId, callback)) {
+                    ring.release();
+                }
+                else {
+                    // coalesced after the batch was built, keeping the reservation for the newer callback
+                    ring.offer(callback.actionId);
+                }
+            }
+            drained.addAndGet(batch.size());
+            more = batch.size() == batchSize;
+        }
+    }
+
+    // drain thread only, a callback is buffered before leaving the in flight callbacks so it is always journaled
+    private void redeliver() {
+        long now = System.currentTimeMillis();
+        for (InFlight drained : inFlight.values()) {
+            if (now - drained.drainTime >= redeliveryTimeout) {
+                Callback callback = drained.callback;
+                if (pending.containsKey(callback.actionId)) {
+                    inFlight.remove(callback.actionId, drained);
+                }
+                else if (ring.reserve()) {
+                    if (pending.putIfAbsent(callback.actionId, callback) == null) {
+                        ring.offer(callback.actionId);
+                        redelivered.incrementAndGet();
+                        log.debug("Callback for action [{0}] not processed, buffering it again", callback.actionId);
+                    }
+                    else {
+                        ring.release();
+                    }
+                    inFlight.remove(callback.actionId, drained);
+                }
+            }
+        }
+    }
+
+    private void appendJournal(Callback callback) throws IOException {
+        synchronized (journalLock) {
+            if (journal == null) {
+                throw new IOException("Callback journal is closed");
+            }
+            writeCallback(journal, callback);
+            journal.flush();
+            if (journalSync) {
+                journalStream.getFD().sync();
+            }
+            journalSize = journalStream.getChannel().position();
+        }
+    }
+
+    /**
+     * Rewrite the journal with the buffered and in flight callbacks, if forced, if the journal is over its maximum
+     * size or if all journaled callbacks have been processed.
+     * <p/>
+     * A callback being added concurrently is always in the rewritten journal, it may be there twice.
+     */
+    void compactJournal(boolean force) throws IOException {
+        synchronized (journalLock) {
+            if (!force && journalSize <= journalMaxSize
+                    && (journalSize == 0 || ring.size() > 0 || !inFlight.isEmpty())) {
+                return;
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            File compacted = new File(journalFile.getPath() + ".tmp");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacted)));
+            try {
+                for (InFlight drained : inFlight.values()) {
+                    writeCallback(out, drained.callback);
+                }
+                // written after the in flight callbacks, on replay they are coalesced into the in flight ones
+                for (Callback callback : pending.values()) {
+                    writeCallback(out, callback);
+                }
+            }
+            finally {
+                out.close();
+            }
+            if (!compacted.renameTo(journalFile)) {
+                journalFile.delete();
+                if (!compacted.renameTo(journalFile)) {
+                    throw new IOException("Could not rename " + compacted + " to " + journalFile);
+                }
+            }
+            journalStream = new FileOutputStream(journalFile, true);
+            journal = new DataOutputStream(new BufferedOutputStream(journalStream));
+            journalSize = journalStream.getChannel().position();
+        }
+    }
+
+    private Map<String, Callback> readJournal() throws IOException {
+        Map<String, Callback> callbacks = new LinkedHashMap<String, Callback>();
+        if (journalFile.exists()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+            try {
+                while (true) {
+                    Callback callback = readCallback(in);
+                    Callback current = callbacks.get(callback.actionId);
+                    callbacks.put(callback.actionId, (current != null) ? current.coalesce(callback) : callback);
+                }
+            }
+            catch (EOFException ex) {
+                // end of the journal or partially written last callback
+            }
+            finally {
+                in.close();
+            }
+        }
+        return callbacks;
+    }
+
+    private static void writeCallback(DataOutputStream out, Callback callback) throws IOException {
+        out.writeUTF(callback.actionId);
+        out.writeUTF(callback.externalStatus);
+        writeString(out, (callback.actionData != null) ? PropertiesUtils.propertiesToString(callback.actionData)
+                                                       : null);
+    }
+
+    private static Callback readCallback(DataInputStream in) throws IOException {
+        String actionId = in.readUTF();
+        String externalStatus = in.readUTF();
+        String data = readString(in);
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        return new Callback(actionId, externalStatus, (data != null) ? PropertiesUtils.stringToProperties(data) : null,
+                            cron);
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+        }
+        else {
+            byte[] bytes = str.getBytes("UTF-8");
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+}
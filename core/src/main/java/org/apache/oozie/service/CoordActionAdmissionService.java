@@ -0,0 +1,371 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.CoordJobGetAdmissionStateCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The coordinator action admission service decides which READY coordinator actions are started, based on the
+ * concurrency and the execution order (FIFO, LIFO, LAST_ONLY) of their coordinator job, without querying the
+ * database.
+ * <p/>
+ * For each coordinator job it keeps in memory the READY actions, ordered by nominal time, and the actions admitted
+ * that did not finish yet (SUBMITTED and RUNNING). The state of a job is loaded from the database the first time the
+ * job is seen after startup, it is then kept up to date by the coordinator commands: actions turning READY are added
+ * with {@link #addReady}, actions are admitted with {@link #admit} and actions that finished are released with {@link
+ * #release}.
+ * <p/>
+ * The state of a job is reloaded from the database if it is older than {@link #CONF_RESYNC_INTERVAL} seconds, this
+ * bounds the drift caused by status changes done by commands that do not notify the service. The state of a job is
+ * dropped when it does not have any READY or admitted action.
+ * <p/>
+ * This class is thread safe.
+ */
+public class CoordActionAdmissionService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "CoordActionAdmissionService.";
+
+    /**
+     * Time, in seconds, after which the state of a coordinator job is reloaded from the database.
+     */
+    public static final String CONF_RESYNC_INTERVAL = CONF_PREFIX + "resync.interval";
+
+    private static final String INSTRUMENTATION_GROUP = "coord_admission";
+    private static final String INSTR_JOBS = "jobs";
+    private static final String INSTR_LOADS = "loads";
+    private static final String INSTR_ADMITTED = "admitted";
+
+    private static XLog log = XLog.getLog(CoordActionAdmissionService.class);
+
+    /**
+     * READY action, ordered by nominal time and ID.
+     */
+    private static class ReadyAction implements Comparable<ReadyAction> {
+        private final String id;
+        private final long nominalTime;
+
+        public ReadyAction(String id, long nominalTime) {
+            this.id = id;
+            this.nominalTime = nominalTime;
+        }
+
+        public int compareTo(ReadyAction other) {
+            if (nominalTime != other.nominalTime) {
+                return (nominalTime < other.nominalTime) ? -1 : 1;
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ReadyAction && compareTo((ReadyAction) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+
+    /**
+     * Admission state of a coordinator job, guarded by its own monitor.
+     */
+    private static class JobState {
+        private final TreeSet<ReadyAction> ready = new TreeSet<ReadyAction>();
+        private final Map<String, ReadyAction> readyIds = new HashMap<String, ReadyAction>();
+        private final Set<String> admitted = new HashSet<String>();
+        private long loadedAt;
+        private boolean dropped;
+
+        private void addReady(String actionId, long nominalTime) {
+            if (!readyIds.containsKey(actionId) && !admitted.contains(actionId)) {
+                ReadyAction action = new ReadyAction(actionId, nominalTime);
+                ready.add(action);
+                readyIds.put(actionId, action);
+            }
+        }
+
+        private void admit(ReadyAction action) {
+            ready.remove(action);
+            readyIds.remove(action.id);
+            admitted.add(action.id);
+        }
+
+        private void clear() {
+            ready.clear();
+            readyIds.clear();
+            admitted.clear();
+        }
+
+        private boolean isEmpty() {
+            return ready.isEmpty() && admitted.isEmpty();
+        }
+    }
+
+    private ConcurrentMap<String, JobState> jobs;
+    private long resyncInterval;
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong admittedCount = new AtomicLong();
+
+    /**
+     * Initialize the coordinator action admission service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        resyncInterval = services.getConf().getInt(CONF_RESYNC_INTERVAL, 300) * 1000L;
+        jobs = new ConcurrentHashMap<String, JobState>();
+    }
+
+    /**
+     * Destroy the coordinator action admission service.
+     */
+    @Override
+    public void destroy() {
+        jobs = null;
+    }
+
+    /**
+     * Return the public interface for the coordinator action admission service.
+     *
+     * @return {@link CoordActionAdmissionService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return CoordActionAdmissionService.class;
+    }
+
+    /**
+     * Instruments the coordinator action admission service.
+     * <p/>
+     * It exposes the number of coordinator jobs tracked, the number of times the state of a job has been loaded from
+     * the database and the number of actions admitted.
+     *
+     * @param instr instrumentation to use.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_JOBS, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                ConcurrentMap<String, JobState> map = jobs;
+                return (long) ((map != null) ? map.size() : 0);
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_LOADS, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return loads.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_ADMITTED, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return admittedCount.get();
+            }
+        });
+    }
+
+    /**
+     * Add an action that turned READY.
+     * <p/>
+     * The action status must be committed to the database before calling this method. If the state of the job is not
+     * in memory the action is ignored, it will be loaded from the database with the rest of the job state.
+     *
+     * @param jobId coordinator job ID.
+     * @param actionId coordinator action ID.
+     * @param nominalTime nominal time of the action.
+     */
+    public void addReady(String jobId, String actionId, Date nominalTime) {
+        ParamChecker.notEmpty(actionId, "actionId");
+        ParamChecker.notNull(nominalTime, "nominalTime");
+        JobState state = jobs.get(ParamChecker.notEmpty(jobId, "jobId"));
+        if (state != null) {
+            synchronized (state) {
+                if (!state.dropped) {
+                    state.addReady(actionId, nominalTime.getTime());
+                }
+            }
+        }
+    }
+
+    /**
+     * Admit the READY actions of a coordinator job that fit in its concurrency, in its execution order.
+     * <p/>
+     * The admitted actions count against the job concurrency until they are released. The caller must change the
+     * status of the admitted actions to SUBMITTED and release the ones that could not be changed.
+     *
+     * @param job coordinator job.
+     * @return the IDs of the admitted actions, in their execution order.
+     * @throws CommandException thrown if the state of the job could not be loaded from the database.
+     */
+    public List<String> admit(CoordinatorJobBean job) throws CommandException {
+        ParamChecker.notNull(job, "job");
+        String execution = job.getExecution();
+        int concurrency = job.getConcurrency();
+        while (true) {
+            JobState state = getJobState(job.getId());
+            synchronized (state) {
+                if (state.dropped) {
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                if (now - state.loadedAt > resyncInterval) {
+                    load(job.getId(), state);
+                    state.loadedAt = now;
+                }
+                int slots = (concurrency < 0) ? Integer.MAX_VALUE : Math.max(0, concurrency - state.admitted.size());
+                if ("LAST_ONLY".equalsIgnoreCase(execution)) {
+                    slots = Math.min(slots, 1);
+                }
+                boolean fifo = "FIFO".equalsIgnoreCase(execution);
+                List<String> actionIds = new ArrayList<String>();
+                while (actionIds.size() < slots && !state.ready.isEmpty()) {
+                    ReadyAction action = (fifo) ? state.ready.first() : state.ready.last();
+                    state.admit(action);
+                    actionIds.add(action.id);
+                }
+                admittedCount.addAndGet(actionIds.size());
+                log.debug("concurrency=" + concurrency + ", execution=" + execution + ", admitted="
+                        + state.admitted.size() + ", ready=" + state.ready.size() + ", starting=" + actionIds.size());
+                dropIfEmpty(job.getId(), state);
+                return actionIds;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted action that finished or could not be started, or a READY action that will not be started.
+     *
+     * @param jobId coordinator job ID.
+     * @param actionId coordinator action ID.
+     */
+    public void release(String jobId, String actionId) {
+        ParamChecker.notEmpty(actionId, "actionId");
+        JobState state = jobs.get(ParamChecker.notEmpty(jobId, "jobId"));
+        if (state != null) {
+            synchronized (state) {
+                state.admitted.remove(actionId);
+                ReadyAction action = state.readyIds.remove(actionId);
+                if (action != null) {
+                    state.ready.remove(action);
+                }
+                dropIfEmpty(jobId, state);
+            }
+        }
+    }
+
+    /**
+     * Drop the state of a coordinator job, it will be loaded again from the database when needed.
+     * <p/>
+     * It must be called after changing the status of many actions of a job, i.e. when killing or rerunning it.
+     *
+     * @param jobId coordinator job ID.
+     */
+    public void reset(String jobId) {
+        JobState state = jobs.remove(ParamChecker.notEmpty(jobId, "jobId"));
+        if (state != null) {
+            synchronized (state) {
+                state.dropped = true;
+            }
+        }
+    }
+
+    /**
+     * Return the number of admitted actions of a coordinator job that have not been released.
+     *
+     * @param jobId coordinator job ID.
+     * @return the number of admitted actions, <code>-1</code> if the state of the job is not in memory.
+     */
+    public int getAdmittedCount(String jobId) {
+        JobState state = jobs.get(jobId);
+        if (state != null) {
+            synchronized (state) {
+                return (state.dropped) ? -1 : state.admitted.size();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the READY, SUBMITTED and RUNNING actions of a coordinator job from the database.
+     *
+     * @param jobId coordinator job ID.
+     * @return the action ID, the action status and the action nominal time of each action.
+     * @throws CommandException thrown if the actions could not be loaded.
+     */
+    protected List<Object[]> loadActions(String jobId) throws CommandException {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            throw new CommandException(ErrorCode.E0610);
+        }
+        return jpaService.execute(new CoordJobGetAdmissionStateCommand(jobId));
+    }
+
+    private JobState getJobState(String jobId) {
+        JobState state = jobs.get(jobId);
+        if (state == null) {
+            JobState newState = new JobState();
+            state = jobs.putIfAbsent(jobId, newState);
+            if (state == null) {
+                state = newState;
+            }
+        }
+        return state;
+    }
+
+    private void load(String jobId, JobState state) throws CommandException {
+        List<Object[]> actions = loadActions(jobId);
+        loads.incrementAndGet();
+        state.clear();
+        for (Object[] action : actions) {
+            String actionId = (String) action[0];
+            if (CoordinatorAction.Status.READY.toString().equals(action[1])) {
+                state.addReady(actionId, (action[2] != null) ? ((Date) action[2]).getTime() : 0);
+            }
+            else {
+                state.admitted.add(actionId);
+            }
+        }
+        log.debug("Loaded coordinator job [{0}] admission state, ready [{1}] admitted [{2}]", jobId,
+                  state.ready.size(), state.admitted.size());
+    }
+
+    private void dropIfEmpty(String jobId, JobState state) {
+        if (state.isEmpty()) {
+            state.dropped = true;
+            jobs.remove(jobId, state);
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.XCallable;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The dataset availability service keeps an index of the dataset URIs checked by the coordinator input checks, so
+ * coordinator actions waiting on the same dataset instance do not check the same path over and over.
+ * <p/>
+ * The index is kept per user and group, the availability of a URI checked with the credentials of a user is only used
+ * for the checks done as the same user and group, so a user does not learn about paths it has no permission to read.
+ * <p/>
+ * Available URIs are cached until evicted by the max number of entries, dataset instances do not disappear once
+ * produced. Missing URIs are cached for {@link #CONF_NEGATIVE_TTL} seconds, and they are dropped from the index if
+ * not checked for {@link #CONF_IDLE_TIMEOUT} seconds. Concurrent checks of the same URI are coalesced into a single
+ * filesystem call.
+ * <p/>
+ * Callers can register a callable to be queued when a missing URI becomes available, the callables are queued the
+ * first time the URI is found available by a check done as the same user and group. The callables waiting for a URI
+ * whose check failed are dropped after {@link #CONF_NEGATIVE_TTL} seconds if the URI is not checked again.
+ */
+public class DatasetAvailabilityService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "DatasetAvailabilityService.";
+
+    /**
+     * Time, in seconds, missing URIs are cached.
+     */
+    public static final String CONF_NEGATIVE_TTL = CONF_PREFIX + "negative.ttl";
+
+    /**
+     * Time, in seconds, missing URIs not checked anymore are kept in the index together with their waiters.
+     */
+    public static final String CONF_IDLE_TIMEOUT = CONF_PREFIX + "idle.timeout";
+
+    /**
+     * Max number of available URIs cached.
+     */
+    public static final String CONF_MAX_ENTRIES = CONF_PREFIX + "max.entries";
+
+    private static final String INSTRUMENTATION_GROUP = "dataset_availability";
+    private static final String INSTR_HITS_COUNTER = "hits";
+    private static final String INSTR_MISSES_COUNTER = "misses";
+    private static final String INSTR_NAMENODE_CALLS_COUNTER = "namenode_calls";
+
+    private static XLog log = XLog.getLog(DatasetAvailabilityService.class);
+
+    private Map<String, Boolean> available;
+    private ConcurrentMap<String, Long> missing;
+    private ConcurrentMap<String, Long> failed;
+    private ConcurrentMap<String, FutureTask<Boolean>> lookups;
+    private ConcurrentMap<String, Map<String, XCallable<?>>> waiters;
+    private long negativeTtl;
+    private long idleTimeout;
+    private Instrumentation instrumentation;
+
+    /**
+     * Initialize the dataset availability service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        negativeTtl = conf.getInt(CONF_NEGATIVE_TTL, 30) * 1000L;
+        idleTimeout = Math.max(negativeTtl, conf.getInt(CONF_IDLE_TIMEOUT, 600) * 1000L);
+        final int maxEntries = conf.getInt(CONF_MAX_ENTRIES, 100000);
+        available = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        missing = new ConcurrentHashMap<String, Long>();
+        failed = new ConcurrentHashMap<String, Long>();
+        lookups = new ConcurrentHashMap<String, FutureTask<Boolean>>();
+        waiters = new ConcurrentHashMap<String, Map<String, XCallable<?>>>();
+
+        Runnable purgeRunnable = new Runnable() {
+            public void run() {
+                purgeMissing(System.currentTimeMillis());
+            }
+        };
+        long interval = Math.max(1, negativeTtl / 1000);
+        services.get(SchedulerService.class).schedule(purgeRunnable, interval, interval, SchedulerService.Unit.SEC);
+    }
+
+    /**
+     * Destroy the dataset availability service.
+     */
+    @Override
+    public void destroy() {
+        available = null;
+        missing = null;
+        failed = null;
+        lookups = null;
+        waiters = null;
+    }
+
+    /**
+     * Return the public interface for the dataset availability service.
+     *
+     * @return {@link DatasetAvailabilityService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return DatasetAvailabilityService.class;
+    }
+
+    /**
+     * Instruments the dataset availability service.
+     * <p/>
+     * It counts the checks answered from the index (hits), the checks not answered from the index (misses) and the
+     * filesystem calls done, and it exposes the number of available and missing URIs in the index.
+     *
+     * @param instr instance to instrument the dataset availability service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        instr.addVariable(INSTRUMENTATION_GROUP, "available", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) available.size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "missing", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) missing.size();
+            }
+        });
+    }
+
+    private void incr(String name) {
+        if (instrumentation != null) {
+            instrumentation.incr(INSTRUMENTATION_GROUP, name, 1);
+        }
+    }
+
+    private static String getKey(String uri, String user, String group) {
+        return user + "," + group + "," + uri;
+    }
+
+    /**
+     * Check if a dataset URI is available to a user.
+     *
+     * @param uri dataset URI.
+     * @param user user to check the URI as.
+     * @param group group to check the URI as.
+     * @return <code>true</code> if the URI is available.
+     * @throws IOException thrown if the URI could not be checked.
+     */
+    public boolean isAvailable(final String uri, final String user, final String group) throws IOException {
+        ParamChecker.notEmpty(uri, "uri");
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
+        String key = getKey(uri, user, group);
+        if (available.containsKey(key)) {
+            incr(INSTR_HITS_COUNTER);
+            return true;
+        }
+        Long lastCheck = missing.get(key);
+        if (lastCheck != null && System.currentTimeMillis() - lastCheck < negativeTtl) {
+            incr(INSTR_HITS_COUNTER);
+            return false;
+        }
+        incr(INSTR_MISSES_COUNTER);
+
+        FutureTask<Boolean> lookup = new FutureTask<Boolean>(new Callable<Boolean>() {
+            public Boolean call() throws Exception {
+                incr(INSTR_NAMENODE_CALLS_COUNTER);
+                return exists(uri, user, group);
+            }
+        });
+        FutureTask<Boolean> inFlight = lookups.putIfAbsent(key, lookup);
+        if (inFlight == null) {
+            try {
+                lookup.run();
+                if (lookup.get()) {
+                    available.put(key, Boolean.TRUE);
+                    missing.remove(key);
+                    failed.remove(key);
+                    notifyWaiters(key);
+                }
+                else {
+                    missing.put(key, System.currentTimeMillis());
+                    failed.remove(key);
+                }
+            }
+            catch (Exception ex) {
+                // the exception is reported below by the get(), the waiters expire unless the URI is checked again
+                missing.remove(key);
+                failed.put(key, System.currentTimeMillis());
+            }
+            finally {
+                lookups.remove(key, lookup);
+            }
+            inFlight = lookup;
+        }
+        try {
+            return inFlight.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Check if a dataset URI exists in its filesystem.
+     *
+     * @param uri dataset URI.
+     * @param user user to check the URI as.
+     * @param group group to check the URI as.
+     * @return <code>true</code> if the URI exists.
+     * @throws IOException thrown if the URI could not be checked.
+     */
+    protected boolean exists(String uri, String user, String group) throws IOException {
+        log.debug("checking for the file " + uri);
+        Path path = new Path(uri);
+        try {
+            return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
+                    new Configuration()).exists(path);
+        }
+        catch (HadoopAccessorException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Register a callable to be queued when a missing dataset URI becomes available to a user.
+     * <p/>
+     * Only one callable is kept for a waiter, the callable is queued once and then discarded. If the URI is already
+     * known to be available to the user the callable is queued right away.
+     *
+     * @param uri dataset URI.
+     * @param user user the URI is checked as.
+     * @param group group the URI is checked as.
+     * @param waiterId waiter ID, typically the ID of the coordinator action waiting for the URI.
+     * @param callable callable to queue when the URI becomes available.
+     */
+    public void addWaiter(String uri, String user, String group, String waiterId, XCallable<?> callable) {
+        ParamChecker.notEmpty(uri, "uri");
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
+        ParamChecker.notEmpty(waiterId, "waiterId");
+        ParamChecker.notNull(callable, "callable");
+        String key = getKey(uri, user, group);
+        Map<String, XCallable<?>> uriWaiters = waiters.get(key);
+        if (uriWaiters == null) {
+            uriWaiters = new ConcurrentHashMap<String, XCallable<?>>();
+            Map<String, XCallable<?>> existing = waiters.putIfAbsent(key, uriWaiters);
+            if (existing != null) {
+                uriWaiters = existing;
+            }
+        }
+        uriWaiters.put(waiterId, callable);
+        // the URI may have become available while registering
+        if (available.containsKey(key)) {
+            notifyWaiters(key);
+        }
+    }
+
+    private void notifyWaiters(String key) {
+        Map<String, XCallable<?>> uriWaiters = waiters.remove(key);
+        if (uriWaiters != null) {
+            CallableQueueService callableQueue = Services.get().get(CallableQueueService.class);
+            for (XCallable<?> callable : uriWaiters.values()) {
+                log.debug("Dataset [{0}] available, queuing [{1}]", key, callable.getName());
+                callableQueue.queue(callable);
+            }
+        }
+    }
+
+    /**
+     * Remove the missing URIs not checked within the idle timeout, the URIs whose check failed and not checked again
+     * within the negative TTL, and their waiters.
+     *
+     * @param now current time.
+     */
+    void purgeMissing(long now) {
+        purge(missing, now, idleTimeout);
+        purge(failed, now, negativeTtl);
+    }
+
+    private void purge(ConcurrentMap<String, Long> checks, long now, long timeout) {
+        Iterator<Map.Entry<String, Long>> it = checks.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (now - entry.getValue() >= timeout) {
+                it.remove();
+                waiters.remove(entry.getKey());
+            }
+        }
+    }
+
+}
@@ -23,8 +23,10 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The ELService creates {@link ELEvaluator} instances preconfigured with constants and functions defined in the
@@ -33,6 +35,8 @@ import java.util.List;
  * to be available for EL evalations. <p/> Definitions must be separated by a comma, definitions are trimmed. <p/> The
  * syntax for a constant definition is <code>PREFIX:NAME=CLASS_NAME#CONSTANT_NAME</code>. <p/> The syntax for a constant
  * definition is <code>PREFIX:NAME=CLASS_NAME#METHOD_NAME</code>.
+ * <p/>
+ * The constants and functions of each group are resolved once, the evaluators of a group share them.
  */
 public class ELService implements Service {
 
@@ -54,6 +58,10 @@ public class ELService implements Service {
     private HashMap<String, List<ELConstant>> constants;
     //<Group Name>, <List of functions>
     private HashMap<String, List<ELFunction>> functions;
+    //<Group Name>, <constants by prefix:name>
+    private HashMap<String, Map<String, Object>> constantTables;
+    //<Group Name>, <functions by prefix:name>
+    private HashMap<String, Map<String, Method>> functionTables;
 
     private static class ELConstant {
         private String name;
@@ -115,6 +123,8 @@ public class ELService implements Service {
         log.trace("Constants and functions registration");
         constants = new HashMap<String, List<ELConstant>>();
         functions = new HashMap<String, List<ELFunction>>();
+        constantTables = new HashMap<String, Map<String, Object>>();
+        functionTables = new HashMap<String, Map<String, Method>>();
         //Get the list of group names from configuration file
         // defined in the property tag: oozie.service.ELSerice.groups
         //String []groupList = services.getConf().get(CONF_GROUPS, "").trim().split(",");
@@ -130,6 +140,18 @@ public class ELService implements Service {
             tmpFunctions.addAll(extractFunctions(services.getConf(), CONF_FUNCTIONS + group));
             tmpFunctions.addAll(extractFunctions(services.getConf(), CONF_EXT_FUNCTIONS + group));
             functions.put(group, tmpFunctions);
+
+            Map<String, Object> constantTable = new HashMap<String, Object>();
+            for (ELConstant constant : tmpConstants) {
+                constantTable.put(constant.name, constant.value);
+            }
+            constantTables.put(group, Collections.unmodifiableMap(constantTable));
+            Map<String, Method> functionTable = new HashMap<String, Method>();
+            for (ELFunction function : tmpFunctions) {
+                String key = (function.prefix.length() > 0) ? function.prefix + ":" + function.name : function.name;
+                functionTable.put(key, function.method);
+            }
+            functionTables.put(group, Collections.unmodifiableMap(functionTable));
         }
     }
 
@@ -140,6 +162,8 @@ public class ELService implements Service {
     public void destroy() {
         constants = null;
         functions = null;
+        constantTables = null;
+        functionTables = null;
     }
 
     /**
@@ -161,24 +185,10 @@ public class ELService implements Service {
      * @return a preconfigured {@link ELEvaluator}.
      */
     public ELEvaluator createEvaluator(String group) {
-        ELEvaluator.Context context = new ELEvaluator.Context();
-        boolean groupDefined = false;
-        if (constants.containsKey(group)) {
-            for (ELConstant constant : constants.get(group)) {
-                context.setVariable(constant.name, constant.value);
-            }
-            groupDefined = true;
-        }
-        if (functions.containsKey(group)) {
-            for (ELFunction function : functions.get(group)) {
-                context.addFunction(function.prefix, function.name, function.method);
-            }
-            groupDefined = true;
-        }
-        if (groupDefined == false) {
+        if (!constants.containsKey(group) && !functions.containsKey(group)) {
             throw new IllegalArgumentException("Group " + group + " is not defined");
         }
-        return new ELEvaluator(context);
+        return new ELEvaluator(new ELEvaluator.Context(constantTables.get(group), functionTables.get(group)));
     }
 
     private static String[] parseDefinition(String str) throws ServiceException {
@@ -22,6 +22,8 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
@@ -32,6 +34,7 @@ import java.net.URISyntaxException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.Callable;
 
 /**
  * The HadoopAccessorService returns HadoopAccessor instances configured to work on behalf of a user-group. <p/> The
@@ -39,14 +42,72 @@ import java.util.HashSet;
  * create/obtain JobClient and ileSystem instances. <p/> The HadoopAccess class to use can be configured in the
  * <code>oozie-site.xml</code> using the <code>oozie.service.HadoopAccessorService.accessor.class</code> property.
  */
-public class HadoopAccessorService implements Service {
+public class HadoopAccessorService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "HadoopAccessorService.";
     public static final String JOB_TRACKER_WHITELIST = CONF_PREFIX + "jobTracker.whitelist";
     public static final String NAME_NODE_WHITELIST = CONF_PREFIX + "nameNode.whitelist";
 
+    /**
+     * Max number of pooled JobClient handles and max number of pooled FileSystem handles, <code>0</code> disables the
+     * pooling.
+     */
+    public static final String CONF_POOL_MAX_SIZE = CONF_PREFIX + "pool.max.size";
+
+    /**
+     * Max number of idle JobClient handles pooled for a user, group and JobTracker.
+     */
+    public static final String CONF_POOL_MAX_IDLE_PER_KEY = CONF_PREFIX + "pool.max.idle.per.key";
+
+    /**
+     * Time, in seconds, a pooled handle can be idle before being closed.
+     */
+    public static final String CONF_POOL_IDLE_TIMEOUT = CONF_PREFIX + "pool.idle.timeout";
+
+    /**
+     * Time, in seconds, a pooled handle can be idle before being checked when taken from the pool.
+     */
+    public static final String CONF_POOL_HEALTH_CHECK_INTERVAL = CONF_PREFIX + "pool.health.check.interval";
+
+    static final String INSTRUMENTATION_GROUP = "hadoop_accessor";
+
     private Set<String> jobTrackerWhitelist = new HashSet<String>();
     private Set<String> nameNodeWhitelist = new HashSet<String>();
+    private HadoopClientPool<JobClient> jobClients;
+    private HadoopClientPool<FileSystem> fileSystems;
+
+    /**
+     * JobClient handed out by the JobClient pool, closing it gives it back to the pool.
+     */
+    private class PooledJobClient extends JobClient {
+        private final String key;
+        private boolean borrowed;
+
+        public PooledJobClient(String key, JobConf conf) throws IOException {
+            super(conf);
+            this.key = key;
+        }
+
+        private synchronized void borrow() {
+            borrowed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            boolean release;
+            synchronized (this) {
+                release = borrowed;
+                borrowed = false;
+            }
+            if (release) {
+                jobClients.release(key, this);
+            }
+        }
+
+        private void destroy() throws IOException {
+            super.close();
+        }
+    }
 
     public void init(Services services) throws ServiceException {
         for (String name : services.getConf().getStringCollection(JOB_TRACKER_WHITELIST)) {
@@ -69,41 +130,126 @@ public class HadoopAccessorService implements Service {
         XLog.getLog(getClass()).info(
                 "NAME_NODE_WHITELIST :" + services.getConf().getStringCollection(NAME_NODE_WHITELIST)
                         + ", Total entries :" + nameNodeWhitelist.size());
+        initPools(services);
         init(services.getConf());
     }
 
     public void init(Configuration serviceConf) throws ServiceException {
     }
 
+    private void initPools(Services services) {
+        Configuration conf = services.getConf();
+        int maxSize = conf.getInt(CONF_POOL_MAX_SIZE, 500);
+        int maxIdlePerKey = conf.getInt(CONF_POOL_MAX_IDLE_PER_KEY, 10);
+        long idleTimeout = conf.getInt(CONF_POOL_IDLE_TIMEOUT, 600) * 1000L;
+        long checkInterval = conf.getInt(CONF_POOL_HEALTH_CHECK_INTERVAL, 60) * 1000L;
+        jobClients = new HadoopClientPool<JobClient>("jobclient", false, maxSize, maxIdlePerKey, idleTimeout,
+                                                     checkInterval) {
+            @Override
+            protected boolean isHealthy(JobClient jobClient) throws Exception {
+                return jobClient.getClusterStatus() != null;
+            }
+
+            @Override
+            protected void close(JobClient jobClient) throws Exception {
+                ((PooledJobClient) jobClient).destroy();
+            }
+        };
+        fileSystems = new HadoopClientPool<FileSystem>("filesystem", true, maxSize, 1, idleTimeout, checkInterval) {
+            @Override
+            protected boolean isHealthy(FileSystem fs) throws Exception {
+                return fs.getFileStatus(new Path("/")) != null;
+            }
+
+            @Override
+            protected void close(FileSystem fs) {
+                // filesystems are shared with their callers and cached by Hadoop, they are not closed
+            }
+        };
+        SchedulerService scheduler = services.get(SchedulerService.class);
+        if (maxSize > 0 && scheduler != null) {
+            Runnable purgeRunnable = new Runnable() {
+                public void run() {
+                    long now = System.currentTimeMillis();
+                    jobClients.purge(now);
+                    fileSystems.purge(now);
+                }
+            };
+            long interval = Math.max(1, Math.min(idleTimeout, checkInterval) / 1000);
+            scheduler.schedule(purgeRunnable, interval, interval, SchedulerService.Unit.SEC);
+        }
+    }
+
     public void destroy() {
+        if (jobClients != null) {
+            jobClients.destroy();
+        }
+        if (fileSystems != null) {
+            fileSystems.destroy();
+        }
     }
 
     public Class<? extends Service> getInterface() {
         return HadoopAccessorService.class;
     }
 
+    /**
+     * Instruments the Hadoop accessor service.
+     * <p/>
+     * It exposes the size, hits, misses, idle evictions and unhealthy handles of the JobClient and FileSystem pools,
+     * and the creation latency of the handles.
+     *
+     * @param instr instance to instrument the Hadoop accessor service to.
+     */
+    public void instrument(Instrumentation instr) {
+        jobClients.instrument(instr);
+        fileSystems.instrument(instr);
+    }
+
     /**
      * Return a JobClient created with the provided user/group.
-     * 
+     * <p/>
+     * The JobClient is taken from the pool of the user, group, JobTracker and NameNode, closing it gives it back to
+     * the pool.
+     *
      * @param conf JobConf with all necessary information to create the
      *        JobClient.
      * @return JobClient created with the provided user/group.
      * @throws HadoopAccessorException if the client could not be created.
      */
-    public JobClient createJobClient(String user, String group, JobConf conf) throws HadoopAccessorException {
+    public JobClient createJobClient(final String user, final String group, final JobConf conf)
+            throws HadoopAccessorException {
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
         validateJobTracker(conf.get("mapred.job.tracker"));
-        conf = createConfiguration(user, group, conf);
+        final String key = user + "," + group + "," + conf.get("mapred.job.tracker") + ","
+                + conf.get("fs.default.name");
         try {
-            return new JobClient(conf);
+            PooledJobClient jobClient = (PooledJobClient) jobClients.get(key, new Callable<JobClient>() {
+                public JobClient call() throws Exception {
+                    return doAs(user, new PrivilegedExceptionAction<JobClient>() {
+                        public JobClient run() throws Exception {
+                            return new PooledJobClient(key, createConfiguration(user, group, conf));
+                        }
+                    });
+                }
+            });
+            jobClient.borrow();
+            return jobClient;
+        }
+        catch (HadoopAccessorException e) {
+            throw e;
         }
-        catch (IOException e) {
+        catch (Exception e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
         }
     }
 
     /**
      * Return a FileSystem created with the provided user/group.
-     * 
+     * <p/>
+     * The FileSystem is shared by all the callers of the same user, group and NameNode, it must not be closed.
+     *
      * @param conf Configuration with all necessary information to create the
      *        FileSystem.
      * @return FileSystem created with the provided user/group.
@@ -111,12 +257,7 @@ public class HadoopAccessorService implements Service {
      */
     public FileSystem createFileSystem(String user, String group, Configuration conf) throws HadoopAccessorException {
         try {
-            validateNameNode(new URI(conf.get("fs.default.name")).getAuthority());
-            conf = createConfiguration(user, group, conf);
-            return FileSystem.get(conf);
-        }
-        catch (IOException e) {
-            throw new HadoopAccessorException(ErrorCode.E0902, e);
+            return createFileSystem(user, group, new URI(conf.get("fs.default.name")), conf);
         }
         catch (URISyntaxException e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
@@ -126,25 +267,55 @@ public class HadoopAccessorService implements Service {
     /**
      * Return a FileSystem created with the provided user/group for the
      * specified URI.
-     * 
+     * <p/>
+     * The FileSystem is shared by all the callers of the same user, group and filesystem URI, it must not be closed.
+     *
      * @param uri file system URI.
      * @param conf Configuration with all necessary information to create the
      *        FileSystem.
      * @return FileSystem created with the provided user/group.
      * @throws HadoopAccessorException if the filesystem could not be created.
      */
-    public FileSystem createFileSystem(String user, String group, URI uri, Configuration conf)
-            throws HadoopAccessorException {
+    public FileSystem createFileSystem(final String user, final String group, final URI uri,
+                                       final Configuration conf) throws HadoopAccessorException {
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
         validateNameNode(uri.getAuthority());
-        conf = createConfiguration(user, group, conf);
+        URI fsUri = (uri.getScheme() != null) ? uri : FileSystem.getDefaultUri(conf);
+        String key = user + "," + group + "," + fsUri.getScheme() + "://" + fsUri.getAuthority();
         try {
-            return FileSystem.get(uri, conf);
+            return fileSystems.get(key.toLowerCase(), new Callable<FileSystem>() {
+                public FileSystem call() throws Exception {
+                    return doAs(user, new PrivilegedExceptionAction<FileSystem>() {
+                        public FileSystem run() throws Exception {
+                            return FileSystem.get(uri, createConfiguration(user, group, conf));
+                        }
+                    });
+                }
+            });
         }
-        catch (IOException e) {
+        catch (HadoopAccessorException e) {
+            throw e;
+        }
+        catch (Exception e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
         }
     }
 
+    /**
+     * Run the creation of a Hadoop client on behalf of a user.
+     * <p/>
+     * The base accessor runs it as is, the user and group are injected in the configuration of the client.
+     *
+     * @param user user to run the action as.
+     * @param action action to run.
+     * @return the return value of the action.
+     * @throws Exception thrown if the action failed.
+     */
+    protected <T> T doAs(String user, PrivilegedExceptionAction<T> action) throws Exception {
+        return action.run();
+    }
+
     /**
      * Validate Job tracker
      * @param jobTrackerUri
@@ -172,8 +343,11 @@ public class HadoopAccessorService implements Service {
         }
     }
 
+    /**
+     * Return a copy of a configuration with the user and group injected in it.
+     */
     @SuppressWarnings("unchecked")
-    private <C extends Configuration> C createConfiguration(String user, String group, C conf) {
+    protected <C extends Configuration> C createConfiguration(String user, String group, C conf) {
         ParamChecker.notEmpty(user, "user");
         ParamChecker.notEmpty(group, "group");
         C fsConf = (C) ((conf instanceof JobConf) ? new JobConf() : new Configuration());
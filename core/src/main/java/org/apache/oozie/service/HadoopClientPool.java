@@ -0,0 +1,343 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Bounded pool of Hadoop client handles keyed by user, group and service URI, used by the {@link
+ * HadoopAccessorService}.
+ * <p/>
+ * An exclusive pool hands out each handle to a single caller at a time, the caller gives it back with {@link
+ * #release}. A shared pool hands out the same handle to all the callers of a key, the handles must be thread safe.
+ * <p/>
+ * Handles idle for more than the health check interval are checked with {@link #isHealthy} before being handed out
+ * again, unhealthy handles are closed and replaced. Handles idle for more than the idle timeout are closed by {@link
+ * #purge}. A pool with a max size of <code>0</code> does not keep any handle, a new handle is created for every call.
+ * <p/>
+ * Handles are created and checked outside of the pool lock.
+ */
+abstract class HadoopClientPool<T> {
+    private static final XLog LOG = XLog.getLog(HadoopClientPool.class);
+
+    private static class Entry<T> {
+        private final T handle;
+        private volatile long lastUsed;
+
+        private Entry(T handle, long lastUsed) {
+            this.handle = handle;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private final String name;
+    private final boolean shared;
+    private final int maxSize;
+    private final int maxIdlePerKey;
+    private final long idleTimeout;
+    private final long checkInterval;
+    private final Map<String, LinkedList<Entry<T>>> pool;
+    private int size;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong unhealthy = new AtomicLong();
+    private volatile Instrumentation instrumentation;
+
+    /**
+     * Create a pool.
+     *
+     * @param name name of the pool, used as prefix of its instrumentation.
+     * @param shared indicates if the handles are shared by the callers of a key.
+     * @param maxSize max number of handles kept by the pool.
+     * @param maxIdlePerKey max number of handles kept for a key, ignored by shared pools.
+     * @param idleTimeout time, in milliseconds, a handle can be idle before being closed.
+     * @param checkInterval time, in milliseconds, a handle can be idle before being checked.
+     */
+    HadoopClientPool(String name, boolean shared, int maxSize, int maxIdlePerKey, long idleTimeout,
+                     long checkInterval) {
+        this.name = name;
+        this.shared = shared;
+        this.maxSize = maxSize;
+        this.maxIdlePerKey = (shared) ? 1 : maxIdlePerKey;
+        this.idleTimeout = idleTimeout;
+        this.checkInterval = checkInterval;
+        pool = new LinkedHashMap<String, LinkedList<Entry<T>>>(16, 0.75f, true);
+    }
+
+    /**
+     * Check if a handle can still be used, it is called for handles idle for more than the health check interval.
+     *
+     * @param handle handle to check.
+     * @return <code>true</code> if the handle can be used.
+     * @throws Exception thrown if the handle could not be checked, the handle is considered unhealthy.
+     */
+    protected abstract boolean isHealthy(T handle) throws Exception;
+
+    /**
+     * Close a handle discarded by the pool.
+     *
+     * @param handle handle to close.
+     * @throws Exception thrown if the handle could not be closed.
+     */
+    protected abstract void close(T handle) throws Exception;
+
+    /**
+     * Get a handle from the pool, creating a new one if the pool does not have a healthy one for the key.
+     *
+     * @param key pool key.
+     * @param factory callable creating a new handle for the key.
+     * @return the handle.
+     * @throws Exception thrown if the handle could not be created.
+     */
+    public T get(String key, Callable<T> factory) throws Exception {
+        Entry<T> entry = borrow(key);
+        while (entry != null) {
+            if (check(entry)) {
+                hits.incrementAndGet();
+                return entry.handle;
+            }
+            unhealthy.incrementAndGet();
+            discard(key, entry);
+            entry = borrow(key);
+        }
+        misses.incrementAndGet();
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        T handle = factory.call();
+        cron.stop();
+        Instrumentation instr = instrumentation;
+        if (instr != null) {
+            instr.addCron(HadoopAccessorService.INSTRUMENTATION_GROUP, name + ".create", cron);
+        }
+        if (shared) {
+            release(key, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Give back a handle of an exclusive pool. If the pool is full the handle is closed.
+     *
+     * @param key pool key.
+     * @param handle handle to give back.
+     */
+    public void release(String key, T handle) {
+        List<T> evicted = new ArrayList<T>();
+        boolean pooled = false;
+        synchronized (this) {
+            if (maxSize > 0) {
+                LinkedList<Entry<T>> entries = pool.get(key);
+                if (entries == null) {
+                    entries = new LinkedList<Entry<T>>();
+                    pool.put(key, entries);
+                }
+                else if (shared) {
+                    size -= entries.size();
+                    entries.clear();
+                }
+                if (entries.size() < maxIdlePerKey) {
+                    // the least recently used keys make room for the handle
+                    Iterator<Map.Entry<String, LinkedList<Entry<T>>>> it = pool.entrySet().iterator();
+                    while (size >= maxSize && it.hasNext()) {
+                        Map.Entry<String, LinkedList<Entry<T>>> eldest = it.next();
+                        if (eldest.getValue() != entries) {
+                            for (Entry<T> e : eldest.getValue()) {
+                                evicted.add(e.handle);
+                            }
+                            size -= eldest.getValue().size();
+                            it.remove();
+                        }
+                    }
+                    if (size < maxSize) {
+                        entries.addFirst(new Entry<T>(handle, System.currentTimeMillis()));
+                        size++;
+                        pooled = true;
+                    }
+                }
+                if (entries.isEmpty()) {
+                    pool.remove(key);
+                }
+            }
+        }
+        evictions.addAndGet(evicted.size());
+        if (!pooled && !shared) {
+            evicted.add(handle);
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Close the handles idle for more than the idle timeout.
+     *
+     * @param now current time in milliseconds.
+     * @return the number of handles closed.
+     */
+    public int purge(long now) {
+        List<T> evicted = new ArrayList<T>();
+        synchronized (this) {
+            Iterator<LinkedList<Entry<T>>> it = pool.values().iterator();
+            while (it.hasNext()) {
+                LinkedList<Entry<T>> entries = it.next();
+                Iterator<Entry<T>> entryIt = entries.iterator();
+                while (entryIt.hasNext()) {
+                    Entry<T> entry = entryIt.next();
+                    if (now - entry.lastUsed > idleTimeout) {
+                        evicted.add(entry.handle);
+                        entryIt.remove();
+                        size--;
+                    }
+                }
+                if (entries.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+        evictions.addAndGet(evicted.size());
+        closeAll(evicted);
+        return evicted.size();
+    }
+
+    /**
+     * Close all the handles of the pool.
+     */
+    public void destroy() {
+        List<T> evicted = new ArrayList<T>();
+        synchronized (this) {
+            for (LinkedList<Entry<T>> entries : pool.values()) {
+                for (Entry<T> entry : entries) {
+                    evicted.add(entry.handle);
+                }
+            }
+            pool.clear();
+            size = 0;
+        }
+        closeAll(evicted);
+    }
+
+    /**
+     * Return the number of handles kept by the pool.
+     *
+     * @return the number of handles kept by the pool.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Instrument the pool.
+     * <p/>
+     * It exposes the number of pooled handles, the hits, misses, idle evictions and unhealthy handles, the creation
+     * latency of the handles is instrumented as a cron.
+     *
+     * @param instr instance to instrument the pool to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        String group = HadoopAccessorService.INSTRUMENTATION_GROUP;
+        instr.addVariable(group, name + ".size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) size();
+            }
+        });
+        addVariable(instr, group, name + ".hits", hits);
+        addVariable(instr, group, name + ".misses", misses);
+        addVariable(instr, group, name + ".evictions", evictions);
+        addVariable(instr, group, name + ".unhealthy", unhealthy);
+    }
+
+    private static void addVariable(Instrumentation instr, String group, String name, final AtomicLong value) {
+        instr.addVariable(group, name, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return value.get();
+            }
+        });
+    }
+
+    private synchronized Entry<T> borrow(String key) {
+        Entry<T> entry = null;
+        LinkedList<Entry<T>> entries = pool.get(key);
+        if (entries != null) {
+            if (shared) {
+                entry = entries.getFirst();
+            }
+            else {
+                entry = entries.removeFirst();
+                size--;
+                if (entries.isEmpty()) {
+                    pool.remove(key);
+                }
+            }
+        }
+        return entry;
+    }
+
+    private boolean check(Entry<T> entry) {
+        long now = System.currentTimeMillis();
+        boolean healthy = true;
+        if (now - entry.lastUsed > checkInterval) {
+            try {
+                healthy = isHealthy(entry.handle);
+            }
+            catch (Exception ex) {
+                LOG.debug("Pooled {0} handle check failed, {1}", name, ex.getMessage(), ex);
+                healthy = false;
+            }
+        }
+        if (healthy) {
+            entry.lastUsed = now;
+        }
+        return healthy;
+    }
+
+    private void discard(String key, Entry<T> entry) {
+        if (shared) {
+            synchronized (this) {
+                LinkedList<Entry<T>> entries = pool.get(key);
+                if (entries != null && entries.remove(entry)) {
+                    size--;
+                    if (entries.isEmpty()) {
+                        pool.remove(key);
+                    }
+                }
+            }
+        }
+        List<T> evicted = new ArrayList<T>();
+        evicted.add(entry.handle);
+        closeAll(evicted);
+    }
+
+    private void closeAll(List<T> handles) {
+        for (T handle : handles) {
+            try {
+                close(handle);
+            }
+            catch (Exception ex) {
+                LOG.warn("Could not close pooled {0} handle, {1}", name, ex.getMessage(), ex);
+            }
+        }
+    }
+
+}
@@ -20,6 +20,8 @@ import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.SLAEventBean;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowConfigurationBean;
+import org.apache.oozie.WorkflowDefinitionBean;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.rest.JsonCoordinatorAction;
 import org.apache.oozie.client.rest.JsonCoordinatorJob;
@@ -34,19 +36,29 @@ import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.db.ValidateConnectionBean;
 import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.text.MessageFormat;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Service that manages JPA  and executes {@link JPACommand}.
  */
 public class JPAService implements Service, Instrumentable {
     private static final String INSTRUMENTATION_GROUP = "jpa";
+    private static final String UNIT_OF_WORK = "unit_of_work";
 
     public static final String CONF_DB_SCHEMA = "oozie.db.schema.name";
 
@@ -58,6 +70,7 @@ public class JPAService implements Service, Instrumentable {
     public static final String CONF_MAX_ACTIVE_CONN = CONF_PREFIX + "pool.max.active.conn";
     public static final String CONF_CREATE_DB_SCHEMA = CONF_PREFIX + "create.db.schema";
     public static final String CONF_VALIDATE_DB_CONN = CONF_PREFIX + "validate.db.connection";
+    public static final String CONF_BATCH_LIMIT = CONF_PREFIX + "jdbc.batch.limit";
 
     private EntityManagerFactory factory;
     private Instrumentation instr;
@@ -94,6 +107,7 @@ public class JPAService implements Service, Instrumentable {
         String maxConn = conf.get(CONF_MAX_ACTIVE_CONN, "10").trim();
         boolean autoSchemaCreation = conf.getBoolean(CONF_CREATE_DB_SCHEMA, true);
         boolean validateDbConn = conf.getBoolean(CONF_VALIDATE_DB_CONN, false);
+        int batchLimit = conf.getInt(CONF_BATCH_LIMIT, 50);
 
         if (!url.startsWith("jdbc:")) {
             throw new ServiceException(ErrorCode.E0608, url, "invalid JDBC URL, must start with 'jdbc:'");
@@ -129,6 +143,8 @@ public class JPAService implements Service, Instrumentable {
             connProps = MessageFormat.format(connProps, dbSchema);
         }
         props.setProperty("openjpa.ConnectionProperties", connProps);
+        // always set, it overrides the batchLimit of persistence.xml, 0 disables batching
+        props.setProperty("openjpa.jdbc.DBDictionary", "batchLimit=" + batchLimit);
 
         factory = Persistence.createEntityManagerFactory(persistentUnit, props);
 
@@ -143,6 +159,8 @@ public class JPAService implements Service, Instrumentable {
         entityManager.find(JsonCoordinatorJob.class, 1);
         entityManager.find(SLAEventBean.class, 1);
         entityManager.find(JsonSLAEvent.class, 1);
+        entityManager.find(WorkflowDefinitionBean.class, 1);
+        entityManager.find(WorkflowConfigurationBean.class, 1);
         entityManager.find(ValidateConnectionBean.class, 1);
 
         LOG.info(XLog.STD, "All entities initialized");
@@ -151,12 +169,85 @@ public class JPAService implements Service, Instrumentable {
         // one time only
         entityManager.getTransaction().begin();
         entityManager.getTransaction().commit();
+        if (autoSchemaCreation) {
+            createJobsIndexes(entityManager);
+        }
         entityManager.close();
 
         OpenJPAEntityManagerFactorySPI spi = (OpenJPAEntityManagerFactorySPI) factory;
         LOG.info("JPA configuration: {0}", spi.getConfiguration().getConnectionProperties());
     }
 
+    /**
+     * Composite indexes used by the cursor based jobs listings, JPA annotations cannot declare them.
+     * <p/>
+     * Each index is: table, index name, columns.
+     */
+    private static final String[][] JOBS_INDEXES = {
+            {"WF_JOBS", "I_WF_JOBS_CREATED_ID", "created_time, id"},
+            {"WF_JOBS", "I_WF_JOBS_STATUS_CREATED_ID", "status, created_time, id"},
+            {"WF_JOBS", "I_WF_JOBS_USER_CREATED_ID", "user_name, created_time, id"},
+            {"COORD_JOBS", "I_CRD_JOBS_CREATED_ID", "created_time, id"},
+            {"COORD_JOBS", "I_CRD_JOBS_STATUS_CREATED_ID", "status, created_time, id"},
+            {"COORD_JOBS", "I_CRD_JOBS_USER_CREATED_ID", "user_name, created_time, id"}};
+
+    /**
+     * Create the composite indexes of the jobs tables if they don't exist.
+     * <p/>
+     * Failures are logged, the listings still work without the indexes, only slower.
+     *
+     * @param em entity manager to get the JDBC connection from.
+     */
+    private void createJobsIndexes(EntityManager em) {
+        try {
+            Connection conn = (Connection) OpenJPAPersistence.cast(em).getConnection();
+            try {
+                DatabaseMetaData metaData = conn.getMetaData();
+                for (String[] index : JOBS_INDEXES) {
+                    if (!getIndexNames(metaData, index[0]).contains(index[1])) {
+                        Statement st = conn.createStatement();
+                        try {
+                            st.executeUpdate("CREATE INDEX " + index[1] + " ON " + index[0] + " (" + index[2] + ")");
+                            LOG.info("Created index [{0}] on [{1}({2})]", index[1], index[0], index[2]);
+                        }
+                        finally {
+                            st.close();
+                        }
+                    }
+                }
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+            }
+            finally {
+                conn.close();
+            }
+        }
+        catch (SQLException ex) {
+            LOG.warn("Could not create the jobs listing indexes, {0}", ex.getMessage(), ex);
+        }
+    }
+
+    private Set<String> getIndexNames(DatabaseMetaData metaData, String table) throws SQLException {
+        Set<String> names = new HashSet<String>();
+        String[] tables = {table, table.toLowerCase()};
+        for (String name : tables) {
+            ResultSet rs = metaData.getIndexInfo(null, null, name, false, true);
+            try {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    if (indexName != null) {
+                        names.add(indexName.toUpperCase());
+                    }
+                }
+            }
+            finally {
+                rs.close();
+            }
+        }
+        return names;
+    }
+
     /**
      * Destroy the StoreService
      */
@@ -192,29 +283,76 @@ public class JPAService implements Service, Instrumentable {
             if (instr != null) {
                 instr.addCron(INSTRUMENTATION_GROUP, command.getName(), cron);
             }
-            try {
-                if (em.getTransaction().isActive()) {
-                    LOG.warn("JPACommand [{0}] ended with an active transaction, rolling back", command.getName());
-                    em.getTransaction().rollback();
+            closeEntityManager(em, "JPACommand [" + command.getName() + "]");
+        }
+    }
+
+    /**
+     * Execute a unit of work, a list of {@link JPACommand}s, in a single transaction.
+     * <p/>
+     * The commands are executed in order using the same EntityManager, their changes are flushed together at commit
+     * time allowing the JDBC driver to batch them (see {@link #CONF_BATCH_LIMIT}). If any command fails the whole unit
+     * of work is rolled back.
+     * <p/>
+     * The number of units of work, their total number of commands and their flush latency are instrumented.
+     *
+     * @param commands JPACommands to execute.
+     * @throws CommandException thrown if any of the JPACommands failed.
+     */
+    public void execute(List<JPACommand<?>> commands) throws CommandException {
+        if (commands.isEmpty()) {
+            return;
+        }
+        EntityManager em = factory.createEntityManager();
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        try {
+            LOG.trace("Executing unit of work of [{0}] JPACommands", commands.size());
+            if (instr != null) {
+                instr.incr(INSTRUMENTATION_GROUP, UNIT_OF_WORK, 1);
+                instr.incr(INSTRUMENTATION_GROUP, UNIT_OF_WORK + ".commands", commands.size());
+                for (JPACommand<?> command : commands) {
+                    instr.incr(INSTRUMENTATION_GROUP, command.getName(), 1);
                 }
             }
-            catch (Exception ex) {
-                LOG.warn("Could not check/rollback transaction after JPACommand [{0}], {1}",
-                         command.getName(), ex.getMessage(), ex);
+            cron.start();
+            em.getTransaction().begin();
+            for (JPACommand<?> command : commands) {
+                command.execute(em);
             }
-            try {
-                if (em.isOpen()) {
-                    em.close();
-                }
-                else {
-                    LOG.warn("JPACommand [{0}] closed the EntityManager, it should not!", command.getName());
-                }
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().commit();
+            }
+        }
+        finally {
+            cron.stop();
+            if (instr != null) {
+                instr.addCron(INSTRUMENTATION_GROUP, UNIT_OF_WORK, cron);
             }
-            catch (Exception ex) {
-                LOG.warn("Could not close EntityManager after JPACommand [{0}], {1}",
-                         command.getName(), ex.getMessage(), ex);
+            closeEntityManager(em, "Unit of work");
+        }
+    }
+
+    private void closeEntityManager(EntityManager em, String name) {
+        try {
+            if (em.getTransaction().isActive()) {
+                LOG.warn("{0} ended with an active transaction, rolling back", name);
+                em.getTransaction().rollback();
             }
         }
+        catch (Exception ex) {
+            LOG.warn("Could not check/rollback transaction after {0}, {1}", name, ex.getMessage(), ex);
+        }
+        try {
+            if (em.isOpen()) {
+                em.close();
+            }
+            else {
+                LOG.warn("{0} closed the EntityManager, it should not!", name);
+            }
+        }
+        catch (Exception ex) {
+            LOG.warn("Could not close EntityManager after {0}, {1}", name, ex.getMessage(), ex);
+        }
     }
 
     /**
@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapred.JobClient;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapred.JobStatus;
+import org.apache.oozie.command.wf.ActionCheckXCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.XCallable;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The job status poller service tracks the Hadoop jobs of running Hadoop actions and polls their status in bulk.
+ * <p/>
+ * Every {@link #CONF_INTERVAL} seconds the service asks each JobTracker, with a single call, for all its incomplete
+ * jobs. An {@link ActionCheckXCommand} is queued only for the tracked actions whose job is not running anymore (or is
+ * unknown to the JobTracker), the action is untracked at that point. The check command tracks the action again if it
+ * is still running (i.e. after the swap of the launcher job ID by the action job ID).
+ * <p/>
+ * The {@link ActionCheckerService} does not check tracked actions. If the JobTracker of the tracked actions cannot be
+ * polled, its actions are untracked and they are checked by the {@link ActionCheckerService} again.
+ * <p/>
+ * The tracked actions are kept in memory only, after a restart the running actions are tracked again on their first
+ * check.
+ */
+public class JobStatusPollerService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "JobStatusPollerService.";
+
+    /**
+     * Time, in seconds, between polls of the JobTrackers, <code>0</code> disables the service.
+     */
+    public static final String CONF_INTERVAL = CONF_PREFIX + "interval";
+
+    private static final String INSTRUMENTATION_GROUP = "job_status_poller";
+    private static final String HADOOP_JOB_TRACKER = "mapred.job.tracker";
+
+    private static final XLog log = XLog.getLog(JobStatusPollerService.class);
+
+    /**
+     * Hadoop job of a tracked action.
+     */
+    private static class TrackedJob {
+        private final String actionId;
+        private final String jobId;
+        private final String jobTracker;
+        private final String jtKerberosName;
+        private final String user;
+        private final String group;
+
+        private TrackedJob(String actionId, String jobId, String jobTracker, String jtKerberosName, String user,
+                           String group) {
+            this.actionId = actionId;
+            this.jobId = jobId;
+            this.jobTracker = jobTracker;
+            this.jtKerberosName = jtKerberosName;
+            this.user = user;
+            this.group = group;
+        }
+    }
+
+    private boolean enabled;
+    private final ConcurrentHashMap<String, TrackedJob> trackedJobs = new ConcurrentHashMap<String, TrackedJob>();
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong pollErrors = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * {@link PollRunnable} polls the JobTrackers of the tracked jobs and queues checks for the changed jobs.
+     */
+    class PollRunnable implements Runnable {
+
+        public void run() {
+            Map<String, List<TrackedJob>> jobsByTracker = new HashMap<String, List<TrackedJob>>();
+            for (TrackedJob job : trackedJobs.values()) {
+                List<TrackedJob> jobs = jobsByTracker.get(job.jobTracker);
+                if (jobs == null) {
+                    jobs = new ArrayList<TrackedJob>();
+                    jobsByTracker.put(job.jobTracker, jobs);
+                }
+                jobs.add(job);
+            }
+            List<XCallable<Void>> callables = new ArrayList<XCallable<Void>>();
+            for (List<TrackedJob> jobs : jobsByTracker.values()) {
+                poll(jobs, callables);
+            }
+            CallableQueueService callableQueue = Services.get().get(CallableQueueService.class);
+            int notQueued = 0;
+            for (XCallable<Void> callable : callables) {
+                if (!callableQueue.queue(callable)) {
+                    notQueued++;
+                }
+            }
+            if (notQueued > 0) {
+                log.warn("Unable to queue [{0}] action checks, the actions go back to regular checks. "
+                        + "Most possibly command queue is full. Queue size is :" + callableQueue.queueSize(), notQueued);
+            }
+        }
+    }
+
+    /**
+     * Initialize the job status poller service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        int interval = services.getConf().getInt(CONF_INTERVAL, 30);
+        enabled = interval > 0;
+        if (enabled) {
+            services.get(SchedulerService.class).schedule(new PollRunnable(), interval, interval,
+                                                          SchedulerService.Unit.SEC);
+        }
+    }
+
+    /**
+     * Destroy the job status poller service.
+     */
+    @Override
+    public void destroy() {
+        enabled = false;
+        trackedJobs.clear();
+    }
+
+    /**
+     * Return the public interface for the job status poller service.
+     *
+     * @return {@link JobStatusPollerService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return JobStatusPollerService.class;
+    }
+
+    /**
+     * Instruments the job status poller service.
+     * <p/>
+     * It exposes the number of tracked jobs, the number of JobTracker polls, failed polls and changed jobs.
+     *
+     * @param instr instance to instrument the job status poller service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "tracked", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) trackedJobs.size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "polls", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return polls.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "poll_errors", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return pollErrors.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "changes", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return changes.get();
+            }
+        });
+    }
+
+    /**
+     * Track the Hadoop job of a running action.
+     * <p/>
+     * It replaces the job previously tracked for the action, if any. It is a no-op if the service is disabled.
+     *
+     * @param actionId workflow action ID.
+     * @param jobId Hadoop job ID.
+     * @param conf Hadoop configuration of the action, it must have the JobTracker of the job.
+     * @param user user of the action.
+     * @param group group of the action.
+     */
+    public void track(String actionId, String jobId, Configuration conf, String user, String group) {
+        ParamChecker.notEmpty(actionId, "actionId");
+        ParamChecker.notEmpty(jobId, "jobId");
+        ParamChecker.notNull(conf, "conf");
+        if (enabled) {
+            String jobTracker = ParamChecker.notEmpty(conf.get(HADOOP_JOB_TRACKER), HADOOP_JOB_TRACKER);
+            trackedJobs.put(actionId, new TrackedJob(actionId, jobId, jobTracker,
+                                                     conf.get(WorkflowAppService.HADOOP_JT_KERBEROS_NAME),
+                                                     ParamChecker.notEmpty(user, "user"),
+                                                     ParamChecker.notEmpty(group, "group")));
+        }
+    }
+
+    /**
+     * Stop tracking the Hadoop job of an action.
+     *
+     * @param actionId workflow action ID.
+     */
+    public void untrack(String actionId) {
+        trackedJobs.remove(actionId);
+    }
+
+    /**
+     * Return if the Hadoop job of an action is tracked.
+     *
+     * @param actionId workflow action ID.
+     * @return <code>true</code> if the job of the action is tracked.
+     */
+    public boolean isTracked(String actionId) {
+        return trackedJobs.containsKey(actionId);
+    }
+
+    /**
+     * Poll the status of the jobs of a JobTracker.
+     * <p/>
+     * The JobTracker is accessed as the user of the first job.
+     *
+     * @param jobs tracked jobs of the JobTracker.
+     * @param callables list to add the checks of the changed jobs to.
+     */
+    private void poll(List<TrackedJob> jobs, List<XCallable<Void>> callables) {
+        TrackedJob first = jobs.get(0);
+        Set<String> incompleteJobs;
+        try {
+            incompleteJobs = getIncompleteJobs(first.jobTracker, first.jtKerberosName, first.user, first.group);
+            polls.incrementAndGet();
+        }
+        catch (Exception ex) {
+            pollErrors.incrementAndGet();
+            log.warn("Could not poll JobTracker [{0}], [{1}] actions go back to regular checks, {2}",
+                     first.jobTracker, jobs.size(), ex.getMessage(), ex);
+            for (TrackedJob job : jobs) {
+                untrack(job);
+            }
+            return;
+        }
+        for (TrackedJob job : jobs) {
+            if (!incompleteJobs.contains(job.jobId) && untrack(job)) {
+                changes.incrementAndGet();
+                callables.add(new ActionCheckXCommand(job.actionId));
+            }
+        }
+    }
+
+    /**
+     * Untrack a job only if the action still tracks the same job.
+     */
+    private boolean untrack(TrackedJob job) {
+        return trackedJobs.remove(job.actionId, job);
+    }
+
+    /**
+     * Return the IDs of the jobs of a JobTracker that are not complete, with a single call to the JobTracker.
+     *
+     * @param jobTracker JobTracker address.
+     * @param jtKerberosName Kerberos principal of the JobTracker, it may be <code>null</code>.
+     * @param user user to access the JobTracker as.
+     * @param group group to access the JobTracker as.
+     * @return the IDs of the jobs that are not complete.
+     * @throws Exception thrown if the JobTracker could not be polled.
+     */
+    protected Set<String> getIncompleteJobs(String jobTracker, String jtKerberosName, String user, String group)
+            throws Exception {
+        JobConf jobConf = new JobConf();
+        jobConf.set(HADOOP_JOB_TRACKER, jobTracker);
+        if (jtKerberosName != null) {
+            jobConf.set(WorkflowAppService.HADOOP_JT_KERBEROS_NAME, jtKerberosName);
+        }
+        JobClient jobClient = Services.get().get(HadoopAccessorService.class).createJobClient(user, group, jobConf);
+        try {
+            Set<String> jobIds = new HashSet<String>();
+            JobStatus[] statuses = jobClient.jobsToComplete();
+            if (statuses != null) {
+                for (JobStatus status : statuses) {
+                    jobIds.add(status.getJobID().toString());
+                }
+            }
+            return jobIds;
+        }
+        finally {
+            jobClient.close();
+        }
+    }
+
+}
@@ -34,8 +34,6 @@ import org.apache.oozie.service.Service;
 import org.apache.oozie.service.ServiceException;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.security.PrivilegedExceptionAction;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentHashMap;
@@ -107,101 +105,68 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
         return ugi;
     }
 
+    /**
+     * Run the creation of a Hadoop client as a proxy user of the Oozie Kerberos principal.
+     *
+     * @param user user to run the action as.
+     * @param action action to run.
+     * @return the return value of the action.
+     * @throws Exception thrown if the action failed.
+     */
+    @Override
+    protected <T> T doAs(String user, PrivilegedExceptionAction<T> action) throws Exception {
+        return getUGI(user).doAs(action);
+    }
+
+    /**
+     * Return a copy of a configuration, with Kerberos the user is given by the UGI the client is created with.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <C extends Configuration> C createConfiguration(String user, String group, C conf) {
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
+        C newConf = (C) ((conf instanceof JobConf) ? new JobConf() : new Configuration());
+        XConfiguration.copy(conf, newConf);
+        return newConf;
+    }
+
     /**
      * Return a JobClient created with the provided user/group.
+     * <p/>
+     * The JobClient is taken from the pool of the user, group, JobTracker and NameNode, a delegation token is obtained
+     * on every call and added to the given JobConf.
      *
      * @param conf JobConf with all necessary information to create the JobClient.
      * @return JobClient created with the provided user/group.
      * @throws HadoopAccessorException if the client could not be created.
      */
     public JobClient createJobClient(String user, String group, final JobConf conf) throws HadoopAccessorException {
-        ParamChecker.notEmpty(user, "user");
-        ParamChecker.notEmpty(group, "group");
-        validateJobTracker(conf.get("mapred.job.tracker"));
+        JobClient jobClient = super.createJobClient(user, group, conf);
         try {
-            UserGroupInformation ugi = getUGI(user);
-            JobClient jobClient = ugi.doAs(new PrivilegedExceptionAction<JobClient>() {
-                public JobClient run() throws Exception {
-                    return new JobClient(conf);
-                }
-            });
             Token<DelegationTokenIdentifier> mrdt = jobClient.getDelegationToken(new Text("mr token"));
             conf.getCredentials().addToken(new Text("mr token"), mrdt);
             return jobClient;
         }
         catch (InterruptedException ex) {
+            closeQuietly(jobClient);
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
         }
         catch (IOException ex) {
+            closeQuietly(jobClient);
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
         }
     }
 
-    /**
-     * Return a FileSystem created with the provided user/group.
-     *
-     * @param conf Configuration with all necessary information to create the FileSystem.
-     * @return FileSystem created with the provided user/group.
-     * @throws HadoopAccessorException if the filesystem could not be created.
-     */
-    public FileSystem createFileSystem(String user, String group, final Configuration conf)
-            throws HadoopAccessorException {
-        ParamChecker.notEmpty(user, "user");
-        ParamChecker.notEmpty(group, "group");
+    private void closeQuietly(JobClient jobClient) {
         try {
-            validateNameNode(new URI(conf.get("fs.default.name")).getAuthority());
-            UserGroupInformation ugi = getUGI(user);
-            return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
-                public FileSystem run() throws Exception {
-                    Configuration defaultConf = new Configuration();
-                    XConfiguration.copy(conf, defaultConf);
-                    return FileSystem.get(defaultConf);
-                }
-            });
-        }
-        catch (InterruptedException ex) {
-            throw new HadoopAccessorException(ErrorCode.E0902, ex);
-        }
-        catch (IOException ex) {
-            throw new HadoopAccessorException(ErrorCode.E0902, ex);
-        }
-        catch (URISyntaxException ex) {
-            throw new HadoopAccessorException(ErrorCode.E0902, ex);
-        }
-    }
-
-    /**
-     * Return a FileSystem created with the provided user/group for the specified URI.
-     *
-     * @param uri file system URI.
-     * @param conf Configuration with all necessary information to create the FileSystem.
-     * @return FileSystem created with the provided user/group.
-     * @throws HadoopAccessorException if the filesystem could not be created.
-     */
-    public FileSystem createFileSystem(String user, String group, final URI uri, final Configuration conf)
-            throws HadoopAccessorException {
-        ParamChecker.notEmpty(user, "user");
-        ParamChecker.notEmpty(group, "group");
-        validateNameNode(uri.getAuthority());
-        try {
-            UserGroupInformation ugi = getUGI(user);
-            return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
-                public FileSystem run() throws Exception {
-                    Configuration defaultConf = new Configuration();
-                    XConfiguration.copy(conf, defaultConf);
-                    return FileSystem.get(uri, defaultConf);
-                }
-            });
-        }
-        catch (InterruptedException ex) {
-            throw new HadoopAccessorException(ErrorCode.E0902, ex);
+            jobClient.close();
         }
         catch (IOException ex) {
-            throw new HadoopAccessorException(ErrorCode.E0902, ex);
+            XLog.getLog(getClass()).warn("Could not close JobClient, {0}", ex.getMessage(), ex);
         }
     }
 
-
     public void addFileToClassPath(String user, String group, final Path file, final Configuration conf)
             throws IOException {
         ParamChecker.notEmpty(user, "user");
@@ -37,8 +37,7 @@ public class LiteWorkflowAppService extends WorkflowAppService {
         String appPath = ParamChecker.notEmpty(jobConf.get(OozieClient.APP_PATH), OozieClient.APP_PATH);
         String user = ParamChecker.notEmpty(jobConf.get(OozieClient.USER_NAME), OozieClient.USER_NAME);
         String group = ParamChecker.notEmpty(jobConf.get(OozieClient.GROUP_NAME), OozieClient.GROUP_NAME);
-        String workflowXml = readDefinition(appPath, user, group, authToken);
-        return parseDef(workflowXml);
+        return readAndParseDefinition(appPath, user, group, authToken);
     }
 
     public WorkflowApp parseDef(String workflowXml) throws WorkflowException {
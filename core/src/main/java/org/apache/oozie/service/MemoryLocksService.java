@@ -52,6 +52,9 @@ public class MemoryLocksService implements Service, Instrumentable {
 
     /**
      * Instruments the memory locks service.
+     * <p/>
+     * Besides the number of active locks, it exposes the lock wait time histogram buckets and the number of timed out
+     * lock requests for each lock type.
      *
      * @param instr instance to instrument the memory locks service to.
      */
@@ -62,6 +65,25 @@ public class MemoryLocksService implements Service, Instrumentable {
                 return (long) finalLocks.size();
             }
         });
+        for (final MemoryLocks.Type type : MemoryLocks.Type.values()) {
+            String prefix = type.toString().toLowerCase() + ".";
+            for (int i = 0; i <= MemoryLocks.WAIT_TIME_BUCKETS.length; i++) {
+                final int bucket = i;
+                String name = (i < MemoryLocks.WAIT_TIME_BUCKETS.length)
+                              ? "wait.le." + MemoryLocks.WAIT_TIME_BUCKETS[i] + "ms"
+                              : "wait.gt." + MemoryLocks.WAIT_TIME_BUCKETS[i - 1] + "ms";
+                instr.addVariable(INSTRUMENTATION_GROUP, prefix + name, new Instrumentation.Variable<Long>() {
+                    public Long getValue() {
+                        return finalLocks.getWaitTimeHistogram(type)[bucket];
+                    }
+                });
+            }
+            instr.addVariable(INSTRUMENTATION_GROUP, prefix + "timeouts", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return finalLocks.getTimeouts(type);
+                }
+            });
+        }
     }
 
     /**
@@ -0,0 +1,431 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The notification service sends the job and action HTTP notifications with its own thread pool.
+ * <p/>
+ * Notifications are queued per endpoint (host and port of the URL). Each endpoint is served by at most {@link
+ * #CONF_HOST_CONCURRENCY} threads, a task sends up to {@link #CONF_BATCH_SIZE} queued notifications of its endpoint
+ * before releasing the thread. Responses are fully read so the JDK keeps the connections alive and reuses them for the
+ * following notifications of the endpoint. Identical notifications waiting for the same endpoint are sent once.
+ * <p/>
+ * Connections have connect and read timeouts. When a notification fails the whole endpoint backs off exponentially,
+ * the failed notification is retried first when the backoff expires, up to {@link #CONF_RETRIES} times.
+ * <p/>
+ * A slow or dead endpoint only delays its own notifications, neither the command queue threads nor the notifications
+ * of other endpoints wait for it.
+ * <p/>
+ * The latency of each endpoint is recorded in the <code>notifications.[HOST:PORT]</code> timer, its failures in the
+ * <code>notifications.[HOST:PORT].failed</code> counter.
+ */
+public class NotificationService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "NotificationService.";
+
+    /**
+     * Number of threads sending notifications.
+     */
+    public static final String CONF_THREADS = CONF_PREFIX + "threads";
+
+    /**
+     * Maximum number of notifications sent concurrently to an endpoint.
+     */
+    public static final String CONF_HOST_CONCURRENCY = CONF_PREFIX + "host.concurrency";
+
+    /**
+     * Maximum number of notifications of an endpoint sent by a thread before releasing it.
+     */
+    public static final String CONF_BATCH_SIZE = CONF_PREFIX + "batch.size";
+
+    /**
+     * Maximum number of notifications waiting to be sent.
+     */
+    public static final String CONF_CAPACITY = CONF_PREFIX + "capacity";
+
+    /**
+     * Connect timeout, in milliseconds.
+     */
+    public static final String CONF_CONNECT_TIMEOUT = CONF_PREFIX + "connect.timeout";
+
+    /**
+     * Read timeout, in milliseconds.
+     */
+    public static final String CONF_READ_TIMEOUT = CONF_PREFIX + "read.timeout";
+
+    /**
+     * Number of retries of a failed notification.
+     */
+    public static final String CONF_RETRIES = CONF_PREFIX + "retries";
+
+    /**
+     * Backoff, in seconds, of an endpoint after its first failure, it doubles with every consecutive failure.
+     */
+    public static final String CONF_BACKOFF = CONF_PREFIX + "backoff";
+
+    /**
+     * Maximum backoff of an endpoint, in seconds.
+     */
+    public static final String CONF_BACKOFF_MAX = CONF_PREFIX + "backoff.max";
+
+    public static final String INSTRUMENTATION_GROUP = "notifications";
+
+    private static final XLog log = XLog.getLog(NotificationService.class);
+
+    private static class Notification {
+        private final String url;
+        private int retries;
+
+        private Notification(String url) {
+            this.url = url;
+        }
+    }
+
+    /**
+     * Notifications of an endpoint. All fields are guarded by the endpoint monitor.
+     */
+    private static class Endpoint {
+        private final String key;
+        private final LinkedList<Notification> queue = new LinkedList<Notification>();
+        private final Set<String> queued = new HashSet<String>();
+        private int active;
+        private int failures;
+        private long blockedUntil;
+
+        private Endpoint(String key) {
+            this.key = key;
+        }
+    }
+
+    private final Map<String, Endpoint> endpoints = new HashMap<String, Endpoint>();
+    private ScheduledThreadPoolExecutor executor;
+    private Instrumentation instrumentation;
+    private int hostConcurrency;
+    private int batchSize;
+    private int capacity;
+    private int connectTimeout;
+    private int readTimeout;
+    private int maxRetries;
+    private long backoff;
+    private long maxBackoff;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Initialize the notification service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        hostConcurrency = Math.max(1, conf.getInt(CONF_HOST_CONCURRENCY, 2));
+        batchSize = Math.max(1, conf.getInt(CONF_BATCH_SIZE, 10));
+        capacity = conf.getInt(CONF_CAPACITY, 10000);
+        connectTimeout = conf.getInt(CONF_CONNECT_TIMEOUT, 10000);
+        readTimeout = conf.getInt(CONF_READ_TIMEOUT, 10000);
+        maxRetries = conf.getInt(CONF_RETRIES, 3);
+        backoff = conf.getLong(CONF_BACKOFF, 10) * 1000;
+        maxBackoff = conf.getLong(CONF_BACKOFF_MAX, 600) * 1000;
+        executor = new ScheduledThreadPoolExecutor(Math.max(1, conf.getInt(CONF_THREADS, 10)));
+    }
+
+    /**
+     * Destroy the notification service.
+     * <p/>
+     * Notifications waiting to be sent are discarded.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(connectTimeout + readTimeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (endpoints) {
+            endpoints.clear();
+        }
+    }
+
+    /**
+     * Return the public interface for notification service.
+     *
+     * @return {@link NotificationService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return NotificationService.class;
+    }
+
+    /**
+     * Instrument the notification service.
+     *
+     * @param instr instrumentation to use.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        addVariable(instr, "pending", pending);
+        addVariable(instr, "sent", sent);
+        addVariable(instr, "failed", failed);
+        addVariable(instr, "dropped", dropped);
+        addVariable(instr, "coalesced", coalesced);
+    }
+
+    private void addVariable(Instrumentation instr, String name, final AtomicLong value) {
+        instr.addVariable(INSTRUMENTATION_GROUP, name, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return value.get();
+            }
+        });
+    }
+
+    /**
+     * Queue a notification.
+     * <p/>
+     * The notification is sent with a HTTP GET request, any response other than 200 is a failure.
+     *
+     * @param url notification URL.
+     * @return <code>false</code> if the URL is invalid or the service is at capacity and the notification has been
+     * dropped.
+     */
+    public boolean send(String url) {
+        String key;
+        try {
+            URL u = new URL(url);
+            key = u.getHost() + ":" + ((u.getPort() > -1) ? u.getPort() : u.getDefaultPort());
+        }
+        catch (MalformedURLException ex) {
+            log.warn(XLog.OPS, "Invalid notification URL [{0}], {1}", url, ex.getMessage());
+            return false;
+        }
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            log.warn(XLog.OPS, "Too many pending notifications, dropping [{0}]", url);
+            return false;
+        }
+        Endpoint endpoint;
+        synchronized (endpoints) {
+            endpoint = endpoints.get(key);
+            if (endpoint == null) {
+                endpoint = new Endpoint(key);
+                endpoints.put(key, endpoint);
+            }
+        }
+        synchronized (endpoint) {
+            if (endpoint.queued.add(url)) {
+                endpoint.queue.add(new Notification(url));
+                dispatch(endpoint);
+            }
+            else {
+                pending.decrementAndGet();
+                coalesced.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the number of notifications waiting to be sent.
+     *
+     * @return the number of notifications waiting to be sent.
+     */
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Schedule a task for the endpoint if it has queued notifications and it is below its concurrency. The caller
+     * must hold the endpoint monitor.
+     */
+    private void dispatch(Endpoint endpoint) {
+        int tasks = Math.min(hostConcurrency, (endpoint.queue.size() + batchSize - 1) / batchSize);
+        while (endpoint.active < tasks) {
+            endpoint.active++;
+            long delay = Math.max(0, endpoint.blockedUntil - System.currentTimeMillis());
+            try {
+                executor.schedule(new EndpointRunnable(endpoint), delay, TimeUnit.MILLISECONDS);
+            }
+            catch (RuntimeException ex) {
+                // the executor has been shutdown
+                endpoint.active--;
+                break;
+            }
+        }
+    }
+
+    private class EndpointRunnable implements Runnable {
+        private final Endpoint endpoint;
+
+        private EndpointRunnable(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        public void run() {
+            try {
+                for (int i = 0; i < batchSize; i++) {
+                    Notification notification;
+                    synchronized (endpoint) {
+                        if (endpoint.blockedUntil > System.currentTimeMillis()) {
+                            break;
+                        }
+                        notification = endpoint.queue.poll();
+                        if (notification == null) {
+                            break;
+                        }
+                        endpoint.queued.remove(notification.url);
+                    }
+                    if (deliver(endpoint, notification)) {
+                        synchronized (endpoint) {
+                            endpoint.failures = 0;
+                        }
+                        pending.decrementAndGet();
+                        sent.incrementAndGet();
+                    }
+                    else {
+                        failed.incrementAndGet();
+                        retry(endpoint, notification);
+                    }
+                }
+            }
+            finally {
+                synchronized (endpoint) {
+                    endpoint.active--;
+                    dispatch(endpoint);
+                }
+            }
+        }
+    }
+
+    private void retry(Endpoint endpoint, Notification notification) {
+        synchronized (endpoint) {
+            endpoint.failures++;
+            endpoint.blockedUntil = System.currentTimeMillis() + getBackoff(endpoint.failures);
+            if (notification.retries < maxRetries) {
+                notification.retries++;
+                if (endpoint.queued.add(notification.url)) {
+                    endpoint.queue.addFirst(notification);
+                    return;
+                }
+                // an identical notification has been queued meanwhile
+                coalesced.incrementAndGet();
+            }
+            else {
+                dropped.incrementAndGet();
+                log.warn(XLog.OPS, "could not send notification [{0}]", notification.url);
+            }
+        }
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Return the backoff of an endpoint after a number of consecutive failures.
+     *
+     * @param failures number of consecutive failures.
+     * @return the backoff in milliseconds.
+     */
+    long getBackoff(int failures) {
+        long delay = backoff;
+        for (int i = 1; i < failures && delay < maxBackoff; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, maxBackoff);
+    }
+
+    private boolean deliver(Endpoint endpoint, Notification notification) {
+        Instrumentation.Cron cron = new Instrumentation.Cron();
+        cron.start();
+        boolean ok = false;
+        try {
+            ok = request(new URL(notification.url)) == HttpURLConnection.HTTP_OK;
+        }
+        catch (IOException ex) {
+            log.debug("Notification [{0}] failed, {1}", notification.url, ex.getMessage());
+        }
+        catch (RuntimeException ex) {
+            // e.g. a notification URL that is not HTTP
+            log.warn("Notification [{0}] failed, {1}", notification.url, ex.toString());
+        }
+        finally {
+            cron.stop();
+            if (instrumentation != null) {
+                instrumentation.addCron(INSTRUMENTATION_GROUP, endpoint.key, cron);
+                if (!ok) {
+                    instrumentation.incr(INSTRUMENTATION_GROUP, endpoint.key + ".failed", 1);
+                }
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Send a HTTP GET request to a notification URL.
+     *
+     * @param url notification URL.
+     * @return the response code.
+     * @throws IOException thrown if the request could not be sent or the response could not be read.
+     */
+    protected int request(URL url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(connectTimeout);
+        conn.setReadTimeout(readTimeout);
+        int code = conn.getResponseCode();
+        consume((code < 400) ? conn.getInputStream() : conn.getErrorStream());
+        return code;
+    }
+
+    /**
+     * Read and close a response so the connection can be reused.
+     */
+    private void consume(InputStream is) throws IOException {
+        if (is != null) {
+            try {
+                byte[] buffer = new byte[1024];
+                while (is.read(buffer) > -1) {
+                }
+            }
+            finally {
+                is.close();
+            }
+        }
+    }
+
+}
@@ -14,18 +14,29 @@
  */
 package org.apache.oozie.service;
 
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.hadoop.conf.Configuration;
-import org.apache.oozie.command.coord.CoordPurgeCommand;
-import org.apache.oozie.command.wf.PurgeCommand;
+import org.apache.oozie.command.coord.CoordPurgeXCommand;
+import org.apache.oozie.command.wf.PurgeXCommand;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.service.SchedulerService;
 import org.apache.oozie.service.Service;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
 
 /**
  * The PurgeService schedules purging of completed jobs and associated action older than a specified age.
+ * <p/>
+ * Purgeable records are selected by ID only and deleted in batches of {@link #CONF_BATCH_SIZE} records, each batch in
+ * its own short transaction. The deletion rate can be throttled with {@link #CONF_MAX_ROWS_PER_SEC} and the duration
+ * of a purge run bounded with {@link #CONF_MAX_RUN_TIME}, the next run resumes where the previous one stopped.
  */
-public class PurgeService implements Service {
+public class PurgeService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "PurgeService.";
     /**
@@ -37,30 +48,153 @@ public class PurgeService implements Service {
      * Time interval, in seconds, at which the purge jobs service will be scheduled to run.
      */
     public static final String CONF_PURGE_INTERVAL = CONF_PREFIX + "purge.interval";
-    private static final String COORD_PURGE_LIMIT = CONF_PREFIX + "coord.purge.limit";
+    /**
+     * Number of records deleted per transaction.
+     */
+    public static final String CONF_BATCH_SIZE = CONF_PREFIX + "purge.batch.size";
+    /**
+     * Max number of records deleted per second, <code>0</code> for no limit.
+     */
+    public static final String CONF_MAX_ROWS_PER_SEC = CONF_PREFIX + "purge.max.rows.per.sec";
+    /**
+     * Max duration, in seconds, of a purge run, <code>0</code> for no limit.
+     */
+    public static final String CONF_MAX_RUN_TIME = CONF_PREFIX + "purge.max.run.time";
+
+    private static final String INSTRUMENTATION_GROUP = "purge";
+
+    private Map<String, Long> rowsPerSec = new ConcurrentHashMap<String, Long>();
+    private Map<String, Long> lags = new ConcurrentHashMap<String, Long>();
+    private Instrumentation instrumentation;
 
     /**
-     * PurgeRunnable is the runnable which is scheduled to run at the configured interval. PurgeCommand is queued to
-     * remove completed jobs and associated actions older than the configured age.
+     * PurgeRunnable is the runnable which is scheduled to run at the configured interval. PurgeXCommand and
+     * CoordPurgeXCommand are queued to remove completed jobs and associated actions older than the configured age.
      */
     static class PurgeRunnable implements Runnable {
         private int olderThan;
         private int coordOlderThan;
-        private int limit;
+        private int batchSize;
+        private int maxRowsPerSec;
+        private int maxRunTime;
 
-        public PurgeRunnable(int olderThan, int coordOlderThan, int limit) {
+        public PurgeRunnable(int olderThan, int coordOlderThan, int batchSize) {
+            this(olderThan, coordOlderThan, batchSize, 0, 0);
+        }
+
+        public PurgeRunnable(int olderThan, int coordOlderThan, int batchSize, int maxRowsPerSec, int maxRunTime) {
             this.olderThan = olderThan;
             this.coordOlderThan = coordOlderThan;
-            this.limit = limit;
+            this.batchSize = batchSize;
+            this.maxRowsPerSec = maxRowsPerSec;
+            this.maxRunTime = maxRunTime;
         }
 
         public void run() {
-            Services.get().get(CallableQueueService.class).queue(new PurgeCommand(olderThan));
-            Services.get().get(CallableQueueService.class).queue(new CoordPurgeCommand(coordOlderThan, limit));
+            Services.get().get(CallableQueueService.class).queue(
+                    new PurgeXCommand(olderThan, batchSize, maxRowsPerSec, maxRunTime));
+            Services.get().get(CallableQueueService.class).queue(
+                    new CoordPurgeXCommand(coordOlderThan, batchSize, maxRowsPerSec, maxRunTime));
         }
 
     }
 
+    /**
+     * A purge run, it throttles the deletions and reports the deleted records to the {@link PurgeService}.
+     * <p/>
+     * This class is not thread safe.
+     */
+    public static class PurgeRun {
+        private final String type;
+        private final int batchSize;
+        private final int maxRowsPerSec;
+        private final long deadline;
+        private final long startTime;
+        private long rows;
+
+        /**
+         * Create a purge run.
+         *
+         * @param type purge type, used for instrumentation.
+         * @param batchSize number of records deleted per transaction.
+         * @param maxRowsPerSec max number of records deleted per second, <code>0</code> for no limit.
+         * @param maxRunTime max duration of the run, in seconds, <code>0</code> for no limit.
+         */
+        public PurgeRun(String type, int batchSize, int maxRowsPerSec, int maxRunTime) {
+            this.type = type;
+            this.batchSize = Math.max(1, batchSize);
+            this.maxRowsPerSec = maxRowsPerSec;
+            startTime = System.currentTimeMillis();
+            deadline = (maxRunTime > 0) ? startTime + maxRunTime * 1000L : Long.MAX_VALUE;
+        }
+
+        /**
+         * Return the number of records to delete per transaction.
+         *
+         * @return the number of records to delete per transaction.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Return if the run can continue deleting records.
+         *
+         * @return <code>true</code> if the max duration of the run has not been reached.
+         */
+        public boolean hasTime() {
+            return System.currentTimeMillis() < deadline;
+        }
+
+        /**
+         * Return the number of records deleted by the run.
+         *
+         * @return the number of records deleted by the run.
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Record deleted records, it blocks as long as necessary to keep the deletion rate under the max rate.
+         *
+         * @param entity name of the deleted entity, used for instrumentation.
+         * @param count number of deleted records.
+         * @throws InterruptedException thrown if interrupted while throttling.
+         */
+        public void deleted(String entity, int count) throws InterruptedException {
+            rows += count;
+            PurgeService purgeService = Services.get().get(PurgeService.class);
+            if (purgeService != null && purgeService.instrumentation != null) {
+                purgeService.instrumentation.incr(INSTRUMENTATION_GROUP, entity, count);
+            }
+            if (maxRowsPerSec > 0) {
+                long wait = startTime + rows * 1000 / maxRowsPerSec - System.currentTimeMillis();
+                if (wait > 0) {
+                    Thread.sleep(Math.min(wait, Math.max(0, deadline - System.currentTimeMillis())));
+                }
+            }
+        }
+
+        /**
+         * End the run, reporting its deletion rate and lag to the {@link PurgeService}.
+         *
+         * @param cutoff cutoff time of the run.
+         * @param oldest time of the oldest purgeable record left, <code>null</code> if none.
+         */
+        public void end(Date cutoff, Date oldest) {
+            long time = Math.max(1, System.currentTimeMillis() - startTime);
+            long lag = (oldest != null) ? Math.max(0, (cutoff.getTime() - oldest.getTime()) / 1000) : 0;
+            PurgeService purgeService = Services.get().get(PurgeService.class);
+            if (purgeService != null) {
+                purgeService.rowsPerSec.put(type, rows * 1000 / time);
+                purgeService.lags.put(type, lag);
+            }
+            XLog.getLog(getClass()).info("Purge [{0}] deleted [{1}] records in [{2}] ms, lag [{3}] secs", type, rows,
+                                         time, lag);
+        }
+    }
+
     /**
      * Initializes the {@link PurgeService}.
      *
@@ -69,9 +203,11 @@ public class PurgeService implements Service {
     @Override
     public void init(Services services) {
         Configuration conf = services.getConf();
-        Runnable purgeJobsRunnable = new PurgeRunnable(conf.getInt(
-                CONF_OLDER_THAN, 30), conf.getInt(COORD_CONF_OLDER_THAN, 7),
-                                      conf.getInt(COORD_PURGE_LIMIT, 100));
+        Runnable purgeJobsRunnable = new PurgeRunnable(conf.getInt(CONF_OLDER_THAN, 30),
+                                                       conf.getInt(COORD_CONF_OLDER_THAN, 7),
+                                                       conf.getInt(CONF_BATCH_SIZE, 1000),
+                                                       conf.getInt(CONF_MAX_ROWS_PER_SEC, 0),
+                                                       conf.getInt(CONF_MAX_RUN_TIME, 1800));
         services.get(SchedulerService.class).schedule(purgeJobsRunnable, 10, conf.getInt(CONF_PURGE_INTERVAL, 3600),
                                                       SchedulerService.Unit.SEC);
     }
@@ -92,4 +228,30 @@ public class PurgeService implements Service {
     public Class<? extends Service> getInterface() {
         return PurgeService.class;
     }
+
+    /**
+     * Instruments the purge service.
+     * <p/>
+     * It counts the deleted records per entity and it exposes, per purge type, the deletion rate of the last run, in
+     * records per second, and its lag, the age in seconds beyond the cutoff of the oldest purgeable record left.
+     *
+     * @param instr instance to instrument the purge service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instrumentation = instr;
+        for (final String type : new String[]{PurgeXCommand.PURGE_TYPE, CoordPurgeXCommand.PURGE_TYPE}) {
+            instr.addVariable(INSTRUMENTATION_GROUP, type + ".rows_per_sec", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    Long value = rowsPerSec.get(type);
+                    return (value != null) ? value : 0L;
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, type + ".lag", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    Long value = lags.get(type);
+                    return (value != null) ? value : 0L;
+                }
+            });
+        }
+    }
 }
@@ -24,7 +24,7 @@ import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.command.coord.CoordActionInputCheckCommand;
-import org.apache.oozie.command.coord.CoordActionReadyCommand;
+import org.apache.oozie.command.coord.CoordActionReadyXCommand;
 import org.apache.oozie.command.coord.CoordActionStartCommand;
 import org.apache.oozie.command.coord.CoordRecoveryCommand;
 import org.apache.oozie.command.wf.ActionEndCommand;
@@ -258,7 +258,7 @@ public class RecoveryService implements Service {
                 //log.debug("QUEUING[{0}] READY coord jobs for potential recovery", jobids.size());
                 msg.append(", COORD_READY_JOBS : " + jobids.size());
                 for (String jobid : jobids) {
-                    queueCallable(new CoordActionReadyCommand(jobid));
+                    queueCallable(new CoordActionReadyXCommand(jobid));
                     log.info("Recover READY coord actions for jobid :" + jobid);
                 }
                 store.commitTrx();
@@ -26,9 +26,12 @@ import javax.xml.XMLConstants;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service that loads Oozie workflow definition schema and registered extension schemas.
@@ -51,6 +54,8 @@ public class SchemaService implements Service {
 
     private Schema slaSchema;
 
+    private Map<SchemaName, ThreadLocal<Validator>> validators;
+
     private static final String OOZIE_WORKFLOW_XSD[] = {"oozie-workflow-0.1.xsd", "oozie-workflow-0.2.xsd"};
     private static final String OOZIE_COORDINATOR_XSD[] = {"oozie-coordinator-0.1.xsd"};
     private static final String OOZIE_SLA_SEMANTIC_XSD[] = {"gms-oozie-sla-0.1.xsd"};
@@ -82,6 +87,15 @@ public class SchemaService implements Service {
             wfSchema = loadSchema(services.getConf(), OOZIE_WORKFLOW_XSD, WF_CONF_EXT_SCHEMAS);
             coordSchema = loadSchema(services.getConf(), OOZIE_COORDINATOR_XSD, COORD_CONF_EXT_SCHEMAS);
             slaSchema = loadSchema(services.getConf(), OOZIE_SLA_SEMANTIC_XSD, SLA_CONF_EXT_SCHEMAS);
+            validators = new EnumMap<SchemaName, ThreadLocal<Validator>>(SchemaName.class);
+            for (final SchemaName schemaName : SchemaName.values()) {
+                validators.put(schemaName, new ThreadLocal<Validator>() {
+                    @Override
+                    protected Validator initialValue() {
+                        return getSchema(schemaName).newValidator();
+                    }
+                });
+            }
         }
         catch (SAXException ex) {
             throw new ServiceException(ErrorCode.E0130, ex.getMessage(), ex);
@@ -105,6 +119,7 @@ public class SchemaService implements Service {
      */
     public void destroy() {
         wfSchema = null;
+        validators = null;
     }
 
     /**
@@ -132,6 +147,19 @@ public class SchemaService implements Service {
         }
     }
 
+    /**
+     * Return a validator for a schema. <p/> Validators are not thread safe, each thread gets its own validator which
+     * is reused across calls, it must not be shared with other threads.
+     *
+     * @param schemaName: Name of schema definition (i.e. WORKFLOW/COORDINATOR)
+     * @return the validator of the calling thread for the schema.
+     */
+    public Validator getValidator(SchemaName schemaName) {
+        Validator validator = validators.get(schemaName).get();
+        validator.reset();
+        return validator;
+    }
+
     public enum SchemaName {
         WORKFLOW(1), COORDINATOR(2), SLA_ORIGINAL(3);
         private int id;
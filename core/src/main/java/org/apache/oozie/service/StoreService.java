@@ -16,6 +16,8 @@ package org.apache.oozie.service;
 
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 import org.apache.oozie.util.IOUtils;
@@ -65,8 +67,34 @@ public class StoreService implements Service {
     public static final String CONF_MAX_ACTIVE_CONN = CONF_PREFIX + "pool.max.active.conn";
     public static final String CONF_CREATE_DB_SCHEMA = CONF_PREFIX + "create.db.schema";
 
+    /**
+     * Time, in seconds, the counts of the cursor based jobs listings are cached, <code>0</code> disables the cache.
+     */
+    public static final String CONF_JOBS_COUNT_TTL = CONF_PREFIX + "jobs.count.ttl";
+
+    private static final int JOBS_COUNT_CACHE_SIZE = 1000;
+
     private EntityManagerFactory factory;
 
+    private long jobsCountTtl;
+
+    private static class JobsCount {
+        private final int count;
+        private final long expiration;
+
+        private JobsCount(int count, long expiration) {
+            this.count = count;
+            this.expiration = expiration;
+        }
+    }
+
+    private final Map<String, JobsCount> jobsCounts = new LinkedHashMap<String, JobsCount>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JobsCount> eldest) {
+            return size() > JOBS_COUNT_CACHE_SIZE;
+        }
+    };
+
     /**
      * Return instance of store.
      *
@@ -135,6 +163,7 @@ public class StoreService implements Service {
         if (jpaService == null) {
             throw new ServiceException(ErrorCode.E0610);
         }
+        jobsCountTtl = services.getConf().getLong(CONF_JOBS_COUNT_TTL, 30) * 1000;
     }
 
     /**
@@ -143,6 +172,36 @@ public class StoreService implements Service {
     public void destroy() {
     }
 
+    /**
+     * Return a cached jobs count.
+     *
+     * @param key count key, the count query and its parameters.
+     * @return the cached count, <code>null</code> if not cached or expired.
+     */
+    public Integer getJobsCount(String key) {
+        synchronized (jobsCounts) {
+            JobsCount count = jobsCounts.get(key);
+            if (count != null && count.expiration > System.currentTimeMillis()) {
+                return count.count;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Cache a jobs count for {@link #CONF_JOBS_COUNT_TTL} seconds.
+     *
+     * @param key count key, the count query and its parameters.
+     * @param count jobs count.
+     */
+    public void putJobsCount(String key, int count) {
+        if (jobsCountTtl > 0) {
+            synchronized (jobsCounts) {
+                jobsCounts.put(key, new JobsCount(count, System.currentTimeMillis() + jobsCountTtl));
+            }
+        }
+    }
+
     /**
      * Return EntityManager
      */
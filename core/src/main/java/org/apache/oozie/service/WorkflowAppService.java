@@ -23,10 +23,13 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.ErrorCode;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
@@ -34,13 +37,20 @@ import java.io.StringWriter;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service that provides application workflow definition reading from the path and creation of the proto configuration.
+ * <p/>
+ * Parsed workflow definitions and lib directory listings are cached per user and path, up to {@link #CONF_CACHE_SIZE}
+ * entries with LRU eviction. A cached entry is revalidated on every use against the modification time (and length)
+ * of the file or directory, so a changed application is read again.
  */
-public abstract class WorkflowAppService implements Service {
+public abstract class WorkflowAppService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "WorkflowAppService.";
 
@@ -56,7 +66,33 @@ public abstract class WorkflowAppService implements Service {
 
     public static final String HADOOP_NN_KERBEROS_NAME = "dfs.namenode.kerberos.principal";
 
+    /**
+     * Max number of parsed workflow definitions and lib directory listings cached, <code>0</code> disables the cache.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+
+    private static final String INSTRUMENTATION_GROUP = "workflow_app_cache";
+
     private Path systemLibPath;
+    private Map<String, CacheEntry> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class CacheEntry {
+        private final long modificationTime;
+        private final long length;
+        private final Object value;
+
+        private CacheEntry(FileStatus status, Object value) {
+            modificationTime = status.getModificationTime();
+            length = status.getLen();
+            this.value = value;
+        }
+
+        private boolean isValid(FileStatus status) {
+            return modificationTime == status.getModificationTime() && length == status.getLen();
+        }
+    }
 
     /**
      * Initialize the workflow application service.
@@ -68,12 +104,65 @@ public abstract class WorkflowAppService implements Service {
         if (path.trim().length() > 0) {
             systemLibPath = new Path(path.trim());
         }
+        final int cacheSize = services.getConf().getInt(CONF_CACHE_SIZE, 500);
+        if (cacheSize > 0) {
+            cache = Collections.synchronizedMap(new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                    return size() > cacheSize;
+                }
+            });
+        }
     }
 
     /**
      * Destroy the workflow application service.
      */
     public void destroy() {
+        cache = null;
+    }
+
+    /**
+     * Instruments the workflow application service.
+     * <p/>
+     * It exposes the number of cached entries, the cache hits, misses and the hit rate (percentage).
+     *
+     * @param instr instance to instrument the workflow application service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                Map<String, CacheEntry> map = cache;
+                return (map != null) ? (long) map.size() : 0L;
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return hits.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return misses.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "hit_rate", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                long h = hits.get();
+                long total = h + misses.get();
+                return (total > 0) ? h * 100 / total : 0L;
+            }
+        });
+    }
+
+    private CacheEntry getCacheEntry(String key, FileStatus status) {
+        CacheEntry entry = cache.get(key);
+        if (entry != null && entry.isValid(status)) {
+            hits.incrementAndGet();
+            return entry;
+        }
+        misses.incrementAndGet();
+        return null;
     }
 
     /**
@@ -121,6 +210,50 @@ public abstract class WorkflowAppService implements Service {
         }
     }
 
+    /**
+     * Read and parse a workflow definition.
+     * <p/>
+     * The parsed definition is cached, it is read and parsed again only if the definition file has changed.
+     *
+     * @param appPath application path.
+     * @param user user name.
+     * @param group group name.
+     * @param authToken authentication token.
+     * @return workflow application.
+     * @throws WorkflowException thrown if the definition could not be read or parsed.
+     */
+    protected WorkflowApp readAndParseDefinition(String appPath, String user, String group, String authToken)
+            throws WorkflowException {
+        Map<String, CacheEntry> cache = this.cache;
+        if (cache == null) {
+            return parseDef(readDefinition(appPath, user, group, authToken));
+        }
+        FileStatus status;
+        try {
+            URI uri = new URI(appPath);
+            FileSystem fs = Services.get().get(HadoopAccessorService.class).
+                    createFileSystem(user, group, uri, new Configuration());
+            status = fs.getFileStatus(new Path(uri.getPath()));
+        }
+        catch (IOException ex) {
+            throw new WorkflowException(ErrorCode.E0710, ex.getMessage(), ex);
+        }
+        catch (URISyntaxException ex) {
+            throw new WorkflowException(ErrorCode.E0711, appPath, ex.getMessage(), ex);
+        }
+        catch (HadoopAccessorException ex) {
+            throw new WorkflowException(ex);
+        }
+        String key = "definition#" + user + "#" + status.getPath();
+        CacheEntry entry = getCacheEntry(key, status);
+        if (entry != null) {
+            return (WorkflowApp) entry.value;
+        }
+        WorkflowApp app = parseDef(readDefinition(appPath, user, group, authToken));
+        cache.put(key, new CacheEntry(status, app));
+        return app;
+    }
+
     /**
      * Create proto configuration. <p/> The proto configuration includes the user,group and the paths which need to be
      * added to distributed cache. These paths include .jar,.so and the resource file paths.
@@ -158,19 +291,19 @@ public abstract class WorkflowAppService implements Service {
 
             List<String> filePaths = null;
             if (isWorkflowJob) {
-                filePaths = getLibFiles(fs, new Path(appPath.getParent(), "lib"));
+                filePaths = getLibFiles(fs, new Path(appPath.getParent(), "lib"), user);
                 if (jobConf.get(OozieClient.LIBPATH) != null) {
                     Path libPath = new Path(jobConf.get(OozieClient.LIBPATH));
-                    List<String> libPaths = getLibFiles(fs, libPath);
+                    List<String> libPaths = getLibFiles(fs, libPath, user);
                     filePaths.addAll(libPaths);
                 }
             }
             else {
-                filePaths = getLibFiles(fs, new Path(appPath.getParent(), "lib"));
+                filePaths = getLibFiles(fs, new Path(appPath.getParent(), "lib"), user);
             }
 
             if (systemLibPath != null && jobConf.getBoolean(OozieClient.USE_SYSTEM_LIBPATH, false)) {
-                List<String> libPaths = getLibFiles(fs, systemLibPath);
+                List<String> libPaths = getLibFiles(fs, systemLibPath, user);
                 filePaths.addAll(libPaths);
             }
 
@@ -221,12 +354,38 @@ public abstract class WorkflowAppService implements Service {
 
     /**
      * Get all library paths.
+     * <p/>
+     * The listing is cached, the directory is listed again only if it has changed.
      *
      * @param fs file system object.
      * @param libPath hdfs library path.
+     * @param user user name.
      * @return list of paths.
      * @throws IOException thrown if the lib paths could not be obtained.
      */
+    @SuppressWarnings("unchecked")
+    private List<String> getLibFiles(FileSystem fs, Path libPath, String user) throws IOException {
+        Map<String, CacheEntry> cache = this.cache;
+        if (cache == null) {
+            return getLibFiles(fs, libPath);
+        }
+        FileStatus status;
+        try {
+            status = fs.getFileStatus(libPath);
+        }
+        catch (FileNotFoundException ex) {
+            return getLibFiles(fs, libPath);
+        }
+        String key = "lib#" + user + "#" + status.getPath();
+        CacheEntry entry = getCacheEntry(key, status);
+        if (entry == null) {
+            entry = new CacheEntry(status, getLibFiles(fs, libPath));
+            cache.put(key, entry);
+        }
+        // callers add to the returned list
+        return new ArrayList<String>((List<String>) entry.value);
+    }
+
     private List<String> getLibFiles(FileSystem fs, Path libPath) throws IOException {
         List<String> libPaths = new ArrayList<String>();
         FileStatus[] files = fs.listStatus(libPath, new NoPathFilter());
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowConfigurationBean;
+import org.apache.oozie.WorkflowDefinitionBean;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.WorkflowConfigurationGetCommand;
+import org.apache.oozie.command.jpa.WorkflowConfigurationStoreCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionGetCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionInsertCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionLastUsedUpdateCommand;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.WritableUtils;
+import org.apache.oozie.util.XLog;
+
+/**
+ * The workflow definition service stores workflow definitions once, keyed by the hash of their serialized form, so
+ * workflow instances can refer to their definition by hash instead of carrying it.
+ * <p/>
+ * Definitions are immutable, the service keeps an LRU cache of {@link #CONF_CACHE_SIZE} definitions both to avoid
+ * looking up the database when storing a definition already stored and to share the deserialized definition among
+ * the workflow instances using it. The last used time of a stored definition is refreshed at most every {@link
+ * #LAST_USED_INTERVAL} milliseconds, the purge deletes the definitions no job uses anymore.
+ * <p/>
+ * The job configurations of the workflow instances, which do not change during the life of a job, are stored once per
+ * job so they are not rewritten with the instance on every transition. They are stored with the job, by the {@link
+ * WorkflowConfigurationStoreCommand}, and purged with it. The service keeps an LRU cache of {@link
+ * #CONF_CONFIGURATION_CACHE_SIZE} serialized configurations, a configuration is deserialized for every instance as
+ * instances may modify it.
+ */
+public class WorkflowDefinitionService implements Service {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "WorkflowDefinitionService.";
+
+    /**
+     * Max number of workflow definitions cached.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+
+    /**
+     * Max number of serialized job configurations cached.
+     */
+    public static final String CONF_CONFIGURATION_CACHE_SIZE = CONF_PREFIX + "configuration.cache.size";
+
+    /**
+     * Time, in milliseconds, between refreshes of the last used time of a definition. The purge keeps the definitions
+     * used within the last day.
+     */
+    public static final long LAST_USED_INTERVAL = 60 * 60 * 1000;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static XLog log = XLog.getLog(WorkflowDefinitionService.class);
+
+    private Map<String, LiteWorkflowApp> cache;
+    private Map<String, Long> lastUsed;
+    private Map<String, byte[]> confCache;
+    private JPAService jpaService;
+
+    /**
+     * Initialize the workflow definition service.
+     *
+     * @param services services instance.
+     * @throws ServiceException thrown if the {@link JPAService} is not available.
+     */
+    @Override
+    public void init(Services services) throws ServiceException {
+        final int cacheSize = services.getConf().getInt(CONF_CACHE_SIZE, 500);
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, LiteWorkflowApp>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LiteWorkflowApp> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        lastUsed = Collections.synchronizedMap(new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        final int confCacheSize = services.getConf().getInt(CONF_CONFIGURATION_CACHE_SIZE, 100);
+        confCache = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > confCacheSize;
+            }
+        });
+        jpaService = services.get(JPAService.class);
+        if (jpaService == null) {
+            throw new ServiceException(ErrorCode.E0610);
+        }
+    }
+
+    /**
+     * Destroy the workflow definition service.
+     */
+    @Override
+    public void destroy() {
+        cache = null;
+        lastUsed = null;
+        confCache = null;
+        jpaService = null;
+    }
+
+    /**
+     * Return the public interface for the workflow definition service.
+     *
+     * @return {@link WorkflowDefinitionService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return WorkflowDefinitionService.class;
+    }
+
+    /**
+     * Create the bean of a workflow definition, to be stored with {@link #store(WorkflowDefinitionBean)}.
+     * <p/>
+     * The definition is cached right away, the instances referring to it can be read before it is stored.
+     *
+     * @param app workflow definition.
+     * @return the bean of the workflow definition, its ID is the hash of the definition.
+     */
+    public WorkflowDefinitionBean createDefinition(LiteWorkflowApp app) {
+        ParamChecker.notNull(app, "app");
+        byte[] definition = WritableUtils.toByteArray(app);
+        String id = hash(definition);
+        if (!cache.containsKey(id)) {
+            cache.put(id, app);
+        }
+        return new WorkflowDefinitionBean(id, definition);
+    }
+
+    /**
+     * Store a workflow definition if not stored already, in its own transaction, and refresh its last used time if
+     * not refreshed in the last {@link #LAST_USED_INTERVAL} milliseconds.
+     *
+     * @param bean bean of the workflow definition.
+     * @throws CommandException thrown if the workflow definition could not be stored.
+     */
+    public void store(WorkflowDefinitionBean bean) throws CommandException {
+        ParamChecker.notNull(bean, "bean");
+        long now = System.currentTimeMillis();
+        Long used = lastUsed.get(bean.getId());
+        if (used == null || now - used > LAST_USED_INTERVAL) {
+            // the update also protects a definition in use from a concurrent purge
+            if (jpaService.execute(new WorkflowDefinitionLastUsedUpdateCommand(bean.getId(), new Date(now))) == 0
+                    && jpaService.execute(new WorkflowDefinitionGetCommand(bean.getId())) == null) {
+                bean.setLastUsedTime(new Date(now));
+                insert(bean);
+            }
+            lastUsed.put(bean.getId(), now);
+        }
+    }
+
+    /**
+     * Create the bean of the serialized configuration of a workflow job, to be stored with the job by the {@link
+     * WorkflowConfigurationStoreCommand}.
+     * <p/>
+     * The configuration is cached right away, the instance referring to it can be read before it is stored.
+     *
+     * @param jobId workflow job ID.
+     * @param definitionId hash of the workflow definition of the job.
+     * @param conf serialized job configuration.
+     * @return the bean of the job configuration, its ID is the job ID and the hash of the configuration.
+     */
+    public WorkflowConfigurationBean createConfiguration(String jobId, String definitionId, byte[] conf) {
+        ParamChecker.notEmpty(jobId, "jobId");
+        ParamChecker.notNull(conf, "conf");
+        String id = jobId + "@" + hash(conf);
+        confCache.put(id, conf);
+        return new WorkflowConfigurationBean(id, jobId, definitionId, conf);
+    }
+
+    private void insert(WorkflowDefinitionBean bean) throws CommandException {
+        try {
+            jpaService.execute(new WorkflowDefinitionInsertCommand(bean));
+            log.debug("Stored workflow definition [{0}], [{1}] bytes", bean.getId(), bean.getDefinition().length);
+        }
+        catch (RuntimeException ex) {
+            // another server or thread may have stored the same definition concurrently
+            if (jpaService.execute(new WorkflowDefinitionGetCommand(bean.getId())) == null) {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Return a stored workflow definition.
+     *
+     * @param id hash of the workflow definition.
+     * @return the workflow definition.
+     * @throws IOException thrown if the workflow definition is not stored or could not be read.
+     */
+    public LiteWorkflowApp get(String id) throws IOException {
+        ParamChecker.notEmpty(id, "id");
+        LiteWorkflowApp app = cache.get(id);
+        if (app == null) {
+            app = WritableUtils.fromByteArray(loadDefinition(id, "Workflow definition"), LiteWorkflowApp.class);
+            cache.put(id, app);
+        }
+        return app;
+    }
+
+    /**
+     * Return a stored serialized job configuration.
+     *
+     * @param id ID of the job configuration.
+     * @return the serialized job configuration.
+     * @throws IOException thrown if the job configuration is not stored or could not be read.
+     */
+    public byte[] getConfiguration(String id) throws IOException {
+        ParamChecker.notEmpty(id, "id");
+        byte[] conf = confCache.get(id);
+        if (conf == null) {
+            WorkflowConfigurationBean bean;
+            try {
+                bean = jpaService.execute(new WorkflowConfigurationGetCommand(id));
+            }
+            catch (CommandException ex) {
+                throw new IOException(ex);
+            }
+            if (bean == null) {
+                throw new IOException(XLog.format("Job configuration [{0}] does not exist", id));
+            }
+            conf = bean.getConfiguration();
+            confCache.put(id, conf);
+        }
+        return conf;
+    }
+
+    /**
+     * Return a serialized job configuration stored as a shared definition by the compact format version 2.
+     *
+     * @param id hash of the serialized job configuration.
+     * @return the serialized job configuration.
+     * @throws IOException thrown if the job configuration is not stored or could not be read.
+     */
+    public byte[] getSharedConfiguration(String id) throws IOException {
+        ParamChecker.notEmpty(id, "id");
+        return loadDefinition(id, "Job configuration");
+    }
+
+    private byte[] loadDefinition(String id, String type) throws IOException {
+        WorkflowDefinitionBean bean;
+        try {
+            bean = jpaService.execute(new WorkflowDefinitionGetCommand(id));
+        }
+        catch (CommandException ex) {
+            throw new IOException(ex);
+        }
+        if (bean == null) {
+            throw new IOException(XLog.format("{0} [{1}] does not exist", type, id));
+        }
+        return bean.getDefinition();
+    }
+
+    /**
+     * Return the hash of a serialized workflow definition.
+     *
+     * @param definition serialized workflow definition.
+     * @return the hex SHA-1 hash of the serialized workflow definition.
+     */
+    static String hash(byte[] definition) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(definition);
+            char[] chars = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                chars[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+                chars[i * 2 + 1] = HEX[digest[i] & 0xf];
+            }
+            return new String(chars);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * The workflow job cache service keeps the beans of running workflow jobs in memory, with their deserialized workflow
+ * instance, so the commands driving a job do not reload and deserialize it from the database on every execution.
+ * <p/>
+ * The cache is a check-out/check-in cache and it must be used while holding the {@link MemoryLocksService} write lock
+ * of the job: {@link #take} removes the bean from the cache, the command owns it until it checks it in again with
+ * {@link #put} after its changes have been committed. If the command fails the bean is not checked in and the next
+ * command loads the job from the database.
+ * <p/>
+ * Every update of a workflow job in the database invalidates its cached bean, see {@link #invalidate}.
+ * <p/>
+ * Up to {@link #CONF_CACHE_SIZE} jobs are cached with LRU eviction, <code>0</code> disables the cache.
+ */
+public class WorkflowJobCacheService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "WorkflowJobCacheService.";
+
+    /**
+     * Max number of workflow jobs cached, <code>0</code> disables the cache.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+
+    private static final String INSTRUMENTATION_GROUP = "workflow_job_cache";
+
+    private Map<String, WorkflowJobBean> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Initialize the workflow job cache service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        final int cacheSize = services.getConf().getInt(CONF_CACHE_SIZE, 1000);
+        if (cacheSize > 0) {
+            cache = new LinkedHashMap<String, WorkflowJobBean>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, WorkflowJobBean> eldest) {
+                    if (size() > cacheSize) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    /**
+     * Destroy the workflow job cache service.
+     */
+    @Override
+    public void destroy() {
+        cache = null;
+    }
+
+    /**
+     * Return the public interface for the workflow job cache service.
+     *
+     * @return {@link WorkflowJobCacheService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return WorkflowJobCacheService.class;
+    }
+
+    /**
+     * Instruments the workflow job cache service.
+     * <p/>
+     * It exposes the number of cached jobs, the cache hits, misses, evictions and the hit rate (percentage).
+     *
+     * @param instr instance to instrument the workflow job cache service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return hits.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return misses.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "evictions", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return evictions.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "hit_rate", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                long h = hits.get();
+                long total = h + misses.get();
+                return (total > 0) ? h * 100 / total : 0L;
+            }
+        });
+    }
+
+    /**
+     * Check out a workflow job from the cache.
+     * <p/>
+     * The bean is removed from the cache, the caller must hold the write lock of the job.
+     *
+     * @param id workflow job ID.
+     * @return the cached workflow job bean, <code>null</code> if the job is not cached.
+     */
+    public WorkflowJobBean take(String id) {
+        ParamChecker.notEmpty(id, "id");
+        Map<String, WorkflowJobBean> cache = this.cache;
+        if (cache == null) {
+            return null;
+        }
+        WorkflowJobBean bean;
+        synchronized (cache) {
+            bean = cache.remove(id);
+        }
+        if (bean != null) {
+            hits.incrementAndGet();
+        }
+        else {
+            misses.incrementAndGet();
+        }
+        return bean;
+    }
+
+    /**
+     * Check in a workflow job in the cache.
+     * <p/>
+     * The bean must reflect the committed state of the job and it must not be used by the caller anymore. Only running
+     * jobs are cached, for any other job the cached bean, if any, is invalidated.
+     *
+     * @param bean workflow job bean.
+     */
+    public void put(WorkflowJobBean bean) {
+        ParamChecker.notNull(bean, "bean");
+        Map<String, WorkflowJobBean> cache = this.cache;
+        if (cache == null) {
+            return;
+        }
+        if (bean.getStatus() == WorkflowJob.Status.RUNNING) {
+            bean.reuseWorkflowInstance();
+            synchronized (cache) {
+                cache.put(bean.getId(), bean);
+            }
+        }
+        else {
+            invalidate(bean.getId());
+        }
+    }
+
+    /**
+     * Invalidate the cached bean of a workflow job.
+     *
+     * @param id workflow job ID.
+     */
+    public void invalidate(String id) {
+        Map<String, WorkflowJobBean> cache = this.cache;
+        if (cache != null) {
+            synchronized (cache) {
+                cache.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Return the number of cached workflow jobs.
+     *
+     * @return the number of cached workflow jobs.
+     */
+    public int size() {
+        Map<String, WorkflowJobBean> cache = this.cache;
+        if (cache == null) {
+            return 0;
+        }
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+}
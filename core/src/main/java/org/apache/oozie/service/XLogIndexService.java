@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XLog;
+import org.apache.oozie.util.XLogIndex;
+
+/**
+ * The log index service builds the {@link XLogIndex} of the rotated Oozie log files, so the log of a job can be
+ * streamed reading only the byte ranges of the log files holding it.
+ * <p/>
+ * The log directory is checked every {@link #CONF_INTERVAL} seconds, rotated log files without an up to date index are
+ * indexed by job ID and the indexes of deleted log files are removed. The current log file is never indexed, it is
+ * fully scanned when streaming logs.
+ */
+public class XLogIndexService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "XLogIndexService.";
+
+    /**
+     * Interval, in seconds, to check for rotated log files to index, <code>0</code> disables the log indexes.
+     */
+    public static final String CONF_INTERVAL = CONF_PREFIX + "interval";
+
+    private static final String INSTRUMENTATION_GROUP = "logging";
+
+    private static XLog log = XLog.getLog(XLogIndexService.class);
+
+    private boolean enabled;
+    private final AtomicLong indexedFiles = new AtomicLong();
+    private final AtomicLong indexedBytes = new AtomicLong();
+
+    /**
+     * Initialize the log index service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        int interval = conf.getInt(CONF_INTERVAL, 300);
+        enabled = interval > 0;
+        if (enabled) {
+            Runnable indexRunnable = new Runnable() {
+                public void run() {
+                    indexLogs();
+                }
+            };
+            services.get(SchedulerService.class).schedule(indexRunnable, 10, interval, SchedulerService.Unit.SEC);
+        }
+    }
+
+    /**
+     * Destroy the log index service.
+     */
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * Return the public interface for the log index service.
+     *
+     * @return {@link XLogIndexService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return XLogIndexService.class;
+    }
+
+    /**
+     * Instruments the log index service.
+     * <p/>
+     * It exposes the number of log files and bytes indexed.
+     *
+     * @param instr instance to instrument the log index service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "index.files", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return indexedFiles.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "index.bytes", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return indexedBytes.get();
+            }
+        });
+    }
+
+    /**
+     * Return the log info parameter the log files are indexed by.
+     *
+     * @return the log info parameter the log files are indexed by, <code>null</code> if the indexes are disabled.
+     */
+    public String getParameter() {
+        return (enabled) ? DagXLogInfoService.JOB : null;
+    }
+
+    /**
+     * Index the rotated log files without an up to date index and remove the indexes of deleted log files.
+     *
+     * @return the number of log files indexed.
+     */
+    public int indexLogs() {
+        XLogService logService = Services.get().get(XLogService.class);
+        String logPath = logService.getOozieLogPath();
+        String logName = logService.getOozieLogName();
+        if (!enabled || logPath == null || logName == null) {
+            return 0;
+        }
+        File dir = new File(logPath);
+        String[] children = dir.list();
+        if (children == null) {
+            return 0;
+        }
+        int indexed = 0;
+        String indexPrefix = "." + logName;
+        for (String child : children) {
+            File file = new File(dir, child);
+            if (child.startsWith(logName) && !child.equals(logName)) {
+                XLogIndex index = new XLogIndex(file, getParameter());
+                if (!index.isValid()) {
+                    try {
+                        long start = System.currentTimeMillis();
+                        int values = index.build();
+                        indexed++;
+                        indexedFiles.incrementAndGet();
+                        indexedBytes.addAndGet(file.length());
+                        log.debug("Indexed log file [{0}], [{1}] jobs in [{2}] ms", file, values,
+                                  System.currentTimeMillis() - start);
+                    }
+                    catch (IOException ex) {
+                        log.warn("Could not index log file [{0}], {1}", file, ex.getMessage(), ex);
+                    }
+                }
+            }
+            else {
+                if (child.startsWith(indexPrefix) && child.endsWith(XLogIndex.INDEX_SUFFIX)) {
+                    String logFile = child.substring(1, child.length() - XLogIndex.INDEX_SUFFIX.length());
+                    if (!new File(dir, logFile).exists()) {
+                        file.delete();
+                    }
+                }
+            }
+        }
+        return indexed;
+    }
+
+}
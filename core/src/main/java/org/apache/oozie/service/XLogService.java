@@ -299,6 +299,26 @@ public class XLogService implements Service, Instrumentable {
         });
     }
 
+    /**
+     * Return the directory of the Oozie log files.
+     *
+     * @return the directory of the Oozie log files, <code>null</code> if the log is not available over the
+     *         web-services.
+     */
+    public String getOozieLogPath() {
+        return (logOverWS) ? oozieLogPath : null;
+    }
+
+    /**
+     * Return the name of the current Oozie log file, rotated log files start with this name.
+     *
+     * @return the name of the current Oozie log file, <code>null</code> if the log is not available over the
+     *         web-services.
+     */
+    public String getOozieLogName() {
+        return (logOverWS) ? oozieLogName : null;
+    }
+
     /**
      * Stream the log of a job.
      *
@@ -310,7 +330,9 @@ public class XLogService implements Service, Instrumentable {
      */
     public void streamLog(XLogStreamer.Filter filter, Date startTime, Date endTime, Writer writer) throws IOException {
         if (logOverWS) {
-            new XLogStreamer(filter, writer, oozieLogPath, oozieLogName, oozieLogRotation)
+            XLogIndexService indexService = Services.get().get(XLogIndexService.class);
+            String indexParameter = (indexService != null) ? indexService.getParameter() : null;
+            new XLogStreamer(filter, writer, oozieLogPath, oozieLogName, oozieLogRotation, indexParameter)
                     .streamLog(startTime, endTime);
         }
         else {
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.oozie.service.SchemaService.SchemaName;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.XmlTemplate;
+import org.apache.oozie.util.XmlUtils;
+import org.jdom.JDOMException;
+import org.xml.sax.SAXException;
+
+/**
+ * The XML cache service keeps parsed XML documents, keyed by the hash of their content, so documents read over and
+ * over (coordinator job definitions at every materialization, dataset files included by many coordinators) are parsed
+ * once.
+ * <p/>
+ * Parsed documents are shared as {@link XmlTemplate}s, they must not be modified, callers needing to modify a document
+ * must work on a copy of it.
+ * <p/>
+ * The service also remembers the hash of the documents that passed schema validation, so an unchanged document is not
+ * validated again.
+ * <p/>
+ * Up to {@link #CONF_CACHE_SIZE} documents and validations are cached with LRU eviction, <code>0</code> disables the
+ * cache.
+ */
+public class XmlCacheService implements Service, Instrumentable {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "XmlCacheService.";
+
+    /**
+     * Max number of parsed XML documents (and of validated XML documents) cached, <code>0</code> disables the cache.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+
+    private static final String INSTRUMENTATION_GROUP = "xml_cache";
+
+    private Map<String, XmlTemplate> templates;
+    private Map<String, Boolean> validated;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong validationHits = new AtomicLong();
+    private final AtomicLong validationMisses = new AtomicLong();
+
+    /**
+     * Initialize the XML cache service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        int cacheSize = services.getConf().getInt(CONF_CACHE_SIZE, 500);
+        if (cacheSize > 0) {
+            templates = Collections.synchronizedMap(XmlCacheService.<XmlTemplate>createLRUMap(cacheSize));
+            validated = Collections.synchronizedMap(XmlCacheService.<Boolean>createLRUMap(cacheSize));
+        }
+    }
+
+    private static <V> Map<String, V> createLRUMap(final int cacheSize) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Destroy the XML cache service.
+     */
+    @Override
+    public void destroy() {
+        templates = null;
+        validated = null;
+    }
+
+    /**
+     * Return the public interface for the XML cache service.
+     *
+     * @return {@link XmlCacheService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return XmlCacheService.class;
+    }
+
+    /**
+     * Instruments the XML cache service.
+     * <p/>
+     * It exposes the number of cached documents, the parse cache hits and misses and the validation cache hits and
+     * misses.
+     *
+     * @param instr instance to instrument the XML cache service to.
+     */
+    @Override
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                Map<String, XmlTemplate> templates = XmlCacheService.this.templates;
+                return (templates != null) ? (long) templates.size() : 0L;
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return hits.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return misses.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "validation_hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return validationHits.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "validation_misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return validationMisses.get();
+            }
+        });
+    }
+
+    /**
+     * Return the parsed template of an XML document.
+     * <p/>
+     * The returned template is shared, its root element must not be modified.
+     *
+     * @param xml XML document.
+     * @return the parsed template of the XML document.
+     * @throws JDOMException thrown if the XML document could not be parsed.
+     */
+    public XmlTemplate getTemplate(String xml) throws JDOMException {
+        ParamChecker.notNull(xml, "xml");
+        String hash = hash(xml);
+        Map<String, XmlTemplate> templates = this.templates;
+        XmlTemplate template = (templates != null) ? templates.get(hash) : null;
+        if (template != null) {
+            hits.incrementAndGet();
+        }
+        else {
+            misses.incrementAndGet();
+            template = new XmlTemplate(XmlUtils.parseXml(xml));
+            if (templates != null) {
+                templates.put(hash, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Validate an XML document against a schema.
+     * <p/>
+     * Documents that passed the validation are remembered, they are not validated again.
+     *
+     * @param xml XML document.
+     * @param schemaName schema to validate the XML document against.
+     * @throws SAXException thrown if the XML document is not valid.
+     * @throws IOException thrown if the XML document could not be read.
+     */
+    public void validate(String xml, SchemaName schemaName) throws SAXException, IOException {
+        ParamChecker.notNull(xml, "xml");
+        ParamChecker.notNull(schemaName, "schemaName");
+        String key = schemaName + ":" + hash(xml);
+        Map<String, Boolean> validated = this.validated;
+        if (validated != null && validated.containsKey(key)) {
+            validationHits.incrementAndGet();
+            return;
+        }
+        validationMisses.incrementAndGet();
+        Services.get().get(SchemaService.class).getValidator(schemaName).validate(
+                new StreamSource(new StringReader(xml)));
+        if (validated != null) {
+            validated.put(key, Boolean.TRUE);
+        }
+    }
+
+    private static String hash(String xml) {
+        try {
+            return WorkflowDefinitionService.hash(xml.getBytes("UTF-8"));
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+}
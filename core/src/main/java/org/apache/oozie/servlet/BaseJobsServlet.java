@@ -15,7 +15,10 @@
 package org.apache.oozie.servlet;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -29,7 +32,9 @@ import org.apache.oozie.service.Services;
 import org.apache.oozie.service.WorkflowAppService;
 import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.XConfiguration;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
 
 public abstract class BaseJobsServlet extends JsonRestServlet {
 
@@ -37,9 +42,9 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
 
     static {
         RESOURCES_INFO[0] = new JsonRestServlet.ResourceInfo("", Arrays.asList(
-                "POST", "GET"), Arrays.asList(
+                "POST", "GET", "PUT"), Arrays.asList(
                 new JsonRestServlet.ParameterInfo(RestConstants.ACTION_PARAM,
-                                                  String.class, false, Arrays.asList("POST")),
+                                                  String.class, false, Arrays.asList("POST", "PUT")),
                 new JsonRestServlet.ParameterInfo(
                         RestConstants.JOBS_FILTER_PARAM, String.class, false,
                         Arrays.asList("GET")),
@@ -119,6 +124,41 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
         }
     }
 
+    /**
+     * Run an operation on a list of jobs.
+     * <p/>
+     * The request body is a JSON array with the IDs of the jobs, the response is a JSON array with the result of the
+     * operation for each job, in the same order.
+     */
+    @Override
+    protected void doPut(HttpServletRequest request, HttpServletResponse response) throws ServletException,
+            IOException {
+        validateContentType(request, RestConstants.JSON_CONTENT_TYPE);
+        String action = request.getParameter(RestConstants.ACTION_PARAM);
+        if (action == null) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0305,
+                                        RestConstants.ACTION_PARAM);
+        }
+        request.setAttribute(AUDIT_OPERATION, action);
+
+        Object ids = JSONValue.parse(new InputStreamReader(request.getInputStream(), "UTF-8"));
+        if (!(ids instanceof JSONArray)) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0306);
+        }
+        List<String> jobIds = new ArrayList<String>();
+        for (Object id : (JSONArray) ids) {
+            if (!(id instanceof String)) {
+                throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0306);
+            }
+            jobIds.add((String) id);
+        }
+        request.setAttribute(AUDIT_PARAM, jobIds.toString());
+
+        stopCron();
+        bulkOperation(request, response, action, jobIds);
+        startCron();
+    }
+
     /**
      * abstract method to submit a job, either workflow or coordinator in the case of workflow job, there is an optional
      * flag in request to indicate if want this job to be started immediately or not
@@ -155,6 +195,20 @@ public abstract class BaseJobsServlet extends JsonRestServlet {
     abstract JSONObject getJobs(HttpServletRequest request)
     throws XServletException, IOException;
 
+    /**
+     * abstract method to run an operation on a list of jobs and write the results to the response
+     *
+     * @param request
+     * @param response
+     * @param action operation to run, <code>info</code>, <code>kill</code>, <code>suspend</code> or
+     * <code>resume</code>
+     * @param jobIds IDs of the jobs
+     * @throws XServletException
+     * @throws IOException
+     */
+    abstract void bulkOperation(HttpServletRequest request, HttpServletResponse response, String action,
+                                List<String> jobIds) throws XServletException, IOException;
+
     static void validateJobConfiguration(Configuration conf) throws XServletException {
         if (conf.get(OozieClient.USER_NAME) == null) {
             throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0401,
@@ -89,7 +89,7 @@ public class CallbackServlet extends JsonRestServlet {
             dagEngine.processCallback(actionId, callbackService.getExternalStatus(queryString), null);
         }
         catch (DagEngineException ex) {
-            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+            throw new XServletException(getStatusCode(ex), ex);
         }
     }
 
@@ -140,7 +140,17 @@ public class CallbackServlet extends JsonRestServlet {
             }
         }
         catch (DagEngineException ex) {
-            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ex);
+            throw new XServletException(getStatusCode(ex), ex);
         }
     }
+
+    /**
+     * Return the HTTP status code for a callback that could not be processed.
+     * <p/>
+     * A full callback buffer returns SERVICE_UNAVAILABLE, the caller must retry the callback.
+     */
+    private int getStatusCode(DagEngineException ex) {
+        return (ex.getErrorCode() == ErrorCode.E0404) ? HttpServletResponse.SC_SERVICE_UNAVAILABLE
+                                                      : HttpServletResponse.SC_BAD_REQUEST;
+    }
 }
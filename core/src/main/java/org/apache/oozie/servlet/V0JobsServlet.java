@@ -117,4 +117,14 @@ public class V0JobsServlet extends BaseJobsServlet {
 
         return json;
     }
+
+    /**
+     * v0 service implementation to run an operation on a list of jobs, not supported
+     */
+    @Override
+    protected void bulkOperation(HttpServletRequest request, HttpServletResponse response, String action,
+                                 List<String> jobIds) throws XServletException, IOException {
+        throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303, RestConstants.ACTION_PARAM,
+                                    action);
+    }
 }
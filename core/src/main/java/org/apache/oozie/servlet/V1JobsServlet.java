@@ -15,12 +15,15 @@
 package org.apache.oozie.servlet;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.BaseEngine;
 import org.apache.oozie.CoordinatorEngine;
 import org.apache.oozie.CoordinatorEngineException;
 import org.apache.oozie.CoordinatorJobBean;
@@ -30,9 +33,12 @@ import org.apache.oozie.DagEngineException;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
+import org.apache.oozie.XException;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.rest.JsonBean;
 import org.apache.oozie.client.rest.JsonTags;
 import org.apache.oozie.client.rest.RestConstants;
+import org.apache.oozie.service.AuthorizationService;
 import org.apache.oozie.service.CoordinatorEngineService;
 import org.apache.oozie.service.DagEngineService;
 import org.apache.oozie.service.Services;
@@ -44,10 +50,29 @@ public class V1JobsServlet extends BaseJobsServlet {
 
     private static final String INSTRUMENTATION_NAME = "v1jobs";
 
+    public static final String CONF_BULK_MAX_JOBS = "oozie.servlet.V1JobsServlet.bulk.max.jobs";
+
+    private static final List<String> BULK_ACTIONS = Arrays.asList(RestConstants.JOB_SHOW_INFO,
+                                                                   RestConstants.JOB_ACTION_KILL,
+                                                                   RestConstants.JOB_ACTION_SUSPEND,
+                                                                   RestConstants.JOB_ACTION_RESUME);
+
+    /**
+     * Number of job results written between flushes of the response.
+     */
+    private static final int BULK_FLUSH_INTERVAL = 100;
+
+    private static int bulkMaxJobs;
+
     public V1JobsServlet() {
         super(INSTRUMENTATION_NAME);
     }
 
+    @Override
+    public void init() {
+        bulkMaxJobs = Services.get().getConf().getInt(CONF_BULK_MAX_JOBS, 1000);
+    }
+
     /**
      * v1 service implementation to submit a job, either workflow or coordinator
      */
@@ -134,6 +159,76 @@ public class V1JobsServlet extends BaseJobsServlet {
         return json;
     }
 
+    /**
+     * v1 service implementation to run an operation on a list of workflow and coordinator jobs.
+     * <p/>
+     * The results are streamed as they are produced, the failure of an operation on a job is reported in the result of
+     * the job and does not stop the operations on the remaining jobs.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void bulkOperation(HttpServletRequest request, HttpServletResponse response, String action,
+                                 List<String> jobIds) throws XServletException, IOException {
+        if (!BULK_ACTIONS.contains(action)) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0303,
+                                        RestConstants.ACTION_PARAM, action);
+        }
+        if (jobIds.size() > bulkMaxJobs) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0422, jobIds.size(),
+                                        bulkMaxJobs);
+        }
+        String user = getUser(request);
+        String authToken = getAuthToken(request);
+        DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(user, authToken);
+        CoordinatorEngine coordEngine = Services.get().get(CoordinatorEngineService.class).getCoordinatorEngine(
+                user, authToken);
+        AuthorizationService auth = Services.get().get(AuthorizationService.class);
+        boolean info = action.equals(RestConstants.JOB_SHOW_INFO);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(JSTON_UTF8);
+        Writer writer = response.getWriter();
+        writer.write("[");
+        for (int i = 0; i < jobIds.size(); i++) {
+            String jobId = jobIds.get(i);
+            boolean workflow = jobId.endsWith("-W");
+            BaseEngine engine = (workflow) ? dagEngine : coordEngine;
+            JSONObject json = new JSONObject();
+            json.put(JsonTags.BULK_JOB_ID, jobId);
+            try {
+                auth.authorizeForJob(user, jobId, !info);
+                if (info) {
+                    JsonBean job = (JsonBean) ((workflow) ? engine.getJob(jobId) : engine.getCoordJob(jobId));
+                    json.put(JsonTags.BULK_JOB, job.toJSONObject());
+                }
+                else if (action.equals(RestConstants.JOB_ACTION_KILL)) {
+                    engine.kill(jobId);
+                }
+                else if (action.equals(RestConstants.JOB_ACTION_SUSPEND)) {
+                    engine.suspend(jobId);
+                }
+                else {
+                    engine.resume(jobId);
+                }
+            }
+            catch (XException ex) {
+                JSONObject error = new JSONObject();
+                error.put(JsonTags.ERROR_CODE, ex.getErrorCode().toString());
+                error.put(JsonTags.ERROR_MESSAGE, ex.getMessage());
+                json.put(JsonTags.ERROR, error);
+            }
+            if (i > 0) {
+                writer.write(",");
+            }
+            json.writeJSONString(writer);
+            if ((i + 1) % BULK_FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.write("]");
+        writer.flush();
+    }
+
     /**
      * v1 service implementation to submit a workflow job
      */
@@ -240,8 +335,19 @@ public class V1JobsServlet extends BaseJobsServlet {
             start = (start < 1) ? 1 : start;
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
             len = (len < 1) ? 50 : len;
+            String cursor = request.getParameter(RestConstants.JOBS_CURSOR_PARAM);
             DagEngine dagEngine = Services.get().get(DagEngineService.class).getDagEngine(getUser(request),
                     getAuthToken(request));
+            if (cursor != null) {
+                WorkflowsInfo jobs = dagEngine.getJobs(filter, cursor, len, isCountRequested(request));
+                json.put(JsonTags.WORKFLOWS_JOBS, WorkflowJobBean.toJSONArray(jobs.getWorkflows()));
+                if (jobs.getTotal() > -1) {
+                    json.put(JsonTags.WORKFLOWS_TOTAL, jobs.getTotal());
+                }
+                json.put(JsonTags.WORKFLOWS_LEN, jobs.getLen());
+                json.put(JsonTags.WORKFLOWS_CURSOR, jobs.getCursor());
+                return json;
+            }
             WorkflowsInfo jobs = dagEngine.getJobs(filter, start, len);
             List<WorkflowJobBean> jsonWorkflows = jobs.getWorkflows();
             json.put(JsonTags.WORKFLOWS_JOBS, WorkflowJobBean.toJSONArray(jsonWorkflows));
@@ -272,8 +378,19 @@ public class V1JobsServlet extends BaseJobsServlet {
             start = (start < 1) ? 1 : start;
             int len = (lenStr != null) ? Integer.parseInt(lenStr) : 50;
             len = (len < 1) ? 50 : len;
+            String cursor = request.getParameter(RestConstants.JOBS_CURSOR_PARAM);
             CoordinatorEngine coordEngine = Services.get().get(CoordinatorEngineService.class).getCoordinatorEngine(
                     getUser(request), getAuthToken(request));
+            if (cursor != null) {
+                CoordinatorJobInfo jobs = coordEngine.getCoordJobs(filter, cursor, len, isCountRequested(request));
+                json.put(JsonTags.COORDINATOR_JOBS, CoordinatorJobBean.toJSONArray(jobs.getCoordJobs()));
+                if (jobs.getTotal() > -1) {
+                    json.put(JsonTags.COORD_JOB_TOTAL, jobs.getTotal());
+                }
+                json.put(JsonTags.COORD_JOB_LEN, jobs.getLen());
+                json.put(JsonTags.COORD_JOB_CURSOR, jobs.getCursor());
+                return json;
+            }
             CoordinatorJobInfo jobs = coordEngine.getCoordJobs(filter, start, len);
             List<CoordinatorJobBean> jsonJobs = jobs.getCoordJobs();
             json.put(JsonTags.COORDINATOR_JOBS, CoordinatorJobBean.toJSONArray(jsonJobs));
@@ -288,6 +405,13 @@ public class V1JobsServlet extends BaseJobsServlet {
         return json;
     }
 
+    /**
+     * Return if the total of a cursor based jobs listing has been requested, totals are not computed by default.
+     */
+    private boolean isCountRequested(HttpServletRequest request) {
+        return Boolean.parseBoolean(request.getParameter(RestConstants.JOBS_COUNT_PARAM));
+    }
+
     /**
      * service implementation to submit a http job
      */
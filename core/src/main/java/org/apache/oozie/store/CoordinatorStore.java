@@ -623,6 +623,45 @@ public class CoordinatorStore extends Store {
         return coordJobInfo;
     }
 
+    /**
+     * Loads a page of the coordinator jobs satisfying the given filter condition, ordered by creation time, newest
+     * first.
+     * <p/>
+     * Pages are delimited by cursors instead of offsets, see {@link JobsCursor}.
+     *
+     * @param filter filter condition.
+     * @param cursor cursor of the page, <code>null</code> for the first page.
+     * @param len number of coordinator jobs to be returned.
+     * @param withTotal if the total number of coordinator jobs satisfying the filter must be computed.
+     * @return a page of coordinator jobs with the cursor of the next page.
+     * @throws StoreException
+     */
+    public CoordinatorJobInfo getCoordinatorInfo(final Map<String, List<String>> filter, final JobsCursor cursor,
+                                                 final int len, final boolean withTotal) throws StoreException {
+        return doOperation("getCoordinatorJobInfo", new Callable<CoordinatorJobInfo>() {
+            @SuppressWarnings("unchecked")
+            public CoordinatorJobInfo call() throws SQLException, StoreException {
+                Query q = StoreStatusFilter.createKeysetQuery(entityManager, filter, cursor, len,
+                                                              StoreStatusFilter.coordSeletStr,
+                                                              StoreStatusFilter.coordCountStr);
+                List<Object[]> objectArrList = (List<Object[]>) q.getResultList();
+                List<CoordinatorJobBean> coordBeansList = new ArrayList<CoordinatorJobBean>();
+                for (Object[] arr : objectArrList) {
+                    coordBeansList.add(getBeanForCoordinatorJobFromArray(arr));
+                }
+                String nextCursor = null;
+                if (coordBeansList.size() == len) {
+                    CoordinatorJobBean last = coordBeansList.get(len - 1);
+                    nextCursor = new JobsCursor(last.getCreatedTime(), last.getId()).toString();
+                }
+                int total = (withTotal) ? StoreStatusFilter.getCount(entityManager, filter,
+                                                                     StoreStatusFilter.coordSeletStr,
+                                                                     StoreStatusFilter.coordCountStr) : -1;
+                return new CoordinatorJobInfo(coordBeansList, len, total, nextCursor);
+            }
+        });
+    }
+
     private CoordinatorJobBean getBeanForCoordinatorJobFromArray(Object[] arr) {
         CoordinatorJobBean bean = new CoordinatorJobBean();
         bean.setId((String) arr[0]);
@@ -659,6 +698,9 @@ public class CoordinatorStore extends Store {
         if (arr[11] != null) {
             bean.setNextMaterializedTime((Timestamp) arr[11]);
         }
+        if (arr[12] != null) {
+            bean.setCreatedTime((Timestamp) arr[12]);
+        }
         if (arr[13] != null) {
             bean.setTimeUnit(Timeunit.valueOf((String) arr[13]));
         }
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.store;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Position in a jobs listing ordered by creation time and ID, newest first.
+ * <p/>
+ * A cursor points right after the last job of a page, the next page starts with the jobs created before it (or
+ * created at the same time with a lower ID). The string form of a cursor is opaque to clients.
+ */
+public class JobsCursor {
+    private static final char SEPARATOR = '.';
+
+    private final long createdTime;
+    private final String id;
+
+    /**
+     * Create a cursor pointing after a job.
+     *
+     * @param createdTime creation time of the job.
+     * @param id job ID.
+     */
+    public JobsCursor(Date createdTime, String id) {
+        this.createdTime = ParamChecker.notNull(createdTime, "createdTime").getTime();
+        this.id = ParamChecker.notEmpty(id, "id");
+    }
+
+    /**
+     * Parse the string form of a cursor.
+     *
+     * @param cursor string form of the cursor.
+     * @return the cursor, <code>null</code> if the given string is <code>null</code> or empty (first page).
+     * @throws IllegalArgumentException thrown if the cursor is invalid.
+     */
+    public static JobsCursor parse(String cursor) {
+        if (cursor == null || cursor.length() == 0) {
+            return null;
+        }
+        int index = cursor.indexOf(SEPARATOR);
+        if (index < 1 || index == cursor.length() - 1) {
+            throw new IllegalArgumentException("invalid cursor [" + cursor + "]");
+        }
+        try {
+            return new JobsCursor(new Date(Long.parseLong(cursor.substring(0, index))), cursor.substring(index + 1));
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("invalid cursor [" + cursor + "]");
+        }
+    }
+
+    /**
+     * Return the creation time of the job the cursor points after.
+     *
+     * @return the creation time of the job the cursor points after.
+     */
+    public Timestamp getCreatedTimestamp() {
+        return new Timestamp(createdTime);
+    }
+
+    /**
+     * Return the ID of the job the cursor points after.
+     *
+     * @return the ID of the job the cursor points after.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Return the string form of the cursor.
+     *
+     * @return the string form of the cursor.
+     */
+    @Override
+    public String toString() {
+        return Long.toString(createdTime) + SEPARATOR + id;
+    }
+
+}
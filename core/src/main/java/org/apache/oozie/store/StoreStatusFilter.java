@@ -14,10 +14,16 @@
  */
 package org.apache.oozie.store;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StoreService;
 
 public class StoreStatusFilter {
     public static final String coordSeletStr = "Select w.id, w.appName, w.status, w.user, w.group, w.startTimestamp, w.endTimestamp, w.appPath, w.concurrency, w.frequency, w.lastActionTimestamp, w.nextMaterializedTimestamp, w.createdTimestamp, w.timeUnitStr, w.timeZone, w.timeOut from CoordinatorJobBean w";
@@ -172,4 +178,77 @@ public class StoreStatusFilter {
             }
         }
     }
+
+    /**
+     * Create the query for a page of the jobs after a cursor, see {@link JobsCursor}.
+     * <p/>
+     * The jobs are ordered by creation time and ID, newest first. The condition and the ordering match the
+     * (created_time, id) indexes, every page is an index range scan regardless of its depth.
+     *
+     * @param em entity manager.
+     * @param filter jobs filter.
+     * @param cursor cursor of the page, <code>null</code> for the first page.
+     * @param len number of jobs of the page.
+     * @param seletStr select statement for the jobs columns.
+     * @param countStr select statement for the jobs count.
+     * @return the query for the page.
+     */
+    public static Query createKeysetQuery(EntityManager em, Map<String, List<String>> filter, JobsCursor cursor,
+                                          int len, String seletStr, String countStr) {
+        List<String> orArray = new ArrayList<String>();
+        List<String> colArray = new ArrayList<String>();
+        List<String> valArray = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder("");
+        filter(filter, orArray, colArray, valArray, sb, seletStr, countStr);
+        if (cursor != null) {
+            sb.append((sb.length() == 0) ? seletStr + " where " : " and ");
+            sb.append("(w.createdTimestamp < :cursorTime or (w.createdTimestamp = :cursorTime and w.id < :cursorId))");
+        }
+        else if (sb.length() == 0) {
+            sb.append(seletStr);
+        }
+        sb.append(" order by w.createdTimestamp desc, w.id desc");
+        Query q = em.createQuery(sb.toString());
+        for (int i = 0; i < orArray.size(); i++) {
+            q.setParameter(colArray.get(i), valArray.get(i));
+        }
+        if (cursor != null) {
+            q.setParameter("cursorTime", cursor.getCreatedTimestamp());
+            q.setParameter("cursorId", cursor.getId());
+        }
+        q.setMaxResults(len);
+        return q;
+    }
+
+    /**
+     * Return the number of jobs matching a filter.
+     * <p/>
+     * Counts are cached by the {@link StoreService} for {@link StoreService#CONF_JOBS_COUNT_TTL} seconds.
+     *
+     * @param em entity manager.
+     * @param filter jobs filter.
+     * @param seletStr select statement for the jobs columns.
+     * @param countStr select statement for the jobs count.
+     * @return the number of jobs matching the filter.
+     */
+    public static int getCount(EntityManager em, Map<String, List<String>> filter, String seletStr, String countStr) {
+        List<String> orArray = new ArrayList<String>();
+        List<String> colArray = new ArrayList<String>();
+        List<String> valArray = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder("");
+        filter(filter, orArray, colArray, valArray, sb, seletStr, countStr);
+        String countQuery = (sb.length() == 0) ? countStr : sb.toString().replace(seletStr, countStr);
+        String key = countQuery + valArray;
+        StoreService storeService = Services.get().get(StoreService.class);
+        Integer count = storeService.getJobsCount(key);
+        if (count == null) {
+            Query q = em.createQuery(countQuery);
+            for (int i = 0; i < orArray.size(); i++) {
+                q.setParameter(colArray.get(i), valArray.get(i));
+            }
+            count = ((Long) q.getSingleResult()).intValue();
+            storeService.putJobsCount(key, count);
+        }
+        return count;
+    }
 }
@@ -32,9 +32,12 @@ import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.WorkflowsInfo;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowJob.Status;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.WorkflowConfigurationStoreCommand;
 import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.SchemaService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowJobCacheService;
 import org.apache.oozie.service.SchemaService.SchemaName;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
@@ -106,6 +109,7 @@ public class WorkflowStore extends Store {
         doOperation("insertWorkflow", new Callable<Void>() {
             public Void call() throws SQLException, StoreException, WorkflowException {
                 entityManager.persist(workflow);
+                storeConfiguration(workflow);
                 return null;
             }
         });
@@ -200,11 +204,26 @@ public class WorkflowStore extends Store {
                 q.setParameter("id", wfBean.getId());
                 setWFQueryParameters(wfBean, q);
                 q.executeUpdate();
+                storeConfiguration(wfBean);
+                WorkflowJobCacheService cache = Services.get().get(WorkflowJobCacheService.class);
+                if (cache != null) {
+                    cache.invalidate(wfBean.getId());
+                }
                 return null;
             }
         });
     }
 
+    // the job configuration is stored in the transaction writing the job
+    private void storeConfiguration(WorkflowJobBean wfBean) throws StoreException {
+        try {
+            new WorkflowConfigurationStoreCommand(wfBean).execute(entityManager);
+        }
+        catch (CommandException e) {
+            throw new StoreException(e);
+        }
+    }
+
     /**
      * Create a new Action record in the ACTIONS table with the given Bean.
      *
@@ -685,6 +704,44 @@ public class WorkflowStore extends Store {
 
     }
 
+    /**
+     * Loads a page of the jobs satisfying the given filter condition, ordered by creation time, newest first.
+     * <p/>
+     * Pages are delimited by cursors instead of offsets, see {@link JobsCursor}.
+     *
+     * @param filter filter condition.
+     * @param cursor cursor of the page, <code>null</code> for the first page.
+     * @param len number of workflows to be returned.
+     * @param withTotal if the total number of workflows satisfying the filter must be computed.
+     * @return a page of workflows with the cursor of the next page.
+     * @throws StoreException
+     */
+    public WorkflowsInfo getWorkflowsInfo(final Map<String, List<String>> filter, final JobsCursor cursor,
+                                          final int len, final boolean withTotal) throws StoreException {
+        return doOperation("getWorkflowsInfo", new Callable<WorkflowsInfo>() {
+            @SuppressWarnings("unchecked")
+            public WorkflowsInfo call() throws SQLException, StoreException {
+                Query q = StoreStatusFilter.createKeysetQuery(entityManager, filter, cursor, len,
+                                                              StoreStatusFilter.wfSeletStr,
+                                                              StoreStatusFilter.wfCountStr);
+                List<Object[]> objectArrList = (List<Object[]>) q.getResultList();
+                List<WorkflowJobBean> wfBeansList = new ArrayList<WorkflowJobBean>();
+                for (Object[] arr : objectArrList) {
+                    wfBeansList.add(getBeanForWorkflowFromArray(arr));
+                }
+                String nextCursor = null;
+                if (wfBeansList.size() == len) {
+                    WorkflowJobBean last = wfBeansList.get(len - 1);
+                    nextCursor = new JobsCursor(last.getCreatedTime(), last.getId()).toString();
+                }
+                int total = (withTotal) ? StoreStatusFilter.getCount(entityManager, filter,
+                                                                     StoreStatusFilter.wfSeletStr,
+                                                                     StoreStatusFilter.wfCountStr) : -1;
+                return new WorkflowsInfo(wfBeansList, len, total, nextCursor);
+            }
+        });
+    }
+
     /**
      * Load the Workflow and all Action details and return a WorkflowJobBean. Workflow Instance is not loaded
      *
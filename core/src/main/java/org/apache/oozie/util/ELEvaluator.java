@@ -14,36 +14,67 @@
  */
 package org.apache.oozie.util;
 
+import org.apache.commons.el.Coercions;
+import org.apache.commons.el.Expression;
 import org.apache.commons.el.ExpressionEvaluatorImpl;
+import org.apache.commons.el.ExpressionString;
+import org.apache.commons.el.Logger;
+import org.apache.hadoop.conf.Configuration;
 
 import javax.servlet.jsp.el.ELException;
-import javax.servlet.jsp.el.ExpressionEvaluator;
 import javax.servlet.jsp.el.FunctionMapper;
 import javax.servlet.jsp.el.VariableResolver;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * JSP Expression Language Evaluator. <p/> It provides a more convenient way of using the JSP EL Evaluator.
+ * <p/>
+ * Parsed EL expressions are cached by expression text and shared by all evaluators, an expression is parsed once and
+ * then only evaluated.
  */
 public class ELEvaluator {
 
     /**
      * Provides functions and variables for the EL evaluator. <p/> All functions and variables in the context of an EL
      * evaluator are accessible from EL expressions.
+     * <p/>
+     * Variables are resolved from the variables set in the context, then from the configuration set in the context (if
+     * any) and then from the constants the context was created with. Functions are resolved from the functions added
+     * to the context and then from the functions the context was created with. The constants and functions the
+     * context was created with are not copied, they can be shared by many contexts.
      */
     public static class Context implements VariableResolver, FunctionMapper {
         private Map<String, Object> vars;
         private Map<String, Method> functions;
+        private Configuration conf;
+        private Map<String, Object> sharedVars;
+        private Map<String, Method> sharedFunctions;
 
         /**
          * Create an empty context.
          */
         public Context() {
+            this(Collections.<String, Object>emptyMap(), Collections.<String, Method>emptyMap());
+        }
+
+        /**
+         * Create a context with shared constants and functions. <p/> The given maps are not copied, they must not be
+         * modified while the context is in use.
+         *
+         * @param constants constants available to the context, keyed by <code>prefix:name</code>.
+         * @param functions functions available to the context, keyed by <code>prefix:name</code>.
+         */
+        public Context(Map<String, Object> constants, Map<String, Method> functions) {
             vars = new HashMap<String, Object>();
-            functions = new HashMap<String, Method>();
+            this.functions = new HashMap<String, Method>();
+            sharedVars = ParamChecker.notNull(constants, "constants");
+            sharedFunctions = ParamChecker.notNull(functions, "functions");
         }
 
         /**
@@ -65,6 +96,17 @@ public class ELEvaluator {
             vars.put(name, value);
         }
 
+        /**
+         * Set a configuration whose properties are available as variables. <p/> The properties are read from the
+         * configuration when resolved, the configuration is not copied. Variables set in the context take precedence
+         * over the configuration properties.
+         *
+         * @param conf configuration, <code>null</code> to remove it.
+         */
+        public void setConfiguration(Configuration conf) {
+            this.conf = conf;
+        }
+
         /**
          * Return a variable from the context. <p/>
          *
@@ -72,7 +114,14 @@ public class ELEvaluator {
          * @return the variable value.
          */
         public Object getVariable(String name) {
-            return vars.get(name);
+            Object value = vars.get(name);
+            if (value == null && !vars.containsKey(name)) {
+                value = (conf != null) ? conf.getRaw(name) : null;
+                if (value == null) {
+                    value = sharedVars.get(name);
+                }
+            }
+            return value;
         }
 
         /**
@@ -98,10 +147,17 @@ public class ELEvaluator {
          * @throws ELException thrown if the variable is not defined in the context.
          */
         public Object resolveVariable(String name) throws ELException {
-            if (!vars.containsKey(name)) {
-                throw new ELException(XLog.format("variable [{0}] cannot be resolved", name));
+            Object value = vars.get(name);
+            if (value == null && !vars.containsKey(name)) {
+                value = (conf != null) ? conf.getRaw(name) : null;
+                if (value == null) {
+                    value = sharedVars.get(name);
+                    if (value == null && !sharedVars.containsKey(name)) {
+                        throw new ELException(XLog.format("variable [{0}] cannot be resolved", name));
+                    }
+                }
             }
-            return vars.get(name);
+            return value;
         }
 
         /**
@@ -115,10 +171,23 @@ public class ELEvaluator {
             if (prefix.length() > 0) {
                 name = prefix + ":" + name;
             }
-            return functions.get(name);
+            Method method = functions.get(name);
+            return (method != null) ? method : sharedFunctions.get(name);
         }
     }
 
+    /**
+     * Maximum number of parsed expressions kept in the cache, the cache is cleared when it is full.
+     */
+    public static final int EXPRESSION_CACHE_SIZE = 10000;
+
+    private static final ConcurrentMap<String, Object> EXPRESSIONS = new ConcurrentHashMap<String, Object>();
+
+    // the parser does not cache, parsed expressions are cached in EXPRESSIONS
+    private static final ExpressionEvaluatorImpl PARSER = new ExpressionEvaluatorImpl(true);
+
+    private static final Logger EL_LOGGER = new Logger(System.err);
+
     private static ThreadLocal<ELEvaluator> current = new ThreadLocal<ELEvaluator>();
 
     /**
@@ -135,8 +204,6 @@ public class ELEvaluator {
 
     private Context context;
 
-    private ExpressionEvaluator evaluator = new ExpressionEvaluatorImpl();
-
     /**
      * Creates an ELEvaluator with no functions and no variables defined.
      */
@@ -182,6 +249,35 @@ public class ELEvaluator {
         return context.getVariable(name);
     }
 
+    /**
+     * Convenience method that sets the configuration whose properties are available as variables in the EL evaluator
+     * context. <p/>
+     *
+     * @param conf configuration.
+     */
+    public void setConfiguration(Configuration conf) {
+        context.setConfiguration(conf);
+    }
+
+    /**
+     * Return the parsed form of an EL expression, parsing it if it is not in the cache. <p/>
+     *
+     * @param expr EL expression.
+     * @return the parsed expression, a {@link String} if the expression does not have any EL.
+     * @throws ELException thrown if the expression could not be parsed.
+     */
+    static Object parse(String expr) throws ELException {
+        Object parsed = EXPRESSIONS.get(expr);
+        if (parsed == null) {
+            parsed = PARSER.parseExpressionString(expr);
+            if (EXPRESSIONS.size() >= EXPRESSION_CACHE_SIZE) {
+                EXPRESSIONS.clear();
+            }
+            EXPRESSIONS.put(expr, parsed);
+        }
+        return parsed;
+    }
+
     /**
      * Evaluate an EL expression. <p/>
      *
@@ -196,7 +292,18 @@ public class ELEvaluator {
         ELEvaluator existing = current.get();
         try {
             current.set(this);
-            return (T) evaluator.evaluate(expr, clazz, context, context);
+            Object parsed = parse(expr);
+            Object value;
+            if (parsed instanceof Expression) {
+                value = ((Expression) parsed).evaluate(context, context, EL_LOGGER);
+            }
+            else if (parsed instanceof ExpressionString) {
+                value = ((ExpressionString) parsed).evaluate(context, context, EL_LOGGER);
+            }
+            else {
+                value = parsed;
+            }
+            return (T) Coercions.coerce(value, clazz, EL_LOGGER);
         }
         catch (ELException ex) {
             if (ex.getRootCause() instanceof Exception) {
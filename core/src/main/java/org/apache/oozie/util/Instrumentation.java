@@ -27,9 +27,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -39,14 +41,12 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class Instrumentation {
     private ScheduledExecutorService scheduler;
-    private Lock counterLock;
-    private Lock timerLock;
     private Lock variableLock;
     private Lock samplerLock;
     private Configuration configuration;
     private Map<String, Map<String, Map<String, Object>>> all;
-    private Map<String, Map<String, Element<Long>>> counters;
-    private Map<String, Map<String, Element<Timer>>> timers;
+    private ConcurrentMap<String, ConcurrentMap<String, Element<Long>>> counters;
+    private ConcurrentMap<String, ConcurrentMap<String, Element<Timer>>> timers;
     private Map<String, Map<String, Element<Variable>>> variables;
     private Map<String, Map<String, Element<Double>>> samplers;
 
@@ -55,13 +55,11 @@ public class Instrumentation {
      */
     @SuppressWarnings("unchecked")
     public Instrumentation() {
-        counterLock = new ReentrantLock();
-        timerLock = new ReentrantLock();
         variableLock = new ReentrantLock();
         samplerLock = new ReentrantLock();
         all = new LinkedHashMap<String, Map<String, Map<String, Object>>>();
-        counters = new ConcurrentHashMap<String, Map<String, Element<Long>>>();
-        timers = new ConcurrentHashMap<String, Map<String, Element<Timer>>>();
+        counters = new ConcurrentHashMap<String, ConcurrentMap<String, Element<Long>>>();
+        timers = new ConcurrentHashMap<String, ConcurrentMap<String, Element<Timer>>>();
         variables = new ConcurrentHashMap<String, Map<String, Element<Variable>>>();
         samplers = new ConcurrentHashMap<String, Map<String, Element<Double>>>();
         all.put("variables", (Map<String, Map<String, Object>>) (Object) variables);
@@ -198,10 +196,161 @@ public class Instrumentation {
         T getValue();
     }
 
+    /**
+     * Striped long accumulator, it starts as a single atomic value and spreads the updates over padded cells, selected
+     * by thread, once concurrent updates collide. It is the equivalent of the JDK 8 <code>LongAdder</code>.
+     */
+    private static class Adder {
+        private static final int STRIDE = 8;
+        private static final int CELLS;
+
+        static {
+            int cells = 2;
+            while (cells < Runtime.getRuntime().availableProcessors() && cells < 64) {
+                cells <<= 1;
+            }
+            CELLS = cells;
+        }
+
+        private final AtomicLong base;
+        private volatile AtomicLongArray cells;
+
+        public Adder() {
+            this(0);
+        }
+
+        public Adder(long value) {
+            base = new AtomicLong(value);
+        }
+
+        public void add(long x) {
+            AtomicLongArray cs = cells;
+            if (cs == null) {
+                long b = base.get();
+                if (base.compareAndSet(b, b + x)) {
+                    return;
+                }
+                cs = inflate();
+            }
+            long id = Thread.currentThread().getId();
+            int index = (int) ((id ^ (id >>> 16)) * 0x9E3779B9L >>> 16) & (CELLS - 1);
+            cs.getAndAdd(index * STRIDE, x);
+        }
+
+        private synchronized AtomicLongArray inflate() {
+            if (cells == null) {
+                cells = new AtomicLongArray(CELLS * STRIDE);
+            }
+            return cells;
+        }
+
+        public long sum() {
+            long sum = base.get();
+            AtomicLongArray cs = cells;
+            if (cs != null) {
+                for (int i = 0; i < CELLS; i++) {
+                    sum += cs.get(i * STRIDE);
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Log-linear histogram of non negative values, each power of two range is split in {@link #SUB_BUCKETS} buckets,
+     * the values are recorded with a relative error under 1/{@link #SUB_BUCKETS}. Values above 2^{@link #MAX_BITS} are
+     * recorded in the last bucket.
+     */
+    private static class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int MAX_BITS = 40;
+        private static final int BUCKETS = SUB_BUCKETS + (MAX_BITS - SUB_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts;
+
+        public Histogram() {
+            counts = new AtomicLongArray(BUCKETS);
+        }
+
+        public Histogram(Histogram histogram) {
+            counts = new AtomicLongArray(BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, histogram.counts.get(i));
+            }
+        }
+
+        public void record(long value) {
+            counts.incrementAndGet(getBucket(value));
+        }
+
+        private static int getBucket(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) Math.max(0, value);
+            }
+            int msb = 63 - Long.numberOfLeadingZeros(value);
+            if (msb >= MAX_BITS) {
+                return BUCKETS - 1;
+            }
+            int shift = msb - SUB_BITS;
+            return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+        }
+
+        /**
+         * Return the highest value recorded in a bucket.
+         */
+        private static long getBucketMax(int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+            long sub = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+            return ((sub + 1) << shift) - 1;
+        }
+
+        public long getPercentile(double percentile, long max) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts.get(i);
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += counts.get(i);
+                if (count >= rank) {
+                    return Math.min(getBucketMax(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
     /**
      * Counter Instrumentation element.
+     * <p/>
+     * Counters can be obtained with {@link Instrumentation#getCounter} and kept by the caller to increment them
+     * without looking them up by group and name. This class is thread safe, increments do not lock.
      */
-    private static class Counter extends AtomicLong implements Element<Long> {
+    public static class Counter implements Element<Long> {
+        private final Adder value = new Adder();
+
+        /**
+         * Counter constructor. <p/> It is project private for test purposes.
+         */
+        Counter() {
+        }
+
+        /**
+         * Increment the counter.
+         *
+         * @param count increment to add to the counter.
+         */
+        public void incr(long count) {
+            value.add(count);
+        }
 
         /**
          * Return the counter snapshot.
@@ -209,7 +358,7 @@ public class Instrumentation {
          * @return the counter snapshot.
          */
         public Long getValue() {
-            return get();
+            return value.sum();
         }
 
         /**
@@ -218,30 +367,59 @@ public class Instrumentation {
          * @return the String representation of the counter value.
          */
         public String toString() {
-            return Long.toString(get());
+            return Long.toString(getValue());
         }
 
     }
 
     /**
      * Timer Instrumentation element.
+     * <p/>
+     * Besides the time aggregates, the timer keeps a log-linear histogram of the total times of its crons to give
+     * their percentiles, see {@link #getTotalPercentile}.
+     * <p/>
+     * Timers can be obtained with {@link Instrumentation#getTimer} and kept by the caller to add crons to them without
+     * looking them up by group and name. This class is thread safe, adding a cron does not lock.
      */
     public static class Timer implements Element<Timer> {
-        Lock lock = new ReentrantLock();
-        private long ownTime;
-        private long totalTime;
-        private long ticks;
-        private long ownSquareTime;
-        private long totalSquareTime;
-        private long ownMinTime;
-        private long ownMaxTime;
-        private long totalMinTime;
-        private long totalMaxTime;
+        private final Adder ownTime;
+        private final Adder totalTime;
+        private final Adder ticks;
+        private final Adder ownSquareTime;
+        private final Adder totalSquareTime;
+        private final AtomicLong ownMinTime;
+        private final AtomicLong ownMaxTime;
+        private final AtomicLong totalMinTime;
+        private final AtomicLong totalMaxTime;
+        private final Histogram totalHistogram;
 
         /**
          * Timer constructor. <p/> It is project private for test purposes.
          */
         Timer() {
+            ownTime = new Adder();
+            totalTime = new Adder();
+            ticks = new Adder();
+            ownSquareTime = new Adder();
+            totalSquareTime = new Adder();
+            ownMinTime = new AtomicLong(Long.MAX_VALUE);
+            ownMaxTime = new AtomicLong(Long.MIN_VALUE);
+            totalMinTime = new AtomicLong(Long.MAX_VALUE);
+            totalMaxTime = new AtomicLong(Long.MIN_VALUE);
+            totalHistogram = new Histogram();
+        }
+
+        private Timer(Timer timer) {
+            ticks = new Adder(timer.ticks.sum());
+            ownTime = new Adder(timer.ownTime.sum());
+            totalTime = new Adder(timer.totalTime.sum());
+            ownSquareTime = new Adder(timer.ownSquareTime.sum());
+            totalSquareTime = new Adder(timer.totalSquareTime.sum());
+            ownMinTime = new AtomicLong(timer.ownMinTime.get());
+            ownMaxTime = new AtomicLong(timer.ownMaxTime.get());
+            totalMinTime = new AtomicLong(timer.totalMinTime.get());
+            totalMaxTime = new AtomicLong(timer.totalMaxTime.get());
+            totalHistogram = new Histogram(timer.totalHistogram);
         }
 
         /**
@@ -250,7 +428,8 @@ public class Instrumentation {
          * @return the String representation of the timer value.
          */
         public String toString() {
-            return XLog.format("ticks[{0}] totalAvg[{1}] ownAvg[{2}]", ticks, getTotalAvg(), getOwnAvg());
+            return XLog.format("ticks[{0}] totalAvg[{1}] ownAvg[{2}] totalP99[{3}]", getTicks(), getTotalAvg(),
+                               getOwnAvg(), getTotalPercentile(99));
         }
 
         /**
@@ -259,55 +438,40 @@ public class Instrumentation {
          * @return the timer snapshot.
          */
         public Timer getValue() {
-            try {
-                lock.lock();
-                Timer timer = new Timer();
-                timer.ownTime = ownTime;
-                timer.totalTime = totalTime;
-                timer.ticks = ticks;
-                timer.ownSquareTime = ownSquareTime;
-                timer.totalSquareTime = totalSquareTime;
-                timer.ownMinTime = ownMinTime;
-                timer.ownMaxTime = ownMaxTime;
-                timer.totalMinTime = totalMinTime;
-                timer.totalMaxTime = totalMaxTime;
-                return timer;
-            }
-            finally {
-                lock.unlock();
-            }
+            return new Timer(this);
         }
 
         /**
-         * Add a cron to a timer. <p/> It is project private for test purposes.
+         * Add a cron to the timer.
          *
          * @param cron Cron to add.
          */
-        void addCron(Cron cron) {
-            try {
-                lock.lock();
-                long own = cron.getOwn();
-                long total = cron.getTotal();
-                ownTime += own;
-                totalTime += total;
-                ticks++;
-                ownSquareTime += own * own;
-                totalSquareTime += total * total;
-                if (ticks == 1) {
-                    ownMinTime = own;
-                    ownMaxTime = own;
-                    totalMinTime = total;
-                    totalMaxTime = total;
-                }
-                else {
-                    ownMinTime = Math.min(ownMinTime, own);
-                    ownMaxTime = Math.max(ownMaxTime, own);
-                    totalMinTime = Math.min(totalMinTime, total);
-                    totalMaxTime = Math.max(totalMaxTime, total);
-                }
+        public void addCron(Cron cron) {
+            long own = cron.getOwn();
+            long total = cron.getTotal();
+            ownTime.add(own);
+            totalTime.add(total);
+            ownSquareTime.add(own * own);
+            totalSquareTime.add(total * total);
+            setMin(ownMinTime, own);
+            setMax(ownMaxTime, own);
+            setMin(totalMinTime, total);
+            setMax(totalMaxTime, total);
+            totalHistogram.record(total);
+            ticks.add(1);
+        }
+
+        private static void setMin(AtomicLong min, long value) {
+            long current = min.get();
+            while (value < current && !min.compareAndSet(current, value)) {
+                current = min.get();
             }
-            finally {
-                lock.unlock();
+        }
+
+        private static void setMax(AtomicLong max, long value) {
+            long current = max.get();
+            while (value > current && !max.compareAndSet(current, value)) {
+                current = max.get();
             }
         }
 
@@ -317,7 +481,7 @@ public class Instrumentation {
          * @return own accumulated computing time by the timer.
          */
         public long getOwn() {
-            return ownTime;
+            return ownTime.sum();
         }
 
         /**
@@ -326,7 +490,7 @@ public class Instrumentation {
          * @return total accumulated computing time by the timer.
          */
         public long getTotal() {
-            return totalTime;
+            return totalTime.sum();
         }
 
         /**
@@ -335,7 +499,7 @@ public class Instrumentation {
          * @return the number of times a cron was added to the timer.
          */
         public long getTicks() {
-            return ticks;
+            return ticks.sum();
         }
 
         /**
@@ -344,7 +508,7 @@ public class Instrumentation {
          * @return the sum of the square own timer.
          */
         public long getOwnSquareSum() {
-            return ownSquareTime;
+            return ownSquareTime.sum();
         }
 
         /**
@@ -353,7 +517,7 @@ public class Instrumentation {
          * @return the sum of the square own timer.
          */
         public long getTotalSquareSum() {
-            return totalSquareTime;
+            return totalSquareTime.sum();
         }
 
         /**
@@ -362,7 +526,7 @@ public class Instrumentation {
          * @return the own minimum time.
          */
         public long getOwnMin() {
-            return ownMinTime;
+            return (getTicks() != 0) ? ownMinTime.get() : 0;
         }
 
         /**
@@ -371,7 +535,7 @@ public class Instrumentation {
          * @return the own maximum time.
          */
         public long getOwnMax() {
-            return ownMaxTime;
+            return (getTicks() != 0) ? ownMaxTime.get() : 0;
         }
 
         /**
@@ -380,7 +544,7 @@ public class Instrumentation {
          * @return the total minimum time.
          */
         public long getTotalMin() {
-            return totalMinTime;
+            return (getTicks() != 0) ? totalMinTime.get() : 0;
         }
 
         /**
@@ -389,7 +553,7 @@ public class Instrumentation {
          * @return the total maximum time.
          */
         public long getTotalMax() {
-            return totalMaxTime;
+            return (getTicks() != 0) ? totalMaxTime.get() : 0;
         }
 
         /**
@@ -398,7 +562,8 @@ public class Instrumentation {
          * @return the own average time.
          */
         public long getOwnAvg() {
-            return (ticks != 0) ? ownTime / ticks : 0;
+            long ticks = getTicks();
+            return (ticks != 0) ? getOwn() / ticks : 0;
         }
 
         /**
@@ -407,7 +572,18 @@ public class Instrumentation {
          * @return the total average time.
          */
         public long getTotalAvg() {
-            return (ticks != 0) ? totalTime / ticks : 0;
+            long ticks = getTicks();
+            return (ticks != 0) ? getTotal() / ticks : 0;
+        }
+
+        /**
+         * Returns a percentile of the total time, with a relative error under 4%.
+         *
+         * @param percentile percentile to return, between 0 and 100 (i.e. 99.9).
+         * @return the percentile of the total time.
+         */
+        public long getTotalPercentile(double percentile) {
+            return totalHistogram.getPercentile(percentile, getTotalMax());
         }
 
         /**
@@ -416,7 +592,7 @@ public class Instrumentation {
          * @return the total time standard deviation.
          */
         public double getTotalStdDev() {
-            return evalStdDev(ticks, totalTime, totalSquareTime);
+            return evalStdDev(getTicks(), getTotal(), getTotalSquareSum());
         }
 
         /**
@@ -425,7 +601,7 @@ public class Instrumentation {
          * @return the own time standard deviation.
          */
         public double getOwnStdDev() {
-            return evalStdDev(ticks, ownTime, ownSquareTime);
+            return evalStdDev(getTicks(), getOwn(), getOwnSquareSum());
         }
 
         private double evalStdDev(long n, long sn, long ssn) {
@@ -434,6 +610,28 @@ public class Instrumentation {
 
     }
 
+    /**
+     * Return an instrumentation timer. The timer is created if it does not exists. <p/> This method is thread safe.
+     * <p/>
+     * Callers adding crons often to the same timer should keep the returned timer and add the crons to it directly.
+     *
+     * @param group timer group.
+     * @param name timer name.
+     * @return the timer.
+     */
+    public Timer getTimer(String group, String name) {
+        ConcurrentMap<String, Element<Timer>> map = getGroup(timers, group);
+        Timer timer = (Timer) map.get(name);
+        if (timer == null) {
+            Timer newTimer = new Timer();
+            timer = (Timer) map.putIfAbsent(name, newTimer);
+            if (timer == null) {
+                timer = newTimer;
+            }
+        }
+        return timer;
+    }
+
     /**
      * Add a cron to an instrumentation timer. The timer is created if it does not exists. <p/> This method is thread
      * safe.
@@ -443,35 +641,30 @@ public class Instrumentation {
      * @param cron cron to add to the timer.
      */
     public void addCron(String group, String name, Cron cron) {
-        Map<String, Element<Timer>> map = timers.get(group);
-        if (map == null) {
-            try {
-                timerLock.lock();
-                map = timers.get(group);
-                if (map == null) {
-                    map = new HashMap<String, Element<Timer>>();
-                    timers.put(group, map);
-                }
-            }
-            finally {
-                timerLock.unlock();
-            }
-        }
-        Timer timer = (Timer) map.get(name);
-        if (timer == null) {
-            try {
-                timerLock.lock();
-                timer = (Timer) map.get(name);
-                if (timer == null) {
-                    timer = new Timer();
-                    map.put(name, timer);
-                }
-            }
-            finally {
-                timerLock.unlock();
+        getTimer(group, name).addCron(cron);
+    }
+
+    /**
+     * Return an instrumentation counter. The counter is created if it does not exists. <p/> This method is thread
+     * safe.
+     * <p/>
+     * Callers incrementing often the same counter should keep the returned counter and increment it directly.
+     *
+     * @param group counter group.
+     * @param name counter name.
+     * @return the counter.
+     */
+    public Counter getCounter(String group, String name) {
+        ConcurrentMap<String, Element<Long>> map = getGroup(counters, group);
+        Counter counter = (Counter) map.get(name);
+        if (counter == null) {
+            Counter newCounter = new Counter();
+            counter = (Counter) map.putIfAbsent(name, newCounter);
+            if (counter == null) {
+                counter = newCounter;
             }
         }
-        timer.addCron(cron);
+        return counter;
     }
 
     /**
@@ -483,35 +676,20 @@ public class Instrumentation {
      * @param count increment to add to the counter.
      */
     public void incr(String group, String name, long count) {
-        Map<String, Element<Long>> map = counters.get(group);
+        getCounter(group, name).incr(count);
+    }
+
+    private static <E> ConcurrentMap<String, E> getGroup(ConcurrentMap<String, ConcurrentMap<String, E>> elements,
+                                                         String group) {
+        ConcurrentMap<String, E> map = elements.get(group);
         if (map == null) {
-            try {
-                counterLock.lock();
-                map = counters.get(group);
-                if (map == null) {
-                    map = new HashMap<String, Element<Long>>();
-                    counters.put(group, map);
-                }
-            }
-            finally {
-                counterLock.unlock();
-            }
-        }
-        Counter counter = (Counter) map.get(name);
-        if (counter == null) {
-            try {
-                counterLock.lock();
-                counter = (Counter) map.get(name);
-                if (counter == null) {
-                    counter = new Counter();
-                    map.put(name, counter);
-                }
-            }
-            finally {
-                counterLock.unlock();
+            ConcurrentMap<String, E> newMap = new ConcurrentHashMap<String, E>();
+            map = elements.putIfAbsent(group, newMap);
+            if (map == null) {
+                map = newMap;
             }
         }
-        counter.addAndGet(count);
+        return map;
     }
 
     /**
@@ -655,8 +833,9 @@ public class Instrumentation {
      *
      * @return all counters.
      */
+    @SuppressWarnings("unchecked")
     public Map<String, Map<String, Element<Long>>> getCounters() {
-        return counters;
+        return (Map<String, Map<String, Element<Long>>>) (Object) counters;
     }
 
     /**
@@ -666,8 +845,9 @@ public class Instrumentation {
      *
      * @return all counters.
      */
+    @SuppressWarnings("unchecked")
     public Map<String, Map<String, Element<Timer>>> getTimers() {
-        return timers;
+        return (Map<String, Map<String, Element<Timer>>>) (Object) timers;
     }
 
     /**
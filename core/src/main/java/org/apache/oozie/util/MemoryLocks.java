@@ -14,31 +14,85 @@
  */
 package org.apache.oozie.util;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.Lock;
 
 /**
  * In memory resource locking that provides READ/WRITE lock capabilities.
+ * <p/>
+ * Locks are kept in a concurrent map, there is no global monitor. A lock entry is reference counted by the threads
+ * holding or waiting for it, it is removed from the map when the last reference is released. An entry that reached
+ * zero references is never handed out again, a new entry is created for the resource instead.
+ * <p/>
+ * The time spent waiting for locks is recorded in a histogram per lock type, see {@link #getWaitTimeHistogram}.
  */
 public class MemoryLocks {
-    final private HashMap<String, ReentrantReadWriteLock> locks = new HashMap<String, ReentrantReadWriteLock>();
 
-    private static enum Type {
+    /**
+     * Upper bounds, in milliseconds, of the lock wait time histogram buckets. The last bucket holds all the waits
+     * greater than the last bound.
+     */
+    public static final long[] WAIT_TIME_BUCKETS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    final private ConcurrentMap<String, LockEntry> locks = new ConcurrentHashMap<String, LockEntry>();
+
+    final private AtomicLongArray readWaits = new AtomicLongArray(WAIT_TIME_BUCKETS.length + 1);
+    final private AtomicLongArray writeWaits = new AtomicLongArray(WAIT_TIME_BUCKETS.length + 1);
+    final private AtomicLongArray timeouts = new AtomicLongArray(Type.values().length);
+
+    /**
+     * Lock type.
+     */
+    public static enum Type {
         READ, WRITE
     }
 
+    /**
+     * Lock table entry, the lock of a resource with its reference count and the reusable tokens for it.
+     */
+    private class LockEntry {
+        private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock(true);
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final LockToken readToken;
+        private final LockToken writeToken;
+
+        private LockEntry(String resource) {
+            readToken = new LockToken(this, rwLock.readLock(), resource);
+            writeToken = new LockToken(this, rwLock.writeLock(), resource);
+        }
+
+        /**
+         * Add a reference to the entry.
+         *
+         * @return <code>false</code> if the entry has been released by all its references and it cannot be used.
+         */
+        private boolean reference() {
+            int count = references.get();
+            while (count > 0) {
+                if (references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+                count = references.get();
+            }
+            return false;
+        }
+    }
+
     /**
      * Lock token returned when obtaining a lock, the token must be released when the lock is not needed anymore.
      */
     public class LockToken {
-        private final ReentrantReadWriteLock rwLock;
+        private final LockEntry entry;
         private final java.util.concurrent.locks.Lock lock;
         private final String resource;
 
-        private LockToken(ReentrantReadWriteLock rwLock, java.util.concurrent.locks.Lock lock, String resource) {
-            this.rwLock = rwLock;
+        private LockToken(LockEntry entry, java.util.concurrent.locks.Lock lock, String resource) {
+            this.entry = entry;
             this.lock = lock;
             this.resource = resource;
         }
@@ -47,13 +101,8 @@ public class MemoryLocks {
          * Release the lock.
          */
         public void release() {
-            int val = rwLock.getQueueLength();
-            if (val == 0) {
-                synchronized (locks) {
-                    locks.remove(resource);
-                }
-            }
             lock.unlock();
+            dereference(resource, entry);
         }
     }
 
@@ -66,6 +115,35 @@ public class MemoryLocks {
         return locks.size();
     }
 
+    /**
+     * Return a snapshot of the lock wait time histogram for a lock type.
+     * <p/>
+     * The value at index <code>i</code> is the number of lock acquisitions that waited up to
+     * <code>WAIT_TIME_BUCKETS[i]</code> milliseconds (and more than the previous bound), the last value is the number of
+     * acquisitions that waited longer than the last bound.
+     *
+     * @param type lock type.
+     * @return the lock wait time histogram.
+     */
+    public long[] getWaitTimeHistogram(Type type) {
+        AtomicLongArray waits = (type == Type.READ) ? readWaits : writeWaits;
+        long[] histogram = new long[waits.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = waits.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Return the number of lock requests of a lock type that were not granted within their wait time.
+     *
+     * @param type lock type.
+     * @return the number of lock requests that timed out.
+     */
+    public long getTimeouts(Type type) {
+        return timeouts.get(type.ordinal());
+    }
+
     /**
      * Obtain a READ lock for a source.
      *
@@ -91,40 +169,79 @@ public class MemoryLocks {
     }
 
     private LockToken getLock(String resource, Type type, long wait) throws InterruptedException {
-        ReentrantReadWriteLock lockEntry;
-        synchronized (locks) {
-            if (locks.containsKey(resource)) {
-                lockEntry = locks.get(resource);
+        LockEntry entry = reference(resource);
+        LockToken token = (type == Type.READ) ? entry.readToken : entry.writeToken;
+        Lock lock = token.lock;
+        boolean locked = false;
+        long start = System.nanoTime();
+        try {
+            if (wait == -1) {
+                lock.lock();
+                locked = true;
+            }
+            else if (wait > 0) {
+                locked = lock.tryLock(wait, TimeUnit.MILLISECONDS);
             }
             else {
-                lockEntry = new ReentrantReadWriteLock(true);
-                locks.put(resource, lockEntry);
+                locked = lock.tryLock();
             }
         }
-
-        Lock lock = (type.equals(Type.READ)) ? lockEntry.readLock() : lockEntry.writeLock();
-
-        if (wait == -1) {
-            lock.lock();
+        finally {
+            if (!locked) {
+                dereference(resource, entry);
+            }
+        }
+        if (locked) {
+            recordWait(type, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return token;
         }
-        else {
-            if (wait > 0) {
-                if (!lock.tryLock(wait, TimeUnit.MILLISECONDS)) {
-                    return null;
+        timeouts.incrementAndGet(type.ordinal());
+        return null;
+    }
+
+    /**
+     * Get the lock entry of a resource adding a reference to it, creating the entry if necessary.
+     *
+     * @param resource resource name.
+     * @return the referenced lock entry.
+     */
+    private LockEntry reference(String resource) {
+        while (true) {
+            LockEntry entry = locks.get(resource);
+            if (entry == null) {
+                entry = new LockEntry(resource);
+                LockEntry existing = locks.putIfAbsent(resource, entry);
+                if (existing == null) {
+                    return entry;
                 }
+                entry = existing;
             }
-            else {
-                if (!lock.tryLock()) {
-                    return null;
-                }
+            if (entry.reference()) {
+                return entry;
             }
+            // the entry is being removed, remove it if still there and try again
+            locks.remove(resource, entry);
         }
-        synchronized (locks) {
-            if (!locks.containsKey(resource)) {
-                locks.put(resource, lockEntry);
-            }
+    }
+
+    /**
+     * Release a reference to a lock entry, removing the entry if it was the last reference.
+     *
+     * @param resource resource name.
+     * @param entry lock entry.
+     */
+    private void dereference(String resource, LockEntry entry) {
+        if (entry.references.decrementAndGet() == 0) {
+            locks.remove(resource, entry);
+        }
+    }
+
+    private void recordWait(Type type, long millis) {
+        int bucket = 0;
+        while (bucket < WAIT_TIME_BUCKETS.length && millis > WAIT_TIME_BUCKETS[bucket]) {
+            bucket++;
         }
-        return new LockToken(lockEntry, lock, resource);
+        ((type == Type.READ) ? readWaits : writeWaits).incrementAndGet(bucket);
     }
 
 }
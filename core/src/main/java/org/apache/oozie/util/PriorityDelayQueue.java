@@ -57,9 +57,9 @@ public class PriorityDelayQueue<E> extends AbstractQueue<PriorityDelayQueue.Queu
      */
     public static class QueueElement<E> implements Delayed {
         private E element;
-        private int priority;
+        int priority;
         private long baseTime;
-        private boolean inQueue;
+        boolean inQueue;
 
         /**
          * Create an Element wrapper.
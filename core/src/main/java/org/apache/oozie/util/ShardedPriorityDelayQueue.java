@@ -0,0 +1,557 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
+
+/**
+ * A {@link PriorityDelayQueue} variant that spreads each priority over several independent sub-queues (shards).
+ * <p/>
+ * The {@link PriorityDelayQueue} serializes all polling and peeking operations through a single lock. This queue does
+ * not use a queue-wide lock, producers insert into the shard selected by their thread and consumers pick the oldest
+ * expired element among the shards of the highest priority that has one. Contention is limited to the lock of the
+ * individual <code>DelayQueue</code> shard being accessed.
+ * <p/>
+ * Priority, delay and anti-starvation semantics are the same as in the {@link PriorityDelayQueue}. The anti-starvation
+ * check is run by a single thread at a time (the one that wins the check interval), the other threads do not wait for
+ * it. Ordering among elements of the same priority with the same age is not guaranteed across shards.
+ * <p/>
+ * The queue size is tracked with an atomic counter, making {@link #size()} a constant time operation.
+ */
+public class ShardedPriorityDelayQueue<E> extends AbstractQueue<QueueElement<E>>
+        implements BlockingQueue<QueueElement<E>> {
+
+    private int priorities;
+    private int shards;
+    private DelayQueue<QueueElement<E>>[][] queues;
+    private final AtomicLong lastAntiStarvationCheck = new AtomicLong();
+    private long maxWait;
+    private int maxSize;
+    private final AtomicInteger currentSize = new AtomicInteger();
+
+    /**
+     * Create a <code>ShardedPriorityDelayQueue</code>.
+     *
+     * @param priorities number of priorities the queue will support.
+     * @param shards number of sub-queues per priority.
+     * @param maxWait max wait time for elements before they are promoted to the next higher priority.
+     * @param unit time unit of the max wait time.
+     * @param maxSize maximum size of the queue, -1 means unbounded.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedPriorityDelayQueue(int priorities, int shards, long maxWait, TimeUnit unit, int maxSize) {
+        if (priorities < 1) {
+            throw new IllegalArgumentException("priorities must be 1 or more");
+        }
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be 1 or more");
+        }
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("maxWait must be greater than 0");
+        }
+        if (maxSize < -1 || maxSize == 0) {
+            throw new IllegalArgumentException("maxSize must be -1 or greater than 0");
+        }
+        this.priorities = priorities;
+        this.shards = shards;
+        queues = new DelayQueue[priorities][shards];
+        for (int i = 0; i < priorities; i++) {
+            for (int j = 0; j < shards; j++) {
+                queues[i][j] = new DelayQueue<QueueElement<E>>();
+            }
+        }
+        this.maxWait = unit.toMillis(maxWait);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return number of priorities the queue supports.
+     *
+     * @return number of priorities the queue supports.
+     */
+    public int getPriorities() {
+        return priorities;
+    }
+
+    /**
+     * Return number of sub-queues per priority.
+     *
+     * @return number of sub-queues per priority.
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Return the max wait time for elements before they are promoted to the next higher priority.
+     *
+     * @param unit time unit of the max wait time.
+     *
+     * @return the max wait time in the specified time unit.
+     */
+    public long getMaxWait(TimeUnit unit) {
+        return unit.convert(maxWait, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Return the maximum queue size.
+     *
+     * @return the maximum queue size. If <code>-1</code> the queue is unbounded.
+     */
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Return an iterator over all the {@link QueueElement} elements (both expired and unexpired) in this queue. The
+     * iterator does not return the elements in any particular order. The iterator works on a snapshot of the
+     * sub-queues, taken one sub-queue at a time.
+     *
+     * @return an iterator over the {@link QueueElement} elements in this queue.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<QueueElement<E>> iterator() {
+        List<QueueElement<E>> list = new ArrayList<QueueElement<E>>();
+        for (DelayQueue<QueueElement<E>>[] priorityQueues : queues) {
+            for (DelayQueue<QueueElement<E>> queue : priorityQueues) {
+                list.addAll(Arrays.asList((QueueElement<E>[]) queue.toArray(new QueueElement[0])));
+            }
+        }
+        return list.iterator();
+    }
+
+    /**
+     * Return the number of elements in the queue.
+     *
+     * @return the number of elements in the queue.
+     */
+    @Override
+    public int size() {
+        return currentSize.get();
+    }
+
+    /**
+     * Return the number of elements on each priority, adding up all the sub-queues of the priority.
+     *
+     * @return the number of elements on each priority.
+     */
+    public int[] sizes() {
+        int[] sizes = new int[priorities];
+        for (int i = 0; i < priorities; i++) {
+            for (DelayQueue<QueueElement<E>> queue : queues[i]) {
+                sizes[i] += queue.size();
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Inserts the specified element into this queue if it is possible to do so immediately without violating capacity
+     * restrictions, returning <tt>true</tt> upon success.
+     *
+     * @param queueElement the {@link QueueElement} element to add.
+     * @return <tt>true</tt> if the element has been inserted, <tt>false</tt> if the queue has reached its maximum
+     *         size.
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public boolean add(QueueElement<E> queueElement) {
+        return offer(queueElement, false);
+    }
+
+    /**
+     * Insert the specified {@link QueueElement} element into the queue.
+     * <p/>
+     * The size check and the size increment are done atomically, the queue never goes over its maximum size unless
+     * <code>ignoreSize</code> is used.
+     *
+     * @param queueElement the {@link QueueElement} element to add.
+     * @param ignoreSize if the queue is bound to a maximum size and the maximum size is reached, this parameter (if set
+     * to <tt>true</tt>) allows to ignore the maximum size and add the element to the queue.
+     *
+     * @return <tt>true</tt> if the element has been inserted, <tt>false</tt> if the element was not inserted (the queue
+     *         has reached its maximum size).
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    boolean offer(QueueElement<E> queueElement, boolean ignoreSize) {
+        if (queueElement == null) {
+            throw new NullPointerException("queueElement is NULL");
+        }
+        if (queueElement.getPriority() < 0 || queueElement.getPriority() >= priorities) {
+            throw new IllegalArgumentException("priority out of range");
+        }
+        if (queueElement.inQueue) {
+            throw new IllegalStateException("queueElement already in a queue");
+        }
+        if (!ignoreSize && maxSize != -1) {
+            int size;
+            do {
+                size = currentSize.get();
+                if (size >= maxSize) {
+                    return false;
+                }
+            } while (!currentSize.compareAndSet(size, size + 1));
+        }
+        else {
+            currentSize.incrementAndGet();
+        }
+        queueElement.inQueue = true;
+        int shard = getShard();
+        queues[queueElement.getPriority()][shard].offer(queueElement);
+        debug("offer([{0}]), to P[{1}] S[{2}] delay[{3}ms]", queueElement.getElement().toString(),
+              queueElement.getPriority(), shard, queueElement.getDelay(TimeUnit.MILLISECONDS));
+        return true;
+    }
+
+    /**
+     * Insert the specified element into the queue.
+     *
+     * @param queueElement the element to add.
+     *
+     * @return <tt>true</tt> if the element has been inserted, <tt>false</tt> if the element was not inserted (the queue
+     *         has reached its maximum size).
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    public boolean offer(QueueElement<E> queueElement) {
+        return offer(queueElement, false);
+    }
+
+    /**
+     * Return the sub-queue index for the current thread.
+     *
+     * @return the sub-queue index for the current thread.
+     */
+    private int getShard() {
+        return (int) (Thread.currentThread().getId() % shards);
+    }
+
+    /**
+     * Retrieve and remove the head of this queue, or return <tt>null</tt> if this queue has no elements with an expired
+     * delay.
+     * <p/>
+     * The retrieved element is the oldest one among the sub-queues of the highest priority with expired elements.
+     * <p/>
+     * Invocations to this method run the anti-starvation (once every interval check).
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue has no elements with an expired delay.
+     */
+    @Override
+    public QueueElement<E> poll() {
+        antiStarvation();
+        QueueElement<E> e = null;
+        int i = priorities;
+        for (; e == null && i > 0; i--) {
+            e = pollOldest(queues[i - 1]);
+        }
+        if (e != null) {
+            currentSize.decrementAndGet();
+            e.inQueue = false;
+            debug("poll(): [{0}], from P[{1}]", e.getElement().toString(), i);
+        }
+        return e;
+    }
+
+    /**
+     * Retrieve and remove the oldest expired element from a set of sub-queues.
+     * <p/>
+     * If another thread takes the selected element first, the sub-queues are inspected again.
+     *
+     * @param priorityQueues sub-queues of a priority.
+     * @return the oldest expired element, or <tt>null</tt> if none of the sub-queues has an expired element.
+     */
+    private QueueElement<E> pollOldest(DelayQueue<QueueElement<E>>[] priorityQueues) {
+        int start = getShard();
+        while (true) {
+            DelayQueue<QueueElement<E>> oldest = null;
+            long oldestDelay = 0;
+            for (int i = 0; i < shards; i++) {
+                DelayQueue<QueueElement<E>> queue = priorityQueues[(start + i) % shards];
+                QueueElement<E> head = queue.peek();
+                if (head != null) {
+                    long delay = head.getDelay(TimeUnit.MILLISECONDS);
+                    if (delay <= 0 && (oldest == null || delay < oldestDelay)) {
+                        oldest = queue;
+                        oldestDelay = delay;
+                    }
+                }
+            }
+            if (oldest == null) {
+                return null;
+            }
+            QueueElement<E> e = oldest.poll();
+            if (e != null) {
+                return e;
+            }
+        }
+    }
+
+    /**
+     * Retrieve, but does not remove, the head of this queue, or returns <tt>null</tt> if this queue is empty.  Unlike
+     * <tt>poll</tt>, if no expired elements are available in the queue, this method returns the element that will
+     * expire next, if one exists.
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue is empty.
+     */
+    @Override
+    public QueueElement<E> peek() {
+        antiStarvation();
+        QueueElement<E> next = null;
+        for (int i = priorities - 1; i > -1; i--) {
+            QueueElement<E> oldest = null;
+            for (DelayQueue<QueueElement<E>> queue : queues[i]) {
+                QueueElement<E> e = queue.peek();
+                if (e != null) {
+                    long delay = e.getDelay(TimeUnit.MILLISECONDS);
+                    if (delay <= 0 && (oldest == null || delay < oldest.getDelay(TimeUnit.MILLISECONDS))) {
+                        oldest = e;
+                    }
+                    if (next == null || delay < next.getDelay(TimeUnit.MILLISECONDS)) {
+                        next = e;
+                    }
+                }
+            }
+            if (oldest != null) {
+                debug("peek(): [{0}], from P[{1}]", oldest.getElement().toString(), i);
+                return oldest;
+            }
+        }
+        if (next != null) {
+            debug("peek(): [{0}], from P[{1}]", next.getElement().toString(), next.getPriority());
+        }
+        else {
+            debug("peek(): NULL");
+        }
+        return next;
+    }
+
+    /**
+     * Run the anti-starvation check every {@link PriorityDelayQueue#ANTI_STARVATION_INTERVAL} milliseconds.
+     * <p/>
+     * It promotes elements beyond max wait time to the same sub-queue of the next higher priority.
+     * <p/>
+     * Only the thread that updates the last check time runs the check, concurrent callers return immediately.
+     */
+    private void antiStarvation() {
+        long now = System.currentTimeMillis();
+        long lastCheck = lastAntiStarvationCheck.get();
+        if (now - lastCheck > PriorityDelayQueue.ANTI_STARVATION_INTERVAL &&
+            lastAntiStarvationCheck.compareAndSet(lastCheck, now)) {
+            for (int i = 0; i < priorities - 1; i++) {
+                int moved = 0;
+                for (int j = 0; j < shards; j++) {
+                    moved += antiStarvation(queues[i][j], queues[i + 1][j]);
+                }
+                debug("anti-starvation, moved {0} element(s) from P[{1}] to P[{2}]", moved, i, i + 1);
+            }
+            debug("sub-queue sizes: {0}", Arrays.toString(sizes()));
+        }
+    }
+
+    /**
+     * Promote elements beyond max wait time from a lower priority sub-queue to a higher priority sub-queue.
+     *
+     * @param lowerQ lower priority sub-queue.
+     * @param higherQ higher priority sub-queue.
+     * @return the number of elements moved.
+     */
+    private int antiStarvation(DelayQueue<QueueElement<E>> lowerQ, DelayQueue<QueueElement<E>> higherQ) {
+        int moved = 0;
+        QueueElement<E> e = lowerQ.peek();
+        while (e != null && e.getDelay(TimeUnit.MILLISECONDS) < -maxWait) {
+            e = lowerQ.poll();
+            if (e == null) {
+                break;
+            }
+            if (e.getDelay(TimeUnit.MILLISECONDS) < -maxWait) {
+                e.setDelay(0, TimeUnit.MILLISECONDS);
+                e.priority++;
+                if (!higherQ.offer(e)) {
+                    throw new IllegalStateException("Could not move element to higher sub-queue, element rejected");
+                }
+                moved++;
+            }
+            else {
+                // a consumer took the starving element first, this one is not starving yet
+                if (!lowerQ.offer(e)) {
+                    throw new IllegalStateException("Could not reinsert element to current sub-queue, element rejected");
+                }
+                break;
+            }
+            e = lowerQ.peek();
+        }
+        return moved;
+    }
+
+    /**
+     * Method for debugging purposes. This implementation is a <tt>NOP</tt>.
+     * <p/>
+     * This method should be overriden for logging purposes.
+     * <p/>
+     * Message templates used by this class are in JDK's <tt>MessageFormat</tt> syntax.
+     *
+     * @param msgTemplate message template.
+     * @param msgArgs arguments for the message template.
+     */
+    protected void debug(String msgTemplate, Object... msgArgs) {
+    }
+
+    //BlockingQueue implementation
+
+    /**
+     * Insert the specified element into this queue, waiting if necessary for space to become available.
+     *
+     * @param e the element to add
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public void put(QueueElement<E> e) throws InterruptedException {
+        while (!offer(e, true)) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Insert the specified element into this queue.
+     * <p/>
+     * IMPORTANT: As with the {@link PriorityDelayQueue}, this implementation forces the addition of the element to the
+     * queue regardless of the queue current size. The timeout value is ignored as the element is added immediately.
+     *
+     * @param e the element to add
+     * @param timeout ignored.
+     * @param unit ignored.
+     * @return <tt>true</tt>
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public boolean offer(QueueElement<E> e, long timeout, TimeUnit unit) throws InterruptedException {
+        return offer(e, true);
+    }
+
+    /**
+     * Retrieve and removes the head of this queue, waiting if necessary until an element becomes available.
+     * <p/>
+     * IMPORTANT: This implementation has a delay of up to 10ms (when the queue is empty) to detect a new element
+     * is available. It is doing a 10ms sleep.
+     *
+     * @return the head of this queue
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public QueueElement<E> take() throws InterruptedException {
+        QueueElement<E> e = poll();
+        while (e == null) {
+            Thread.sleep(10);
+            e = poll();
+        }
+        return e;
+    }
+
+    /**
+     * Retrieve and removes the head of this queue, waiting up to the specified wait time if necessary for an element
+     * to become available.
+     *
+     * @param timeout how long to wait before giving up, in units of <tt>unit</tt>
+     * @param unit a <tt>TimeUnit</tt> determining how to interpret the <tt>timeout</tt> parameter
+     * @return the head of this queue, or <tt>null</tt> if the specified waiting time elapses before an element is
+     *         available
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Override
+    public QueueElement<E> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        QueueElement<E> e = poll();
+        long time = System.currentTimeMillis() + unit.toMillis(timeout);
+        while (e == null && time > System.currentTimeMillis()) {
+            Thread.sleep(10);
+            e = poll();
+        }
+        return e;
+    }
+
+    /**
+     * Return the number of additional elements that this queue can accept without blocking, or <tt>-1</tt> if the
+     * queue is unbounded.
+     *
+     * @return the remaining capacity
+     */
+    @Override
+    public int remainingCapacity() {
+        return (maxSize == -1) ? -1 : maxSize - size();
+    }
+
+    /**
+     * Remove all available (expired) elements from this queue and adds them to the given collection.
+     *
+     * @param c the collection to transfer elements into
+     * @return the number of elements transferred
+     */
+    @Override
+    public int drainTo(Collection<? super QueueElement<E>> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Remove at most the given number of available (expired) elements from this queue and adds them to the given
+     * collection.
+     *
+     * @param c the collection to transfer elements into
+     * @param maxElements the maximum number of elements to transfer
+     * @return the number of elements transferred
+     */
+    @Override
+    public int drainTo(Collection<? super QueueElement<E>> c, int maxElements) {
+        int count = 0;
+        QueueElement<E> e;
+        while (count < maxElements && (e = poll()) != null) {
+            c.add(e);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Removes all of the elements from this queue.
+     */
+    @Override
+    public void clear() {
+        for (DelayQueue<QueueElement<E>>[] priorityQueues : queues) {
+            for (DelayQueue<QueueElement<E>> queue : priorityQueues) {
+                List<QueueElement<E>> removed = new ArrayList<QueueElement<E>>(queue);
+                for (QueueElement<E> e : removed) {
+                    if (queue.remove(e)) {
+                        e.inQueue = false;
+                        currentSize.decrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+}
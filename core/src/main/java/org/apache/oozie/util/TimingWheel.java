@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hashed timing wheel that keeps keys by deadline.
+ * <p/>
+ * The wheel has a fixed number of slots, each slot covers one tick of time. A key is placed in the slot of its
+ * deadline tick modulo the number of slots, keys with deadlines further away than a full turn of the wheel share the
+ * slot and are skipped until their turn comes.
+ * <p/>
+ * Scheduling, rescheduling and removing a key are constant time operations. Expiring keys only visits the slots
+ * between the last expiration and the current time.
+ * <p/>
+ * A key is scheduled at most once, scheduling a key already in the wheel replaces its deadline.
+ * <p/>
+ * This class is thread safe.
+ */
+public class TimingWheel<K> {
+
+    private static class Entry {
+        private long deadline;
+        private int slot;
+
+        private Entry(long deadline, int slot) {
+            this.deadline = deadline;
+            this.slot = slot;
+        }
+    }
+
+    private final long tick;
+    private final Set<K>[] slots;
+    private final Map<K, Entry> entries = new HashMap<K, Entry>();
+    private long cursor;
+
+    /**
+     * Create a timing wheel.
+     *
+     * @param slots number of slots of the wheel.
+     * @param tick time covered by each slot.
+     * @param unit time unit of the tick.
+     * @param now current time in milliseconds, the wheel starts expiring from it.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slots, long tick, TimeUnit unit, long now) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("slots must be 1 or more");
+        }
+        if (tick < 1) {
+            throw new IllegalArgumentException("tick must be greater than 0");
+        }
+        this.tick = unit.toMillis(tick);
+        if (this.tick < 1) {
+            throw new IllegalArgumentException("tick must be 1 millisecond or more");
+        }
+        this.slots = new Set[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new LinkedHashSet<K>();
+        }
+        cursor = now / this.tick;
+    }
+
+    private int index(long tickNumber) {
+        return (int) (tickNumber % slots.length);
+    }
+
+    /**
+     * Schedule a key, if the key is already in the wheel its deadline is replaced.
+     * <p/>
+     * Deadlines in the past are expired in the next {@link #expire} call.
+     *
+     * @param key key to schedule.
+     * @param deadline deadline of the key in milliseconds.
+     */
+    public synchronized void schedule(K key, long deadline) {
+        ParamChecker.notNull(key, "key");
+        remove(key);
+        int slot = index(Math.max(deadline / tick, cursor));
+        slots[slot].add(key);
+        entries.put(key, new Entry(deadline, slot));
+    }
+
+    /**
+     * Remove a key from the wheel.
+     *
+     * @param key key to remove.
+     * @return <code>true</code> if the key was in the wheel.
+     */
+    public synchronized boolean remove(K key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            slots[entry.slot].remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return if a key is in the wheel.
+     *
+     * @param key key to check.
+     * @return <code>true</code> if the key is in the wheel.
+     */
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Return the number of keys in the wheel.
+     *
+     * @return the number of keys in the wheel.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Return a snapshot of the keys in the wheel.
+     *
+     * @return the keys in the wheel.
+     */
+    public synchronized Set<K> keys() {
+        return new HashSet<K>(entries.keySet());
+    }
+
+    /**
+     * Remove all the keys from the wheel.
+     */
+    public synchronized void clear() {
+        for (Set<K> slot : slots) {
+            slot.clear();
+        }
+        entries.clear();
+    }
+
+    /**
+     * Remove and return the keys with a deadline up to the given time, in slot order.
+     * <p/>
+     * At most <code>max</code> keys are returned, keys not returned because of the limit remain in the wheel and they
+     * are returned by the following invocations before any newer key.
+     *
+     * @param now current time in milliseconds.
+     * @param max maximum number of keys to return.
+     * @return the expired keys.
+     */
+    public synchronized List<K> expire(long now, int max) {
+        List<K> expired = new ArrayList<K>();
+        long nowTick = now / tick;
+        // visiting a full turn of the wheel covers all the slots, no need to go around again
+        long last = Math.min(nowTick, cursor + slots.length - 1);
+        while (cursor <= last) {
+            Iterator<K> it = slots[index(cursor)].iterator();
+            while (it.hasNext()) {
+                K key = it.next();
+                if (entries.get(key).deadline <= now) {
+                    if (expired.size() == max) {
+                        return expired;
+                    }
+                    it.remove();
+                    entries.remove(key);
+                    expired.add(key);
+                }
+            }
+            if (cursor == nowTick) {
+                // the current tick is not over, keys may still become due in it
+                break;
+            }
+            cursor++;
+        }
+        if (cursor < nowTick) {
+            cursor = nowTick;
+        }
+        return expired;
+    }
+
+}
@@ -0,0 +1,349 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sidecar index of a rotated Oozie log file, it maps the values of a log info parameter (i.e. the job ID) to the byte
+ * ranges of the log file holding the log statements with that value.
+ * <p/>
+ * The index is stored next to the log file, in a hidden file named <code>.[LOG FILE NAME].idx</code>. It is a text
+ * file with a header line followed by one line per value, sorted by value, <code>[VALUE] TAB [START]-[END],...</code>,
+ * so a value is looked up with a binary search without loading the index.
+ * <p/>
+ * Ranges start at the beginning of a log statement and end after its last line, multi line statements included.
+ * Ranges closer than {@link #MERGE_GAP} bytes are merged, the ranges are a superset of the log statements of a value
+ * and the log filter must still be applied to them.
+ * <p/>
+ * The header records the length and modification time of the log file, the index is ignored if the log file changed
+ * after it was built. Only log files that are not written anymore (rotated) should be indexed.
+ */
+public class XLogIndex {
+
+    /**
+     * Suffix of the index files.
+     */
+    public static final String INDEX_SUFFIX = ".idx";
+
+    /**
+     * Max gap, in bytes, between two ranges of the same value to merge them.
+     */
+    public static final long MERGE_GAP = 64 * 1024;
+
+    private static final String HEADER = "#XLogIndex";
+    private static final String VERSION = "1";
+    private static final String CHARSET = "ISO-8859-1";
+    private static final int MAX_PREFIX = 4096;
+    private static final int SEARCH_WINDOW = 8 * 1024;
+    private static final String TIMESTAMP_FORMAT = "dddd-dd-dd dd:dd:dd,ddd";
+
+    private final File logFile;
+    private final File indexFile;
+    private final String parameter;
+
+    /**
+     * Create an index for a log file.
+     *
+     * @param logFile log file.
+     * @param parameter log info parameter the index is built for.
+     */
+    public XLogIndex(File logFile, String parameter) {
+        this.logFile = ParamChecker.notNull(logFile, "logFile");
+        this.parameter = ParamChecker.notEmpty(parameter, "parameter");
+        indexFile = getIndexFile(logFile);
+    }
+
+    /**
+     * Return the index file of a log file.
+     *
+     * @param logFile log file.
+     * @return the index file of the log file.
+     */
+    public static File getIndexFile(File logFile) {
+        return new File(logFile.getParentFile(), "." + logFile.getName() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Return the index file.
+     *
+     * @return the index file.
+     */
+    public File getIndexFile() {
+        return indexFile;
+    }
+
+    /**
+     * Check if the index exists and it is up to date with the log file.
+     *
+     * @return <code>true</code> if the index can be used.
+     */
+    public boolean isValid() {
+        try {
+            return readHeader() != null;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Build the index scanning the log file once.
+     * <p/>
+     * The index is written to a temporary file and renamed, readers never see a partial index.
+     *
+     * @return the number of values indexed.
+     * @throws IOException thrown if the index could not be built.
+     */
+    public int build() throws IOException {
+        long length = logFile.length();
+        long modified = logFile.lastModified();
+        Map<String, List<long[]>> index = scan(length);
+        File tmp = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), CHARSET));
+        try {
+            writer.write(HEADER + " " + VERSION + " " + parameter + " " + length + " " + modified + "\n");
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, List<long[]>> entry : index.entrySet()) {
+                sb.setLength(0);
+                sb.append(entry.getKey()).append('\t');
+                String separator = "";
+                for (long[] range : entry.getValue()) {
+                    sb.append(separator).append(range[0]).append('-').append(range[1]);
+                    separator = ",";
+                }
+                writer.write(sb.append('\n').toString());
+            }
+        }
+        finally {
+            writer.close();
+        }
+        if (!tmp.renameTo(indexFile)) {
+            indexFile.delete();
+            if (!tmp.renameTo(indexFile)) {
+                tmp.delete();
+                throw new IOException(XLog.format("Could not rename log index [{0}]", tmp));
+            }
+        }
+        return index.size();
+    }
+
+    /**
+     * Return the byte ranges of the log file holding the log statements of a value.
+     *
+     * @param value value of the log info parameter.
+     * @return the byte ranges, as <code>{start, end}</code> pairs, an empty list if the value is not in the log file,
+     *         or <code>null</code> if the index cannot be used.
+     * @throws IOException thrown if the index could not be read.
+     */
+    public List<long[]> getRanges(String value) throws IOException {
+        ParamChecker.notEmpty(value, "value");
+        String header = readHeader();
+        if (header == null) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<long[]>();
+        RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+        try {
+            long lo = header.length() + 1;
+            long hi = raf.length();
+            // narrow down the window holding the value, lo is always the start of a line
+            while (hi - lo > SEARCH_WINDOW) {
+                long mid = (lo + hi) >>> 1;
+                String partial = readLine(raf, mid - 1);
+                long start = mid + partial.length();
+                if (start >= hi) {
+                    break;
+                }
+                if (getKey(readLine(raf, start)).compareTo(value) <= 0) {
+                    lo = start;
+                }
+                else {
+                    hi = start;
+                }
+            }
+            long pos = lo;
+            while (pos < hi) {
+                String line = readLine(raf, pos);
+                int cmp = getKey(line).compareTo(value);
+                if (cmp == 0) {
+                    for (String range : line.substring(line.indexOf('\t') + 1).split(",")) {
+                        int dash = range.indexOf('-');
+                        ranges.add(new long[]{Long.parseLong(range.substring(0, dash)),
+                                Long.parseLong(range.substring(dash + 1))});
+                    }
+                    break;
+                }
+                if (cmp > 0) {
+                    break;
+                }
+                pos += line.length() + 1;
+            }
+        }
+        finally {
+            raf.close();
+        }
+        return ranges;
+    }
+
+    private String readHeader() throws IOException {
+        if (!indexFile.exists()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+        try {
+            String header = readLine(raf, 0);
+            String expected = HEADER + " " + VERSION + " " + parameter + " " + logFile.length() + " "
+                    + logFile.lastModified();
+            return (header.equals(expected)) ? header : null;
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    private static String getKey(String line) {
+        int tab = line.indexOf('\t');
+        return (tab > -1) ? line.substring(0, tab) : line;
+    }
+
+    /**
+     * Read the line starting at the given position, without the line separator. At EOF it returns an empty string.
+     */
+    private static String readLine(RandomAccessFile raf, long pos) throws IOException {
+        raf.seek(pos);
+        StringBuilder sb = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        int read = raf.read(buffer);
+        while (read > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    return sb.append(new String(buffer, 0, i, CHARSET)).toString();
+                }
+            }
+            sb.append(new String(buffer, 0, read, CHARSET));
+            read = raf.read(buffer);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Scan the log file collecting the ranges of each value, it does not use regular expressions, only the timestamp
+     * prefix of the lines and the <code>[PARAMETER][</code> token are looked at.
+     */
+    private Map<String, List<long[]>> scan(long length) throws IOException {
+        Map<String, List<long[]>> index = new TreeMap<String, List<long[]>>();
+        byte[] token = (" " + parameter + "[").getBytes(CHARSET);
+        byte[] prefix = new byte[MAX_PREFIX];
+        int prefixLength = 0;
+        long lineStart = 0;
+        long statementStart = 0;
+        String statementValue = null;
+        InputStream is = new FileInputStream(logFile);
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            long pos = 0;
+            int read = is.read(buffer, 0, (int) Math.min(buffer.length, length));
+            while (read > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (prefixLength < MAX_PREFIX) {
+                        prefix[prefixLength++] = b;
+                    }
+                    pos++;
+                    if (b == '\n' || pos == length) {
+                        if (isStatementStart(prefix, prefixLength)) {
+                            addRange(index, statementValue, statementStart, lineStart);
+                            statementStart = lineStart;
+                            statementValue = getValue(prefix, prefixLength, token);
+                        }
+                        lineStart = pos;
+                        prefixLength = 0;
+                    }
+                }
+                read = is.read(buffer, 0, (int) Math.min(buffer.length, length - pos));
+            }
+            addRange(index, statementValue, statementStart, lineStart);
+        }
+        finally {
+            is.close();
+        }
+        return index;
+    }
+
+    private static void addRange(Map<String, List<long[]>> index, String value, long start, long end) {
+        if (value != null && end > start) {
+            List<long[]> ranges = index.get(value);
+            if (ranges == null) {
+                ranges = new ArrayList<long[]>();
+                index.put(value, ranges);
+            }
+            long[] last = (ranges.isEmpty()) ? null : ranges.get(ranges.size() - 1);
+            if (last != null && start - last[1] <= MERGE_GAP) {
+                last[1] = end;
+            }
+            else {
+                ranges.add(new long[]{start, end});
+            }
+        }
+    }
+
+    private static boolean isStatementStart(byte[] line, int length) {
+        if (length < TIMESTAMP_FORMAT.length()) {
+            return false;
+        }
+        for (int i = 0; i < TIMESTAMP_FORMAT.length(); i++) {
+            char c = TIMESTAMP_FORMAT.charAt(i);
+            byte b = line[i];
+            if ((c == 'd') ? (b < '0' || b > '9') : (b != c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getValue(byte[] line, int length, byte[] token) throws IOException {
+        for (int i = 0; i + token.length <= length; i++) {
+            boolean found = true;
+            for (int j = 0; j < token.length && found; j++) {
+                found = line[i + j] == token[j];
+            }
+            if (found) {
+                int start = i + token.length;
+                for (int end = start; end < length; end++) {
+                    if (line[end] == ']') {
+                        String value = new String(line, start, end - start, CHARSET);
+                        return (value.length() == 0 || value.equals("-")) ? null : value;
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+
+}
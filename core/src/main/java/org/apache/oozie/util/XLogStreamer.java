@@ -16,6 +16,7 @@ package org.apache.oozie.util;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
@@ -90,6 +91,17 @@ public class XLogStreamer {
             }
         }
 
+        /**
+         * Return the value of a filter parameter.
+         *
+         * @param filterParam filter parameter.
+         * @return the value of the parameter, <code>null</code> if the parameter has not been set.
+         */
+        public String getParameter(String filterParam) {
+            String value = filterParams.get(filterParam);
+            return (value == null || value.equals(DEFAULT_REGEX)) ? null : value;
+        }
+
         public static void defineParameter(String filterParam) {
             parameters.add(filterParam);
         }
@@ -173,8 +185,29 @@ public class XLogStreamer {
     private Filter logFilter;
     private Writer logWriter;
     private long logRotation;
+    private String indexParameter;
 
     public XLogStreamer(Filter logFilter, Writer logWriter, String logPath, String logFile, long logRotationSecs) {
+        this(logFilter, logWriter, logPath, logFile, logRotationSecs, null);
+    }
+
+    /**
+     * Create a log streamer using the log indexes of the rotated log files, see {@link XLogIndex}.
+     * <p/>
+     * If the filter has a literal value for the index parameter, the rotated log files with an up to date index are
+     * read only in the byte ranges given by the index. The current log file and the log files without an index are
+     * fully scanned.
+     *
+     * @param logFilter log filter.
+     * @param logWriter writer to stream the log to.
+     * @param logPath log directory.
+     * @param logFile log file name.
+     * @param logRotationSecs log rotation period in seconds.
+     * @param indexParameter log info parameter the log indexes are built for, <code>null</code> if the indexes must
+     * not be used.
+     */
+    public XLogStreamer(Filter logFilter, Writer logWriter, String logPath, String logFile, long logRotationSecs,
+                        String indexParameter) {
         this.logWriter = logWriter;
         this.logFilter = logFilter;
         if (logFile == null) {
@@ -183,6 +216,7 @@ public class XLogStreamer {
         this.logFile = logFile;
         this.logPath = logPath;
         this.logRotation = logRotationSecs * 1000l;
+        this.indexParameter = indexParameter;
     }
 
     /**
@@ -207,11 +241,117 @@ public class XLogStreamer {
         }
         File dir = new File(logPath);
         ArrayList<FileInfo> fileList = getFileList(dir, startTimeMillis, endTimeMillis, logRotation, logFile);
+        String indexValue = getIndexValue();
         for (int i = 0; i < fileList.size(); i++) {
-            InputStream ifs;
-            ifs = new FileInputStream(fileList.get(i).getFileName());
-            XLogReader logReader = new XLogReader(ifs, logFilter, logWriter);
-            logReader.processLog();
+            File file = new File(fileList.get(i).getFileName());
+            List<long[]> ranges = null;
+            if (indexValue != null && !file.getName().equals(logFile)) {
+                ranges = new XLogIndex(file, indexParameter).getRanges(indexValue);
+            }
+            if (ranges == null) {
+                InputStream ifs = new FileInputStream(file);
+                try {
+                    XLogReader logReader = new XLogReader(ifs, logFilter, logWriter);
+                    logReader.processLog();
+                }
+                finally {
+                    ifs.close();
+                }
+            }
+            else {
+                streamRanges(file, ranges);
+            }
+        }
+    }
+
+    /**
+     * Return the value of the index parameter in the filter if it is a literal value, <code>null</code> otherwise.
+     */
+    private String getIndexValue() {
+        String value = (indexParameter != null && logFilter != null) ? logFilter.getParameter(indexParameter) : null;
+        if (value != null) {
+            for (char c : value.toCharArray()) {
+                if ("\\[](){}.*+?^$|".indexOf(c) > -1) {
+                    return null;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stream the given byte ranges of a log file, each range starts at the beginning of a log statement.
+     */
+    private void streamRanges(File file, List<long[]> ranges) throws IOException {
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            for (long[] range : ranges) {
+                fis.getChannel().position(range[0]);
+                XLogReader logReader = new XLogReader(new RangeInputStream(fis, range[1] - range[0]), logFilter,
+                                                      logWriter);
+                logReader.processLog();
+            }
+        }
+        finally {
+            fis.close();
+        }
+    }
+
+    /**
+     * Input stream reading up to a given number of bytes of another stream, closing it does not close the other
+     * stream.
+     */
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        public RangeInputStream(InputStream is, long length) {
+            super(is);
+            remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
         }
     }
 
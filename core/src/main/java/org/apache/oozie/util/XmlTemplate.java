@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom.Attribute;
+import org.jdom.Element;
+import org.jdom.Namespace;
+
+/**
+ * Parsed XML document shared among threads.
+ * <p/>
+ * The root element of a template is never exposed, it is read concurrently by any number of threads through the
+ * template accessors, which only return copies of its content. Code that needs to modify the document must work on a
+ * {@link #copy}.
+ */
+public class XmlTemplate {
+    private final Element root;
+
+    /**
+     * Create a template.
+     *
+     * @param root root element of the parsed XML document, the template takes ownership of it.
+     */
+    public XmlTemplate(Element root) {
+        this.root = ParamChecker.notNull(root, "root");
+    }
+
+    /**
+     * Return the value of an attribute of the root element.
+     *
+     * @param name attribute name.
+     * @return the attribute value, <code>null</code> if not set.
+     */
+    public String getAttributeValue(String name) {
+        return root.getAttributeValue(name);
+    }
+
+    /**
+     * Return copies of the attributes of the root element.
+     *
+     * @return copies of the attributes of the root element.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Attribute> copyAttributes() {
+        List<Attribute> attributes = new ArrayList<Attribute>();
+        for (Attribute attribute : (List<Attribute>) root.getAttributes()) {
+            attributes.add((Attribute) attribute.clone());
+        }
+        return attributes;
+    }
+
+    /**
+     * Return the namespace of the root element.
+     *
+     * @return the namespace of the root element.
+     */
+    public Namespace getNamespace() {
+        return root.getNamespace();
+    }
+
+    /**
+     * Return a namespace declared by the root element.
+     *
+     * @param prefix namespace prefix.
+     * @return the namespace, <code>null</code> if the prefix is not declared.
+     */
+    public Namespace getNamespace(String prefix) {
+        return root.getNamespace(prefix);
+    }
+
+    /**
+     * Return a copy of a child of the root element.
+     *
+     * @param name child name.
+     * @param ns child namespace.
+     * @return a deep copy of the first child with the name and namespace, <code>null</code> if there is none.
+     */
+    public Element copyChild(String name, Namespace ns) {
+        Element child = root.getChild(name, ns);
+        return (child != null) ? (Element) child.clone() : null;
+    }
+
+    /**
+     * Return a copy of a grandchild of the root element, without copying the rest of its parent.
+     *
+     * @param parentName name of the child of the root element, in the namespace of the root element.
+     * @param name grandchild name.
+     * @param ns grandchild namespace.
+     * @return a deep copy of the first grandchild with the name and namespace, <code>null</code> if there is none.
+     */
+    public Element copyChild(String parentName, String name, Namespace ns) {
+        Element parent = root.getChild(parentName, root.getNamespace());
+        Element child = (parent != null) ? parent.getChild(name, ns) : null;
+        return (child != null) ? (Element) child.clone() : null;
+    }
+
+    /**
+     * Return a copy of the root element that can be modified.
+     *
+     * @return a deep copy of the root element.
+     */
+    public Element copy() {
+        return (Element) root.clone();
+    }
+
+}
@@ -67,15 +67,26 @@ public class XmlUtils {
 
     }
 
-    private static SAXBuilder createSAXBuilder() {
-        SAXBuilder saxBuilder = new SAXBuilder();
+    /**
+     * SAX builders are not thread safe, each thread reuses its own builder (and its underlying parser).
+     */
+    private static final ThreadLocal<SAXBuilder> SAX_BUILDER = new ThreadLocal<SAXBuilder>() {
+        @Override
+        protected SAXBuilder initialValue() {
+            SAXBuilder saxBuilder = new SAXBuilder();
+            saxBuilder.setReuseParser(true);
 
-        //THIS IS NOT WORKING
-        //saxBuilder.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            //THIS IS NOT WORKING
+            //saxBuilder.setFeature("http://xml.org/sax/features/external-general-entities", false);
+
+            //INSTEAD WE ARE JUST SETTING AN EntityResolver that does not resolve entities
+            saxBuilder.setEntityResolver(new NoExternalEntityEntityResolver());
+            return saxBuilder;
+        }
+    };
 
-        //INSTEAD WE ARE JUST SETTING AN EntityResolver that does not resolve entities
-        saxBuilder.setEntityResolver(new NoExternalEntityEntityResolver());
-        return saxBuilder;
+    private static SAXBuilder getSAXBuilder() {
+        return SAX_BUILDER.get();
     }
 
     /**
@@ -90,7 +101,7 @@ public class XmlUtils {
             return null;
         }
         try {
-            SAXBuilder saxBuilder = createSAXBuilder();
+            SAXBuilder saxBuilder = getSAXBuilder();
             Document document = saxBuilder.build(new StringReader(xmlStr));
             removeComments(document);
             return prettyPrint(document.getRootElement()).toString();
@@ -128,7 +139,7 @@ public class XmlUtils {
     public static Element parseXml(String xmlStr) throws JDOMException {
         ParamChecker.notNull(xmlStr, "xmlStr");
         try {
-            SAXBuilder saxBuilder = createSAXBuilder();
+            SAXBuilder saxBuilder = getSAXBuilder();
             Document document = saxBuilder.build(new StringReader(xmlStr));
             return document.getRootElement();
         }
@@ -147,7 +158,7 @@ public class XmlUtils {
      */
     public static Element parseXml(InputStream is) throws JDOMException, IOException {
         ParamChecker.notNull(is, "is");
-        SAXBuilder saxBuilder = createSAXBuilder();
+        SAXBuilder saxBuilder = getSAXBuilder();
         Document document = saxBuilder.build(is);
         return document.getRootElement();
     }
@@ -163,7 +174,7 @@ public class XmlUtils {
     public static String getRootAttribute(String filePath, String attributeName) {
         ParamChecker.notNull(filePath, "filePath");
         ParamChecker.notNull(attributeName, "attributeName");
-        SAXBuilder saxBuilder = createSAXBuilder();
+        SAXBuilder saxBuilder = getSAXBuilder();
         try {
             Document doc = saxBuilder.build(Thread.currentThread().getContextClassLoader().getResourceAsStream(filePath));
             return doc.getRootElement().getAttributeValue(attributeName);
@@ -298,8 +309,8 @@ public class XmlUtils {
         if (xmlData == null || xmlData.length() == 0) {
             return;
         }
-        javax.xml.validation.Schema schema = Services.get().get(SchemaService.class).getSchema(xsdFile);
-        validateXml(schema, xmlData);
+        Validator validator = Services.get().get(SchemaService.class).getValidator(xsdFile);
+        validator.validate(new StreamSource(new StringReader(xmlData)));
     }
 
     /**
@@ -120,6 +120,34 @@ public class SLADbOperations {
         if (eSla == null) {
             return;
         }
+        SLAEventBean sla = createSlaRegistrationEvent(eSla, slaId, appType, user, groupName);
+
+        //SLAStore slaStore = (SLAStore) Services.get().get(StoreService.class)
+        //        .getStore(SLAStore.class, store);
+        //slaStore.insertSLAEvent(sla);
+        
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService != null) {
+            jpaService.execute(new SLAEventInsertCommand(sla));
+        }
+        else {
+            log.error(ErrorCode.E0610);
+        }
+    }
+
+    /**
+     * Create the SLA registration event bean for an SLA element without storing it.
+     *
+     * @param eSla SLA element, it must not be <code>null</code>.
+     * @param slaId SLA ID.
+     * @param appType application type.
+     * @param user user of the application.
+     * @param groupName group of the application.
+     * @return the SLA registration event bean.
+     * @throws Exception thrown if the SLA element is not valid.
+     */
+    public static SLAEventBean createSlaRegistrationEvent(Element eSla, String slaId, SlaAppType appType, String user,
+                                                          String groupName) throws Exception {
         //System.out.println("Writing REG AAAAA " + slaId);
         SLAEventBean sla = new SLAEventBean();
         // sla.setClientId(getTagElement( eSla, "client-id"));
@@ -185,17 +213,7 @@ public class SLADbOperations {
         sla.setJobStatus(Status.CREATED);
         sla.setStatusTimestamp(new Date());
 
-        //SLAStore slaStore = (SLAStore) Services.get().get(StoreService.class)
-        //        .getStore(SLAStore.class, store);
-        //slaStore.insertSLAEvent(sla);
-        
-        JPAService jpaService = Services.get().get(JPAService.class);
-        if (jpaService != null) {
-            jpaService.execute(new SLAEventInsertCommand(sla));
-        }
-        else {
-            log.error(ErrorCode.E0610);
-        }
+        return sla;
     }
 
     public static void writeSlaStatusEvent(String id,
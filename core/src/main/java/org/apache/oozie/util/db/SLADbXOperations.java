@@ -46,6 +46,22 @@ public class SLADbXOperations {
         if (eSla == null) {
             return;
         }
+        insertSlaEvent(createSlaRegistrationEvent(eSla, slaId, appType, user, groupName));
+    }
+
+    /**
+     * Create a SLA registration event bean without persisting it.
+     *
+     * @param eSla SLA xml element
+     * @param slaId SLA Id
+     * @param appType SLA app type
+     * @param user user name
+     * @param groupName group name
+     * @return the SLA registration event bean
+     * @throws Exception
+     */
+    public static SLAEventBean createSlaRegistrationEvent(Element eSla, String slaId, SlaAppType appType,
+                                                          String user, String groupName) throws Exception {
         SLAEventBean sla = new SLAEventBean();
         // sla.setClientId(getTagElement( eSla, "client-id"));
         // sla.setClientId(getClientId());
@@ -103,16 +119,7 @@ public class SLADbXOperations {
         sla.setGroupName(groupName);
         sla.setJobStatus(Status.CREATED);
         sla.setStatusTimestamp(new Date());
-
-        JPAService jpaService = Services.get().get(JPAService.class);
-
-        if (jpaService != null) {
-            jpaService.execute(new SLAEventInsertCommand(sla));
-        }
-        else {
-            throw new CommandException(ErrorCode.E0610, "unable to write sla event.");
-        }
-
+        return sla;
     }
 
     /**
@@ -125,12 +132,27 @@ public class SLADbXOperations {
      */
     public static void writeSlaStatusEvent(String id,
                                            Status status, SlaAppType appType) throws Exception {
+        insertSlaEvent(createSlaStatusEvent(id, status, appType));
+    }
+
+    /**
+     * Create a SLA status event bean without persisting it.
+     *
+     * @param id SLA Id
+     * @param status SLA status
+     * @param appType SLA app type
+     * @return the SLA status event bean
+     */
+    public static SLAEventBean createSlaStatusEvent(String id, Status status, SlaAppType appType) {
         SLAEventBean sla = new SLAEventBean();
         sla.setSlaId(id);
         sla.setJobStatus(status);
         sla.setAppType(appType);
         sla.setStatusTimestamp(new Date());
+        return sla;
+    }
 
+    private static void insertSlaEvent(SLAEventBean sla) throws CommandException {
         JPAService jpaService = Services.get().get(JPAService.class);
 
         if (jpaService != null) {
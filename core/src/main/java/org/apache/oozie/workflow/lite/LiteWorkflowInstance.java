@@ -16,7 +16,10 @@ package org.apache.oozie.workflow.lite;
 
 import org.apache.oozie.service.XLogService;
 import org.apache.oozie.service.DagXLogInfoService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowDefinitionService;
 import org.apache.oozie.client.OozieClient;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.hadoop.conf.Configuration;
@@ -27,12 +30,16 @@ import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowConfigurationBean;
+import org.apache.oozie.WorkflowDefinitionBean;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
-import java.io.ByteArrayOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -48,6 +55,22 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     private static String ROOT = PATH_SEPARATOR;
     private static String TRANSITION_SEPARATOR = "#";
 
+    /**
+     * Marker of the compact serialization format, the original format starts with the length of the instance ID.
+     */
+    private static final int COMPACT_MARKER = 0xFFFF;
+    private static final int COMPACT_VERSION = 3;
+
+    /**
+     * Compact format version with the job configuration written inline.
+     */
+    private static final int COMPACT_VERSION_INLINE_CONF = 1;
+
+    /**
+     * Compact format version with the job configuration stored as a shared definition.
+     */
+    private static final int COMPACT_VERSION_SHARED_CONF = 2;
+
     private static class NodeInstance {
         String nodeName;
         boolean started = false;
@@ -141,7 +164,11 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     }
 
     private LiteWorkflowApp def;
+    private String defId;
     private Configuration conf;
+    private String confId;
+    private WorkflowDefinitionBean unstoredDefinition;
+    private WorkflowConfigurationBean unstoredConfiguration;
     private String instanceId;
     private Status status;
     private Map<String, NodeInstance> executionPaths = new HashMap<String, NodeInstance>();
@@ -522,19 +549,64 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         this.status = status;
     }
 
+    /**
+     * Write the workflow instance in the compact format.
+     * <p/>
+     * The compact format starts with the {@link #COMPACT_MARKER} (which cannot be the length of the instance ID
+     * written by the original format), the format version, then the instance ID, the workflow definition, the job
+     * configuration as a key/value block, the status, the execution paths and the variables.
+     * <p/>
+     * If the {@link WorkflowDefinitionService} is available only the IDs of the definition and of the job configuration
+     * are written, otherwise they are written inline. Writing the instance does not store them, the first time they
+     * are referred to they are returned by {@link #removeUnstoredDefinition()} and {@link
+     * #removeUnstoredConfiguration()} to be stored with the job. The job configuration does not change during the
+     * life of the instance, it is stored once.
+     *
+     * @param dOut data output.
+     * @throws IOException thrown if the workflow instance could not be written.
+     */
     @Override
     public void write(DataOutput dOut) throws IOException {
+        dOut.writeShort(COMPACT_MARKER);
+        dOut.writeByte(COMPACT_VERSION);
         dOut.writeUTF(instanceId);
 
-        //Hadoop Configuration has to get its act right
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        conf.writeXml(baos);
-        baos.close();
-        byte[] array = baos.toByteArray();
-        dOut.writeInt(array.length);
-        dOut.write(array);
-
-        def.write(dOut);
+        if (defId == null || confId == null) {
+            WorkflowDefinitionService defService = (Services.get() != null)
+                    ? Services.get().get(WorkflowDefinitionService.class) : null;
+            if (defService != null) {
+                if (defId == null) {
+                    unstoredDefinition = defService.createDefinition(def);
+                    defId = unstoredDefinition.getId();
+                }
+                if (confId == null) {
+                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                    DataOutputStream confOut = new DataOutputStream(baos);
+                    writeConf(confOut);
+                    confOut.close();
+                    unstoredConfiguration = defService.createConfiguration(instanceId, defId, baos.toByteArray());
+                    confId = unstoredConfiguration.getId();
+                }
+            }
+        }
+        if (defId != null) {
+            dOut.writeBoolean(true);
+            dOut.writeUTF(defId);
+        }
+        else {
+            dOut.writeBoolean(false);
+            def.write(dOut);
+        }
+
+        if (confId != null) {
+            dOut.writeBoolean(true);
+            dOut.writeUTF(confId);
+        }
+        else {
+            dOut.writeBoolean(false);
+            writeConf(dOut);
+        }
+
         dOut.writeUTF(status.toString());
         dOut.writeInt(executionPaths.size());
         for (Map.Entry<String, NodeInstance> entry : executionPaths.entrySet()) {
@@ -544,15 +616,130 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         }
         dOut.writeInt(persistentVars.size());
         for (Map.Entry<String, String> entry : persistentVars.entrySet()) {
-            dOut.writeUTF(entry.getKey());
-            dOut.writeUTF(entry.getValue());
+            Text.writeString(dOut, entry.getKey());
+            Text.writeString(dOut, entry.getValue());
         }
     }
 
+    /**
+     * Read the workflow instance, in the compact format or in the original format.
+     *
+     * @param dIn data input.
+     * @throws IOException thrown if the workflow instance could not be read.
+     */
     @Override
     public void readFields(DataInput dIn) throws IOException {
+        int marker = dIn.readUnsignedShort();
+        if (marker == COMPACT_MARKER) {
+            int version = dIn.readUnsignedByte();
+            if (version != COMPACT_VERSION && version != COMPACT_VERSION_SHARED_CONF
+                    && version != COMPACT_VERSION_INLINE_CONF) {
+                throw new IOException(XLog.format("Unsupported workflow instance format version [{0}]", version));
+            }
+            readCompactFields(dIn, version);
+        }
+        else {
+            readOriginalFields(dIn, marker);
+        }
+        refreshLog();
+    }
+
+    private void readCompactFields(DataInput dIn, int version) throws IOException {
         instanceId = dIn.readUTF();
 
+        if (dIn.readBoolean()) {
+            defId = dIn.readUTF();
+            def = getDefinitionService(defId).get(defId);
+        }
+        else {
+            def = new LiteWorkflowApp();
+            def.readFields(dIn);
+        }
+
+        if (version != COMPACT_VERSION_INLINE_CONF && dIn.readBoolean()) {
+            String id = dIn.readUTF();
+            byte[] array;
+            if (version == COMPACT_VERSION_SHARED_CONF) {
+                // stored again with the job on the next write
+                array = getDefinitionService(id).getSharedConfiguration(id);
+            }
+            else {
+                confId = id;
+                array = getDefinitionService(id).getConfiguration(id);
+            }
+            readConf(new DataInputStream(new ByteArrayInputStream(array)));
+        }
+        else {
+            readConf(dIn);
+        }
+
+        status = Status.valueOf(dIn.readUTF());
+        readExecutionPaths(dIn);
+        int numVars = dIn.readInt();
+        for (int x = 0; x < numVars; x++) {
+            String vName = Text.readString(dIn);
+            String vVal = Text.readString(dIn);
+            persistentVars.put(vName, vVal);
+        }
+    }
+
+    /**
+     * Return the workflow definition the last write referred to for the first time, and forget it.
+     *
+     * @return the workflow definition to store, <code>null</code> if none.
+     */
+    public WorkflowDefinitionBean removeUnstoredDefinition() {
+        WorkflowDefinitionBean bean = unstoredDefinition;
+        unstoredDefinition = null;
+        return bean;
+    }
+
+    /**
+     * Return the job configuration the last write referred to for the first time, and forget it.
+     *
+     * @return the job configuration to store, <code>null</code> if none.
+     */
+    public WorkflowConfigurationBean removeUnstoredConfiguration() {
+        WorkflowConfigurationBean bean = unstoredConfiguration;
+        unstoredConfiguration = null;
+        return bean;
+    }
+
+    private WorkflowDefinitionService getDefinitionService(String id) throws IOException {
+        WorkflowDefinitionService defService = (Services.get() != null)
+                ? Services.get().get(WorkflowDefinitionService.class) : null;
+        if (defService == null) {
+            throw new IOException(XLog.format("Cannot read [{0}], {1} not available", id,
+                                              WorkflowDefinitionService.class.getSimpleName()));
+        }
+        return defService;
+    }
+
+    private void writeConf(DataOutput dOut) throws IOException {
+        dOut.writeInt(conf.size());
+        for (Map.Entry<String, String> entry : conf) {
+            Text.writeString(dOut, entry.getKey());
+            Text.writeString(dOut, entry.getValue());
+        }
+    }
+
+    private void readConf(DataInput dIn) throws IOException {
+        conf = new XConfiguration();
+        int numProps = dIn.readInt();
+        for (int x = 0; x < numProps; x++) {
+            String name = Text.readString(dIn);
+            conf.set(name, Text.readString(dIn));
+        }
+    }
+
+    private void readOriginalFields(DataInput dIn, int instanceIdLength) throws IOException {
+        //the length of the instance ID has been read already
+        byte[] utf = new byte[instanceIdLength + 2];
+        utf[0] = (byte) (instanceIdLength >> 8);
+        utf[1] = (byte) instanceIdLength;
+        dIn.readFully(utf, 2, instanceIdLength);
+        instanceId = new DataInputStream(new ByteArrayInputStream(utf)).readUTF();
+
         //Hadoop Configuration has to get its act right
         int len = dIn.readInt();
         byte[] array = new byte[len];
@@ -563,6 +750,16 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         def = new LiteWorkflowApp();
         def.readFields(dIn);
         status = Status.valueOf(dIn.readUTF());
+        readExecutionPaths(dIn);
+        int numVars = dIn.readInt();
+        for (int x = 0; x < numVars; x++) {
+            String vName = dIn.readUTF();
+            String vVal = dIn.readUTF();
+            persistentVars.put(vName, vVal);
+        }
+    }
+
+    private void readExecutionPaths(DataInput dIn) throws IOException {
         int numExPaths = dIn.readInt();
         for (int x = 0; x < numExPaths; x++) {
             String path = dIn.readUTF();
@@ -572,13 +769,6 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
             nodeInstance.started = isStarted;
             executionPaths.put(path, nodeInstance);
         }
-        int numVars = dIn.readInt();
-        for (int x = 0; x < numVars; x++) {
-            String vName = dIn.readUTF();
-            String vVal = dIn.readUTF();
-            persistentVars.put(vName, vVal);
-        }
-        refreshLog();
     }
 
     @Override
@@ -187,16 +187,19 @@ public class TestJavaActionExecutor extends ActionExecutorTestCase {
         ae.addToCache(conf, appPath, appSoPath.toString(), false);
         assertTrue(conf.get("mapred.cache.files").contains(appSoPath.toUri().getPath()));
 
-        assertTrue(ae.getOozieLauncherJar(context).startsWith(context.getActionDir().toString()));
-        assertTrue(ae.getOozieLauncherJar(context).endsWith(ae.getLauncherJarName()));
+        // the launcher jar is staged once, next to the workflow job directories, and shared by the actions
+        Path stagedJar = new Path(ae.getOozieLauncherJar(context));
+        assertEquals(new Path(context.getActionDir().getParent().getParent(), "_launcher"), stagedJar.getParent());
+        assertTrue(stagedJar.getName().startsWith("java-launcher-"));
 
-        assertFalse(getFileSystem().exists(context.getActionDir()));
         ae.prepareActionDir(getFileSystem(), context);
-        assertTrue(getFileSystem().exists(context.getActionDir()));
-        assertTrue(getFileSystem().exists(new Path(context.getActionDir(), ae.getLauncherJarName())));
+        assertTrue(getFileSystem().exists(stagedJar));
+        assertFalse(getFileSystem().exists(context.getActionDir()));
 
+        getFileSystem().mkdirs(context.getActionDir());
         ae.cleanUpActionDir(getFileSystem(), context);
         assertFalse(getFileSystem().exists(context.getActionDir()));
+        assertTrue(getFileSystem().exists(stagedJar));
 
         conf = ae.createBaseHadoopConf(context, actionXml);
         ae.setupLauncherConf(conf, actionXml, getFsTestCaseDir(), context);
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.io.File;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.IOUtils;
+
+public class TestLauncherStagingArea extends XTestCase {
+
+    private File createJar(String dir) throws Exception {
+        File baseDir = new File(getTestCaseDir(), dir);
+        return IOUtils.createJar(baseDir, "x-launcher.jar", LauncherMapper.class, LauncherException.class);
+    }
+
+    public void testHash() throws Exception {
+        File jar1 = createJar("a");
+        Thread.sleep(1000);
+        File jar2 = createJar("b");
+        // the hash depends on the content of the jar only
+        assertEquals(LauncherStagingArea.hash(jar1), LauncherStagingArea.hash(jar2));
+        LauncherStagingArea stagingArea = new LauncherStagingArea(jar1, 3600 * 1000, 7200 * 1000);
+        assertEquals("x-launcher-" + LauncherStagingArea.hash(jar1) + ".jar", stagingArea.getStagedName());
+    }
+
+    public void testStage() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path stagingDir = new Path(getTestCaseDir(), "staging");
+        File jar = createJar("a");
+        LauncherStagingArea stagingArea = new LauncherStagingArea(jar, 3600 * 1000, 7200 * 1000);
+
+        Path stagedJar = stagingArea.stage(fs, stagingDir);
+        assertEquals(stagingArea.getStagedJar(stagingDir), stagedJar);
+        assertTrue(fs.exists(stagedJar));
+        assertEquals(jar.length(), fs.getFileStatus(stagedJar).getLen());
+        assertEquals(1, stagingArea.getCopies());
+        assertEquals(0, stagingArea.getSavedBytesLastHour());
+
+        // within the lease the staged jar is reused without copying it again
+        assertEquals(stagedJar, stagingArea.stage(fs, stagingDir));
+        assertEquals(stagedJar, stagingArea.stage(fs, stagingDir));
+        assertEquals(1, stagingArea.getCopies());
+        assertEquals(2, stagingArea.getReuses());
+        assertEquals(2 * jar.length(), stagingArea.getSavedBytesLastHour());
+
+        // a staged jar deleted within the lease is staged again
+        fs.delete(stagedJar, false);
+        assertEquals(stagedJar, stagingArea.stage(fs, stagingDir));
+        assertTrue(fs.exists(stagedJar));
+        assertEquals(2, stagingArea.getCopies());
+        assertEquals(2, stagingArea.getReuses());
+
+        // another Oozie instance reuses the staged jar
+        stagingArea = new LauncherStagingArea(jar, 3600 * 1000, 7200 * 1000);
+        assertEquals(stagedJar, stagingArea.stage(fs, stagingDir));
+        assertEquals(0, stagingArea.getCopies());
+        assertEquals(1, stagingArea.getReuses());
+    }
+
+    public void testLeaseRenewal() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path stagingDir = new Path(getTestCaseDir(), "staging");
+        File jar = createJar("a");
+        // a 0 lease time renews the lease on every use
+        LauncherStagingArea stagingArea = new LauncherStagingArea(jar, 0, 7200 * 1000);
+
+        Path stagedJar = stagingArea.stage(fs, stagingDir);
+        Path marker = new Path(stagingDir, stagingArea.getStagedName() + LauncherStagingArea.LEASE_SUFFIX);
+        long old = System.currentTimeMillis() - 3600 * 1000;
+        fs.setTimes(stagedJar, old, -1);
+        fs.setTimes(marker, old, -1);
+
+        assertEquals(stagedJar, stagingArea.stage(fs, stagingDir));
+        // the lease is renewed on the marker, the published jar is not modified
+        assertEquals(old, fs.getFileStatus(stagedJar).getModificationTime(), 1000);
+        assertTrue(fs.getFileStatus(marker).getModificationTime() > old + 1000);
+
+        // a missing marker is created again
+        fs.delete(marker, false);
+        assertEquals(stagedJar, stagingArea.stage(fs, stagingDir));
+        assertTrue(fs.exists(marker));
+        assertEquals(old, fs.getFileStatus(stagedJar).getModificationTime(), 1000);
+        assertEquals(1, stagingArea.getCopies());
+    }
+
+    public void testGarbageCollection() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        Path stagingDir = new Path(getTestCaseDir(), "staging");
+        long old = System.currentTimeMillis() - 3 * 3600 * 1000;
+        Path expired = new Path(stagingDir, "x-launcher-0000.jar");
+        fs.create(expired).close();
+        fs.setTimes(expired, old, -1);
+        Path leased = new Path(stagingDir, "x-launcher-1111.jar");
+        fs.create(leased).close();
+        Path other = new Path(stagingDir, "y-launcher-0000.jar");
+        fs.create(other).close();
+        fs.setTimes(other, old, -1);
+        // an old jar whose lease is still renewed by another Oozie instance
+        Path renewed = new Path(stagingDir, "x-launcher-2222.jar");
+        fs.create(renewed).close();
+        fs.setTimes(renewed, old, -1);
+        fs.create(new Path(stagingDir, "x-launcher-2222.jar" + LauncherStagingArea.LEASE_SUFFIX)).close();
+        // an old jar whose lease expired
+        Path expiredLease = new Path(stagingDir, "x-launcher-3333.jar");
+        Path expiredMarker = new Path(stagingDir, "x-launcher-3333.jar" + LauncherStagingArea.LEASE_SUFFIX);
+        fs.create(expiredLease).close();
+        fs.setTimes(expiredLease, old, -1);
+        fs.create(expiredMarker).close();
+        fs.setTimes(expiredMarker, old, -1);
+
+        LauncherStagingArea stagingArea = new LauncherStagingArea(createJar("a"), 3600 * 1000, 7200 * 1000);
+        Path stagedJar = stagingArea.stage(fs, stagingDir);
+        assertTrue(fs.exists(stagedJar));
+        assertFalse(fs.exists(expired));
+        assertTrue(fs.exists(leased));
+        assertTrue(fs.exists(renewed));
+        assertFalse(fs.exists(expiredLease));
+        assertFalse(fs.exists(expiredMarker));
+        // jars of other action types are collected by their own staging area
+        assertTrue(fs.exists(other));
+    }
+
+}
@@ -30,6 +30,7 @@ import org.apache.oozie.servlet.JobsServlet;
 import org.apache.oozie.servlet.MockCoordinatorEngineService;
 import org.apache.oozie.servlet.MockDagEngineService;
 import org.apache.oozie.servlet.V1AdminServlet;
+import org.apache.oozie.servlet.V1JobsServlet;
 import org.apache.oozie.util.XConfiguration;
 
 //hardcoding options instead using constants on purpose, to detect changes to option names if any and correct docs.
@@ -225,6 +226,31 @@ public class TestOozieCLI extends DagServletTestCase {
         });
     }
 
+    public void testBulkJobs() throws Exception {
+        Class[] servletClasses = {HeaderTestingVersionServlet.class, V1JobsServlet.class, JobServlet.class,
+                V1AdminServlet.class};
+        runTest(END_POINTS, servletClasses, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                String oozieUrl = getContextURL();
+                String jobIds = MockDagEngineService.JOB_ID + 1 + MockDagEngineService.JOB_ID_END + ","
+                        + MockDagEngineService.JOB_ID + 2 + MockDagEngineService.JOB_ID_END;
+                String[] args = new String[]{"jobs", "-oozie", oozieUrl, "-suspend", jobIds};
+                assertEquals(0, new OozieCLI().run(args));
+                assertEquals(RestConstants.JOB_ACTION_SUSPEND, MockDagEngineService.did);
+
+                args = new String[]{"jobs", "-oozie", oozieUrl, "-info", jobIds};
+                assertEquals(0, new OozieCLI().run(args));
+                assertEquals(RestConstants.JOB_SHOW_INFO, MockDagEngineService.did);
+
+                args = new String[]{"jobs", "-oozie", oozieUrl, "-kill", jobIds + "," + MockDagEngineService.JOB_ID
+                        + (MockDagEngineService.workflows.size() + 1) + MockDagEngineService.JOB_ID_END};
+                assertEquals(-1, new OozieCLI().run(args));
+                assertEquals(RestConstants.JOB_ACTION_KILL, MockDagEngineService.did);
+                return null;
+            }
+        });
+    }
+
     public void testReRun() throws Exception {
         runTest(END_POINTS, SERVLET_CLASSES, IS_SECURITY_ENABLED, new Callable<Void>() {
             public Void call() throws Exception {
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.coord;
+
+import java.util.List;
+
+import org.apache.oozie.util.XmlTemplate;
+import org.apache.oozie.util.XmlUtils;
+import org.jdom.Element;
+
+/**
+ * Benchmark of the preparation of the action elements when materializing coordinator actions.
+ * <p/>
+ * It compares parsing the job XML on every materialization and copying the whole job element for every action with
+ * reusing a cached {@link XmlTemplate} of the job XML and {@link CoordCommandUtils#nextActionElement}. Every action
+ * gets its data events and attributes rewritten, the way {@link CoordCommandUtils#materializeOneInstance} does, and
+ * is serialized.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... org.apache.oozie.command.coord.CoordMaterializationBenchmark [ACTIONS] [PROPERTIES] [RUNS]</code>
+ */
+public class CoordMaterializationBenchmark {
+    private static final int DATA_EVENTS = 4;
+
+    public static void main(String[] args) throws Exception {
+        int actions = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int properties = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+        int runs = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+
+        String jobXml = createJobXml(properties);
+        XmlTemplate template = new XmlTemplate(XmlUtils.parseXml(jobXml));
+
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            materializeWithClone(jobXml, actions);
+            materializeWithTemplate(template, actions);
+        }
+
+        System.out.println("actions=" + actions + " properties=" + properties + " jobXml=" + jobXml.length()
+                + "bytes runs=" + runs);
+        System.out.println("mode\tms/run\tactions/s");
+        long time = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            materializeWithClone(jobXml, actions);
+        }
+        print("parse+clone", System.nanoTime() - time, actions, runs);
+
+        time = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            materializeWithTemplate(template, actions);
+        }
+        print("template", System.nanoTime() - time, actions, runs);
+    }
+
+    private static void print(String mode, long nanos, int actions, int runs) {
+        double ms = nanos / 1000000d / runs;
+        System.out.println(mode + "\t" + String.format("%.2f", ms) + "\t" + String.format("%.0f", actions * 1000 / ms));
+    }
+
+    private static int materializeWithClone(String jobXml, int actions) throws Exception {
+        Element eJob = XmlUtils.parseXml(jobXml);
+        int size = 0;
+        for (int i = 1; i <= actions; i++) {
+            Element eAction = (Element) eJob.clone();
+            size += materialize(eAction, i);
+        }
+        return size;
+    }
+
+    private static int materializeWithTemplate(XmlTemplate template, int actions) throws Exception {
+        Element eAction = null;
+        int size = 0;
+        for (int i = 1; i <= actions; i++) {
+            eAction = CoordCommandUtils.nextActionElement(template, eAction);
+            size += materialize(eAction, i);
+        }
+        return size;
+    }
+
+    /**
+     * Rewrite the action element the way the materialization does and serialize it.
+     */
+    @SuppressWarnings("unchecked")
+    private static int materialize(Element eAction, int instance) {
+        Element inputEvents = eAction.getChild("input-events", eAction.getNamespace());
+        for (Element event : (List<Element>) inputEvents.getChildren("data-in", eAction.getNamespace())) {
+            event.removeChildren("instance", event.getNamespace());
+            Element uris = new Element("uris", event.getNamespace());
+            uris.addContent("hdfs://nn/data/" + event.getAttributeValue("name") + "/" + instance);
+            event.addContent(uris);
+        }
+        eAction.removeAttribute("start");
+        eAction.removeAttribute("end");
+        eAction.setAttribute("instance-number", Integer.toString(instance));
+        return XmlUtils.prettyPrint(eAction).toString().length();
+    }
+
+    private static String createJobXml(int properties) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<coordinator-app name='NAME' frequency='60' start='2009-02-01T01:00Z' end='2009-02-03T23:59Z' ");
+        sb.append("timezone='UTC' freq_timeunit='MINUTE' end_of_duration='NONE' ");
+        sb.append("xmlns='uri:oozie:coordinator:0.1'>");
+        sb.append("<controls><timeout>10</timeout><concurrency>2</concurrency></controls>");
+        sb.append("<input-events>");
+        for (int i = 0; i < DATA_EVENTS; i++) {
+            sb.append("<data-in name='IN").append(i).append("' dataset='ds").append(i).append("'>");
+            sb.append("<dataset name='ds").append(i).append("' frequency='60' initial-instance='2009-01-01T01:00Z' ");
+            sb.append("timezone='UTC' freq_timeunit='MINUTE' end_of_duration='NONE'>");
+            sb.append("<uri-template>hdfs://nn/data/ds").append(i).append("/${YEAR}/${MONTH}/${DAY}/${HOUR}");
+            sb.append("</uri-template></dataset>");
+            sb.append("<instance>${coord:current(0)}</instance></data-in>");
+        }
+        sb.append("</input-events>");
+        sb.append("<action><workflow><app-path>hdfs://nn/apps/wf</app-path><configuration>");
+        for (int i = 0; i < properties; i++) {
+            sb.append("<property><name>property.").append(i).append("</name><value>value of the property ");
+            sb.append(i).append("</value></property>");
+        }
+        sb.append("</configuration></workflow></action></coordinator-app>");
+        return sb.toString();
+    }
+
+}
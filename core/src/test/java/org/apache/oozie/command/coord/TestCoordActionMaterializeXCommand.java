@@ -80,6 +80,18 @@ public class TestCoordActionMaterializeXCommand extends CoordXTestCase {
         checkCoordActions(jobId, 0, CoordinatorJob.Status.RUNNING);
     }
 
+    public void testActionMaterBatched() throws Exception {
+        String jobId = "0000000-" + new Date().getTime() + "-testActionMater-C";
+
+        Services.get().getConf().setInt(CoordActionMaterializeXCommand.CONF_MATERIALIZATION_BATCH_SIZE, 2);
+        Date startTime = DateUtils.parseDateUTC("2009-03-06T10:00Z");
+        Date endTime = DateUtils.parseDateUTC("2009-03-06T10:14Z");
+        addRecordToJobTable(jobId, startTime, endTime, null);
+        new CoordActionMaterializeXCommand(jobId, startTime, endTime).call();
+        checkCoordActions(jobId, 3, null);
+        checkCoordAction(jobId + "@3");
+    }
+
     private void addRecordToJobTable(String jobId, Date startTime, Date endTime) throws CommandException {
         CoordinatorJobBean coordJob = new CoordinatorJobBean();
         coordJob.setId(jobId);
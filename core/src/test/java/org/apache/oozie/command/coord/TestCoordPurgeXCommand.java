@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.coord;
+
+import java.util.Date;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.CoordActionGetCommand;
+import org.apache.oozie.command.jpa.CoordActionInsertCommand;
+import org.apache.oozie.command.jpa.CoordJobGetCommand;
+import org.apache.oozie.command.jpa.CoordJobInsertCommand;
+import org.apache.oozie.util.DateUtils;
+
+public class TestCoordPurgeXCommand extends CoordXTestCase {
+
+    public void testCoordPurgeXCommand() throws Exception {
+        String jobId = "0000000-" + new Date().getTime() + "-testCoordPurgeXCommand-C";
+        String runningJobId = "0000001-" + new Date().getTime() + "-testCoordPurgeXCommand-C";
+        addRecordToJobTable(jobId);
+        addRecordToJobTable(runningJobId);
+        for (int i = 1; i <= 5; i++) {
+            addRecordToActionTable(jobId, i, CoordinatorAction.Status.SUCCEEDED);
+        }
+        addRecordToActionTable(runningJobId, 1, CoordinatorAction.Status.RUNNING);
+
+        // batches of 2 records
+        new CoordPurgeXCommand(7, 2, 0, 0).call();
+        for (int i = 1; i <= 5; i++) {
+            checkCoordActionPurged(jobId + "@" + i);
+        }
+        try {
+            jpaService.execute(new CoordJobGetCommand(jobId));
+            fail("Job ID " + jobId + " should be purged");
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0604, ex.getErrorCode());
+        }
+
+        // jobs with actions left are not purged
+        assertNotNull(jpaService.execute(new CoordJobGetCommand(runningJobId)));
+        assertNotNull(jpaService.execute(new CoordActionGetCommand(runningJobId + "@1")));
+    }
+
+    private void checkCoordActionPurged(String actionId) {
+        try {
+            jpaService.execute(new CoordActionGetCommand(actionId));
+            fail("Action ID " + actionId + " should be purged");
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0605, ex.getErrorCode());
+        }
+    }
+
+    private void addRecordToActionTable(String jobId, int actionNum, CoordinatorAction.Status status)
+            throws Exception {
+        CoordinatorActionBean action = new CoordinatorActionBean();
+        action.setJobId(jobId);
+        action.setId(jobId + "@" + actionNum);
+        action.setActionNumber(actionNum);
+        action.setNominalTime(new Date());
+        action.setLastModifiedTime(new Date());
+        action.setCreatedTime(DateUtils.parseDateUTC("2009-01-01T23:59Z"));
+        action.setStatus(status);
+        jpaService.execute(new CoordActionInsertCommand(action));
+    }
+
+    private void addRecordToJobTable(String jobId) throws Exception {
+        CoordinatorJobBean coordJob = new CoordinatorJobBean();
+        coordJob.setId(jobId);
+        coordJob.setAppName("testApp");
+        coordJob.setAppPath("testAppPath");
+        coordJob.setStatus(CoordinatorJob.Status.SUCCEEDED);
+        coordJob.setCreatedTime(new Date());
+        coordJob.setLastModifiedTime(DateUtils.parseDateUTC("2009-01-02T23:59Z"));
+        coordJob.setUser("testUser");
+        coordJob.setGroup("testGroup");
+        coordJob.setAuthToken("notoken");
+        coordJob.setConf("<configuration></configuration>");
+        coordJob.setJobXml("<coordinator-app/>");
+        coordJob.setLastActionNumber(0);
+        coordJob.setFrequency(1);
+        coordJob.setStartTime(DateUtils.parseDateUTC("2009-02-01T23:59Z"));
+        coordJob.setEndTime(DateUtils.parseDateUTC("2009-02-03T23:59Z"));
+        jpaService.execute(new CoordJobInsertCommand(coordJob));
+    }
+}
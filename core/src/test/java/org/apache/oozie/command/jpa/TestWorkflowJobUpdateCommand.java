@@ -14,6 +14,7 @@
  */
 package org.apache.oozie.command.jpa;
 
+import java.util.Arrays;
 import java.util.Date;
 
 import org.apache.hadoop.conf.Configuration;
@@ -24,14 +25,17 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.WorkflowAppService;
+import org.apache.oozie.service.WorkflowDefinitionService;
 import org.apache.oozie.service.WorkflowStoreService;
 import org.apache.oozie.test.XFsTestCase;
+import org.apache.oozie.util.WritableUtils;
 import org.apache.oozie.util.XmlUtils;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowInstance;
 import org.apache.oozie.workflow.WorkflowLib;
 import org.apache.oozie.workflow.lite.EndNodeDef;
 import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.LiteWorkflowInstance;
 import org.apache.oozie.workflow.lite.StartNodeDef;
 
 public class TestWorkflowJobUpdateCommand extends XFsTestCase {
@@ -78,6 +82,26 @@ public class TestWorkflowJobUpdateCommand extends XFsTestCase {
         assertEquals(wfBean2.getStatusStr(), "RUNNING");
     }
 
+    public void testWorkflowConfigurationStoredWithJob() throws Exception {
+        String wfId = insertWF();
+        JPAService jpaService = Services.get().get(JPAService.class);
+        WorkflowJobBean wfBean = jpaService.execute(new WorkflowJobGetCommand(wfId));
+
+        // a new definition service has empty caches, the definition and the configuration are read from the DB
+        services.setService(WorkflowDefinitionService.class);
+        LiteWorkflowInstance wfInstance = WritableUtils.fromByteArray(wfBean.getWfInstance(),
+                                                                      LiteWorkflowInstance.class);
+        assertEquals("testApp", wfInstance.getApp().getName());
+        assertEquals("testUser1", wfInstance.getConf().get(OozieClient.USER_NAME));
+
+        // the configuration is stored once, updates refer to it
+        wfBean.setWorkflowInstance(wfInstance);
+        assertNull(wfBean.removeUnstoredConfiguration());
+        jpaService.execute(new WorkflowJobUpdateCommand(wfBean));
+        assertEquals(1, (int) jpaService.execute(new BulkDeleteCommand("WorkflowConfigurationBean", "jobId",
+                                                                       Arrays.asList(wfId))));
+    }
+
     private String insertWF() throws Exception {
         WorkflowApp app = new LiteWorkflowApp("testApp", "<workflow-app/>", new StartNodeDef("end"))
                 .addNode(new EndNodeDef("end"));
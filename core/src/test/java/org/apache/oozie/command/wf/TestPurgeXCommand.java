@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.wf;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.command.jpa.BulkDeleteCommand;
+import org.apache.oozie.command.jpa.WorkflowActionGetCommand;
+import org.apache.oozie.command.jpa.WorkflowActionInsertCommand;
+import org.apache.oozie.command.jpa.WorkflowJobGetCommand;
+import org.apache.oozie.command.jpa.WorkflowJobInsertCommand;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowStoreService;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.workflow.WorkflowApp;
+import org.apache.oozie.workflow.WorkflowInstance;
+import org.apache.oozie.workflow.lite.EndNodeDef;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.StartNodeDef;
+
+public class TestPurgeXCommand extends XTestCase {
+    private static final long DAY_IN_MS = 24 * 60 * 60 * 1000;
+
+    private Services services;
+    private JPAService jpaService;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+        jpaService = Services.get().get(JPAService.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testPurgeXCommand() throws Exception {
+        String[] jobIds = new String[5];
+        for (int i = 0; i < jobIds.length; i++) {
+            jobIds[i] = addRecordToJobTable(WorkflowJob.Status.SUCCEEDED, 10);
+            addRecordToActionTable(jobIds[i], 1);
+            addRecordToActionTable(jobIds[i], 2);
+        }
+        String recentJobId = addRecordToJobTable(WorkflowJob.Status.SUCCEEDED, 1);
+        addRecordToActionTable(recentJobId, 1);
+        String runningJobId = addRecordToJobTable(WorkflowJob.Status.RUNNING, -1);
+        addRecordToActionTable(runningJobId, 1);
+
+        // batches of 2 jobs
+        new PurgeXCommand(7, 2, 0, 0).call();
+        for (String jobId : jobIds) {
+            checkJobPurged(jobId);
+            checkActionPurged(jobId + "@1");
+            checkActionPurged(jobId + "@2");
+            assertEquals(0, deleteConfiguration(jobId));
+        }
+
+        // jobs not old enough and jobs not completed are not purged
+        assertNotNull(jpaService.execute(new WorkflowJobGetCommand(recentJobId)));
+        assertNotNull(jpaService.execute(new WorkflowActionGetCommand(recentJobId + "@1")));
+        assertNotNull(jpaService.execute(new WorkflowJobGetCommand(runningJobId)));
+        assertNotNull(jpaService.execute(new WorkflowActionGetCommand(runningJobId + "@1")));
+        assertEquals(1, deleteConfiguration(recentJobId));
+        assertEquals(1, deleteConfiguration(runningJobId));
+    }
+
+    public void testPurgeXCommandMaxRunTime() throws Exception {
+        String[] jobIds = new String[3];
+        for (int i = 0; i < jobIds.length; i++) {
+            jobIds[i] = addRecordToJobTable(WorkflowJob.Status.SUCCEEDED, 10);
+            addRecordToActionTable(jobIds[i], 1);
+        }
+
+        // a job and its action and configuration are 3 records, at 1 record per second the first batch of 1 job
+        // reaches the max run time of 1 second
+        long start = System.currentTimeMillis();
+        new PurgeXCommand(7, 1, 1, 1).call();
+        assertTrue(System.currentTimeMillis() - start < 3000);
+
+        int purged = 0;
+        for (String jobId : jobIds) {
+            try {
+                jpaService.execute(new WorkflowJobGetCommand(jobId));
+            }
+            catch (CommandException ex) {
+                assertEquals(ErrorCode.E0604, ex.getErrorCode());
+                purged++;
+            }
+        }
+        assertEquals(1, purged);
+
+        // the next purge resumes where the previous one stopped
+        new PurgeXCommand(7, 1, 0, 0).call();
+        for (String jobId : jobIds) {
+            checkJobPurged(jobId);
+        }
+    }
+
+    private int deleteConfiguration(String jobId) throws Exception {
+        return jpaService.execute(new BulkDeleteCommand("WorkflowConfigurationBean", "jobId", Arrays.asList(jobId)));
+    }
+
+    private void checkJobPurged(String jobId) {
+        try {
+            jpaService.execute(new WorkflowJobGetCommand(jobId));
+            fail("Job ID " + jobId + " should be purged");
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0604, ex.getErrorCode());
+        }
+    }
+
+    private void checkActionPurged(String actionId) {
+        try {
+            jpaService.execute(new WorkflowActionGetCommand(actionId));
+            fail("Action ID " + actionId + " should be purged");
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0605, ex.getErrorCode());
+        }
+    }
+
+    private void addRecordToActionTable(String jobId, int actionNum) throws Exception {
+        WorkflowActionBean action = new WorkflowActionBean();
+        action.setId(jobId + "@" + actionNum);
+        action.setJobId(jobId);
+        action.setName("action" + actionNum);
+        action.setStatus(WorkflowAction.Status.OK);
+        jpaService.execute(new WorkflowActionInsertCommand(action));
+    }
+
+    /**
+     * Insert a workflow job with its configuration.
+     *
+     * @param status job status.
+     * @param endedDaysAgo days since the job ended, negative if the job has not ended.
+     * @return the job ID.
+     * @throws Exception thrown if the job could not be inserted.
+     */
+    private String addRecordToJobTable(WorkflowJob.Status status, int endedDaysAgo) throws Exception {
+        WorkflowApp app = new LiteWorkflowApp("testApp", "<workflow-app/>", new StartNodeDef("end"))
+                .addNode(new EndNodeDef("end"));
+        Configuration conf = new Configuration();
+        conf.set(OozieClient.APP_PATH, "testPath");
+        conf.set(OozieClient.USER_NAME, "testUser");
+        conf.set(OozieClient.GROUP_NAME, "testGroup");
+        WorkflowInstance wfInstance = Services.get().get(WorkflowStoreService.class).getWorkflowLibWithNoDB()
+                .createInstance(app, conf);
+
+        WorkflowJobBean workflow = new WorkflowJobBean();
+        workflow.setId(wfInstance.getId());
+        workflow.setAppName(app.getName());
+        workflow.setAppPath(conf.get(OozieClient.APP_PATH));
+        workflow.setConf("<configuration/>");
+        workflow.setProtoActionConf("<configuration/>");
+        workflow.setCreatedTime(new Date());
+        workflow.setLogToken("");
+        workflow.setStatus(status);
+        if (endedDaysAgo >= 0) {
+            workflow.setEndTime(new Date(System.currentTimeMillis() - endedDaysAgo * DAY_IN_MS));
+        }
+        workflow.setRun(0);
+        workflow.setUser(conf.get(OozieClient.USER_NAME));
+        workflow.setGroup(conf.get(OozieClient.GROUP_NAME));
+        workflow.setAuthToken("notoken");
+        workflow.setWorkflowInstance(wfInstance);
+        jpaService.execute(new WorkflowJobInsertCommand(workflow));
+        return workflow.getId();
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Benchmark of the coord:latest() resolution checking each instance path against the resolution using directory
+ * listings ({@link CoordDatasetListing}).
+ * <p/>
+ * A 15 minutes dataset with a done flag, laid out as <code>YEAR/MONTH/DAY/HOUR/MINUTE</code>, is created in the local
+ * filesystem for one week, with the most recent instances missing. The local filesystem stands in for HDFS, each
+ * filesystem call counts as a namenode RPC and is delayed by the given latency.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... org.apache.oozie.coord.CoordDatasetListingBenchmark [DIR] [RPC_LATENCY_MICROS] [RUNS]</code>
+ */
+public class CoordDatasetListingBenchmark {
+    private static final int FREQUENCY = 15;
+    private static final int DAYS = 7;
+    private static final int[] MISSING_HOURS = {1, 24, 72, DAYS * 24 - 1};
+    private static final String DONE_FLAG = "_SUCCESS";
+
+    private static class CountingFileSystem extends FilterFileSystem {
+        private long latency;
+        private int calls;
+
+        public CountingFileSystem(FileSystem fs, long latency) {
+            super(fs);
+            this.latency = latency;
+        }
+
+        private void rpc() {
+            calls++;
+            if (latency > 0) {
+                LockSupport.parkNanos(latency * 1000);
+            }
+        }
+
+        @Override
+        public FileStatus getFileStatus(Path f) throws IOException {
+            rpc();
+            return super.getFileStatus(f);
+        }
+
+        @Override
+        public FileStatus[] listStatus(Path f) throws IOException {
+            rpc();
+            return super.listStatus(f);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String dir = (args.length > 0) ? args[0] : System.getProperty("java.io.tmpdir") + "/oozie-listing-benchmark";
+        long latency = (args.length > 1) ? Long.parseLong(args[1]) : 500;
+        int runs = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+
+        String base = "file://" + new File(dir).getAbsolutePath();
+        String uriTemplate = base + "/${YEAR}/${MONTH}/${DAY}/${HOUR}/${MINUTE}";
+        FileSystem local = FileSystem.getLocal(new Configuration());
+        CountingFileSystem fs = new CountingFileSystem(local, latency);
+
+        Calendar end = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        end.set(2010, Calendar.JANUARY, 8, 0, 0, 0);
+        List<String> instances = new ArrayList<String>();
+        Calendar cal = (Calendar) end.clone();
+        for (int i = 0; i < DAYS * 24 * 60 / FREQUENCY; i++) {
+            cal.add(Calendar.MINUTE, -FREQUENCY);
+            instances.add(instancePath(base, cal));
+        }
+
+        System.out.println("instances=" + instances.size() + " rpcLatency=" + latency + "us runs=" + runs);
+        System.out.println("missingHours\texistsCalls\texists(ms)\tlistingCalls\tlisting(ms)");
+        for (int missingHours : MISSING_HOURS) {
+            local.delete(new Path(base), true);
+            int missing = missingHours * 60 / FREQUENCY;
+            for (int i = missing; i < instances.size(); i++) {
+                local.mkdirs(new Path(instances.get(i) + "/" + DONE_FLAG));
+            }
+
+            // warm up
+            resolveWithExists(fs, instances);
+            resolveWithListing(fs, uriTemplate, instances);
+
+            fs.calls = 0;
+            long time = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                resolveWithExists(fs, instances);
+            }
+            double existsTime = (System.nanoTime() - time) / 1000000d / runs;
+            int existsCalls = fs.calls / runs;
+
+            fs.calls = 0;
+            time = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                resolveWithListing(fs, uriTemplate, instances);
+            }
+            double listingTime = (System.nanoTime() - time) / 1000000d / runs;
+            int listingCalls = fs.calls / runs;
+
+            System.out.println(missingHours + "\t" + existsCalls + "\t" + String.format("%.2f", existsTime) + "\t"
+                    + listingCalls + "\t" + String.format("%.2f", listingTime));
+        }
+        local.delete(new Path(base), true);
+    }
+
+    private static String instancePath(String base, Calendar cal) {
+        return String.format("%s/%04d/%02d/%02d/%02d/%02d", base, cal.get(Calendar.YEAR),
+                             cal.get(Calendar.MONTH) + 1, cal.get(Calendar.DAY_OF_MONTH),
+                             cal.get(Calendar.HOUR_OF_DAY), cal.get(Calendar.MINUTE));
+    }
+
+    private static String resolveWithExists(FileSystem fs, List<String> instances) throws IOException {
+        for (String instance : instances) {
+            if (fs.exists(new Path(instance + "/" + DONE_FLAG))) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+    private static String resolveWithListing(FileSystem fs, String uriTemplate, List<String> instances)
+            throws IOException {
+        CoordDatasetListing listing = new CoordDatasetListing(fs, uriTemplate);
+        for (String instance : instances) {
+            if (listing.exists(instance + "/" + DONE_FLAG)) {
+                return instance;
+            }
+        }
+        return null;
+    }
+
+}
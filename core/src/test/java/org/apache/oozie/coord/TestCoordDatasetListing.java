@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.test.XTestCase;
+
+public class TestCoordDatasetListing extends XTestCase {
+
+    public void testExists() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        String base = "file://" + getTestCaseDir();
+        fs.mkdirs(new Path(base + "/2009/09/10/_SUCCESS"));
+        fs.mkdirs(new Path(base + "/2009/09/08"));
+
+        CoordDatasetListing listing = new CoordDatasetListing(fs, base + "/${YEAR}/${MONTH}/${DAY}");
+        assertTrue(listing.exists(base + "/2009/09/10"));
+        // the base directory is checked, then the base, year and month directories are listed
+        assertEquals(4, listing.getCalls());
+        assertFalse(listing.exists(base + "/2009/09/09"));
+        assertTrue(listing.exists(base + "/2009/09/08"));
+        assertEquals(4, listing.getCalls());
+
+        assertTrue(listing.exists(base + "/2009/09/10/_SUCCESS"));
+        assertFalse(listing.exists(base + "/2009/09/08/_SUCCESS"));
+        assertEquals(6, listing.getCalls());
+
+        // instances under missing directories do not need any filesystem call
+        assertFalse(listing.exists(base + "/2009/10/01/_SUCCESS"));
+        assertFalse(listing.exists(base + "/2010/01/01/_SUCCESS"));
+        assertEquals(6, listing.getCalls());
+    }
+
+    public void testMissingBase() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        String base = "file://" + getTestCaseDir() + "/missing";
+
+        CoordDatasetListing listing = new CoordDatasetListing(fs, base + "/${YEAR}/${MONTH}/${DAY}");
+        assertFalse(listing.exists(base + "/2009/09/10"));
+        assertFalse(listing.exists(base + "/2009/09/11"));
+        assertEquals(1, listing.getCalls());
+    }
+
+    public void testFlatTemplate() throws Exception {
+        FileSystem fs = FileSystem.getLocal(new Configuration());
+        String base = "file://" + getTestCaseDir();
+        fs.mkdirs(new Path(base + "/feed_20090910"));
+
+        CoordDatasetListing listing = new CoordDatasetListing(fs, base + "/feed_${YEAR}${MONTH}${DAY}");
+        assertTrue(listing.exists(base + "/feed_20090910"));
+        assertFalse(listing.exists(base + "/feed_20090911"));
+        assertFalse(listing.exists(base + "/feed_20090912"));
+        assertEquals(2, listing.getCalls());
+    }
+
+}
@@ -699,6 +699,24 @@ public class TestCoordELFunctions extends XTestCase {
         // Add test cases with EOM and EOD option
     }
 
+    public void testLatestListing() throws Exception {
+        Services.get().getConf().setBoolean(CoordELFunctions.CONF_DATASET_LISTING, true);
+        init("coord-action-start");
+        String expr = "${coord:latest(0)}";
+        Configuration conf = new Configuration();
+        eval.setVariable(CoordELFunctions.CONFIGURATION, conf);
+        String testDir = getTestCaseDir();
+        ds.setUriTemplate("file://" + testDir + "/${YEAR}/${MONTH}/${DAY}");
+        ds.setDoneFlag("_SUCCESS");
+        createDir(testDir + "/2009/09/10");
+        assertEquals("2009-09-10T23:59Z", CoordELFunctions.evalAndWrap(eval, expr));
+        createDir(testDir + "/2009/09/08");
+        expr = "${coord:latest(-1)}";
+        assertEquals("2009-09-08T23:59Z", CoordELFunctions.evalAndWrap(eval, expr));
+        expr = "${coord:latest(-2)}";
+        assertEquals(expr, CoordELFunctions.evalAndWrap(eval, expr));
+    }
+
     public void testPh1Future() throws Exception {
         init("coord-job-submit-instances");
         String expr = "${coord:future(1, 10)}";
@@ -732,6 +750,22 @@ public class TestCoordELFunctions extends XTestCase {
         assertEquals(res, CoordELFunctions.evalAndWrap(eval, expr));
     }
 
+    public void testFutureListing() throws Exception {
+        Services.get().getConf().setBoolean(CoordELFunctions.CONF_DATASET_LISTING, true);
+        init("coord-action-start");
+        String expr = "${coord:future(1, 20)}";
+        Configuration conf = new Configuration();
+        eval.setVariable(CoordELFunctions.CONFIGURATION, conf);
+        String testDir = getTestCaseDir();
+        ds.setUriTemplate("file://" + testDir + "/${YEAR}/${MONTH}/${DAY}");
+        createDir(testDir + "/2009/09/10");
+        createDir(testDir + "/2009/09/25");
+        assertEquals("2009-09-25T23:59Z", CoordELFunctions.evalAndWrap(eval, expr));
+
+        expr = "${coord:future(2, 20)}";
+        assertEquals(expr, CoordELFunctions.evalAndWrap(eval, expr));
+    }
+
     public void testDataIn() throws Exception {
         init("coord-action-start");
         eval.setVariable(".datain.ABC", "file:///tmp/coord/US/2009/1/30,file:///tmp/coord/US/2009/1/31");
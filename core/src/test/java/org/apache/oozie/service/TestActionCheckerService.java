@@ -21,6 +21,7 @@ import java.io.Reader;
 import java.io.Writer;
 import java.util.List;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.client.CoordinatorAction;
@@ -45,6 +46,8 @@ import org.apache.oozie.service.WorkflowStoreService;
 import org.apache.oozie.test.XTestCase;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.TimingWheel;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XmlUtils;
 import org.apache.oozie.workflow.WorkflowApp;
@@ -137,6 +140,71 @@ public class TestActionCheckerService extends XTestCase {
         store2.closeTrx();
     }
 
+    /**
+     * Tests the check schedule of the Action Checker Service Runnable. </p> Starts an action which behaves like an
+     * Async Action (Action and Job state set to Running). </p> Runs the ActionCheck runnable with an empty schedule,
+     * verifies the running action is loaded from the database into the schedule and checked, that a scheduled action
+     * not running anymore is removed, and checks for the job to complete.
+     *
+     * @throws Exception
+     */
+    public void testActionCheckerServiceSchedule() throws Exception {
+        Reader reader = IOUtils.getResourceAsReader("wf-ext-schema-valid.xml", -1);
+        Writer writer = new FileWriter(getTestCaseDir() + "/workflow.xml");
+        IOUtils.copyCharStream(reader, writer);
+
+        final DagEngine engine = new DagEngine(getTestUser(), "a");
+        Configuration conf = new XConfiguration();
+        conf.set(OozieClient.APP_PATH, getTestCaseDir() + File.separator + "workflow.xml");
+        conf.set(WorkflowAppService.HADOOP_USER, getTestUser());
+        conf.set(OozieClient.GROUP_NAME, getTestGroup());
+        conf.set(WorkflowAppService.HADOOP_UGI, getTestUser() + "," + getTestGroup());
+        injectKerberosInfo(conf);
+        conf.set(OozieClient.LOG_TOKEN, "t");
+
+        conf.set("external-status", "ok");
+        conf.set("signal-value", "based_on_action_status");
+        conf.set("running-mode", "async");
+
+        final String jobId = engine.submitJob(conf, true);
+
+        waitFor(5000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return (engine.getJob(jobId).getStatus() == WorkflowJob.Status.RUNNING);
+            }
+        });
+        Thread.sleep(2000);
+
+        final WorkflowStore store = Services.get().get(WorkflowStoreService.class).create();
+        store.beginTrx();
+        List<WorkflowActionBean> actions = store.getActionsForWorkflow(jobId, false);
+        WorkflowActionBean action = actions.get(0);
+        assertEquals(WorkflowActionBean.Status.RUNNING, action.getStatus());
+        store.commitTrx();
+        store.closeTrx();
+
+        long now = System.currentTimeMillis();
+        TimingWheel<String> wfSchedule = new TimingWheel<String>(60, 1, TimeUnit.SECONDS, now);
+        TimingWheel<String> coordSchedule = new TimingWheel<String>(60, 1, TimeUnit.SECONDS, now);
+        wfSchedule.schedule("0000000-000000000000000-oozie-W@gone", now + 30000);
+        coordSchedule.schedule("0000000-000000000000000-oozie-C@gone", now + 30000);
+        Runnable actionCheckRunnable = new ActionCheckRunnable(0, wfSchedule, coordSchedule, 10, 3600);
+        actionCheckRunnable.run();
+
+        // checked actions are scheduled again for the next check
+        assertTrue(wfSchedule.contains(action.getId()));
+        // the reload drops the actions not running anymore
+        assertFalse(wfSchedule.contains("0000000-000000000000000-oozie-W@gone"));
+        assertFalse(coordSchedule.contains("0000000-000000000000000-oozie-C@gone"));
+
+        waitFor(20000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return (engine.getJob(jobId).getStatus() == WorkflowJob.Status.SUCCEEDED);
+            }
+        });
+        assertEquals(WorkflowJob.Status.SUCCEEDED, engine.getJob(jobId).getStatus());
+    }
+
     /**
      * Tests the delayed check functionality of the Action Check Service Runnable. </p> Starts an action which behaves
      * like an Async Action (Action and Job state set to Running). Verifies the action status to be RUNNING. </p>
@@ -244,6 +312,33 @@ public class TestActionCheckerService extends XTestCase {
 
     }
 
+    /**
+     * Tests that a coordinator action started while the check schedule is enabled is added to the schedule right away,
+     * without waiting for the next reload from the database, and that it is removed once it is not running anymore.
+     *
+     * @throws Exception
+     */
+    public void testScheduleCoordCheck() throws Exception {
+        services.destroy();
+        setSystemProperty(ActionCheckerService.CONF_SCHEDULE_ENABLED, "true");
+        services = new Services();
+        services.init();
+
+        ActionCheckerService checker = services.get(ActionCheckerService.class);
+        Instrumentation.Variable scheduled = (Instrumentation.Variable) services.get(InstrumentationService.class).get()
+                .getVariables().get(ActionCheckerService.INSTRUMENTATION_GROUP)
+                .get(ActionCheckerService.INSTR_SCHEDULED_COORD_ACTIONS_VARIABLE);
+        assertEquals(new Long(0), scheduled.getValue());
+        checker.scheduleCoordCheck("0000000-000000000000000-oozie-C@1");
+        assertEquals(new Long(1), scheduled.getValue());
+        checker.scheduleCoordCheck("0000000-000000000000000-oozie-C@1");
+        assertEquals(new Long(1), scheduled.getValue());
+        checker.unscheduleCoordCheck("0000000-000000000000000-oozie-C@1");
+        assertEquals(new Long(0), scheduled.getValue());
+        checker.unscheduleCoordCheck("0000000-000000000000000-oozie-C@1");
+        assertEquals(new Long(0), scheduled.getValue());
+    }
+
     private void addRecordToCoordJobTable(String jobId, CoordinatorStore store) throws StoreException {
         CoordinatorJobBean coordJob = new CoordinatorJobBean();
         coordJob.setId(jobId);
@@ -28,17 +28,35 @@ import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.oozie.DagEngine;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.ForTestingActionExecutor;
+import org.apache.oozie.WorkflowJobBean;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.jpa.WorkflowJobInsertCommand;
+import org.apache.oozie.command.jpa.WorkflowJobUpdateCommand;
 import org.apache.oozie.test.XFsTestCase;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
+import org.apache.oozie.workflow.lite.EndNodeDef;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.LiteWorkflowInstance;
+import org.apache.oozie.workflow.lite.StartNodeDef;
 
 /**
  * Tests the authorization service.
  */
 public class TestAuthorizationService extends XFsTestCase {
 
+    public static class ClockAuthorizationService extends ForTestAuthorizationService {
+        static volatile long now;
+
+        @Override
+        protected long getCurrentTime() {
+            return now;
+        }
+    }
+
     private Services services;
 
     @Override
@@ -67,6 +85,25 @@ public class TestAuthorizationService extends XFsTestCase {
         super.tearDown();
     }
 
+    private WorkflowJobBean insertWorkflow(String id, String user, String group) throws Exception {
+        LiteWorkflowApp app = new LiteWorkflowApp("testApp", "<workflow-app/>", new StartNodeDef("end"))
+                .addNode(new EndNodeDef("end"));
+        WorkflowJobBean workflow = new WorkflowJobBean();
+        workflow.setId(id);
+        workflow.setAppName("testApp");
+        workflow.setUser(user);
+        workflow.setGroup(group);
+        workflow.setStatus(WorkflowJob.Status.RUNNING);
+        workflow.setWorkflowInstance(new LiteWorkflowInstance(app, new Configuration(), id));
+        services.get(JPAService.class).execute(new WorkflowJobInsertCommand(workflow));
+        return workflow;
+    }
+
+    private long getCounter(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return instr.getCounters().get("authorization").get(name).getValue();
+    }
+
     /**
      * Tests the Authorization Service API.
      */
@@ -223,7 +260,7 @@ public class TestAuthorizationService extends XFsTestCase {
             assertEquals(ErrorCode.E0604, ex.getErrorCode());
         }
 
-        services.setService(ForTestWorkflowStoreService.class);
+        insertWorkflow("1-W", "u", "g");
         try {
             as.authorizeForJob(getTestUser3(), "1-W", true);
             fail();
@@ -233,4 +270,44 @@ public class TestAuthorizationService extends XFsTestCase {
         }
     }
 
+    public void testOwnerCache() throws Exception {
+        services.getConf().setInt(AuthorizationService.CONF_OWNER_CACHE_TTL, 300);
+        ClockAuthorizationService.now = System.currentTimeMillis();
+        services.setService(ClockAuthorizationService.class);
+        AuthorizationService as = services.get(AuthorizationService.class);
+
+        WorkflowJobBean workflow = insertWorkflow("owner-cache-W", "u", "g");
+        as.authorizeForJob("u", "owner-cache-W", true);
+        as.authorizeForJob("u", "owner-cache-W", true);
+        assertEquals(1, getCounter("owner.cache.misses"));
+        assertEquals(1, getCounter("owner.cache.hits"));
+
+        // the owner is served from the cache until the TTL expires
+        workflow.setGroup("users");
+        services.get(JPAService.class).execute(new WorkflowJobUpdateCommand(workflow));
+        try {
+            as.authorizeForJob(getTestUser3(), "owner-cache-W", true);
+            fail();
+        }
+        catch (AuthorizationException ex) {
+            assertEquals(ErrorCode.E0508, ex.getErrorCode());
+        }
+        ClockAuthorizationService.now += 301 * 1000;
+        as.authorizeForJob(getTestUser3(), "owner-cache-W", true);
+        assertEquals(2, getCounter("owner.cache.misses"));
+
+        // missing jobs are not cached
+        for (int i = 0; i < 2; i++) {
+            try {
+                as.authorizeForJob(getTestUser3(), "missing-W", true);
+                fail();
+            }
+            catch (AuthorizationException ex) {
+                assertEquals(ErrorCode.E0604, ex.getErrorCode());
+            }
+        }
+        assertEquals(4, getCounter("owner.cache.misses"));
+        assertEquals(2, getCounter("owner.cache.hits"));
+    }
+
 }
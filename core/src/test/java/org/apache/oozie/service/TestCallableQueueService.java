@@ -158,6 +158,39 @@ public class TestCallableQueueService extends XTestCase {
 
     }
 
+    public void testShardedQueuing() throws Exception {
+        EXEC_ORDER = new AtomicLong();
+        setSystemProperty(CallableQueueService.CONF_THREADS, "1");
+        setSystemProperty(CallableQueueService.CONF_QUEUE_SHARDS, "4");
+        Services services = new Services();
+        services.init();
+
+        CallableQueueService queueservice = services.get(CallableQueueService.class);
+
+        final MyCallable callable1 = new MyCallable(0, 200);
+        final MyCallable callableLow = new MyCallable();
+        final MyCallable callableHigh = new MyCallable(1, 10);
+        final MyCallable callableDelayed = new MyCallable();
+
+        long scheduled = System.currentTimeMillis();
+        queueservice.queue(callableDelayed, 500);
+        queueservice.queue(callable1);
+        queueservice.queue(callableLow);
+        queueservice.queue(callableHigh);
+
+        waitFor(3000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return callable1.executed != 0 && callableLow.executed != 0 && callableHigh.executed != 0 &&
+                        callableDelayed.executed != 0;
+            }
+        });
+        assertTrue(callableHigh.order < callableLow.order);
+        assertTrue(callableDelayed.executed >= scheduled + 500);
+        assertEquals(0, queueservice.queueSize());
+
+        services.destroy();
+    }
+
     public void testQueueSerial() throws Exception {
         EXEC_ORDER = new AtomicLong();
         Services services = new Services();
@@ -223,6 +256,92 @@ public class TestCallableQueueService extends XTestCase {
         services.destroy();
     }
 
+    public void testConcurrencyLanes() throws Exception {
+        EXEC_ORDER = new AtomicLong();
+        setSystemProperty(CallableQueueService.CONF_CALLABLE_CONCURRENCY_LANES, "true");
+        Services services = new Services();
+        services.init();
+        final MyCallable callable1 = new MyCallable(0, 500);
+        final MyCallable callable2 = new MyCallable(0, 500);
+        final MyCallable callable3 = new MyCallable(0, 500);
+        final MyCallable callable4 = new MyCallable(0, 500);
+        final MyCallable callable5 = new MyCallable(0, 500);
+        final MyCallable callable6 = new MyCallable(0, 500);
+        final MyCallable callable7 = new MyCallable(0, 500);
+
+        List<MyCallable> callables = Arrays.asList(callable1, callable2, callable3, callable4, callable5, callable6,
+                                                   callable7);
+
+        CallableQueueService queueservice = services.get(CallableQueueService.class);
+
+        for (MyCallable c : callables) {
+            queueservice.queue(c);
+        }
+
+        waitFor(5000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return callable1.executed != 0 && callable2.executed != 0 && callable3.executed != 0 &&
+                        callable4.executed != 0 && callable5.executed != 0 && callable6.executed != 0 &&
+                        callable7.executed != 0;
+            }
+        });
+
+        long first = Long.MAX_VALUE;
+        for (MyCallable c : callables) {
+            assertTrue(c.executed != 0);
+            first = Math.min(first, c.executed);
+        }
+
+        // waiting callables run as soon as a slot frees, in 3 batches of 3, 3 and 1, 500ms apart
+        int[] batches = new int[3];
+        for (MyCallable c : callables) {
+            long batch = (c.executed - first + 250) / 500;
+            assertTrue(batch < 3);
+            batches[(int) batch]++;
+        }
+        assertEquals(3, batches[0]);
+        assertEquals(3, batches[1]);
+        assertEquals(1, batches[2]);
+
+        // the lane of the type shows in the queue dump, empty once all callables ran
+        assertTrue(queueservice.getQueueDump().contains("lane [type] waiting=0"));
+
+        services.destroy();
+    }
+
+    public void testConcurrencyLaneRequeueFailure() throws Exception {
+        setSystemProperty(CallableQueueService.CONF_CALLABLE_CONCURRENCY_LANES, "true");
+        setSystemProperty(CallableQueueService.CONF_CALLABLE_CONCURRENCY, "1");
+        setSystemProperty(CallableQueueService.CONF_THREADS, "2");
+        setSystemProperty(CallableQueueService.CONF_QUEUE_SIZE, "1");
+        Services services = new Services();
+        services.init();
+        final MyCallable running = new MyCallable(0, 1000);
+        final MyCallable waiting = new MyCallable(0, 0);
+        final MyCallable delayed = new MyCallable("other", 0, 0);
+
+        CallableQueueService queueservice = services.get(CallableQueueService.class);
+        assertTrue(queueservice.queue(running));
+        Thread.sleep(100);
+        assertTrue(queueservice.queue(waiting));
+        Thread.sleep(100);
+
+        // the queue is full when the running callable finishes, the waiting one cannot be queued again
+        assertTrue(queueservice.queue(delayed, 1500));
+
+        // it is resumed once the queue has room, no other callable of its type running
+        waitFor(5000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return waiting.executed != 0;
+            }
+        });
+        assertTrue(waiting.executed != 0);
+        assertTrue(waiting.executed >= running.executed);
+        assertTrue(queueservice.getQueueDump().contains("lane [type] waiting=0"));
+
+        services.destroy();
+    }
+
     public void testSerialConcurrencyLimit() throws Exception {
         EXEC_ORDER = new AtomicLong();
         Services services = new Services();
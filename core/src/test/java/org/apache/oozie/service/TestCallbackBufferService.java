@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XCallable;
+
+public class TestCallbackBufferService extends XTestCase {
+    private Services services;
+
+    /**
+     * Command queue keeping the queued callables, they are never executed.
+     */
+    public static class HoldingCallableQueueService extends CallableQueueService {
+        static final List<XCallable<?>> HELD = new ArrayList<XCallable<?>>();
+
+        @Override
+        public boolean queueSerial(List<? extends XCallable<?>> callables) {
+            HELD.addAll(callables);
+            return true;
+        }
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(CallbackBufferService.CONF_CAPACITY, "2");
+        // drains are run by the testcases
+        setSystemProperty(CallbackBufferService.CONF_DRAIN_INTERVAL, "3600000");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        HoldingCallableQueueService.HELD.clear();
+        services.destroy();
+        super.tearDown();
+    }
+
+    private long getVariable(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return (Long) instr.getVariables().get(CallbackBufferService.INSTRUMENTATION_GROUP).get(name).getValue()
+                .getValue();
+    }
+
+    public void testRing() throws Exception {
+        CallbackBufferService.Ring ring = new CallbackBufferService.Ring(2);
+        assertNull(ring.peek(0));
+        assertTrue(ring.reserve());
+        assertTrue(ring.reserve());
+        assertFalse(ring.reserve());
+        ring.offer("a");
+        ring.offer("b");
+        assertEquals("a", ring.peek(0));
+        assertEquals("b", ring.peek(1));
+        assertEquals("a", ring.poll());
+        ring.release();
+        assertTrue(ring.reserve());
+        ring.offer("c");
+        assertEquals("b", ring.poll());
+        assertEquals("c", ring.peek(0));
+        assertNull(ring.peek(1));
+        assertEquals("c", ring.poll());
+        ring.release();
+        ring.release();
+        assertEquals(0, ring.size());
+    }
+
+    public void testAddAndDrain() throws Exception {
+        CallbackBufferService buffer = services.get(CallbackBufferService.class);
+        Properties data = new Properties();
+        data.setProperty("a", "A");
+        assertTrue(buffer.add("1-W@a", "RUNNING", null));
+        assertTrue(buffer.add("1-W@a", "SUCCEEDED", data));
+        assertTrue(buffer.add("1-W@b", "SUCCEEDED", null));
+        assertEquals(2, buffer.size());
+
+        // the buffer is full, callbacks for buffered actions are still coalesced
+        assertFalse(buffer.add("1-W@c", "SUCCEEDED", null));
+        assertTrue(buffer.add("1-W@b", "FAILED", null));
+        assertEquals(2, buffer.size());
+
+        assertEquals(4, getVariable("accepted"));
+        assertEquals(2, getVariable("coalesced"));
+        assertEquals(1, getVariable("rejected"));
+        assertTrue(getVariable("journal_size") > 0);
+
+        buffer.drain();
+        assertEquals(0, buffer.size());
+        assertEquals(2, getVariable("drained"));
+        assertTrue(buffer.add("1-W@c", "SUCCEEDED", null));
+        assertEquals(1, buffer.size());
+
+        buffer.drain();
+        // the commands of unknown actions report the callbacks processed
+        waitFor(10000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return getVariable("in_flight") == 0;
+            }
+        });
+        assertEquals(0, getVariable("in_flight"));
+        buffer.compactJournal(false);
+        assertEquals(0, getVariable("journal_size"));
+    }
+
+    public void testBatchSizeOverCapacity() throws Exception {
+        services.destroy();
+        setSystemProperty(CallbackBufferService.CONF_BATCH_SIZE, "10");
+        services = new Services();
+        services.init();
+        services.setService(HoldingCallableQueueService.class);
+        CallbackBufferService buffer = services.get(CallbackBufferService.class);
+        assertTrue(buffer.add("1-W@a", "SUCCEEDED", null));
+        assertTrue(buffer.add("1-W@b", "SUCCEEDED", null));
+
+        // a batch never wraps onto the callbacks it already has
+        buffer.drain();
+        assertEquals(2, HoldingCallableQueueService.HELD.size());
+        assertEquals(0, buffer.size());
+        assertEquals(2, getVariable("drained"));
+        assertTrue(buffer.add("1-W@c", "SUCCEEDED", null));
+        buffer.drain();
+        assertEquals(3, HoldingCallableQueueService.HELD.size());
+        assertEquals(0, buffer.size());
+    }
+
+    public void testProcessed() throws Exception {
+        services.setService(HoldingCallableQueueService.class);
+        CallbackBufferService buffer = services.get(CallbackBufferService.class);
+        assertTrue(buffer.add("1-W@a", "SUCCEEDED", null));
+        buffer.drain();
+        Instrumentation.Cron cron = buffer.getInFlight("1-W@a");
+        assertNotNull(cron);
+
+        // drained callbacks stay in the journal until processed
+        buffer.compactJournal(false);
+        assertTrue(getVariable("journal_size") > 0);
+        buffer.processed("1-W@a", new Instrumentation.Cron());
+        assertNotNull(buffer.getInFlight("1-W@a"));
+        buffer.processed("1-W@a", cron);
+        assertNull(buffer.getInFlight("1-W@a"));
+        buffer.compactJournal(false);
+        assertEquals(0, getVariable("journal_size"));
+    }
+
+    public void testRedelivery() throws Exception {
+        services.destroy();
+        setSystemProperty(CallbackBufferService.CONF_REDELIVERY_TIMEOUT, "0");
+        services = new Services();
+        services.init();
+        services.setService(HoldingCallableQueueService.class);
+        CallbackBufferService buffer = services.get(CallbackBufferService.class);
+        assertTrue(buffer.add("1-W@a", "SUCCEEDED", null));
+        buffer.drain();
+        assertEquals(1, HoldingCallableQueueService.HELD.size());
+
+        // not processed, it is queued again
+        buffer.drain();
+        assertEquals(1, getVariable("redelivered"));
+        assertEquals(2, HoldingCallableQueueService.HELD.size());
+        assertNotNull(buffer.getInFlight("1-W@a"));
+        assertEquals(0, buffer.size());
+    }
+
+    public void testJournalReplay() throws Exception {
+        CallbackBufferService buffer = services.get(CallbackBufferService.class);
+        Properties data = new Properties();
+        data.setProperty("a", "A");
+        assertTrue(buffer.add("1-W@a", "RUNNING", null));
+        assertTrue(buffer.add("1-W@a", "SUCCEEDED", data));
+        assertTrue(buffer.add("1-W@b", "SUCCEEDED", null));
+        services.destroy();
+
+        assertTrue(new File(getTestCaseDir(), "data/callbacks.journal").length() > 0);
+        services = new Services();
+        services.init();
+        buffer = services.get(CallbackBufferService.class);
+        assertEquals(2, buffer.size());
+        assertEquals(2, getVariable("replayed"));
+
+        services.setService(HoldingCallableQueueService.class);
+        buffer.drain();
+        buffer.compactJournal(false);
+        assertEquals(0, buffer.size());
+        services.destroy();
+
+        // drained callbacks not processed are replayed
+        services = new Services();
+        services.init();
+        services.setService(HoldingCallableQueueService.class);
+        buffer = services.get(CallbackBufferService.class);
+        assertEquals(2, buffer.size());
+        buffer.drain();
+        buffer.processed("1-W@a", buffer.getInFlight("1-W@a"));
+        buffer.processed("1-W@b", buffer.getInFlight("1-W@b"));
+        buffer.compactJournal(false);
+        services.destroy();
+
+        // processed callbacks are not replayed
+        services = new Services();
+        services.init();
+        buffer = services.get(CallbackBufferService.class);
+        assertEquals(0, buffer.size());
+    }
+
+}
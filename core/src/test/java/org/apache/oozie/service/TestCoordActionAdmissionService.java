@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.command.CommandException;
+import org.apache.oozie.test.XTestCase;
+
+public class TestCoordActionAdmissionService extends XTestCase {
+
+    private static final List<Object[]> ACTIONS = Collections.synchronizedList(new ArrayList<Object[]>());
+    private static final AtomicInteger LOADS = new AtomicInteger();
+
+    public static class ForTestingCoordActionAdmissionService extends CoordActionAdmissionService {
+
+        @Override
+        protected List<Object[]> loadActions(String jobId) throws CommandException {
+            LOADS.incrementAndGet();
+            return new ArrayList<Object[]>(ACTIONS);
+        }
+    }
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ACTIONS.clear();
+        LOADS.set(0);
+        setSystemProperty(Services.CONF_SERVICE_EXT_CLASSES, ForTestingCoordActionAdmissionService.class.getName());
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private static void addAction(String id, String status, long nominalTime) {
+        ACTIONS.add(new Object[]{id, status, new Timestamp(nominalTime)});
+    }
+
+    private static CoordinatorJobBean createJob(int concurrency, String execution) {
+        CoordinatorJobBean job = new CoordinatorJobBean();
+        job.setId("job");
+        job.setConcurrency(concurrency);
+        job.setExecution(execution);
+        return job;
+    }
+
+    public void testFifo() throws Exception {
+        CoordActionAdmissionService admission = services.get(CoordActionAdmissionService.class);
+        assertTrue(admission instanceof ForTestingCoordActionAdmissionService);
+        addAction("a3", "READY", 3000);
+        addAction("a1", "READY", 1000);
+        addAction("a2", "READY", 2000);
+        addAction("a0", "RUNNING", 0);
+        CoordinatorJobBean job = createJob(3, "FIFO");
+
+        assertEquals(Arrays.asList("a1", "a2"), admission.admit(job));
+        assertEquals(1, LOADS.get());
+        assertEquals(3, admission.getAdmittedCount("job"));
+        assertEquals(Collections.<String>emptyList(), admission.admit(job));
+
+        // releasing an action frees a slot, new READY actions are admitted in order without loading the job again
+        admission.release("job", "a0");
+        admission.addReady("job", "a4", new Date(4000));
+        assertEquals(Arrays.asList("a3"), admission.admit(job));
+        admission.release("job", "a1");
+        assertEquals(Arrays.asList("a4"), admission.admit(job));
+        assertEquals(1, LOADS.get());
+        assertEquals(3, admission.getAdmittedCount("job"));
+    }
+
+    public void testLifoAndLastOnly() throws Exception {
+        CoordActionAdmissionService admission = services.get(CoordActionAdmissionService.class);
+        addAction("a1", "READY", 1000);
+        addAction("a2", "READY", 2000);
+        addAction("a3", "READY", 3000);
+
+        assertEquals(Arrays.asList("a3", "a2"), admission.admit(createJob(2, "LIFO")));
+        admission.reset("job");
+        assertEquals(Arrays.asList("a3"), admission.admit(createJob(-1, "LAST_ONLY")));
+        admission.reset("job");
+        assertEquals(Arrays.asList("a3", "a2", "a1"), admission.admit(createJob(-1, "LIFO")));
+        assertEquals(3, LOADS.get());
+    }
+
+    public void testStateLifecycle() throws Exception {
+        CoordActionAdmissionService admission = services.get(CoordActionAdmissionService.class);
+        CoordinatorJobBean job = createJob(1, "FIFO");
+
+        // READY actions of jobs not in memory are loaded from the database
+        admission.addReady("job", "a1", new Date(1000));
+        assertEquals(-1, admission.getAdmittedCount("job"));
+        addAction("a1", "READY", 1000);
+        assertEquals(Arrays.asList("a1"), admission.admit(job));
+        assertEquals(1, LOADS.get());
+
+        // the job state is dropped once it does not have any READY or admitted action
+        admission.release("job", "a1");
+        assertEquals(-1, admission.getAdmittedCount("job"));
+        ACTIONS.clear();
+        assertEquals(Collections.<String>emptyList(), admission.admit(job));
+        assertEquals(2, LOADS.get());
+        assertEquals(-1, admission.getAdmittedCount("job"));
+
+        // releasing a READY action removes it
+        addAction("a2", "READY", 2000);
+        addAction("a3", "READY", 3000);
+        addAction("a4", "SUBMITTED", 4000);
+        assertEquals(Collections.<String>emptyList(), admission.admit(job));
+        admission.release("job", "a2");
+        admission.release("job", "a4");
+        assertEquals(Arrays.asList("a3"), admission.admit(job));
+    }
+
+    public void testResync() throws Exception {
+        services.destroy();
+        setSystemProperty(CoordActionAdmissionService.CONF_RESYNC_INTERVAL, "1");
+        services = new Services();
+        services.init();
+        CoordActionAdmissionService admission = services.get(CoordActionAdmissionService.class);
+        CoordinatorJobBean job = createJob(1, "FIFO");
+        addAction("a1", "RUNNING", 1000);
+        addAction("a2", "READY", 2000);
+        assertEquals(Collections.<String>emptyList(), admission.admit(job));
+
+        // the action finished without notifying the service, it is noticed when the job state is reloaded
+        ACTIONS.remove(0);
+        assertEquals(Collections.<String>emptyList(), admission.admit(job));
+        Thread.sleep(1100);
+        assertEquals(Arrays.asList("a2"), admission.admit(job));
+        assertEquals(2, LOADS.get());
+    }
+
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XCallable;
+
+public class TestDatasetAvailabilityService extends XTestCase {
+
+    private static final Set<String> EXISTING = Collections.synchronizedSet(new HashSet<String>());
+    private static final Set<String> FAILING = Collections.synchronizedSet(new HashSet<String>());
+    private static final AtomicInteger CALLS = new AtomicInteger();
+    private static volatile long lookupTime;
+
+    public static class ForTestingDatasetAvailabilityService extends DatasetAvailabilityService {
+
+        @Override
+        protected boolean exists(String uri, String user, String group) throws IOException {
+            CALLS.incrementAndGet();
+            if (FAILING.contains(uri)) {
+                throw new IOException("failing " + uri);
+            }
+            if (lookupTime > 0) {
+                try {
+                    Thread.sleep(lookupTime);
+                }
+                catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
+            }
+            return EXISTING.contains(uri);
+        }
+    }
+
+    private static class LatchXCallable implements XCallable<Void> {
+        private CountDownLatch latch;
+
+        public LatchXCallable(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        public String getName() {
+            return "latch";
+        }
+
+        public String getType() {
+            return "type";
+        }
+
+        public int getPriority() {
+            return 0;
+        }
+
+        public long getCreatedTime() {
+            return 1;
+        }
+
+        public Void call() throws Exception {
+            latch.countDown();
+            return null;
+        }
+    }
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        EXISTING.clear();
+        FAILING.clear();
+        CALLS.set(0);
+        lookupTime = 0;
+        setSystemProperty(Services.CONF_SERVICE_EXT_CLASSES, ForTestingDatasetAvailabilityService.class.getName());
+        setSystemProperty(DatasetAvailabilityService.CONF_NEGATIVE_TTL, "1");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private long getCounter(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return instr.getCounters().get("dataset_availability").get(name).getValue();
+    }
+
+    public void testAvailability() throws Exception {
+        DatasetAvailabilityService datasets = services.get(DatasetAvailabilityService.class);
+        assertTrue(datasets instanceof ForTestingDatasetAvailabilityService);
+
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertEquals(1, CALLS.get());
+
+        // missing URIs are cached for the negative TTL
+        EXISTING.add("hdfs://nn/a");
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertEquals(1, CALLS.get());
+
+        Thread.sleep(1100);
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertEquals(2, CALLS.get());
+
+        // available URIs are cached permanently
+        EXISTING.remove("hdfs://nn/a");
+        Thread.sleep(1100);
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertEquals(2, CALLS.get());
+
+        assertEquals(2, getCounter("hits"));
+        assertEquals(2, getCounter("misses"));
+        assertEquals(2, getCounter("namenode_calls"));
+    }
+
+    public void testCoalescing() throws Exception {
+        final DatasetAvailabilityService datasets = services.get(DatasetAvailabilityService.class);
+        EXISTING.add("hdfs://nn/a");
+        lookupTime = 500;
+        final AtomicInteger available = new AtomicInteger();
+        Thread[] threads = new Thread[5];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        if (datasets.isAvailable("hdfs://nn/a", "u", "g")) {
+                            available.incrementAndGet();
+                        }
+                    }
+                    catch (IOException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(5, available.get());
+        assertEquals(1, CALLS.get());
+    }
+
+    public void testWaiters() throws Exception {
+        DatasetAvailabilityService datasets = services.get(DatasetAvailabilityService.class);
+        CountDownLatch latch = new CountDownLatch(2);
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        datasets.addWaiter("hdfs://nn/a", "u", "g", "action1", new LatchXCallable(latch));
+        datasets.addWaiter("hdfs://nn/a", "u", "g", "action2", new LatchXCallable(latch));
+
+        EXISTING.add("hdfs://nn/a");
+        Thread.sleep(1100);
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+        // waiters of available URIs are notified right away
+        CountDownLatch latch2 = new CountDownLatch(1);
+        datasets.addWaiter("hdfs://nn/a", "u", "g", "action3", new LatchXCallable(latch2));
+        assertTrue(latch2.await(5, TimeUnit.SECONDS));
+    }
+
+    public void testPerUser() throws Exception {
+        DatasetAvailabilityService datasets = services.get(DatasetAvailabilityService.class);
+        CountDownLatch latch = new CountDownLatch(1);
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "other", "g"));
+        datasets.addWaiter("hdfs://nn/a", "other", "g", "action1", new LatchXCallable(latch));
+        assertEquals(1, CALLS.get());
+
+        EXISTING.add("hdfs://nn/a");
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertEquals(2, CALLS.get());
+
+        // the availability checked as a user is not used for the other users
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "other", "g"));
+        assertEquals(2, CALLS.get());
+        assertFalse(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "other"));
+        assertEquals(3, CALLS.get());
+    }
+
+    public void testPurgeMissing() throws Exception {
+        DatasetAvailabilityService datasets = services.get(DatasetAvailabilityService.class);
+        CountDownLatch latch = new CountDownLatch(1);
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        datasets.addWaiter("hdfs://nn/a", "u", "g", "action1", new LatchXCallable(latch));
+        datasets.purgeMissing(System.currentTimeMillis() + 3600 * 1000);
+
+        EXISTING.add("hdfs://nn/a");
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertFalse(latch.await(1, TimeUnit.SECONDS));
+    }
+
+    public void testPurgeFailed() throws Exception {
+        DatasetAvailabilityService datasets = services.get(DatasetAvailabilityService.class);
+        CountDownLatch latch = new CountDownLatch(1);
+        assertFalse(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        datasets.addWaiter("hdfs://nn/a", "u", "g", "action1", new LatchXCallable(latch));
+
+        FAILING.add("hdfs://nn/a");
+        Thread.sleep(1100);
+        try {
+            datasets.isAvailable("hdfs://nn/a", "u", "g");
+            fail();
+        }
+        catch (IOException ex) {
+        }
+
+        // the waiters of a failed URI expire with the negative TTL, well before the idle timeout
+        datasets.purgeMissing(System.currentTimeMillis() + 2000);
+        FAILING.clear();
+        EXISTING.add("hdfs://nn/a");
+        assertTrue(datasets.isAvailable("hdfs://nn/a", "u", "g"));
+        assertFalse(latch.await(1, TimeUnit.SECONDS));
+    }
+
+}
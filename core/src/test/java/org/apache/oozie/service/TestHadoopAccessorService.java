@@ -77,4 +77,26 @@ public class TestHadoopAccessorService extends XTestCase {
         assertNotNull(fs);
     }
 
+    public void testPooling() throws Exception {
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        JobConf conf = new JobConf();
+        conf.set("mapred.job.tracker", getJobTrackerUri());
+        conf.set("fs.default.name", getNameNodeUri());
+        String user = getTestUser();
+        String group = getTestGroup();
+
+        // closed JobClients are given back to the pool
+        JobClient jc1 = has.createJobClient(user, group, conf);
+        JobClient jc2 = has.createJobClient(user, group, conf);
+        assertNotSame(jc1, jc2);
+        jc1.close();
+        jc1.close();
+        assertSame(jc1, has.createJobClient(user, group, conf));
+        assertNotSame(jc1, has.createJobClient(getTestUser2(), group, conf));
+
+        // FileSystems are shared
+        FileSystem fs = has.createFileSystem(user, group, conf);
+        assertSame(fs, has.createFileSystem(user, group, new URI(getNameNodeUri()), conf));
+    }
+
 }
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestHadoopClientPool extends XTestCase {
+
+    private static class Handle {
+        private boolean healthy = true;
+        private boolean closed;
+    }
+
+    private static class HandlePool extends HadoopClientPool<Handle> {
+        private List<Handle> closed = new ArrayList<Handle>();
+
+        public HandlePool(boolean shared, int maxSize, int maxIdlePerKey, long idleTimeout, long checkInterval) {
+            super("handle", shared, maxSize, maxIdlePerKey, idleTimeout, checkInterval);
+        }
+
+        @Override
+        protected boolean isHealthy(Handle handle) {
+            return handle.healthy;
+        }
+
+        @Override
+        protected void close(Handle handle) {
+            handle.closed = true;
+            closed.add(handle);
+        }
+    }
+
+    private static class HandleFactory implements Callable<Handle> {
+        private AtomicInteger created = new AtomicInteger();
+
+        public Handle call() {
+            created.incrementAndGet();
+            return new Handle();
+        }
+    }
+
+    private long getVariable(Instrumentation instr, String name) {
+        String group = HadoopAccessorService.INSTRUMENTATION_GROUP;
+        return (Long) instr.getVariables().get(group).get(name).getValue().getValue();
+    }
+
+    public void testExclusive() throws Exception {
+        HandlePool pool = new HandlePool(false, 10, 2, 60000, 60000);
+        HandleFactory factory = new HandleFactory();
+        Handle h1 = pool.get("u1", factory);
+        Handle h2 = pool.get("u1", factory);
+        Handle h3 = pool.get("u1", factory);
+        assertNotSame(h1, h2);
+        assertEquals(3, factory.created.get());
+
+        pool.release("u1", h1);
+        pool.release("u1", h2);
+        // the max idle handles per key is 2
+        pool.release("u1", h3);
+        assertEquals(2, pool.size());
+        assertTrue(h3.closed);
+
+        assertSame(h2, pool.get("u1", factory));
+        assertSame(h1, pool.get("u1", factory));
+        assertNotSame(h1, pool.get("u2", factory));
+        assertEquals(4, factory.created.get());
+        assertEquals(0, pool.size());
+    }
+
+    public void testShared() throws Exception {
+        HandlePool pool = new HandlePool(true, 2, 1, 60000, 60000);
+        HandleFactory factory = new HandleFactory();
+        Handle h1 = pool.get("u1", factory);
+        assertSame(h1, pool.get("u1", factory));
+        assertEquals(1, factory.created.get());
+        assertEquals(1, pool.size());
+
+        Handle h2 = pool.get("u2", factory);
+        pool.get("u1", factory);
+        // u2 is the least recently used key
+        Handle h3 = pool.get("u3", factory);
+        assertEquals(2, pool.size());
+        assertSame(h1, pool.get("u1", factory));
+        assertSame(h3, pool.get("u3", factory));
+        assertNotSame(h2, pool.get("u2", factory));
+        assertEquals(4, factory.created.get());
+        assertTrue(pool.closed.contains(h2));
+    }
+
+    public void testHealthCheck() throws Exception {
+        HandlePool pool = new HandlePool(false, 10, 2, 60000, 100);
+        HandleFactory factory = new HandleFactory();
+        Handle h1 = pool.get("u1", factory);
+        pool.release("u1", h1);
+        h1.healthy = false;
+        // handles are not checked until idle for the health check interval
+        assertSame(h1, pool.get("u1", factory));
+        pool.release("u1", h1);
+        Thread.sleep(200);
+        Handle h2 = pool.get("u1", factory);
+        assertNotSame(h1, h2);
+        assertTrue(h1.closed);
+        assertEquals(2, factory.created.get());
+    }
+
+    public void testPurge() throws Exception {
+        HandlePool pool = new HandlePool(false, 10, 2, 1000, 60000);
+        HandleFactory factory = new HandleFactory();
+        Handle h1 = pool.get("u1", factory);
+        Handle h2 = pool.get("u2", factory);
+        pool.release("u1", h1);
+        pool.release("u2", h2);
+        assertEquals(0, pool.purge(System.currentTimeMillis()));
+        assertEquals(2, pool.purge(System.currentTimeMillis() + 2000));
+        assertEquals(0, pool.size());
+        assertTrue(h1.closed);
+        assertTrue(h2.closed);
+    }
+
+    public void testDisabled() throws Exception {
+        HandlePool pool = new HandlePool(false, 0, 2, 60000, 60000);
+        HandleFactory factory = new HandleFactory();
+        Handle h1 = pool.get("u1", factory);
+        pool.release("u1", h1);
+        assertTrue(h1.closed);
+        assertNotSame(h1, pool.get("u1", factory));
+        assertEquals(0, pool.size());
+    }
+
+    public void testInstrumentation() throws Exception {
+        Instrumentation instr = new Instrumentation();
+        HandlePool pool = new HandlePool(false, 10, 2, 1000, 60000);
+        pool.instrument(instr);
+        HandleFactory factory = new HandleFactory();
+        pool.release("u1", pool.get("u1", factory));
+        pool.release("u1", pool.get("u1", factory));
+        pool.purge(System.currentTimeMillis() + 2000);
+        assertEquals(1, getVariable(instr, "handle.hits"));
+        assertEquals(1, getVariable(instr, "handle.misses"));
+        assertEquals(1, getVariable(instr, "handle.evictions"));
+        assertEquals(0, getVariable(instr, "handle.size"));
+        assertNotNull(instr.getTimers().get(HadoopAccessorService.INSTRUMENTATION_GROUP).get("handle.create"));
+    }
+
+}
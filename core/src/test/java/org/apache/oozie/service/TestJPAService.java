@@ -14,10 +14,18 @@
  */
 package org.apache.oozie.service;
 
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowDefinitionBean;
+import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.jpa.JPACommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionGetCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionInsertCommand;
 import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestJPAService extends XTestCase {
 
@@ -52,4 +60,47 @@ public class TestJPAService extends XTestCase {
         assertEquals("ret", ret);
     }
 
+    public static class FailingJPACommand implements JPACommand<String> {
+        @Override
+        public String getName() {
+            return "failing";
+        }
+
+        @Override
+        public String execute(EntityManager em) throws CommandException {
+            throw new CommandException(ErrorCode.E0603, "failing");
+        }
+    }
+
+    public void testExecuteUnitOfWork() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<JPACommand<?>> commands = new ArrayList<JPACommand<?>>();
+        commands.add(new WorkflowDefinitionInsertCommand(new WorkflowDefinitionBean("uow-a", new byte[]{1})));
+        commands.add(new WorkflowDefinitionInsertCommand(new WorkflowDefinitionBean("uow-b", new byte[]{2})));
+        commands.add(new MyJPACommand());
+        jpaService.execute(commands);
+        assertNotNull(jpaService.execute(new WorkflowDefinitionGetCommand("uow-a")));
+        assertNotNull(jpaService.execute(new WorkflowDefinitionGetCommand("uow-b")));
+
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        assertEquals(1, instr.getCounters().get("jpa").get("unit_of_work").getValue().longValue());
+        assertEquals(3, instr.getCounters().get("jpa").get("unit_of_work.commands").getValue().longValue());
+        assertNotNull(instr.getTimers().get("jpa").get("unit_of_work"));
+    }
+
+    public void testExecuteUnitOfWorkRollback() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<JPACommand<?>> commands = new ArrayList<JPACommand<?>>();
+        commands.add(new WorkflowDefinitionInsertCommand(new WorkflowDefinitionBean("uow-c", new byte[]{1})));
+        commands.add(new FailingJPACommand());
+        try {
+            jpaService.execute(commands);
+            fail();
+        }
+        catch (CommandException ex) {
+            assertEquals(ErrorCode.E0603, ex.getErrorCode());
+        }
+        assertNull(jpaService.execute(new WorkflowDefinitionGetCommand("uow-c")));
+    }
+
 }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestJobStatusPollerService extends XTestCase {
+
+    private static final Map<String, Set<String>> INCOMPLETE_JOBS =
+            Collections.synchronizedMap(new HashMap<String, Set<String>>());
+
+    public static class ForTestingJobStatusPollerService extends JobStatusPollerService {
+
+        @Override
+        protected Set<String> getIncompleteJobs(String jobTracker, String jtKerberosName, String user, String group)
+                throws Exception {
+            Set<String> jobs = INCOMPLETE_JOBS.get(jobTracker);
+            if (jobs == null) {
+                throw new IOException("JobTracker " + jobTracker + " is down");
+            }
+            return jobs;
+        }
+    }
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        INCOMPLETE_JOBS.clear();
+        setSystemProperty(Services.CONF_SERVICE_EXT_CLASSES, ForTestingJobStatusPollerService.class.getName());
+        // polls are run by the testcases
+        setSystemProperty(JobStatusPollerService.CONF_INTERVAL, "3600");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private Configuration createConf(String jobTracker) {
+        Configuration conf = new Configuration(false);
+        conf.set("mapred.job.tracker", jobTracker);
+        return conf;
+    }
+
+    private Set<String> jobs(String... ids) {
+        Set<String> jobs = new HashSet<String>();
+        Collections.addAll(jobs, ids);
+        return jobs;
+    }
+
+    private long getVariable(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return (Long) instr.getVariables().get("job_status_poller").get(name).getValue().getValue();
+    }
+
+    private void poll(JobStatusPollerService poller) {
+        poller.new PollRunnable().run();
+    }
+
+    public void testPoll() throws Exception {
+        JobStatusPollerService poller = services.get(JobStatusPollerService.class);
+        assertTrue(poller instanceof ForTestingJobStatusPollerService);
+        poller.track("a1", "job_1", createConf("jt1:9001"), "u", "g");
+        poller.track("a2", "job_2", createConf("jt1:9001"), "u", "g");
+        poller.track("a3", "job_3", createConf("jt2:9001"), "u", "g");
+        assertEquals(3, getVariable("tracked"));
+
+        INCOMPLETE_JOBS.put("jt1:9001", jobs("job_1", "job_4"));
+        INCOMPLETE_JOBS.put("jt2:9001", jobs("job_3"));
+        poll(poller);
+        assertEquals(2, getVariable("polls"));
+        assertEquals(1, getVariable("changes"));
+        assertTrue(poller.isTracked("a1"));
+        assertFalse(poller.isTracked("a2"));
+        assertTrue(poller.isTracked("a3"));
+
+        // unchanged jobs do not queue checks
+        poll(poller);
+        assertEquals(4, getVariable("polls"));
+        assertEquals(1, getVariable("changes"));
+
+        poller.untrack("a1");
+        assertFalse(poller.isTracked("a1"));
+        assertEquals(1, getVariable("tracked"));
+    }
+
+    public void testPollError() throws Exception {
+        JobStatusPollerService poller = services.get(JobStatusPollerService.class);
+        poller.track("a1", "job_1", createConf("jt1:9001"), "u", "g");
+        poller.track("a2", "job_2", createConf("jt2:9001"), "u", "g");
+        INCOMPLETE_JOBS.put("jt1:9001", jobs("job_1"));
+
+        // the actions of a JobTracker that cannot be polled go back to regular checks
+        poll(poller);
+        assertTrue(poller.isTracked("a1"));
+        assertFalse(poller.isTracked("a2"));
+        assertEquals(1, getVariable("poll_errors"));
+        assertEquals(0, getVariable("changes"));
+    }
+
+    public void testTrackNewJob() throws Exception {
+        JobStatusPollerService poller = services.get(JobStatusPollerService.class);
+        poller.track("a1", "launcher_1", createConf("jt1:9001"), "u", "g");
+        // the launcher job ID is swapped by the action job ID
+        poller.track("a1", "job_1", createConf("jt1:9001"), "u", "g");
+        INCOMPLETE_JOBS.put("jt1:9001", jobs("job_1"));
+        poll(poller);
+        assertTrue(poller.isTracked("a1"));
+        assertEquals(0, getVariable("changes"));
+    }
+
+    public void testActionCheckerUntrack() throws Exception {
+        JobStatusPollerService poller = services.get(JobStatusPollerService.class);
+        poller.track("a1", "job_1", createConf("jt1:9001"), "u", "g");
+        services.get(ActionCheckerService.class).unscheduleCheck("a1");
+        assertFalse(poller.isTracked("a1"));
+    }
+
+    public void testDisabled() throws Exception {
+        services.destroy();
+        setSystemProperty(JobStatusPollerService.CONF_INTERVAL, "0");
+        services = new Services();
+        services.init();
+        JobStatusPollerService poller = services.get(JobStatusPollerService.class);
+        poller.track("a1", "job_1", createConf("jt1:9001"), "u", "g");
+        assertFalse(poller.isTracked("a1"));
+    }
+
+}
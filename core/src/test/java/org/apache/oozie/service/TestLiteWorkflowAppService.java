@@ -22,6 +22,7 @@ import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.workflow.lite.LiteWorkflowApp;
 import org.apache.oozie.test.XTestCase;
 import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.action.ActionExecutorException;
@@ -258,6 +259,80 @@ public class TestLiteWorkflowAppService extends XTestCase {
         }
     }
 
+    public void testParsingCache() throws Exception {
+        Services services = new Services();
+        try {
+            services.init();
+            WorkflowAppService wps = services.get(WorkflowAppService.class);
+
+            Reader reader = IOUtils.getResourceAsReader("wf-schema-valid.xml", -1);
+            Writer writer = new FileWriter(getTestCaseDir() + "/workflow.xml");
+            IOUtils.copyCharStream(reader, writer);
+
+            Configuration jobConf = new XConfiguration();
+            jobConf.set(OozieClient.APP_PATH, "file://" + getTestCaseDir() + File.separator + "workflow.xml");
+            jobConf.set(OozieClient.USER_NAME, getTestUser());
+            jobConf.set(OozieClient.GROUP_NAME, "group");
+
+            WorkflowApp app = wps.parseDef(jobConf, "authToken");
+            assertSame(app, wps.parseDef(jobConf, "authToken"));
+
+            // a modified definition is parsed again
+            File file = new File(getTestCaseDir(), "workflow.xml");
+            assertTrue(file.setLastModified(file.lastModified() - 10000));
+            WorkflowApp app2 = wps.parseDef(jobConf, "authToken");
+            assertNotSame(app, app2);
+            assertEquals("test-wf", app2.getName());
+
+            // definitions are cached per user
+            jobConf.set(OozieClient.USER_NAME, getTestUser2());
+            assertNotSame(app2, wps.parseDef(jobConf, "authToken"));
+
+            Instrumentation instr = services.get(InstrumentationService.class).get();
+            assertEquals(1L, instr.getVariables().get("workflow_app_cache").get("hits").getValue().getValue());
+            assertEquals(3L, instr.getVariables().get("workflow_app_cache").get("misses").getValue().getValue());
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+    public void testCreateprotoConfCache() throws Exception {
+        Services services = new Services();
+        try {
+            services.init();
+            Reader reader = IOUtils.getResourceAsReader("wf-schema-valid.xml", -1);
+            Writer writer = new FileWriter(getTestCaseDir() + "/workflow.xml");
+            IOUtils.copyCharStream(reader, writer);
+
+            File lib = new File(createTestCaseSubDir("lib"));
+            writer = new FileWriter(getTestCaseDir() + "/lib/maputil.jar");
+            writer.write("bla bla");
+            writer.close();
+            WorkflowAppService wps = Services.get().get(WorkflowAppService.class);
+            Configuration jobConf = new XConfiguration();
+            jobConf.set(OozieClient.APP_PATH, "file://" + getTestCaseDir() + File.separator + "workflow.xml");
+            jobConf.set(OozieClient.USER_NAME, getTestUser());
+            jobConf.set(OozieClient.GROUP_NAME, getTestGroup());
+            injectKerberosInfo(jobConf);
+            Configuration protoConf = wps.createProtoActionConf(jobConf, "authToken", true);
+            assertEquals(1, protoConf.getStrings(WorkflowAppService.APP_LIB_PATH_LIST).length);
+            protoConf = wps.createProtoActionConf(jobConf, "authToken", true);
+            assertEquals(1, protoConf.getStrings(WorkflowAppService.APP_LIB_PATH_LIST).length);
+
+            // a modified lib directory is listed again
+            writer = new FileWriter(getTestCaseDir() + "/lib/reduceutil.so");
+            writer.write("bla bla");
+            writer.close();
+            assertTrue(lib.setLastModified(lib.lastModified() - 10000));
+            protoConf = wps.createProtoActionConf(jobConf, "authToken", true);
+            assertEquals(2, protoConf.getStrings(WorkflowAppService.APP_LIB_PATH_LIST).length);
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
     public void testCreateprotoConf() throws Exception {
         Services services = new Services();
         try {
@@ -14,7 +14,10 @@
  */
 package org.apache.oozie.service;
 
+import java.util.Map;
+
 import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
 
 public class TestMemoryLocksService extends XTestCase {
 
@@ -24,4 +27,17 @@ public class TestMemoryLocksService extends XTestCase {
         Services.get().destroy();
     }
 
+    public void testInstrumentation() throws Exception {
+        new Services().init();
+        MemoryLocksService service = Services.get().get(MemoryLocksService.class);
+        service.getWriteLock("a", -1).release();
+        Map<String, Instrumentation.Element<Instrumentation.Variable>> variables =
+                Services.get().get(InstrumentationService.class).get().getVariables().get("locks");
+        assertNotNull(variables.get("locks"));
+        assertEquals(new Long(1), ((Instrumentation.Variable) variables.get("write.wait.le.1ms")).getValue());
+        assertEquals(new Long(0), ((Instrumentation.Variable) variables.get("write.wait.gt.5000ms")).getValue());
+        assertEquals(new Long(0), ((Instrumentation.Variable) variables.get("read.timeouts")).getValue());
+        Services.get().destroy();
+    }
+
 }
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+
+public class TestNotificationService extends XTestCase {
+
+    private static final List<String> REQUESTS = Collections.synchronizedList(new ArrayList<String>());
+    private static final Map<String, Integer> FAILURES = new ConcurrentHashMap<String, Integer>();
+    private static final Map<String, Long> DELAYS = new ConcurrentHashMap<String, Long>();
+
+    public static class ForTestingNotificationService extends NotificationService {
+
+        @Override
+        protected int request(URL url) throws IOException {
+            Long delay = DELAYS.get(url.getHost());
+            if (delay != null) {
+                try {
+                    Thread.sleep(delay);
+                }
+                catch (InterruptedException ex) {
+                    throw new IOException(ex.toString());
+                }
+            }
+            REQUESTS.add(url.toString());
+            if (url.getHost().equals("broken")) {
+                // like the HttpURLConnection cast of a non HTTP URL
+                throw new ClassCastException();
+            }
+            Integer failures = FAILURES.get(url.toString());
+            if (failures != null && failures > 0) {
+                FAILURES.put(url.toString(), failures - 1);
+                return 500;
+            }
+            return 200;
+        }
+    }
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        REQUESTS.clear();
+        FAILURES.clear();
+        DELAYS.clear();
+        setSystemProperty(Services.CONF_SERVICE_EXT_CLASSES, ForTestingNotificationService.class.getName());
+        setSystemProperty(NotificationService.CONF_HOST_CONCURRENCY, "1");
+        setSystemProperty(NotificationService.CONF_BACKOFF, "1");
+        setSystemProperty(NotificationService.CONF_RETRIES, "1");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private long getVariable(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return (Long) instr.getVariables().get(NotificationService.INSTRUMENTATION_GROUP).get(name).getValue()
+                .getValue();
+    }
+
+    private void waitForPending(final NotificationService notifications) {
+        waitFor(10000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return notifications.getPending() == 0;
+            }
+        });
+    }
+
+    public void testSend() throws Exception {
+        NotificationService notifications = services.get(NotificationService.class);
+        assertTrue(notifications instanceof ForTestingNotificationService);
+        DELAYS.put("a", 200L);
+        assertTrue(notifications.send("http://a:8080/job/1"));
+        assertTrue(notifications.send("http://a:8080/job/2"));
+        // identical to a notification still queued
+        assertTrue(notifications.send("http://a:8080/job/2"));
+        assertTrue(notifications.send("http://b/job/3"));
+        assertFalse(notifications.send("invalid"));
+        waitForPending(notifications);
+
+        assertEquals(0, notifications.getPending());
+        assertEquals(3, REQUESTS.size());
+        assertTrue(REQUESTS.indexOf("http://a:8080/job/1") < REQUESTS.indexOf("http://a:8080/job/2"));
+        assertEquals(3, getVariable("sent"));
+        assertEquals(1, getVariable("coalesced"));
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        assertEquals(2, instr.getTimers().get(NotificationService.INSTRUMENTATION_GROUP).get("a:8080").getValue()
+                .getTicks());
+        assertEquals(1, instr.getTimers().get(NotificationService.INSTRUMENTATION_GROUP).get("b:80").getValue()
+                .getTicks());
+    }
+
+    public void testRetry() throws Exception {
+        NotificationService notifications = services.get(NotificationService.class);
+        FAILURES.put("http://a/job/1", 1);
+        FAILURES.put("http://b/job/2", 2);
+        long start = System.currentTimeMillis();
+        notifications.send("http://a/job/1");
+        notifications.send("http://b/job/2");
+        waitForPending(notifications);
+
+        // the endpoints back off for 1 second after the failures
+        assertTrue(System.currentTimeMillis() - start >= 1000);
+        assertEquals(2, Collections.frequency(REQUESTS, "http://a/job/1"));
+        assertEquals(2, Collections.frequency(REQUESTS, "http://b/job/2"));
+        assertEquals(1, getVariable("sent"));
+        assertEquals(3, getVariable("failed"));
+        assertEquals(1, getVariable("dropped"));
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        assertEquals(2, instr.getCounters().get(NotificationService.INSTRUMENTATION_GROUP).get("b:80.failed")
+                .getValue().longValue());
+    }
+
+    public void testRuntimeFailure() throws Exception {
+        NotificationService notifications = services.get(NotificationService.class);
+        assertTrue(notifications.send("http://broken/job/1"));
+        waitForPending(notifications);
+
+        // the notification fails, is retried and dropped, without leaking its pending slot
+        assertEquals(0, notifications.getPending());
+        assertEquals(2, Collections.frequency(REQUESTS, "http://broken/job/1"));
+        assertEquals(2, getVariable("failed"));
+        assertEquals(1, getVariable("dropped"));
+    }
+
+    public void testSlowEndpoint() throws Exception {
+        final NotificationService notifications = services.get(NotificationService.class);
+        DELAYS.put("slow", 1000L);
+        for (int i = 0; i < 5; i++) {
+            notifications.send("http://slow/job/" + i);
+        }
+        notifications.send("http://fast/job/1");
+        waitFor(5000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return REQUESTS.contains("http://fast/job/1");
+            }
+        });
+        // the slow endpoint only delays its own notifications
+        assertTrue(REQUESTS.contains("http://fast/job/1"));
+        assertTrue(notifications.getPending() >= 4);
+    }
+
+    public void testBackoff() throws Exception {
+        NotificationService notifications = services.get(NotificationService.class);
+        assertEquals(1000, notifications.getBackoff(1));
+        assertEquals(2000, notifications.getBackoff(2));
+        assertEquals(4000, notifications.getBackoff(3));
+        assertEquals(600 * 1000, notifications.getBackoff(100));
+    }
+
+}
@@ -135,4 +135,42 @@ public class TestPurgeService extends XTestCase {
         }
 
     }
+
+    /**
+     * Tests that a purge run keeps the deletion rate under the max number of records per second.
+     */
+    public void testPurgeRunThrottling() throws Exception {
+        long start = System.currentTimeMillis();
+        PurgeService.PurgeRun run = new PurgeService.PurgeRun("test", 10, 10, 0);
+        assertEquals(10, run.getBatchSize());
+        run.deleted("test_records", 10);
+        run.deleted("test_records", 10);
+        long time = System.currentTimeMillis() - start;
+        assertTrue("Run took [" + time + "] ms", time >= 1900);
+        assertEquals(20, run.getRows());
+        assertTrue(run.hasTime());
+
+        // without a max rate the deletions are not throttled
+        start = System.currentTimeMillis();
+        run = new PurgeService.PurgeRun("test", 10, 0, 0);
+        run.deleted("test_records", 1000);
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    /**
+     * Tests that a purge run stops at its max run time, and that throttling does not wait beyond it.
+     */
+    public void testPurgeRunMaxRunTime() throws Exception {
+        long start = System.currentTimeMillis();
+        PurgeService.PurgeRun run = new PurgeService.PurgeRun("test", 0, 1, 1);
+        assertEquals(1, run.getBatchSize());
+        assertTrue(run.hasTime());
+
+        // at 1 record per second 5 records would take 5 seconds, the run ends after 1 second
+        run.deleted("test_records", 5);
+        long time = System.currentTimeMillis() - start;
+        assertTrue("Run took [" + time + "] ms", time >= 900 && time < 3000);
+        assertFalse(run.hasTime());
+        assertEquals(5, run.getRows());
+    }
 }
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.apache.oozie.WorkflowConfigurationBean;
+import org.apache.oozie.WorkflowDefinitionBean;
+import org.apache.oozie.command.jpa.BulkInsertCommand;
+import org.apache.oozie.command.jpa.WorkflowConfigurationGetCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionGetCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionInsertCommand;
+import org.apache.oozie.command.jpa.WorkflowDefinitionPurgeCommand;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.WritableUtils;
+import org.apache.oozie.workflow.lite.EndNodeDef;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.StartNodeDef;
+
+public class TestWorkflowDefinitionService extends XTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private LiteWorkflowApp createApp(String name) throws Exception {
+        return new LiteWorkflowApp(name, "<worklfow-app/>", new StartNodeDef("end")).addNode(new EndNodeDef("end"));
+    }
+
+    public void testStoreAndGet() throws Exception {
+        WorkflowDefinitionService defs = services.get(WorkflowDefinitionService.class);
+        assertNotNull(defs);
+        JPAService jpaService = services.get(JPAService.class);
+
+        LiteWorkflowApp app = createApp("stored");
+        WorkflowDefinitionBean created = defs.createDefinition(app);
+        String id = created.getId();
+        assertEquals(id, defs.createDefinition(createApp("stored")).getId());
+        assertFalse(id.equals(defs.createDefinition(createApp("other")).getId()));
+        assertSame(app, defs.get(id));
+
+        // creating a definition does not store it
+        assertNull(jpaService.execute(new WorkflowDefinitionGetCommand(id)));
+
+        defs.store(created);
+        defs.store(defs.createDefinition(createApp("stored")));
+        WorkflowDefinitionBean bean = jpaService.execute(new WorkflowDefinitionGetCommand(id));
+        assertNotNull(bean);
+        assertNotNull(bean.getLastUsedTime());
+        assertTrue(Arrays.equals(WritableUtils.toByteArray(app), bean.getDefinition()));
+    }
+
+    public void testGetFromDB() throws Exception {
+        WorkflowDefinitionService defs = services.get(WorkflowDefinitionService.class);
+        WorkflowDefinitionBean bean = defs.createDefinition(createApp("wf"));
+        defs.store(bean);
+
+        // a new service instance has an empty cache
+        defs = new WorkflowDefinitionService();
+        defs.init(services);
+        LiteWorkflowApp app = defs.get(bean.getId());
+        defs.destroy();
+        assertEquals("wf", app.getName());
+        assertNotNull(app.getNode("end"));
+    }
+
+    public void testConfiguration() throws Exception {
+        byte[] conf = "conf".getBytes("UTF-8");
+        WorkflowDefinitionService defs = services.get(WorkflowDefinitionService.class);
+        WorkflowConfigurationBean bean = defs.createConfiguration("job-1", "def", conf);
+        assertEquals("job-1", bean.getJobId());
+        assertEquals(bean.getId(), defs.createConfiguration("job-1", "def", "conf".getBytes("UTF-8")).getId());
+        assertFalse(bean.getId().equals(defs.createConfiguration("job-2", "def", conf).getId()));
+        assertTrue(Arrays.equals(conf, defs.getConfiguration(bean.getId())));
+
+        // creating a configuration does not store it
+        JPAService jpaService = services.get(JPAService.class);
+        assertNull(jpaService.execute(new WorkflowConfigurationGetCommand(bean.getId())));
+
+        jpaService.execute(new BulkInsertCommand(Arrays.asList(bean)));
+
+        // a new service instance has an empty cache
+        defs = new WorkflowDefinitionService();
+        defs.init(services);
+        byte[] stored = defs.getConfiguration(bean.getId());
+        defs.destroy();
+        assertTrue(Arrays.equals(conf, stored));
+    }
+
+    public void testPurgeUnusedDefinitions() throws Exception {
+        JPAService jpaService = services.get(JPAService.class);
+        Date old = new Date(System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000L);
+        // the DB may keep the definitions of previous runs
+        String run = "-" + System.currentTimeMillis();
+
+        WorkflowDefinitionBean unused = new WorkflowDefinitionBean("unused" + run, new byte[1]);
+        unused.setLastUsedTime(old);
+        jpaService.execute(new WorkflowDefinitionInsertCommand(unused));
+        WorkflowDefinitionBean referred = new WorkflowDefinitionBean("referred" + run, new byte[1]);
+        referred.setLastUsedTime(old);
+        jpaService.execute(new WorkflowDefinitionInsertCommand(referred));
+        jpaService.execute(new BulkInsertCommand(Arrays.asList(
+                new WorkflowConfigurationBean("job-1@conf" + run, "job-1" + run, "referred" + run, new byte[1]))));
+        WorkflowDefinitionBean recent = new WorkflowDefinitionBean("recent" + run, new byte[1]);
+        jpaService.execute(new WorkflowDefinitionInsertCommand(recent));
+        // stored by the compact format version 2
+        WorkflowDefinitionBean legacy = new WorkflowDefinitionBean("legacy" + run, new byte[1]);
+        legacy.setLastUsedTime(null);
+        jpaService.execute(new WorkflowDefinitionInsertCommand(legacy));
+
+        Date lastUsed = new Date(System.currentTimeMillis() - 24 * 60 * 60 * 1000L);
+        assertTrue(jpaService.execute(new WorkflowDefinitionPurgeCommand(lastUsed)) >= 1);
+        assertNull(jpaService.execute(new WorkflowDefinitionGetCommand("unused" + run)));
+        assertNotNull(jpaService.execute(new WorkflowDefinitionGetCommand("referred" + run)));
+        assertNotNull(jpaService.execute(new WorkflowDefinitionGetCommand("recent" + run)));
+        assertNotNull(jpaService.execute(new WorkflowDefinitionGetCommand("legacy" + run)));
+
+        // a legacy definition keeps no last used time when it is used again
+        services.get(WorkflowDefinitionService.class).store(new WorkflowDefinitionBean("legacy" + run, new byte[1]));
+        assertNull(jpaService.execute(new WorkflowDefinitionGetCommand("legacy" + run)).getLastUsedTime());
+    }
+
+    public void testGetMissing() throws Exception {
+        try {
+            services.get(WorkflowDefinitionService.class).get("missing");
+            fail();
+        }
+        catch (IOException ex) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.jpa.WorkflowJobInsertCommand;
+import org.apache.oozie.command.jpa.WorkflowJobUpdateCommand;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.workflow.WorkflowInstance;
+import org.apache.oozie.workflow.lite.EndNodeDef;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.LiteWorkflowInstance;
+import org.apache.oozie.workflow.lite.StartNodeDef;
+
+public class TestWorkflowJobCacheService extends XTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(WorkflowJobCacheService.CONF_CACHE_SIZE, "2");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private WorkflowJobBean createWorkflow(String id, WorkflowJob.Status status) throws Exception {
+        LiteWorkflowApp app = new LiteWorkflowApp("testApp", "<workflow-app/>", new StartNodeDef("end"))
+                .addNode(new EndNodeDef("end"));
+        WorkflowJobBean workflow = new WorkflowJobBean();
+        workflow.setId(id);
+        workflow.setAppName("testApp");
+        workflow.setStatus(status);
+        workflow.setWorkflowInstance(new LiteWorkflowInstance(app, new Configuration(), id));
+        return workflow;
+    }
+
+    private long getVariable(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return (Long) instr.getVariables().get("workflow_job_cache").get(name).getValue().getValue();
+    }
+
+    public void testTakePut() throws Exception {
+        WorkflowJobCacheService cache = services.get(WorkflowJobCacheService.class);
+        assertNull(cache.take("a"));
+
+        WorkflowJobBean a = createWorkflow("a", WorkflowJob.Status.RUNNING);
+        cache.put(a);
+        assertEquals(1, cache.size());
+        assertSame(a, cache.take("a"));
+        // the bean is checked out, it is not cached anymore
+        assertNull(cache.take("a"));
+        assertEquals(0, cache.size());
+
+        assertEquals(1, getVariable("hits"));
+        assertEquals(2, getVariable("misses"));
+        assertEquals(33, getVariable("hit_rate"));
+    }
+
+    public void testOnlyRunningJobs() throws Exception {
+        WorkflowJobCacheService cache = services.get(WorkflowJobCacheService.class);
+        cache.put(createWorkflow("a", WorkflowJob.Status.PREP));
+        assertEquals(0, cache.size());
+
+        cache.put(createWorkflow("a", WorkflowJob.Status.RUNNING));
+        assertEquals(1, cache.size());
+        cache.put(createWorkflow("a", WorkflowJob.Status.SUCCEEDED));
+        assertEquals(0, cache.size());
+    }
+
+    public void testEviction() throws Exception {
+        WorkflowJobCacheService cache = services.get(WorkflowJobCacheService.class);
+        cache.put(createWorkflow("a", WorkflowJob.Status.RUNNING));
+        cache.put(createWorkflow("b", WorkflowJob.Status.RUNNING));
+        cache.put(createWorkflow("c", WorkflowJob.Status.RUNNING));
+        assertEquals(2, cache.size());
+        assertEquals(1, getVariable("evictions"));
+        assertNull(cache.take("a"));
+        assertNotNull(cache.take("b"));
+        assertNotNull(cache.take("c"));
+    }
+
+    public void testDisabled() throws Exception {
+        services.destroy();
+        setSystemProperty(WorkflowJobCacheService.CONF_CACHE_SIZE, "0");
+        services = new Services();
+        services.init();
+        WorkflowJobCacheService cache = services.get(WorkflowJobCacheService.class);
+        cache.put(createWorkflow("a", WorkflowJob.Status.RUNNING));
+        assertEquals(0, cache.size());
+        assertNull(cache.take("a"));
+    }
+
+    public void testReuseWorkflowInstance() throws Exception {
+        WorkflowJobCacheService cache = services.get(WorkflowJobCacheService.class);
+        WorkflowJobBean a = createWorkflow("a", WorkflowJob.Status.RUNNING);
+        WorkflowInstance instance = a.getWorkflowInstance();
+        assertNotSame(instance, a.getWorkflowInstance());
+        a.setWorkflowInstance(instance);
+        cache.put(a);
+
+        a = cache.take("a");
+        // the instance last set is returned once, then copies are deserialized again
+        assertSame(instance, a.getWorkflowInstance());
+        WorkflowInstance copy = a.getWorkflowInstance();
+        assertNotSame(instance, copy);
+        assertEquals(instance.getId(), copy.getId());
+    }
+
+    public void testInvalidateOnUpdate() throws Exception {
+        WorkflowJobCacheService cache = services.get(WorkflowJobCacheService.class);
+        JPAService jpaService = services.get(JPAService.class);
+        WorkflowJobBean a = createWorkflow("cached-job-a", WorkflowJob.Status.RUNNING);
+        jpaService.execute(new WorkflowJobInsertCommand(a));
+        cache.put(a);
+        assertEquals(1, cache.size());
+
+        jpaService.execute(new WorkflowJobUpdateCommand(a));
+        assertEquals(0, cache.size());
+    }
+
+}
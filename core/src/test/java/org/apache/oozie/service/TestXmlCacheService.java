@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import org.apache.oozie.service.SchemaService.SchemaName;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.XmlTemplate;
+import org.jdom.Element;
+import org.jdom.JDOMException;
+import org.xml.sax.SAXException;
+
+public class TestXmlCacheService extends XTestCase {
+    private static final String COORD_XML = "<coordinator-app name=\"NAME\" frequency=\"10\" "
+            + "start=\"2009-02-01T01:00Z\" end=\"2009-02-03T23:59Z\" timezone=\"UTC\" "
+            + "xmlns=\"uri:oozie:coordinator:0.1\"> <action> <workflow> <app-path>hdfs:///tmp/workflows/</app-path> "
+            + "</workflow> </action> </coordinator-app>";
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(XmlCacheService.CONF_CACHE_SIZE, "2");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    private long getVariable(String name) {
+        Instrumentation instr = services.get(InstrumentationService.class).get();
+        return (Long) instr.getVariables().get("xml_cache").get(name).getValue().getValue();
+    }
+
+    public void testTemplates() throws Exception {
+        XmlCacheService xmlCache = services.get(XmlCacheService.class);
+        XmlTemplate template = xmlCache.getTemplate(COORD_XML);
+        assertEquals("NAME", template.getAttributeValue("name"));
+        assertSame(template, xmlCache.getTemplate(COORD_XML));
+        assertEquals(1, getVariable("hits"));
+        assertEquals(1, getVariable("misses"));
+
+        // copies can be modified without affecting the template
+        Element copy = template.copy();
+        copy.setAttribute("name", "OTHER");
+        copy.removeContent();
+        assertEquals("NAME", template.getAttributeValue("name"));
+        assertNotNull(template.copyChild("action", template.getNamespace()));
+        assertNotNull(template.copyChild("action", "workflow", template.getNamespace()));
+        assertNull(template.copyChild("input-events", template.getNamespace()));
+
+        // the copies of the template content can be modified too
+        template.copyChild("action", template.getNamespace()).removeContent();
+        template.copyAttributes().get(0).setValue("OTHER");
+        assertEquals("NAME", template.getAttributeValue("name"));
+        assertEquals(1, template.copy().getChildren().size());
+
+        // documents are keyed by content
+        XmlTemplate other = xmlCache.getTemplate(COORD_XML.replace("NAME", "OTHER"));
+        assertNotSame(template, other);
+        assertEquals("OTHER", other.getAttributeValue("name"));
+
+        // least recently used documents are evicted
+        xmlCache.getTemplate("<a/>");
+        assertEquals(2, getVariable("size"));
+        assertNotSame(template, xmlCache.getTemplate(COORD_XML));
+
+        try {
+            xmlCache.getTemplate("<a>");
+            fail();
+        }
+        catch (JDOMException ex) {
+        }
+    }
+
+    public void testValidation() throws Exception {
+        XmlCacheService xmlCache = services.get(XmlCacheService.class);
+        xmlCache.validate(COORD_XML, SchemaName.COORDINATOR);
+        xmlCache.validate(COORD_XML, SchemaName.COORDINATOR);
+        assertEquals(1, getVariable("validation_hits"));
+        assertEquals(1, getVariable("validation_misses"));
+
+        // invalid documents are validated every time
+        String invalid = COORD_XML.replace("<action>", "<foo/> <action>");
+        for (int i = 0; i < 2; i++) {
+            try {
+                xmlCache.validate(invalid, SchemaName.COORDINATOR);
+                fail();
+            }
+            catch (SAXException ex) {
+            }
+        }
+        assertEquals(3, getVariable("validation_misses"));
+
+        // the validator of the thread is reusable after a failed validation
+        xmlCache.validate(COORD_XML.replace("NAME", "OTHER"), SchemaName.COORDINATOR);
+        assertEquals(4, getVariable("validation_misses"));
+    }
+
+    public void testDisabled() throws Exception {
+        services.destroy();
+        setSystemProperty(XmlCacheService.CONF_CACHE_SIZE, "0");
+        services = new Services();
+        services.init();
+        XmlCacheService xmlCache = services.get(XmlCacheService.class);
+        assertNotSame(xmlCache.getTemplate(COORD_XML), xmlCache.getTemplate(COORD_XML));
+        xmlCache.validate(COORD_XML, SchemaName.COORDINATOR);
+        xmlCache.validate(COORD_XML, SchemaName.COORDINATOR);
+        assertEquals(0, getVariable("size"));
+        assertEquals(2, getVariable("validation_misses"));
+    }
+
+}
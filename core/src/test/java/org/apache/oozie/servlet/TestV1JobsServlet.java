@@ -15,7 +15,9 @@
 package org.apache.oozie.servlet;
 
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.HashMap;
@@ -173,4 +175,71 @@ public class TestV1JobsServlet extends DagServletTestCase {
         });
     }
 
+    private HttpURLConnection bulkRequest(String action, JSONArray jobIds) throws Exception {
+        Map<String, String> params = new HashMap<String, String>();
+        params.put(RestConstants.ACTION_PARAM, action);
+        URL url = createURL("", params);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setRequestMethod("PUT");
+        conn.setRequestProperty("content-type", RestConstants.JSON_CONTENT_TYPE);
+        conn.setDoOutput(true);
+        Writer writer = new OutputStreamWriter(conn.getOutputStream(), "UTF-8");
+        jobIds.writeJSONString(writer);
+        writer.close();
+        return conn;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testBulk() throws Exception {
+        runTest("/v1/jobs", V1JobsServlet.class, IS_SECURITY_ENABLED, new Callable<Void>() {
+            public Void call() throws Exception {
+                MockDagEngineService.reset();
+
+                String validId = MockDagEngineService.JOB_ID + 1 + MockDagEngineService.JOB_ID_END;
+                String invalidId = MockDagEngineService.JOB_ID + (MockDagEngineService.workflows.size() + 1)
+                        + MockDagEngineService.JOB_ID_END;
+                JSONArray jobIds = new JSONArray();
+                jobIds.add(validId);
+                jobIds.add(invalidId);
+
+                HttpURLConnection conn = bulkRequest(RestConstants.JOB_SHOW_INFO, jobIds);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertTrue(conn.getHeaderField("content-type").startsWith(RestConstants.JSON_CONTENT_TYPE));
+                JSONArray results = (JSONArray) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                assertEquals(2, results.size());
+                JSONObject result = (JSONObject) results.get(0);
+                assertEquals(validId, result.get(JsonTags.BULK_JOB_ID));
+                assertEquals(MockDagEngineService.JOB_ID + 1,
+                             ((JSONObject) result.get(JsonTags.BULK_JOB)).get(JsonTags.WORKFLOW_ID));
+                assertNull(result.get(JsonTags.ERROR));
+                result = (JSONObject) results.get(1);
+                assertEquals(invalidId, result.get(JsonTags.BULK_JOB_ID));
+                assertNull(result.get(JsonTags.BULK_JOB));
+                assertNotNull(((JSONObject) result.get(JsonTags.ERROR)).get(JsonTags.ERROR_CODE));
+
+                // the failure on a job does not stop the operation on the following jobs
+                jobIds = new JSONArray();
+                jobIds.add(invalidId);
+                jobIds.add(validId);
+                conn = bulkRequest(RestConstants.JOB_ACTION_KILL, jobIds);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                results = (JSONArray) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                assertEquals(2, results.size());
+                assertNotNull(((JSONObject) results.get(0)).get(JsonTags.ERROR));
+                assertNull(((JSONObject) results.get(1)).get(JsonTags.ERROR));
+                assertEquals(RestConstants.JOB_ACTION_KILL, MockDagEngineService.did);
+                assertFalse(MockDagEngineService.started.get(1));
+
+                conn = bulkRequest(RestConstants.JOB_ACTION_RESUME, jobIds);
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                assertEquals(RestConstants.JOB_ACTION_RESUME, MockDagEngineService.did);
+                assertTrue(MockDagEngineService.started.get(1));
+
+                conn = bulkRequest(RestConstants.JOB_ACTION_START, jobIds);
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
+
 }
@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.store;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.WorkflowsInfo;
+import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.jpa.BulkInsertCommand;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StoreService;
+import org.apache.oozie.service.WorkflowStoreService;
+
+/**
+ * Benchmark of the offset based jobs listing against the cursor based one ({@link JobsCursor}).
+ * <p/>
+ * The workflow jobs table is filled with the given number of jobs, spread over a few users and statuses, and pages at
+ * increasing depths are fetched with both listings. The time of the total count is measured separately, the offset
+ * listing counts the jobs on every request while the cursor listing uses the count cache of the {@link StoreService}.
+ * <p/>
+ * The database is configured with the JPAService system properties, by default an in-memory HSQLDB database is used.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... -Doozie.service.JPAService.jdbc.url=... org.apache.oozie.store.JobsListingBenchmark [JOBS]
+ * [PAGE_LEN] [RUNS]</code>
+ */
+public class JobsListingBenchmark {
+    private static final int BATCH = 5000;
+    private static final String[] USERS = {"u1", "u2", "u3", "u4"};
+    private static final WorkflowJob.Status[] STATUSES = {WorkflowJob.Status.SUCCEEDED, WorkflowJob.Status.KILLED,
+            WorkflowJob.Status.FAILED, WorkflowJob.Status.RUNNING};
+    private static final int[] DEPTHS = {1, 10, 100, 1000, 10000};
+
+    public static void main(String[] args) throws Exception {
+        int jobs = (args.length > 0) ? Integer.parseInt(args[0]) : 2000000;
+        int len = (args.length > 1) ? Integer.parseInt(args[1]) : 50;
+        int runs = (args.length > 2) ? Integer.parseInt(args[2]) : 5;
+
+        if (System.getProperty(Services.OOZIE_HOME_ENV) == null) {
+            File home = new File(System.getProperty("java.io.tmpdir"), "oozie-jobs-listing-benchmark");
+            home.mkdirs();
+            System.setProperty(Services.OOZIE_HOME_ENV, home.getAbsolutePath());
+        }
+        System.setProperty(Services.CONF_SERVICE_CLASSES, JPAService.class.getName() + ","
+                + StoreService.class.getName() + "," + WorkflowStoreService.class.getName());
+        Services services = new Services();
+        services.init();
+        try {
+            populate(jobs);
+
+            Map<String, List<String>> filter = new HashMap<String, List<String>>();
+            Map<String, List<String>> userFilter = new HashMap<String, List<String>>();
+            List<String> users = new ArrayList<String>();
+            users.add(USERS[0]);
+            userFilter.put(OozieClient.FILTER_USER, users);
+
+            System.out.println("jobs=" + jobs + " len=" + len + " runs=" + runs);
+            System.out.println("filter\tpage\toffset(ms)\tcursor(ms)");
+            List<Map<String, List<String>>> filters = new ArrayList<Map<String, List<String>>>();
+            filters.add(filter);
+            filters.add(userFilter);
+            for (Map<String, List<String>> f : filters) {
+                for (int depth : DEPTHS) {
+                    if ((long) depth * len > jobs) {
+                        break;
+                    }
+                    System.out.println((f.isEmpty() ? "none" : "user") + "\t" + depth + "\t"
+                            + String.format("%.2f", offsetPage(f, depth, len, runs)) + "\t"
+                            + String.format("%.2f", cursorPage(f, depth, len, runs)));
+                }
+            }
+
+            System.out.println("total\toffset(ms)\tcursor-cached(ms)");
+            System.out.println("none\t" + String.format("%.2f", count(filter, runs, false)) + "\t"
+                    + String.format("%.2f", count(filter, runs, true)));
+            System.out.println("user\t" + String.format("%.2f", count(userFilter, runs, false)) + "\t"
+                    + String.format("%.2f", count(userFilter, runs, true)));
+        }
+        finally {
+            services.destroy();
+        }
+    }
+
+    private static void populate(int jobs) throws Exception {
+        JPAService jpa = Services.get().get(JPAService.class);
+        long time = System.currentTimeMillis() - jobs * 1000L;
+        List<WorkflowJobBean> batch = new ArrayList<WorkflowJobBean>();
+        for (int i = 0; i < jobs; i++) {
+            WorkflowJobBean job = new WorkflowJobBean();
+            job.setId(String.format("%010d-benchmark-W", i));
+            job.setAppName("app-" + (i % 100));
+            job.setAppPath("hdfs://nn/app");
+            job.setUser(USERS[i % USERS.length]);
+            job.setGroup("group");
+            job.setStatus(STATUSES[(i / USERS.length) % STATUSES.length]);
+            // a few jobs share the creation time, the ID breaks the tie
+            Date created = new Date(time + (i / 3) * 3000L);
+            job.setCreatedTime(created);
+            job.setStartTime(created);
+            job.setLastModifiedTime(created);
+            batch.add(job);
+            if (batch.size() == BATCH || i == jobs - 1) {
+                jpa.execute(new BulkInsertCommand(batch));
+                batch = new ArrayList<WorkflowJobBean>();
+            }
+        }
+    }
+
+    private static double offsetPage(Map<String, List<String>> filter, int depth, int len, int runs)
+            throws Exception {
+        WorkflowStore store = Services.get().get(WorkflowStoreService.class).create();
+        try {
+            long time = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                store.getWorkflowsInfo(filter, (depth - 1) * len + 1, len);
+            }
+            return (System.nanoTime() - time) / 1000000d / runs;
+        }
+        finally {
+            store.closeTrx();
+        }
+    }
+
+    private static double cursorPage(Map<String, List<String>> filter, int depth, int len, int runs)
+            throws Exception {
+        WorkflowStore store = Services.get().get(WorkflowStoreService.class).create();
+        try {
+            // walk to the page to obtain its cursor, clients get it from the previous page
+            JobsCursor cursor = null;
+            for (int i = 1; i < depth; i++) {
+                WorkflowsInfo info = store.getWorkflowsInfo(filter, cursor, len, false);
+                cursor = JobsCursor.parse(info.getCursor());
+            }
+            long time = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                store.getWorkflowsInfo(filter, cursor, len, false);
+            }
+            return (System.nanoTime() - time) / 1000000d / runs;
+        }
+        finally {
+            store.closeTrx();
+        }
+    }
+
+    private static double count(Map<String, List<String>> filter, int runs, boolean cached) throws Exception {
+        WorkflowStore store = Services.get().get(WorkflowStoreService.class).create();
+        try {
+            store.getWorkflowsInfo(filter, null, 1, true);
+            long time = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                if (cached) {
+                    store.getWorkflowsInfo(filter, null, 1, true);
+                }
+                else {
+                    store.getWorkflowsInfo(filter, 1, 1);
+                }
+            }
+            return (System.nanoTime() - time) / 1000000d / runs;
+        }
+        finally {
+            store.closeTrx();
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.WorkflowsInfo;
+import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.service.WorkflowStoreService;
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.workflow.WorkflowApp;
+import org.apache.oozie.workflow.WorkflowInstance;
+import org.apache.oozie.workflow.WorkflowLib;
+import org.apache.oozie.workflow.lite.EndNodeDef;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.StartNodeDef;
+
+public class TestJobsCursor extends XTestCase {
+    private Services services;
+    private WorkflowStore store;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        cleanUpDB(services.getConf());
+        services.init();
+        store = Services.get().get(WorkflowStoreService.class).create();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        store.closeTrx();
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testParse() throws Exception {
+        assertNull(JobsCursor.parse(null));
+        assertNull(JobsCursor.parse(""));
+        JobsCursor cursor = JobsCursor.parse(new JobsCursor(new Date(1000), "0000001-W").toString());
+        assertEquals(1000, cursor.getCreatedTimestamp().getTime());
+        assertEquals("0000001-W", cursor.getId());
+        for (String invalid : Arrays.asList("1000", "1000.", ".0000001-W", "x.0000001-W")) {
+            try {
+                JobsCursor.parse(invalid);
+                fail();
+            }
+            catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+    }
+
+    private WorkflowJobBean createWorkflow(String id, String user, long createdTime) throws Exception {
+        WorkflowApp app = new LiteWorkflowApp("testApp", "<workflow-app/>", new StartNodeDef("end"))
+                .addNode(new EndNodeDef("end"));
+        Configuration conf = new Configuration();
+        conf.set(OozieClient.APP_PATH, "testPath");
+        conf.set(OozieClient.USER_NAME, user);
+        WorkflowLib workflowLib = Services.get().get(WorkflowStoreService.class).getWorkflowLibWithNoDB();
+        WorkflowInstance wfInstance = workflowLib.createInstance(app, conf, id);
+        WorkflowJobBean workflow = new WorkflowJobBean();
+        workflow.setId(id);
+        workflow.setAppName(app.getName());
+        workflow.setAppPath("testPath");
+        workflow.setConf("<configuration/>");
+        workflow.setProtoActionConf("<configuration/>");
+        workflow.setCreatedTime(new Date(createdTime));
+        workflow.setStatus(WorkflowJob.Status.PREP);
+        workflow.setUser(user);
+        workflow.setGroup("group");
+        workflow.setWorkflowInstance(wfInstance);
+        return workflow;
+    }
+
+    private List<String> getIds(WorkflowsInfo info) {
+        List<String> ids = new ArrayList<String>();
+        for (WorkflowJobBean bean : info.getWorkflows()) {
+            ids.add(bean.getId());
+        }
+        return ids;
+    }
+
+    public void testKeysetPaging() throws Exception {
+        long now = System.currentTimeMillis();
+        store.beginTrx();
+        store.insertWorkflow(createWorkflow("0000001-W", "u1", now - 3000));
+        store.insertWorkflow(createWorkflow("0000002-W", "u2", now - 2000));
+        // same creation time, ordered by ID
+        store.insertWorkflow(createWorkflow("0000003-W", "u1", now - 1000));
+        store.insertWorkflow(createWorkflow("0000004-W", "u1", now - 1000));
+        store.insertWorkflow(createWorkflow("0000005-W", "u2", now));
+        store.commitTrx();
+
+        Map<String, List<String>> filter = new HashMap<String, List<String>>();
+        store.beginTrx();
+        WorkflowsInfo info = store.getWorkflowsInfo(filter, null, 2, true);
+        assertEquals(Arrays.asList("0000005-W", "0000004-W"), getIds(info));
+        assertEquals(5, info.getTotal());
+        assertNotNull(info.getCursor());
+
+        info = store.getWorkflowsInfo(filter, JobsCursor.parse(info.getCursor()), 2, false);
+        assertEquals(Arrays.asList("0000003-W", "0000002-W"), getIds(info));
+        assertEquals(-1, info.getTotal());
+
+        info = store.getWorkflowsInfo(filter, JobsCursor.parse(info.getCursor()), 2, false);
+        assertEquals(Arrays.asList("0000001-W"), getIds(info));
+        assertNull(info.getCursor());
+
+        filter.put(OozieClient.FILTER_USER, Arrays.asList("u1"));
+        info = store.getWorkflowsInfo(filter, null, 2, true);
+        assertEquals(Arrays.asList("0000004-W", "0000003-W"), getIds(info));
+        assertEquals(3, info.getTotal());
+        info = store.getWorkflowsInfo(filter, JobsCursor.parse(info.getCursor()), 2, true);
+        assertEquals(Arrays.asList("0000001-W"), getIds(info));
+        assertEquals(3, info.getTotal());
+        store.commitTrx();
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.el.ExpressionEvaluatorImpl;
+import org.apache.hadoop.conf.Configuration;
+
+/**
+ * Benchmark of the evaluation of typical coordinator EL templates, creating a context with copies of the group
+ * constants, functions and job configuration and evaluating each template with a new JSP EL evaluator (as
+ * evaluators used to be created) against a context with shared constants and functions reading the job configuration
+ * and evaluating the templates with {@link ELEvaluator}, which caches the parsed expressions.
+ * <p/>
+ * Each operation creates an evaluator and evaluates all the templates in it for a nominal time.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... org.apache.oozie.util.ELEvaluatorBenchmark [OPERATIONS] [CONF_PROPERTIES]</code>
+ */
+public class ELEvaluatorBenchmark {
+    private static final String[] TEMPLATES = {
+            "${nameNode}/data/${YEAR}/${MONTH}/${DAY}/${HOUR}/${MINUTE}",
+            "${nameNode}/logs/${YEAR}${MONTH}${DAY}/_SUCCESS",
+            "${fn:concat(appPath, '/workflow.xml')}",
+            "${queueName}",
+            "${frequency * 60}",
+            "${fn:pad(hour + 1)}",
+            "${timeout gt 0 and concurrency le 10}"
+    };
+
+    public static String concat(String a, String b) {
+        return a + b;
+    }
+
+    public static String pad(int n) {
+        return (n < 10) ? "0" + n : Integer.toString(n);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        int properties = (args.length > 1) ? Integer.parseInt(args[1]) : 100;
+
+        Map<String, Object> constants = new HashMap<String, Object>();
+        for (String unit : new String[]{"KB", "MB", "GB", "TB", "PB", "MINUTE", "HOUR", "DAY", "MONTH"}) {
+            constants.put(unit, (long) unit.hashCode());
+        }
+        Map<String, Method> functions = new HashMap<String, Method>();
+        functions.put("fn:concat", ELEvaluatorBenchmark.class.getMethod("concat", String.class, String.class));
+        functions.put("fn:pad", ELEvaluatorBenchmark.class.getMethod("pad", int.class));
+        constants = Collections.unmodifiableMap(constants);
+        functions = Collections.unmodifiableMap(functions);
+
+        Configuration conf = new Configuration(false);
+        conf.set("nameNode", "hdfs://localhost:9000");
+        conf.set("appPath", "hdfs://localhost:9000/user/test/app");
+        conf.set("queueName", "default");
+        conf.set("frequency", "15");
+        conf.set("timeout", "-1");
+        conf.set("concurrency", "1");
+        for (int i = 0; i < properties; i++) {
+            conf.set("property." + i, "value." + i);
+        }
+
+        System.out.println("operations=" + operations + " templates=" + TEMPLATES.length + " confProperties="
+                + conf.size());
+        // warm up
+        runCopying(constants, functions, conf, operations / 10);
+        runShared(constants, functions, conf, operations / 10);
+
+        long time = System.nanoTime();
+        runCopying(constants, functions, conf, operations);
+        double copying = (System.nanoTime() - time) / 1000d / operations;
+
+        time = System.nanoTime();
+        runShared(constants, functions, conf, operations);
+        double shared = (System.nanoTime() - time) / 1000d / operations;
+
+        System.out.println("copying(us/op)\tshared(us/op)");
+        System.out.println(String.format("%.2f", copying) + "\t" + String.format("%.2f", shared));
+    }
+
+    private static void setTimeVariables(ELEvaluator.Context context, int i) {
+        int minutes = i * 15;
+        context.setVariable("YEAR", "2010");
+        context.setVariable("MONTH", pad(minutes / (60 * 24 * 28) % 12 + 1));
+        context.setVariable("DAY", pad(minutes / (60 * 24) % 28 + 1));
+        context.setVariable("HOUR", pad(minutes / 60 % 24));
+        context.setVariable("MINUTE", pad(minutes % 60));
+        context.setVariable("hour", minutes / 60 % 24);
+    }
+
+    private static void runCopying(Map<String, Object> constants, Map<String, Method> functions, Configuration conf,
+                                   int operations) throws Exception {
+        for (int i = 0; i < operations; i++) {
+            ELEvaluator.Context context = new ELEvaluator.Context();
+            for (Map.Entry<String, Object> constant : constants.entrySet()) {
+                context.setVariable(constant.getKey(), constant.getValue());
+            }
+            for (Map.Entry<String, Method> function : functions.entrySet()) {
+                String[] name = function.getKey().split(":");
+                context.addFunction(name[0], name[1], function.getValue());
+            }
+            for (Map.Entry<String, String> entry : conf) {
+                context.setVariable(entry.getKey(), entry.getValue());
+            }
+            setTimeVariables(context, i);
+            ExpressionEvaluatorImpl evaluator = new ExpressionEvaluatorImpl();
+            for (String template : TEMPLATES) {
+                evaluator.evaluate(template, String.class, context, context);
+            }
+        }
+    }
+
+    private static void runShared(Map<String, Object> constants, Map<String, Method> functions, Configuration conf,
+                                  int operations) throws Exception {
+        for (int i = 0; i < operations; i++) {
+            ELEvaluator.Context context = new ELEvaluator.Context(constants, functions);
+            context.setConfiguration(conf);
+            setTimeVariables(context, i);
+            ELEvaluator evaluator = new ELEvaluator(context);
+            for (String template : TEMPLATES) {
+                evaluator.evaluate(template, String.class);
+            }
+        }
+    }
+
+}
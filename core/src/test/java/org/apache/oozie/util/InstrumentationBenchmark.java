@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Benchmark of the instrumentation of the command life-cycle, updating counters and timers by group and name (building
+ * the names for every update) against updating counters and timers obtained once with {@link
+ * Instrumentation#getCounter} and {@link Instrumentation#getTimer}.
+ * <p/>
+ * Each operation increments an executions counter and adds a cron to 3 timers, as {@link
+ * org.apache.oozie.command.XCommand#call} does.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... org.apache.oozie.util.InstrumentationBenchmark [OPERATIONS_PER_THREAD] [MAX_THREADS]</code>
+ */
+public class InstrumentationBenchmark {
+    private static final String GROUP = "commands";
+    private static final String NAME = "signal";
+
+    private interface Operation {
+        void run(Instrumentation.Cron cron);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int operations = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : 16;
+
+        System.out.println("operations/thread=" + operations);
+        System.out.println("threads\tbyName(ops/ms)\thandles(ops/ms)");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            final Instrumentation byNameInstr = new Instrumentation();
+            Operation byName = new Operation() {
+                public void run(Instrumentation.Cron cron) {
+                    byNameInstr.incr(GROUP, NAME + ".executions", 1);
+                    byNameInstr.addCron(GROUP, NAME + ".acquireLock", cron);
+                    byNameInstr.addCron(GROUP, NAME + ".execute", cron);
+                    byNameInstr.addCron(GROUP, NAME + ".call", cron);
+                }
+            };
+            Instrumentation handlesInstr = new Instrumentation();
+            final Instrumentation.Counter executions = handlesInstr.getCounter(GROUP, NAME + ".executions");
+            final Instrumentation.Timer acquireLock = handlesInstr.getTimer(GROUP, NAME + ".acquireLock");
+            final Instrumentation.Timer execute = handlesInstr.getTimer(GROUP, NAME + ".execute");
+            final Instrumentation.Timer call = handlesInstr.getTimer(GROUP, NAME + ".call");
+            Operation handles = new Operation() {
+                public void run(Instrumentation.Cron cron) {
+                    executions.incr(1);
+                    acquireLock.addCron(cron);
+                    execute.addCron(cron);
+                    call.addCron(cron);
+                }
+            };
+
+            // warm up
+            run(byName, 1, operations);
+            run(handles, 1, operations);
+
+            double byNameRate = run(byName, threads, operations);
+            double handlesRate = run(handles, threads, operations);
+            System.out.println(threads + "\t" + String.format("%.0f", byNameRate) + "\t"
+                    + String.format("%.0f", handlesRate));
+        }
+    }
+
+    /**
+     * Run the operation in the given number of threads and return the number of operations per millisecond.
+     */
+    private static double run(final Operation operation, int threads, final int operations) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread() {
+                public void run() {
+                    Instrumentation.Cron cron = new Instrumentation.Cron();
+                    cron.start();
+                    cron.stop();
+                    try {
+                        start.await();
+                    }
+                    catch (InterruptedException ex) {
+                        return;
+                    }
+                    for (int j = 0; j < operations; j++) {
+                        operation.run(cron);
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        long time = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (double) threads * operations / ((System.nanoTime() - time) / 1000000d);
+    }
+
+}
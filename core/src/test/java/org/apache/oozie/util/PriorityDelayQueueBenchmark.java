@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
+
+/**
+ * Throughput benchmark of the {@link PriorityDelayQueue} against the {@link ShardedPriorityDelayQueue}.
+ * <p/>
+ * For 1 to 64 producer/consumer thread pairs, producers offer elements with random priorities (and a delayed
+ * backlog is preloaded to mimic the coordinator input checks waiting in the queue), consumers poll until all the
+ * produced elements have been consumed.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... org.apache.oozie.util.PriorityDelayQueueBenchmark [ELEMENTS] [BACKLOG] [SHARDS]</code>
+ */
+public class PriorityDelayQueueBenchmark {
+    private static final int PRIORITIES = 3;
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws Exception {
+        int elements = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        int backlog = (args.length > 1) ? Integer.parseInt(args[1]) : 50000;
+        int shards = (args.length > 2) ? Integer.parseInt(args[2]) : 16;
+
+        System.out.println("elements=" + elements + " backlog=" + backlog + " shards=" + shards);
+        System.out.println("threads\tpriorityDelayQueue(ops/ms)\tshardedPriorityDelayQueue(ops/ms)");
+        for (int threads : THREADS) {
+            // warm up
+            run(new PriorityDelayQueue<Integer>(PRIORITIES, 30, TimeUnit.SECONDS, -1), threads, elements / 10,
+                backlog);
+            run(new ShardedPriorityDelayQueue<Integer>(PRIORITIES, shards, 30, TimeUnit.SECONDS, -1), threads,
+                elements / 10, backlog);
+
+            double single = run(new PriorityDelayQueue<Integer>(PRIORITIES, 30, TimeUnit.SECONDS, -1), threads,
+                                elements, backlog);
+            double sharded = run(new ShardedPriorityDelayQueue<Integer>(PRIORITIES, shards, 30, TimeUnit.SECONDS,
+                                                                        -1), threads, elements, backlog);
+            System.out.println(threads + "\t" + (long) single + "\t" + (long) sharded);
+        }
+    }
+
+    private static double run(final BlockingQueue<QueueElement<Integer>> queue, int threads, int elements,
+                              int backlog) throws Exception {
+        for (int i = 0; i < backlog; i++) {
+            queue.offer(new QueueElement<Integer>(i, i % PRIORITIES, 1, TimeUnit.HOURS));
+        }
+        final int perThread = elements / threads;
+        final AtomicInteger pending = new AtomicInteger(perThread * threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads * 2);
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < perThread; j++) {
+                            queue.offer(new QueueElement<Integer>(j, j % PRIORITIES, 0, TimeUnit.MILLISECONDS));
+                        }
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        while (pending.get() > 0) {
+                            if (queue.poll() != null) {
+                                pending.decrementAndGet();
+                            }
+                        }
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        long time = System.nanoTime();
+        start.countDown();
+        done.await();
+        time = System.nanoTime() - time;
+        queue.clear();
+        return (perThread * threads * 2) / (time / 1000000d);
+    }
+
+}
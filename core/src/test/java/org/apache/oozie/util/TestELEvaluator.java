@@ -14,6 +14,7 @@
  */
 package org.apache.oozie.util;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.test.XTestCase;
 
 import javax.servlet.jsp.el.ELException;
@@ -164,4 +165,64 @@ public class TestELEvaluator extends XTestCase {
         }
     }
 
+    public void testSharedContext() throws Exception {
+        Map<String, Object> constants = new HashMap<String, Object>();
+        constants.put("a", "X");
+        constants.put("c", "C");
+        Map<String, Method> functions = new HashMap<String, Method>();
+        functions.put("a:a", functionA);
+        ELEvaluator.Context support = new ELEvaluator.Context(constants, functions);
+        Configuration conf = new Configuration(false);
+        conf.set("a", "Y");
+        conf.set("b", "B");
+        conf.set("c", "Z");
+        support.setConfiguration(conf);
+
+        // context variables, then configuration, then constants
+        assertEquals("Y", support.getVariable("a"));
+        support.setVariable("a", "A");
+        assertEquals("A", support.getVariable("a"));
+        assertEquals("B", support.resolveVariable("b"));
+        assertEquals("Z", support.resolveVariable("c"));
+        support.setConfiguration(null);
+        assertEquals("C", support.resolveVariable("c"));
+        support.setConfiguration(conf);
+        assertEquals(functionA, support.resolveFunction("a", "a"));
+        try {
+            support.resolveVariable("d");
+            fail();
+        }
+        catch (ELException ex) {
+            //nop
+        }
+
+        ELEvaluator evaluator = new ELEvaluator(support);
+        assertEquals("ABZa", evaluator.evaluate("${a}${b}${c}${a:a()}", String.class));
+
+        // the configuration is not copied
+        conf.set("b", "BB");
+        assertEquals("BB", evaluator.evaluate("${b}", String.class));
+
+        // the shared constants and functions are not modified by the context
+        support.addFunction("b", "b", functionA);
+        assertEquals(1, functions.size());
+        assertEquals(2, constants.size());
+    }
+
+    public void testExpressionCache() throws Exception {
+        Object parsed = ELEvaluator.parse("${a}-${b}");
+        assertSame(parsed, ELEvaluator.parse("${a}-${b}"));
+        assertEquals("a", ELEvaluator.parse("a"));
+
+        ELEvaluator.Context support = new ELEvaluator.Context();
+        support.setVariable("a", "A");
+        support.setVariable("b", 1);
+        ELEvaluator evaluator = new ELEvaluator(support);
+        assertEquals("A-1", evaluator.evaluate("${a}-${b}", String.class));
+        support.setVariable("b", 2);
+        assertEquals("A-2", evaluator.evaluate("${a}-${b}", String.class));
+        assertEquals(new Integer(3), evaluator.evaluate("${b + 1}", Integer.class));
+        assertEquals(Boolean.TRUE, evaluator.evaluate("${b eq 2}", Boolean.class));
+    }
+
 }
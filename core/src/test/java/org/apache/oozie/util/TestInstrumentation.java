@@ -18,6 +18,7 @@ import org.apache.oozie.test.XTestCase;
 
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TestInstrumentation extends XTestCase {
     private static final long INTERVAL = 300;
@@ -132,6 +133,102 @@ public class TestInstrumentation extends XTestCase {
         assertEquals(cron2.getTotal(), timer.getTotalMax());
     }
 
+    private static Instrumentation.Cron createCron(final long time) {
+        return new Instrumentation.Cron() {
+            @Override
+            public long getOwn() {
+                return time;
+            }
+
+            @Override
+            public long getTotal() {
+                return time;
+            }
+        };
+    }
+
+    public void testTimerPercentiles() throws Exception {
+        Instrumentation.Timer timer = new Instrumentation.Timer();
+        assertEquals(0, timer.getTotalPercentile(99));
+
+        for (int i = 1; i <= 1000; i++) {
+            timer.addCron(createCron(i));
+        }
+        assertEquals(1000, timer.getTicks());
+        assertEquals(1, timer.getTotalMin());
+        assertEquals(1000, timer.getTotalMax());
+        // percentiles are accurate within 1/32 of the value
+        assertEquals(500, timer.getTotalPercentile(50), 500 / 32);
+        assertEquals(950, timer.getTotalPercentile(95), 950 / 32);
+        assertEquals(990, timer.getTotalPercentile(99), 990 / 32);
+        assertEquals(1000, timer.getTotalPercentile(100));
+
+        // small values are exact
+        Instrumentation.Timer small = new Instrumentation.Timer();
+        for (int i = 0; i < 10; i++) {
+            small.addCron(createCron(i));
+        }
+        assertEquals(4, small.getTotalPercentile(50));
+        assertEquals(9, small.getTotalPercentile(99.9));
+
+        // the snapshot keeps the percentiles of the time it was taken
+        Instrumentation.Timer snapshot = small.getValue();
+        small.addCron(createCron(1000));
+        assertEquals(9, snapshot.getTotalPercentile(100));
+        assertEquals(1000, small.getTotalPercentile(100));
+    }
+
+    public void testInstrumentationHandles() throws Exception {
+        Instrumentation inst = new Instrumentation();
+        Instrumentation.Counter counter = inst.getCounter("a", "1");
+        assertSame(counter, inst.getCounter("a", "1"));
+        counter.incr(2);
+        inst.incr("a", "1", 3);
+        assertEquals(new Long(5), inst.getCounters().get("a").get("1").getValue());
+
+        Instrumentation.Timer timer = inst.getTimer("a", "1");
+        assertSame(timer, inst.getTimer("a", "1"));
+        timer.addCron(createCron(10));
+        inst.addCron("a", "1", createCron(20));
+        assertEquals(2, inst.getTimers().get("a").get("1").getValue().getTicks());
+        assertEquals(30, inst.getTimers().get("a").get("1").getValue().getTotal());
+    }
+
+    public void testConcurrentUpdates() throws Exception {
+        final Instrumentation inst = new Instrumentation();
+        final int iterations = 100000;
+        final AtomicLong expectedTime = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    Instrumentation.Counter counter = inst.getCounter("a", "1");
+                    for (int j = 0; j < iterations; j++) {
+                        if (j % 2 == 0) {
+                            counter.incr(1);
+                        }
+                        else {
+                            inst.incr("a", "1", 1);
+                        }
+                        long time = j % 100;
+                        inst.addCron("a", "1", createCron(time));
+                        expectedTime.addAndGet(time);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(new Long(threads.length * iterations), inst.getCounters().get("a").get("1").getValue());
+        Instrumentation.Timer timer = inst.getTimers().get("a").get("1").getValue();
+        assertEquals(threads.length * iterations, timer.getTicks());
+        assertEquals(expectedTime.get(), timer.getTotal());
+        assertEquals(0, timer.getTotalMin());
+        assertEquals(99, timer.getTotalMax());
+    }
+
     public void testInstrumentationCounter() throws Exception {
         Instrumentation inst = new Instrumentation();
         assertEquals(0, inst.getCounters().size());
@@ -94,4 +94,57 @@ public class TestLogStreamer extends XTestCase {
         assertEquals(true, out[2].contains("_L4_"));
         assertEquals(true, out[3].contains("_L7_"));
     }
+
+    public void testStreamLogWithIndex() throws IOException {
+        long currTime = System.currentTimeMillis();
+        XLogStreamer.Filter.reset();
+        XLogStreamer.Filter.defineParameter("USER");
+        XLogStreamer.Filter.defineParameter("GROUP");
+        XLogStreamer.Filter.defineParameter("TOKEN");
+        XLogStreamer.Filter.defineParameter("APP");
+        XLogStreamer.Filter.defineParameter("JOB");
+        XLogStreamer.Filter.defineParameter("ACTION");
+        XLogStreamer.Filter xf = new XLogStreamer.Filter();
+        xf.setParameter("JOB", "14-200904160239--example-forkjoinwf");
+
+        FileWriter fw1 = new FileWriter(getTestCaseDir() + "/test.log.1");
+        StringBuilder sb1 = new StringBuilder();
+        sb1.append("2009-06-24 02:43:13,958 DEBUG _L1_:323 - USER[oozie] GROUP[-] TOKEN[-] APP[example-forkjoinwf] JOB[14-200904160239--example-forkjoinwf] ACTION[-] End workflow state change");
+        sb1.append("\n2009-06-24 02:43:13,961  INFO _L2_:317 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[15-200904160239--example-forkjoinwf] ACTION[-] Other job");
+        sb1.append("\n2009-06-24 02:43:13,986  WARN _L3_:539 - USER[-] GROUP[-] TOKEN[-] APP[example-forkjoinwf] JOB[14-200904160239--example-forkjoinwf] ACTION[-] Multi line \n_L3A_Continuation");
+        sb1.append("\n2009-06-24 02:43:14,505  INFO _L4_:317 - USER[oozie] GROUP[oozie] TOKEN[-] APP[-] JOB[-] ACTION[-]  Released Lock\n");
+        fw1.write(sb1.toString());
+        fw1.close();
+        File f1 = new File(getTestCaseDir() + "/test.log.1");
+        f1.setLastModified(currTime - 8000);
+
+        FileWriter fw2 = new FileWriter(getTestCaseDir() + "/test.log");
+        fw2.write("2009-06-24 02:43:29,151 DEBUG _L5_:323 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[14-200904160239--example-forkjoinwf] ACTION[-] Number of pending actions [0] \n");
+        fw2.close();
+
+        XLogIndex index = new XLogIndex(f1, "JOB");
+        assertEquals(2, index.build());
+        assertTrue(index.isValid());
+
+        StringWriter sw = new StringWriter();
+        XLogStreamer str = new XLogStreamer(xf, sw, getTestCaseDir(), "test.log", 1, "JOB");
+        str.streamLog(null, null);
+        String[] out = sw.toString().split("\n");
+        assertEquals(4, out.length);
+        assertTrue(out[0].contains("_L1_"));
+        assertTrue(out[1].contains("_L3_"));
+        assertTrue(out[2].contains("_L3A_"));
+        assertTrue(out[3].contains("_L5_"));
+
+        // the index is not used if the log file changed after indexing it
+        FileWriter fw3 = new FileWriter(getTestCaseDir() + "/test.log.1", true);
+        fw3.write("2009-06-24 02:43:15,000 DEBUG _L6_:323 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[14-200904160239--example-forkjoinwf] ACTION[-] Appended\n");
+        fw3.close();
+        assertFalse(index.isValid());
+        sw = new StringWriter();
+        str = new XLogStreamer(xf, sw, getTestCaseDir(), "test.log", 1, "JOB");
+        str.streamLog(null, null);
+        assertEquals(5, sw.toString().split("\n").length);
+        assertTrue(sw.toString().contains("_L6_"));
+    }
 }
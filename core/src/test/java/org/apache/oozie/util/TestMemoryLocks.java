@@ -214,4 +214,76 @@ public class TestMemoryLocks extends XTestCase {
         assertEquals("a:1-L a:1-U a:2-L a:2-U", sb.toString().trim());
     }
 
+    public void testLockEntryRemoval() throws Exception {
+        MemoryLocks.LockToken t1 = locks.getWriteLock("a", -1);
+        MemoryLocks.LockToken t2 = locks.getWriteLock("a", -1);
+        MemoryLocks.LockToken t3 = locks.getReadLock("b", -1);
+        assertEquals(2, locks.size());
+        t1.release();
+        assertEquals(2, locks.size());
+        t2.release();
+        assertEquals(1, locks.size());
+        t3.release();
+        assertEquals(0, locks.size());
+
+        MemoryLocks.LockToken t4 = locks.getWriteLock("a", 0);
+        assertNotNull(t4);
+        assertEquals(1, locks.size());
+        t4.release();
+        assertEquals(0, locks.size());
+    }
+
+    public void testLockContention() throws Exception {
+        final int threads = 10;
+        final int[] counter = new int[1];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < 1000; j++) {
+                            MemoryLocks.LockToken token = locks.getWriteLock("a" + (j % 3), -1);
+                            counter[0]++;
+                            token.release();
+                        }
+                    }
+                    catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * 1000, counter[0]);
+        assertEquals(0, locks.size());
+    }
+
+    public void testWaitTimeHistogram() throws Exception {
+        StringBuffer sb = new StringBuffer("");
+        Locker l1 = new WriteLocker("a", 1, -1, sb);
+        Locker l2 = new ReadLocker("a", 2, -1, sb);
+        new Thread(l1).start();
+        Thread.sleep(500);
+        assertNull(locks.getWriteLock("a", 0));
+        assertEquals(1, locks.getTimeouts(MemoryLocks.Type.WRITE));
+        assertEquals(0, locks.getTimeouts(MemoryLocks.Type.READ));
+        new Thread(l2).start();
+        Thread.sleep(200);
+        l1.finish();
+        Thread.sleep(200);
+        l2.finish();
+        Thread.sleep(200);
+
+        long[] writes = locks.getWaitTimeHistogram(MemoryLocks.Type.WRITE);
+        long[] reads = locks.getWaitTimeHistogram(MemoryLocks.Type.READ);
+        assertEquals(MemoryLocks.WAIT_TIME_BUCKETS.length + 1, writes.length);
+        assertEquals(1, writes[0]);
+        // the read lock waited for about 200ms, bucket (100, 500]
+        assertEquals(1, reads[5]);
+        assertEquals(0, locks.size());
+    }
+
 }
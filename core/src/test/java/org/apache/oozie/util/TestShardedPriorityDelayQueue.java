@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import junit.framework.TestCase;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
+
+public class TestShardedPriorityDelayQueue extends TestCase {
+
+    public void testQueueConstructor() throws Exception {
+        try {
+            new ShardedPriorityDelayQueue<Integer>(0, 1, 1000, TimeUnit.MILLISECONDS, -1);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            new ShardedPriorityDelayQueue<Integer>(1, 0, 1000, TimeUnit.MILLISECONDS, -1);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            new ShardedPriorityDelayQueue<Integer>(1, 1, 1000, TimeUnit.MILLISECONDS, 0);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            new ShardedPriorityDelayQueue<Integer>(1, 1, 1000, TimeUnit.MILLISECONDS, -2);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+
+    public void testBoundUnboundQueueSize() {
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(1, 4, 1000, TimeUnit.MILLISECONDS, -1);
+        assertEquals(1, q.getPriorities());
+        assertEquals(4, q.getShards());
+        assertEquals(-1, q.getMaxSize());
+        assertEquals(1000, q.getMaxWait(TimeUnit.MILLISECONDS));
+        assertEquals(0, q.size());
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(3, q.size());
+
+        q = new ShardedPriorityDelayQueue<Integer>(1, 4, 1000, TimeUnit.MILLISECONDS, 1);
+        assertEquals(1, q.getMaxSize());
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(1, q.size());
+        assertFalse(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(1, q.size());
+        assertNotNull(q.poll());
+        assertEquals(0, q.size());
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(1, q.size());
+    }
+
+    public void testPoll() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(3, 4, 500, TimeUnit.MILLISECONDS, -1);
+
+        q.offer(new QueueElement<Integer>(1));
+        assertEquals((Integer) 1, q.poll().getElement());
+        assertEquals(0, q.size());
+
+        q.offer(new QueueElement<Integer>(2, 0, 10, TimeUnit.MILLISECONDS));
+        assertNull(q.poll());
+        Thread.sleep(11);
+        assertEquals((Integer) 2, q.poll().getElement());
+        assertEquals(0, q.size());
+
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(20, 1, 0, TimeUnit.MILLISECONDS));
+
+        assertEquals((Integer) 30, q.poll().getElement());
+        assertEquals((Integer) 20, q.poll().getElement());
+        assertEquals((Integer) 10, q.poll().getElement());
+        assertEquals(0, q.size());
+
+        q.offer(new QueueElement<Integer>(10, 0, 10, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 20, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(20, 1, 0, TimeUnit.MILLISECONDS));
+
+        assertEquals((Integer) 20, q.poll().getElement());
+        Thread.sleep(10);
+        assertEquals((Integer) 10, q.poll().getElement());
+        Thread.sleep(10);
+        assertEquals((Integer) 30, q.poll().getElement());
+        assertEquals(0, q.size());
+    }
+
+    public void testPollOldestAcrossShards() throws Exception {
+        final ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(1, 8, 500, TimeUnit.MILLISECONDS, -1);
+        for (int i = 0; i < 8; i++) {
+            final int value = i;
+            Thread t = new Thread() {
+                public void run() {
+                    q.offer(new QueueElement<Integer>(value, 0, 10 * value, TimeUnit.MILLISECONDS));
+                }
+            };
+            t.start();
+            t.join();
+        }
+        Thread.sleep(100);
+        for (int i = 0; i < 8; i++) {
+            assertEquals((Integer) i, q.poll().getElement());
+        }
+        assertNull(q.poll());
+    }
+
+    public void testPeek() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(3, 4, 500, TimeUnit.MILLISECONDS, -1);
+
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(20, 1, 0, TimeUnit.MILLISECONDS));
+
+        assertEquals((Integer) 30, q.peek().getElement());
+        assertNotNull(q.poll());
+        assertEquals((Integer) 20, q.peek().getElement());
+        assertNotNull(q.poll());
+        assertEquals((Integer) 10, q.peek().getElement());
+        assertNotNull(q.poll());
+        assertEquals(0, q.size());
+
+        q.offer(new QueueElement<Integer>(30, 2, 200, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(10, 0, 100, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(20, 1, 150, TimeUnit.MILLISECONDS));
+
+        assertEquals((Integer) 10, q.peek().getElement());
+        Thread.sleep(100);
+        assertNotNull(q.poll());
+        assertEquals((Integer) 20, q.peek().getElement());
+        Thread.sleep(50);
+        assertNotNull(q.poll());
+        assertEquals((Integer) 30, q.peek().getElement());
+        Thread.sleep(50);
+        assertNotNull(q.poll());
+        assertEquals(0, q.size());
+    }
+
+    public void testAntiStarvation() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(3, 4, 500, TimeUnit.MILLISECONDS, -1);
+        q.offer(new QueueElement<Integer>(1));
+        q.peek();
+        assertEquals(1, q.sizes()[0]);
+        Thread.sleep(600);
+        q.peek();
+        assertEquals(1, q.sizes()[1]);
+        Thread.sleep(600);
+        q.peek();
+        assertEquals(1, q.sizes()[2]);
+        assertEquals(2, q.poll().getPriority());
+    }
+
+    public void testConcurrency() throws Exception {
+        final int threads = 8;
+        final int elements = 1000;
+        final int priorities = 3;
+        final AtomicInteger pending = new AtomicInteger(threads * elements);
+        final ShardedPriorityDelayQueue<String> queue =
+                new ShardedPriorityDelayQueue<String>(priorities, 4, 100, TimeUnit.MILLISECONDS, -1);
+
+        for (int i = 0; i < threads; i++) {
+            final int count = i;
+            new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < elements; j++) {
+                        queue.offer(new QueueElement<String>(count + " - " + j, (int) (Math.random() * priorities),
+                                                             (int) (Math.random() * 50), TimeUnit.MILLISECONDS));
+                    }
+                }
+            }).start();
+        }
+        Thread[] consumers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            consumers[i] = new Thread(new Runnable() {
+                public void run() {
+                    while (pending.get() > 0) {
+                        if (queue.poll() != null) {
+                            pending.decrementAndGet();
+                        }
+                    }
+                }
+            });
+            consumers[i].start();
+        }
+        for (Thread consumer : consumers) {
+            consumer.join(10000);
+        }
+        assertEquals(0, pending.get());
+        assertEquals(0, queue.size());
+    }
+
+    public void testIterator() throws Exception {
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(3, 4, 500, TimeUnit.MILLISECONDS, -1);
+
+        q.offer(new QueueElement<Integer>(1, 1, 10, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(20, 1, 0, TimeUnit.MILLISECONDS));
+
+        Iterator<QueueElement<Integer>> it = q.iterator();
+        int size = 0;
+        while (it.hasNext()) {
+            it.next();
+            size++;
+        }
+        assertEquals(4, size);
+    }
+
+    public void testClear() {
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(3, 4, 500, TimeUnit.MILLISECONDS, -1);
+        QueueElement<Integer> e = new QueueElement<Integer>(1, 1, 10, TimeUnit.MILLISECONDS);
+        q.offer(e);
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        assertEquals(2, q.size());
+        q.clear();
+        assertEquals(0, q.size());
+        assertTrue(q.offer(e));
+    }
+
+}
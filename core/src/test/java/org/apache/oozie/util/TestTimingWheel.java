@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+public class TestTimingWheel extends TestCase {
+
+    public void testConstructor() {
+        try {
+            new TimingWheel<String>(0, 1, TimeUnit.SECONDS, 0);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+        try {
+            new TimingWheel<String>(10, 0, TimeUnit.SECONDS, 0);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+        try {
+            new TimingWheel<String>(10, 1, TimeUnit.MICROSECONDS, 0);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+    }
+
+    public void testScheduleRemove() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1, TimeUnit.SECONDS, 0);
+        assertEquals(0, wheel.size());
+        wheel.schedule("a", 1000);
+        wheel.schedule("b", 2000);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.contains("a"));
+        wheel.schedule("a", 3000);
+        assertEquals(2, wheel.size());
+        assertTrue(wheel.remove("a"));
+        assertFalse(wheel.remove("a"));
+        assertFalse(wheel.contains("a"));
+        assertEquals(1, wheel.size());
+        assertEquals(Collections.singleton("b"), wheel.keys());
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertEquals(Collections.emptyList(), wheel.expire(10000, 10));
+    }
+
+    public void testExpire() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1, TimeUnit.SECONDS, 0);
+        wheel.schedule("a", 1500);
+        wheel.schedule("b", 2000);
+        wheel.schedule("c", 3000);
+        assertEquals(Collections.emptyList(), wheel.expire(1000, 10));
+        assertEquals(Arrays.asList("a"), wheel.expire(1500, 10));
+        assertEquals(Arrays.asList("b"), wheel.expire(2500, 10));
+        wheel.schedule("c", 4000);
+        assertEquals(Collections.emptyList(), wheel.expire(3500, 10));
+        assertEquals(Arrays.asList("c"), wheel.expire(4000, 10));
+        assertEquals(0, wheel.size());
+    }
+
+    public void testExpireWithinTick() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1, TimeUnit.SECONDS, 0);
+        wheel.schedule("a", 1200);
+        wheel.schedule("b", 1800);
+        assertEquals(Arrays.asList("a"), wheel.expire(1500, 10));
+        assertEquals(Arrays.asList("b"), wheel.expire(1900, 10));
+    }
+
+    public void testExpirePastDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1, TimeUnit.SECONDS, 5000);
+        wheel.schedule("a", 1000);
+        assertEquals(Arrays.asList("a"), wheel.expire(5000, 10));
+    }
+
+    public void testExpireBeyondTurn() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1, TimeUnit.SECONDS, 0);
+        wheel.schedule("a", 25000);
+        wheel.schedule("b", 5000);
+        assertEquals(Arrays.asList("b"), wheel.expire(15000, 10));
+        assertEquals(Collections.emptyList(), wheel.expire(24000, 10));
+        assertEquals(Arrays.asList("a"), wheel.expire(25000, 10));
+    }
+
+    public void testExpireMax() {
+        TimingWheel<String> wheel = new TimingWheel<String>(10, 1, TimeUnit.SECONDS, 0);
+        wheel.schedule("a", 1000);
+        wheel.schedule("b", 1000);
+        wheel.schedule("c", 2000);
+        wheel.schedule("d", 3000);
+        assertEquals(Arrays.asList("a", "b"), wheel.expire(5000, 2));
+        wheel.schedule("e", 1000);
+        assertEquals(Arrays.asList("c", "e", "d"), wheel.expire(5000, 10));
+        assertEquals(Collections.emptyList(), wheel.expire(5000, 0));
+        assertEquals(0, wheel.size());
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.List;
+
+import org.apache.oozie.test.XTestCase;
+
+public class TestXLogIndex extends XTestCase {
+
+    private static final String JOB1 = "0000001-100101000000000-oozie-user-W";
+    private static final String JOB2 = "0000002-100101000000000-oozie-user-C";
+
+    private String line(String job, String message) {
+        return "2010-01-01 00:00:00,000 DEBUG XCommand:545 - USER[user] GROUP[-] TOKEN[-] APP[app] JOB[" + job
+                + "] ACTION[-] " + message + "\n";
+    }
+
+    private String read(File file, long[] range) throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            byte[] bytes = new byte[(int) (range[1] - range[0])];
+            raf.seek(range[0]);
+            raf.readFully(bytes);
+            return new String(bytes);
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    public void testIndex() throws Exception {
+        File logFile = new File(getTestCaseDir(), "oozie.log.2010-01-01-00");
+        Writer writer = new FileWriter(logFile);
+        writer.write(line(JOB1, "first"));
+        writer.write("continuation\n");
+        writer.write(line("-", "no job"));
+        writer.write(line(JOB2, "second"));
+        StringBuilder padding = new StringBuilder();
+        while (padding.length() <= XLogIndex.MERGE_GAP) {
+            padding.append(line("-", "padding"));
+        }
+        writer.write(padding.toString());
+        writer.write(line(JOB1, "third"));
+        writer.close();
+
+        XLogIndex index = new XLogIndex(logFile, "JOB");
+        assertFalse(index.isValid());
+        assertNull(index.getRanges(JOB1));
+        assertEquals(2, index.build());
+        assertTrue(index.isValid());
+        assertTrue(index.getIndexFile().getName().startsWith("."));
+
+        List<long[]> ranges = index.getRanges(JOB1);
+        assertEquals(2, ranges.size());
+        assertEquals(line(JOB1, "first") + "continuation\n", read(logFile, ranges.get(0)));
+        assertEquals(line(JOB1, "third"), read(logFile, ranges.get(1)));
+
+        ranges = index.getRanges(JOB2);
+        assertEquals(1, ranges.size());
+        assertEquals(line(JOB2, "second"), read(logFile, ranges.get(0)));
+
+        assertTrue(index.getRanges("0000003-100101000000000-oozie-user-W").isEmpty());
+
+        // the index is ignored once the log file changes
+        writer = new FileWriter(logFile, true);
+        writer.write(line(JOB2, "fourth"));
+        writer.close();
+        assertFalse(index.isValid());
+        assertNull(index.getRanges(JOB2));
+    }
+
+    public void testLookup() throws Exception {
+        File logFile = new File(getTestCaseDir(), "oozie.log.2010-01-01-00");
+        Writer writer = new FileWriter(logFile);
+        for (int i = 0; i < 5000; i++) {
+            writer.write(line(String.format("%07d-100101000000000-oozie-user-W", i), "message " + i));
+        }
+        writer.close();
+        XLogIndex index = new XLogIndex(logFile, "JOB");
+        assertEquals(5000, index.build());
+        for (int i = 0; i < 5000; i += 7) {
+            String job = String.format("%07d-100101000000000-oozie-user-W", i);
+            List<long[]> ranges = index.getRanges(job);
+            assertEquals(1, ranges.size());
+            assertEquals(line(job, "message " + i), read(logFile, ranges.get(0)));
+        }
+        assertTrue(index.getRanges("0000000").isEmpty());
+        assertTrue(index.getRanges("9999999").isEmpty());
+    }
+
+}
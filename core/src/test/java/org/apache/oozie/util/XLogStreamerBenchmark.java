@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Benchmark of the job log streaming fully scanning the log files against reading the byte ranges given by the log
+ * indexes ({@link XLogIndex}).
+ * <p/>
+ * A set of rotated log files is generated in the given directory with log statements of many jobs, the log of one job
+ * is then streamed from all of them. The time to index the log files is reported too, it is paid once per log file
+ * in the background by the {@link org.apache.oozie.service.XLogIndexService}.
+ * <p/>
+ * It is not run as part of the testcases, run it with:
+ * <p/>
+ * <code>java -cp ... org.apache.oozie.util.XLogStreamerBenchmark [DIR] [FILES] [FILE_SIZE_MB] [JOBS] [RUNS]</code>
+ */
+public class XLogStreamerBenchmark {
+    private static final String LOG_FILE = "oozie.log";
+    private static final String JOB_FORMAT = "%07d-100101000000000-oozie-oozi-W";
+
+    public static void main(String[] args) throws Exception {
+        String dir = (args.length > 0) ? args[0] : System.getProperty("java.io.tmpdir") + "/oozie-log-benchmark";
+        int files = (args.length > 1) ? Integer.parseInt(args[1]) : 24;
+        int fileSize = (args.length > 2) ? Integer.parseInt(args[2]) : 128;
+        int jobs = (args.length > 3) ? Integer.parseInt(args[3]) : 10000;
+        int runs = (args.length > 4) ? Integer.parseInt(args[4]) : 3;
+
+        File logDir = new File(dir);
+        logDir.mkdirs();
+        XLogStreamer.Filter.reset();
+        for (String parameter : new String[]{"USER", "GROUP", "TOKEN", "APP", "JOB", "ACTION"}) {
+            XLogStreamer.Filter.defineParameter(parameter);
+        }
+
+        System.out.println("files=" + files + " fileSize=" + fileSize + "MB jobs=" + jobs + " runs=" + runs);
+        long time = System.currentTimeMillis();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < files; i++) {
+            File file = new File(logDir, LOG_FILE + "." + i);
+            if (file.length() < fileSize * 1024L * 1024L) {
+                generate(file, fileSize * 1024L * 1024L, jobs, new Random(i));
+            }
+            file.setLastModified(now - (files - i) * 1000L);
+        }
+        new FileWriter(new File(logDir, LOG_FILE)).close();
+        System.out.println("generated in " + (System.currentTimeMillis() - time) + " ms");
+
+        time = System.currentTimeMillis();
+        for (int i = 0; i < files; i++) {
+            new XLogIndex(new File(logDir, LOG_FILE + "." + i), "JOB").build();
+        }
+        System.out.println("indexed in " + (System.currentTimeMillis() - time) + " ms");
+
+        System.out.println("job\tlines\tscan(ms)\tindexed(ms)");
+        Random random = new Random();
+        for (int run = 0; run < runs; run++) {
+            String job = String.format(JOB_FORMAT, random.nextInt(jobs));
+            XLogStreamer.Filter filter = new XLogStreamer.Filter();
+            filter.setParameter("JOB", job);
+
+            CountingWriter scanWriter = new CountingWriter();
+            time = System.nanoTime();
+            new XLogStreamer(filter, scanWriter, dir, LOG_FILE, 3600).streamLog(null, null);
+            double scanTime = (System.nanoTime() - time) / 1000000d;
+
+            CountingWriter indexWriter = new CountingWriter();
+            time = System.nanoTime();
+            new XLogStreamer(filter, indexWriter, dir, LOG_FILE, 3600, "JOB").streamLog(null, null);
+            double indexTime = (System.nanoTime() - time) / 1000000d;
+
+            if (scanWriter.lines != indexWriter.lines) {
+                throw new IllegalStateException("Indexed streaming returned [" + indexWriter.lines + "] lines, expected ["
+                        + scanWriter.lines + "]");
+            }
+            System.out.println(job + "\t" + scanWriter.lines + "\t" + String.format("%.2f", scanTime) + "\t"
+                    + String.format("%.2f", indexTime));
+        }
+    }
+
+    private static void generate(File file, long size, int jobs, Random random) throws IOException {
+        Writer writer = new BufferedWriter(new FileWriter(file), 64 * 1024);
+        try {
+            long written = 0;
+            int line = 0;
+            while (written < size) {
+                String job = (line % 10 == 0) ? "-" : String.format(JOB_FORMAT, random.nextInt(jobs));
+                String statement = "2010-01-01 00:00:00,000 DEBUG XCommand:545 - USER[oozi] GROUP[users] TOKEN[-] "
+                        + "APP[benchmark-app] JOB[" + job + "] ACTION[-] Log statement number [" + line + "]\n";
+                if (line % 50 == 0) {
+                    statement += "java.io.IOException: stack trace line\n\tat org.apache.oozie.Benchmark(" + line
+                            + ")\n";
+                }
+                writer.write(statement);
+                written += statement.length();
+                line++;
+            }
+        }
+        finally {
+            writer.close();
+        }
+    }
+
+    private static class CountingWriter extends Writer {
+        private long lines;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (cbuf[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void write(String str) {
+            for (int i = 0; i < str.length(); i++) {
+                if (str.charAt(i) == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -23,6 +23,8 @@ import org.apache.oozie.util.WritableUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.ErrorCode;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -705,6 +707,90 @@ public class TestLiteWorkflowLib extends XTestCase {
     }
 
 
+    public void testJobPersistanceOriginalFormat() throws Exception {
+        LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>", new StartNodeDef("one"))
+                .addNode(new NodeDef("one", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"end"})))
+                .addNode(new EndNodeDef("end"));
+        XConfiguration conf = new XConfiguration();
+        conf.set("x", "X");
+
+        //the format written before the compact format
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dOut = new DataOutputStream(baos);
+        dOut.writeUTF("1");
+        ByteArrayOutputStream confBaos = new ByteArrayOutputStream();
+        conf.writeXml(confBaos);
+        dOut.writeInt(confBaos.size());
+        dOut.write(confBaos.toByteArray());
+        def.write(dOut);
+        dOut.writeUTF(WorkflowInstance.Status.RUNNING.toString());
+        dOut.writeInt(1);
+        dOut.writeUTF("/");
+        dOut.writeUTF("one");
+        dOut.writeBoolean(true);
+        dOut.writeInt(1);
+        dOut.writeUTF("a");
+        dOut.writeUTF("A");
+        dOut.close();
+
+        LiteWorkflowInstance job = WritableUtils.fromByteArray(baos.toByteArray(), LiteWorkflowInstance.class);
+        assertEquals("1", job.getId());
+        assertEquals("X", job.getConf().get("x"));
+        assertEquals("wf", job.getApp().getName());
+        assertEquals(WorkflowInstance.Status.RUNNING, job.getStatus());
+        assertEquals("A", job.getVar("a"));
+
+        //rewritten in the compact format
+        job = WritableUtils.fromByteArray(WritableUtils.toByteArray(job), LiteWorkflowInstance.class);
+        assertEquals("X", job.getConf().get("x"));
+        assertEquals("A", job.getVar("a"));
+        job.signal("/", "");
+        assertEquals(WorkflowInstance.Status.SUCCEEDED, job.getStatus());
+    }
+
+    public void testJobPersistanceCompactFormat() throws Exception {
+        StringBuilder sb = new StringBuilder("<worklfow-app>");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("<!-- padding -->");
+        }
+        sb.append("</worklfow-app>");
+        LiteWorkflowApp def = new LiteWorkflowApp("wf", sb.toString(), new StartNodeDef("one"))
+                .addNode(new NodeDef("one", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"end"})))
+                .addNode(new EndNodeDef("end"));
+        XConfiguration conf = new XConfiguration();
+        conf.set("x", "X");
+        for (int i = 0; i < 100; i++) {
+            conf.set("padding." + i, sb.toString().substring(0, 100));
+        }
+
+        LiteWorkflowInstance job1 = new LiteWorkflowInstance(def, conf, "1");
+        LiteWorkflowInstance job2 = new LiteWorkflowInstance(def, conf, "2");
+        byte[] array1 = WritableUtils.toByteArray(job1);
+        byte[] array2 = WritableUtils.toByteArray(job2);
+
+        //the definition and the configuration are referred by ID, they are stored with the job
+        assertTrue(array1.length < 200);
+        assertEquals(job1.removeUnstoredDefinition().getId(), job2.removeUnstoredDefinition().getId());
+        assertEquals("1", job1.removeUnstoredConfiguration().getJobId());
+        assertNull(job1.removeUnstoredConfiguration());
+        job1 = WritableUtils.fromByteArray(array1, LiteWorkflowInstance.class);
+        job2 = WritableUtils.fromByteArray(array2, LiteWorkflowInstance.class);
+        assertSame(job1.getApp(), job2.getApp());
+        assertEquals(sb.toString(), job1.getApp().getDefinition());
+        assertEquals("X", job1.getConf().get("x"));
+        assertEquals("2", job2.getId());
+
+        //each instance has its own configuration
+        assertNotSame(job1.getConf(), job2.getConf());
+        assertEquals("X", job2.getConf().get("x"));
+
+        //the job configuration is not rewritten on transitions
+        job1.start();
+        assertTrue(WritableUtils.toByteArray(job1).length < 200);
+        assertNull(job1.removeUnstoredDefinition());
+        assertNull(job1.removeUnstoredConfiguration());
+    }
+
     public void testImmediateError() throws WorkflowException {
         LiteWorkflowApp workflowDef = new LiteWorkflowApp("testWf", "<worklfow-app/>", new StartNodeDef("one"))
                 .addNode(new NodeDef("one", null, SynchNodeHandler.class, Arrays.asList(new String[]{"two"})))
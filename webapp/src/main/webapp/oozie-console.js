@@ -151,6 +151,42 @@ function getPagingBar(dataStore) {
     return pagingBar;
 }
 
+// Page a jobs store with cursors instead of offsets, the cursor of each page is remembered
+// when the previous page is loaded. Pages without a known cursor (i.e. 'last page') fall back
+// to offsets. Cursors are dropped when the filter changes.
+function enableCursorPaging(dataStore) {
+    dataStore.cursors = {};
+    dataStore.cursorFilter = null;
+    dataStore.on('beforeload', function(store, options) {
+        var params = options.params || {};
+        options.params = params;
+        if (store.cursorFilter !== store.baseParams.filter) {
+            store.cursors = {};
+            store.cursorFilter = store.baseParams.filter;
+        }
+        var offset = params.offset || 0;
+        delete params.cursor;
+        delete params.count;
+        if (offset == 0) {
+            params.cursor = '';
+        }
+        else if (store.cursors[offset] !== undefined) {
+            params.cursor = store.cursors[offset];
+        }
+        if (params.cursor !== undefined) {
+            params.count = 'true';
+        }
+        return true;
+    });
+    dataStore.on('load', function(store, records, options) {
+        var params = options.params || {};
+        var json = store.reader.jsonData;
+        if (params.cursor !== undefined && json && json.cursor) {
+            store.cursors[(params.offset || 0) + (params.len || records.length)] = json.cursor;
+        }
+    });
+}
+
 // stuff to show details of a job
 function jobDetailsPopup(response, request) {
     var jobDefinitionArea = new Ext.form.TextArea({
@@ -936,6 +972,8 @@ var coord_jobs_store = new Ext.data.JsonStore({
     })
 });
 coord_jobs_store.proxy.conn.method = "GET";
+enableCursorPaging(coord_jobs_store);
+enableCursorPaging(jobs_store);
 // Stores
 // create the data store
 var jobs_store = new Ext.data.JsonStore({
@@ -952,6 +990,7 @@ var jobs_store = new Ext.data.JsonStore({
     })
 });
 jobs_store.proxy.conn.method = "GET";
+enableCursorPaging(jobs_store);
 var configGridData = new Ext.data.JsonStore({
     data: {
         elements: []